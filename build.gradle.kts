@@ -18,6 +18,9 @@ dependencies {
     // 2. 引入 Jackson，用于后续解析 Postman 的 JSON 导出文件
     implementation("com.fasterxml.jackson.core:jackson-databind:2.17.0")
 
+    // 与无界面运行器共用的模型、传输层和压测引擎
+    implementation(project(":core"))
+
     intellijPlatform {
         // 3. 将开发环境指定为 2024.2.4 (这是一个非常稳定的版本)
         // 不要使用 2025.1，那是 EAP 测试版，很不稳定且受众少
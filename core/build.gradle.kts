@@ -0,0 +1,44 @@
+plugins {
+    id("java-library")
+}
+
+repositories {
+    mavenCentral()
+    // 只为模型上的 xmlb 持久化注解 (见下)
+    maven("https://www.jetbrains.com/intellij-repository/releases")
+}
+
+dependencies {
+    implementation("com.fasterxml.jackson.core:jackson-databind:2.17.0")
+    compileOnly("org.jetbrains:annotations:24.1.0")
+
+    // 插件按模型上的 xmlb 注解 (@Tag / @Attribute ...) 持久化集合，注解决定了已保存文件的格式，只能保留。
+    // 只在编译期引入注解所在的 jar，不带传递依赖；运行器里找不到注解类时 JVM 直接忽略，不会加载任何 IDE 的类
+    compileOnly("com.jetbrains.intellij.platform:util:242.23726.103") {
+        isTransitive = false
+    }
+
+    testImplementation("junit:junit:4.13.2")
+}
+
+tasks {
+    withType<JavaCompile> {
+        sourceCompatibility = "21"
+        targetCompatibility = "21"
+    }
+
+    // core 要同时给插件和无界面运行器用：除了 xmlb 持久化注解，不允许引用 IDE 的类
+    val checkNoIdeImports by registering {
+        val sources = fileTree("src/main/java")
+        inputs.files(sources)
+        doLast {
+            val offenders = sources.filter { file ->
+                file.readLines().any { it.startsWith("import com.intellij.") && !it.startsWith("import com.intellij.util.xmlb.annotations.") }
+            }
+            if (!offenders.isEmpty) throw GradleException("core must not import IDE classes: ${offenders.files}")
+        }
+    }
+    named("compileJava") {
+        dependsOn(checkNoIdeImports)
+    }
+}
@@ -24,6 +24,14 @@ public class CollectionNode {
     @Property(surroundWithTag = false) // 直接展开，不包裹多余的 tag
     private SavedRequest request;
 
+    // [新增] 文件夹级的压测配置 (文件夹下的请求没有自己的配置时使用)
+    @Property(surroundWithTag = false)
+    private LoadProfile loadProfile;
+
+    // [新增] 文件夹作为场景参与上级文件夹的场景压测时的权重 (按权重随机挑选场景)
+    @Attribute("loadWeight")
+    private int loadWeight = 1;
+
     // 关键点：显式告诉 IDEA 这是一个集合，并且元素的 tag 是 "node" (递归)
     @Tag("children")
     @XCollection(propertyElementName = "children", elementName = "node", style = XCollection.Style.v2)
@@ -63,6 +71,12 @@ public class CollectionNode {
     public SavedRequest getRequest() { return request; }
     public void setRequest(SavedRequest request) { this.request = request; }
 
+    public LoadProfile getLoadProfile() { return loadProfile; }
+    public void setLoadProfile(LoadProfile loadProfile) { this.loadProfile = loadProfile; }
+
+    public int getLoadWeight() { return loadWeight; }
+    public void setLoadWeight(int loadWeight) { this.loadWeight = loadWeight; }
+
     public List<CollectionNode> getChildren() { return children; }
     public void setChildren(List<CollectionNode> children) { this.children = children; }
 
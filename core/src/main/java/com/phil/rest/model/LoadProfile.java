@@ -0,0 +1,168 @@
+package com.phil.rest.model;
+
+import com.intellij.util.xmlb.annotations.Attribute;
+import com.intellij.util.xmlb.annotations.Tag;
+import com.intellij.util.xmlb.annotations.XCollection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 保存在请求 / 文件夹上的压测配置。阶段可以用一行一个的文本编辑：
+ * <pre>
+ * ramp 60s 500     # 60 秒内从 0 线性升到 500 req/s
+ * hold 10m 500
+ * spike 30s 2000
+ * soak 2h 300
+ * </pre>
+ */
+@Tag("loadProfile")
+public class LoadProfile {
+
+    /**
+     * 数据文件取行方式：SEQUENTIAL 按顺序各用一次，用完即停止发送；
+     * CIRCULAR 按顺序循环；RANDOM 每次随机取一行
+     */
+    public enum FeederStrategy { SEQUENTIAL, CIRCULAR, RANDOM }
+
+    @Attribute("maxInFlight")
+    private int maxInFlight = 10_000;
+
+    @Attribute("timeoutSeconds")
+    private int timeoutSeconds = 30;
+
+    // [新增] CSV / JSONL 数据文件 (相对路径按项目根目录解析)，为空表示不用数据文件
+    @Attribute("feederPath")
+    private String feederPath;
+
+    @Attribute("feederStrategy")
+    private FeederStrategy feederStrategy = FeederStrategy.CIRCULAR;
+
+    // [新增] 本机 worker 进程数，0 表示在 IDE 进程内发送
+    @Attribute("workers")
+    private int workers = 0;
+
+    @Tag("stages")
+    @XCollection(style = XCollection.Style.v2)
+    private List<LoadStage> stages = new ArrayList<>();
+
+    public LoadProfile() {}
+
+    public static LoadProfile defaultProfile() {
+        LoadProfile profile = new LoadProfile();
+        profile.stages.add(new LoadStage(LoadStage.Kind.RAMP, 10, 50));
+        profile.stages.add(new LoadStage(LoadStage.Kind.HOLD, 20, 50));
+        return profile;
+    }
+
+    public LoadProfile copy() {
+        LoadProfile copy = new LoadProfile();
+        copy.maxInFlight = maxInFlight;
+        copy.timeoutSeconds = timeoutSeconds;
+        copy.feederPath = feederPath;
+        copy.feederStrategy = feederStrategy;
+        copy.workers = workers;
+        for (LoadStage s : stages) copy.stages.add(new LoadStage(s.getKind(), s.getDurationSeconds(), s.getTargetRps()));
+        return copy;
+    }
+
+    public long totalSeconds() {
+        long total = 0;
+        for (LoadStage s : stages) total += s.getDurationSeconds();
+        return total;
+    }
+
+    /**
+     * 阶段的文本形式，每行一个阶段
+     */
+    public String stagesToText() {
+        StringBuilder sb = new StringBuilder();
+        for (LoadStage s : stages) {
+            if (!sb.isEmpty()) sb.append('\n');
+            double rps = s.getTargetRps();
+            sb.append(s.getKind().name().toLowerCase(Locale.ROOT)).append(' ')
+                    .append(formatDuration(s.getDurationSeconds())).append(' ')
+                    .append(rps == Math.floor(rps) ? String.valueOf((long) rps) : String.valueOf(rps));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 解析文本形式的阶段，# 之后为注释
+     *
+     * @throws IllegalArgumentException 格式错误，消息里带行号
+     */
+    public static List<LoadStage> parseStages(String text) {
+        List<LoadStage> result = new ArrayList<>();
+        String[] lines = text.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            int comment = line.indexOf('#');
+            if (comment >= 0) line = line.substring(0, comment);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+
+            String[] parts = line.split("\\s+");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": expected '<ramp|hold|spike|soak> <duration> <rps>'");
+            }
+            LoadStage.Kind kind;
+            try {
+                kind = LoadStage.Kind.valueOf(parts[0].toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": unknown stage '" + parts[0] + "'");
+            }
+            long seconds = parseDuration(parts[1], i + 1);
+            double rps;
+            try {
+                rps = Double.parseDouble(parts[2]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": invalid rate '" + parts[2] + "'");
+            }
+            if (seconds <= 0 || rps < 0) throw new IllegalArgumentException("Line " + (i + 1) + ": duration must be > 0 and rate >= 0");
+            result.add(new LoadStage(kind, seconds, rps));
+        }
+        if (result.isEmpty()) throw new IllegalArgumentException("At least one stage is required");
+        return result;
+    }
+
+    /** 支持 90 / 90s / 10m / 2h / 1h30m */
+    private static long parseDuration(String text, int line) {
+        String t = text.toLowerCase(Locale.ROOT);
+        long total = 0;
+        long number = -1;
+        for (int i = 0; i < t.length(); i++) {
+            char c = t.charAt(i);
+            if (Character.isDigit(c)) {
+                number = (number < 0 ? 0 : number * 10) + (c - '0');
+            } else if (number >= 0 && (c == 'h' || c == 'm' || c == 's')) {
+                total += number * (c == 'h' ? 3600 : c == 'm' ? 60 : 1);
+                number = -1;
+            } else {
+                throw new IllegalArgumentException("Line " + line + ": invalid duration '" + text + "'");
+            }
+        }
+        if (number >= 0) total += number;
+        return total;
+    }
+
+    private static String formatDuration(long seconds) {
+        if (seconds % 3600 == 0) return seconds / 3600 + "h";
+        if (seconds % 60 == 0) return seconds / 60 + "m";
+        return seconds + "s";
+    }
+
+    public int getMaxInFlight() { return maxInFlight; }
+    public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+    public int getTimeoutSeconds() { return timeoutSeconds; }
+    public void setTimeoutSeconds(int timeoutSeconds) { this.timeoutSeconds = timeoutSeconds; }
+    public String getFeederPath() { return feederPath; }
+    public void setFeederPath(String feederPath) { this.feederPath = feederPath; }
+    public FeederStrategy getFeederStrategy() { return feederStrategy; }
+    public void setFeederStrategy(FeederStrategy feederStrategy) { this.feederStrategy = feederStrategy; }
+    public int getWorkers() { return workers; }
+    public void setWorkers(int workers) { this.workers = workers; }
+    public List<LoadStage> getStages() { return stages; }
+    public void setStages(List<LoadStage> stages) { this.stages = stages; }
+}
@@ -0,0 +1,39 @@
+package com.phil.rest.model;
+
+import com.intellij.util.xmlb.annotations.Attribute;
+import com.intellij.util.xmlb.annotations.Tag;
+
+/**
+ * 压测阶段：
+ * RAMP 从上一阶段的速率线性变化到 targetRps；HOLD / SOAK 保持 targetRps (SOAK 只是长时间 HOLD 的标记)；
+ * SPIKE 瞬间跳到 targetRps，结束后回到突刺前的速率
+ */
+@Tag("stage")
+public class LoadStage {
+
+    public enum Kind { RAMP, HOLD, SPIKE, SOAK }
+
+    @Attribute("kind")
+    private Kind kind = Kind.HOLD;
+
+    @Attribute("durationSeconds")
+    private long durationSeconds;
+
+    @Attribute("targetRps")
+    private double targetRps;
+
+    public LoadStage() {}
+
+    public LoadStage(Kind kind, long durationSeconds, double targetRps) {
+        this.kind = kind;
+        this.durationSeconds = durationSeconds;
+        this.targetRps = targetRps;
+    }
+
+    public Kind getKind() { return kind; }
+    public void setKind(Kind kind) { this.kind = kind; }
+    public long getDurationSeconds() { return durationSeconds; }
+    public void setDurationSeconds(long durationSeconds) { this.durationSeconds = durationSeconds; }
+    public double getTargetRps() { return targetRps; }
+    public void setTargetRps(double targetRps) { this.targetRps = targetRps; }
+}
@@ -0,0 +1,25 @@
+package com.phil.rest.model;
+
+/**
+ * 单次请求各阶段耗时 (纳秒)。引擎拿不到的阶段为 -1。
+ *
+ * @param dnsNanos         DNS 解析
+ * @param connectNanos     TCP 建连
+ * @param tlsNanos         TLS 握手
+ * @param sendNanos        写出请求 (头 + Body)
+ * @param waitNanos        请求发出到收到首字节 (TTFB)
+ * @param downloadNanos    首字节到 Body 接收完毕
+ * @param connectionReused 是否复用了已有连接，未知时为 null
+ * @param bytesSent        套接字上实际写出的字节 (含 TLS 开销)，未知时为 -1
+ * @param bytesReceived    套接字上实际读到的字节 (含 TLS 开销)，未知时为 -1
+ * @param engine           产生这份数据的传输引擎
+ */
+public record PhaseTimings(long dnsNanos, long connectNanos, long tlsNanos, long sendNanos, long waitNanos,
+                           long downloadNanos, Boolean connectionReused, long bytesSent, long bytesReceived,
+                           String engine) {
+
+    public long totalNanos() {
+        return Math.max(0, dnsNanos) + Math.max(0, connectNanos) + Math.max(0, tlsNanos)
+                + Math.max(0, sendNanos) + Math.max(0, waitNanos) + Math.max(0, downloadNanos);
+    }
+}
@@ -0,0 +1,156 @@
+package com.phil.rest.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 响应体的只读视图：前 N 字节在内存中，超出部分落盘到临时文件 (按需 mmap)。
+ * 查看器 / Hex / 变量提取只按片读取，不会一次性把整个 Body 读进堆。
+ */
+public final class ResponseBody {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final ResponseBody EMPTY = new ResponseBody(new byte[0], null, 0);
+
+    private final byte[] head;        // 内存部分 [0, head.length)
+    private final Path spillFile;     // 落盘部分 [head.length, length)，可能为 null
+    private final long length;
+
+    private volatile MappedByteBuffer mapped;
+
+    private ResponseBody(byte[] head, Path spillFile, long length) {
+        this.head = head;
+        this.spillFile = spillFile;
+        this.length = length;
+        if (spillFile != null) {
+            // 响应对象被回收时删除临时文件 (action 不能引用 this)
+            CLEANER.register(this, new DeleteFileAction(spillFile));
+        }
+    }
+
+    public static ResponseBody empty() {
+        return EMPTY;
+    }
+
+    public static ResponseBody of(byte[] bytes) {
+        return bytes == null || bytes.length == 0 ? EMPTY : new ResponseBody(bytes, null, bytes.length);
+    }
+
+    public static ResponseBody spilled(byte[] head, Path spillFile, long length) {
+        return new ResponseBody(head, spillFile, length);
+    }
+
+    public long length() { return length; }
+
+    public boolean isEmpty() { return length == 0; }
+
+    public boolean isSpilled() { return spillFile != null; }
+
+    /**
+     * 内存中的字节数 (未落盘时等于 length)
+     */
+    public int inMemoryLength() { return head.length; }
+
+    /**
+     * 读取 [offset, offset + maxLen) 区间，越界部分自动截断
+     */
+    public byte[] slice(long offset, int maxLen) {
+        if (offset < 0 || offset >= length || maxLen <= 0) return new byte[0];
+        int len = (int) Math.min(maxLen, length - offset);
+        byte[] out = new byte[len];
+
+        int copied = 0;
+        if (offset < head.length) {
+            copied = (int) Math.min(len, head.length - offset);
+            System.arraycopy(head, (int) offset, out, 0, copied);
+        }
+        if (copied < len) {
+            long fileOffset = offset + copied - head.length;
+            readFromFile(fileOffset, out, copied, len - copied);
+        }
+        return out;
+    }
+
+    /**
+     * 完整内容。仅在确认 Body 不大时使用
+     */
+    public byte[] toByteArray() {
+        if (!isSpilled()) return head;
+        if (length > Integer.MAX_VALUE - 8) throw new IllegalStateException("Body too large: " + length);
+        return slice(0, (int) length);
+    }
+
+    public InputStream openStream() throws IOException {
+        InputStream headStream = new ByteArrayInputStream(head);
+        if (!isSpilled()) return headStream;
+        return new SequenceInputStream(headStream, Files.newInputStream(spillFile));
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(head);
+        if (isSpilled()) {
+            try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+                channel.transferTo(0, channel.size(), Channels.newChannel(out));
+            }
+        }
+    }
+
+    private void readFromFile(long fileOffset, byte[] dst, int dstOffset, int len) {
+        MappedByteBuffer buffer = mapSpillFile();
+        if (buffer != null) {
+            buffer.slice((int) fileOffset, len).get(dst, dstOffset, len);
+            return;
+        }
+        // 超过 2GB 无法整体映射，退回到按位置读取
+        try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+            ByteBuffer target = ByteBuffer.wrap(dst, dstOffset, len);
+            long pos = fileOffset;
+            while (target.hasRemaining()) {
+                int n = channel.read(target, pos);
+                if (n < 0) break;
+                pos += n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MappedByteBuffer mapSpillFile() {
+        MappedByteBuffer m = mapped;
+        if (m != null) return m;
+        long fileSize = length - head.length;
+        if (fileSize > Integer.MAX_VALUE) return null;
+        synchronized (this) {
+            if (mapped == null) {
+                try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return mapped;
+        }
+    }
+
+    private record DeleteFileAction(Path file) implements Runnable {
+        @Override
+        public void run() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
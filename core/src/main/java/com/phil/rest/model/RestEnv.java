@@ -0,0 +1,56 @@
+package com.phil.rest.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class RestEnv {
+    /** 协议选择。H2C 为明文 HTTP/2 */
+    public enum Protocol { HTTP_1_1, H2, H2C }
+
+    /** INSECURE 信任所有证书 (默认，方便本地自签名)；STRICT 使用 JVM 默认信任库校验 */
+    public enum TlsMode { INSECURE, STRICT }
+
+    public enum RedirectPolicy { NORMAL, ALWAYS, NEVER }
+
+    /** JDK = java.net.http；NIO = 自研 HTTP/1.1 引擎，可看到 DNS / 建连 / TLS 等分阶段耗时 */
+    public enum TransportEngine { JDK, NIO }
+
+    private String id;
+    private String name;
+    private Map<String, String> variables = new HashMap<>();
+
+    // [新增] 连接设置，决定该环境使用哪个 HttpClient
+    private Protocol protocol = Protocol.HTTP_1_1;
+    private TlsMode tlsMode = TlsMode.INSECURE;
+    private RedirectPolicy redirectPolicy = RedirectPolicy.NORMAL;
+    private TransportEngine engine = TransportEngine.JDK;
+
+    public RestEnv() {
+        this.id = UUID.randomUUID().toString();
+    }
+
+    public RestEnv(String name) {
+        this();
+        this.name = name;
+    }
+
+    // Getters & Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public Map<String, String> getVariables() { return variables; }
+    public void setVariables(Map<String, String> variables) { this.variables = variables; }
+    public Protocol getProtocol() { return protocol; }
+    public void setProtocol(Protocol protocol) { this.protocol = protocol; }
+    public TlsMode getTlsMode() { return tlsMode; }
+    public void setTlsMode(TlsMode tlsMode) { this.tlsMode = tlsMode; }
+    public RedirectPolicy getRedirectPolicy() { return redirectPolicy; }
+    public void setRedirectPolicy(RedirectPolicy redirectPolicy) { this.redirectPolicy = redirectPolicy; }
+    public TransportEngine getEngine() { return engine; }
+    public void setEngine(TransportEngine engine) { this.engine = engine; }
+
+    @Override
+    public String toString() { return name; }
+}
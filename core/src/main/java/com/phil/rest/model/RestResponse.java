@@ -0,0 +1,224 @@
+package com.phil.rest.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次响应只保存一份原始字节 (ResponseBody)。
+ * 文本和格式化后的 JSON 按需从字节派生，并用软引用缓存，内存紧张时可被回收后重新计算。
+ */
+public class RestResponse {
+    private static final ObjectMapper PRETTY_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * 本地响应缓存的命中情况：NONE 未启用 / 不可缓存；MISS 走了网络并已写入缓存；
+     * HIT 未过期直接返回；REVALIDATED 服务端 304 确认后返回缓存内容
+     */
+    public enum CacheStatus { NONE, MISS, HIT, REVALIDATED }
+
+    private final int statusCode;
+    private final ResponseBody content;
+    private final Map<String, List<String>> headers;
+    private final long durationMs;
+    private final Charset charset;
+    // [新增] 传输统计：线上字节数与 Content-Encoding
+    private final long wireBytes;
+    private final String contentEncoding;
+    private final boolean decoded;
+    // [新增] 分阶段耗时，引擎不支持时为 null
+    private final PhaseTimings timings;
+    // [新增] 响应缓存：命中情况和省下的线上字节数
+    private CacheStatus cacheStatus = CacheStatus.NONE;
+    private long bytesSaved;
+    // [新增] 在主机并发限制队列里等待的时间，不计入 durationMs (网络耗时)
+    private long queueWaitNanos;
+
+    private volatile SoftReference<String> textRef;
+    private volatile SoftReference<String> prettyRef;
+
+    public RestResponse(int statusCode, ResponseBody content, Map<String, List<String>> headers, long durationMs) {
+        this(statusCode, content, headers, durationMs, content != null ? content.length() : 0, null, true, null);
+    }
+
+    public RestResponse(int statusCode, ResponseBody content, Map<String, List<String>> headers, long durationMs,
+                        long wireBytes, String contentEncoding, boolean decoded, PhaseTimings timings) {
+        this.statusCode = statusCode;
+        this.content = content != null ? content : ResponseBody.empty();
+        this.headers = headers != null ? headers : Map.of();
+        this.durationMs = durationMs;
+        this.charset = resolveCharset(firstHeader(this.headers, "Content-Type"));
+        this.wireBytes = wireBytes;
+        this.contentEncoding = contentEncoding;
+        this.decoded = decoded;
+        this.timings = timings;
+    }
+
+    /**
+     * 复制一份带缓存标记的响应，Body 字节共享
+     */
+    public RestResponse withCache(CacheStatus cacheStatus, long bytesSaved) {
+        RestResponse copy = copy();
+        copy.cacheStatus = cacheStatus;
+        copy.bytesSaved = bytesSaved;
+        return copy;
+    }
+
+    /**
+     * 复制一份带排队耗时的响应，Body 字节共享
+     */
+    public RestResponse withQueueWait(long queueWaitNanos) {
+        RestResponse copy = copy();
+        copy.queueWaitNanos = queueWaitNanos;
+        return copy;
+    }
+
+    private RestResponse copy() {
+        RestResponse copy = new RestResponse(statusCode, content, headers, durationMs, wireBytes, contentEncoding, decoded, timings);
+        copy.cacheStatus = cacheStatus;
+        copy.bytesSaved = bytesSaved;
+        copy.queueWaitNanos = queueWaitNanos;
+        return copy;
+    }
+
+    /**
+     * 网络错误 / 取消等没有真实响应的情况，消息本身作为 Body
+     */
+    public static RestResponse error(String message, long durationMs) {
+        return new RestResponse(0, ResponseBody.of(message.getBytes(StandardCharsets.UTF_8)), Map.of(), durationMs);
+    }
+
+    public int getStatusCode() { return statusCode; }
+    public ResponseBody getContent() { return content; }
+    public Map<String, List<String>> getHeaders() { return headers; }
+    public long getDurationMs() { return durationMs; }
+    public Charset getCharset() { return charset; }
+    public long getWireBytes() { return wireBytes; }
+    public long getDecodedBytes() { return content.length(); }
+    public String getContentEncoding() { return contentEncoding; }
+    public PhaseTimings getTimings() { return timings; }
+    public CacheStatus getCacheStatus() { return cacheStatus; }
+    public long getBytesSaved() { return bytesSaved; }
+    public long getQueueWaitNanos() { return queueWaitNanos; }
+
+    /**
+     * Content-Encoding 是否已被解压；不支持的编码 (如 br) 时 content 为原始压缩字节
+     */
+    public boolean isDecoded() { return decoded; }
+
+    /**
+     * 解压后 / 线上字节数，未压缩时为 1
+     */
+    public double getCompressionRatio() {
+        return wireBytes > 0 ? (double) content.length() / wireBytes : 1.0;
+    }
+
+    /**
+     * body 文本是否只是前段预览 (完整内容需要从 content 按片读取)
+     */
+    public boolean isTruncated() { return content.isSpilled(); }
+
+    /**
+     * 按 Content-Type 的 charset 解码后的文本。落盘的超大响应只解码内存中的部分
+     */
+    public String getBody() {
+        SoftReference<String> ref = textRef;
+        String text = ref != null ? ref.get() : null;
+        if (text == null) {
+            text = decode();
+            textRef = new SoftReference<>(text);
+        }
+        return text;
+    }
+
+    /**
+     * 格式化后的 JSON；非 JSON 或被截断时返回原文本
+     */
+    public String getPrettyBody() {
+        SoftReference<String> ref = prettyRef;
+        String pretty = ref != null ? ref.get() : null;
+        if (pretty == null) {
+            pretty = prettyPrint();
+            prettyRef = new SoftReference<>(pretty);
+        }
+        return pretty;
+    }
+
+    public String getFirstHeader(String name) {
+        return firstHeader(headers, name);
+    }
+
+    // 构造函数里用静态版本，不调用可被覆盖的方法
+    private static String firstHeader(Map<String, List<String>> headers, String name) {
+        for (Map.Entry<String, List<String>> e : headers.entrySet()) {
+            if (name.equalsIgnoreCase(e.getKey()) && !e.getValue().isEmpty()) {
+                return e.getValue().get(0);
+            }
+        }
+        return null;
+    }
+
+    public String getHeadersString() {
+        StringBuilder sb = new StringBuilder();
+        headers.forEach((k, v) -> sb.append(k).append(": ").append(String.join(",", v)).append("\n"));
+        return sb.toString();
+    }
+
+    private String decode() {
+        if (!content.isSpilled()) {
+            return new String(content.toByteArray(), charset);
+        }
+        byte[] head = content.slice(0, content.inMemoryLength());
+        return new String(head, charset)
+                + "\n\n... [truncated: showing first " + head.length + " of " + content.length() + " bytes]";
+    }
+
+    private String prettyPrint() {
+        if (isTruncated() || !looksLikeJson()) return getBody();
+        try {
+            // UTF 系编码直接从字节解析，省掉一次中间字符串
+            if (charset.name().startsWith("UTF")) {
+                try (InputStream in = content.openStream()) {
+                    return PRETTY_MAPPER.writeValueAsString(PRETTY_MAPPER.readTree(in));
+                }
+            }
+            return PRETTY_MAPPER.writeValueAsString(PRETTY_MAPPER.readTree(getBody()));
+        } catch (Exception e) {
+            return getBody();
+        }
+    }
+
+    private boolean looksLikeJson() {
+        byte[] probe = content.slice(0, 64);
+        for (byte b : probe) {
+            if (b == ' ' || b == '\t' || b == '\r' || b == '\n') continue;
+            // 跳过 UTF-8 BOM
+            if (b == (byte) 0xEF || b == (byte) 0xBB || b == (byte) 0xBF) continue;
+            return b == '{' || b == '[';
+        }
+        return false;
+    }
+
+    private static Charset resolveCharset(String contentType) {
+        if (contentType != null) {
+            for (String part : contentType.split(";")) {
+                String p = part.trim();
+                if (p.regionMatches(true, 0, "charset=", 0, 8)) {
+                    String name = p.substring(8).trim().replace("\"", "");
+                    try {
+                        return Charset.forName(name);
+                    } catch (Exception ignored) {
+                        // 未知编码回退到 UTF-8
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+}
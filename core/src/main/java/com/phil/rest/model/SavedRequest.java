@@ -2,6 +2,7 @@ package com.phil.rest.model;
 
 import com.intellij.util.xmlb.annotations.Attribute;
 import com.intellij.util.xmlb.annotations.MapAnnotation;
+import com.intellij.util.xmlb.annotations.Property;
 import com.intellij.util.xmlb.annotations.Tag;
 import com.intellij.util.xmlb.annotations.XCollection;
 
@@ -50,6 +51,10 @@ public class SavedRequest {
     @XCollection(style = XCollection.Style.v2)
     private List<ExtractRule> extractRules = new ArrayList<>();
 
+    // [新增] 保存的压测配置，没有时为 null
+    @Property(surroundWithTag = false)
+    private LoadProfile loadProfile;
+
     public SavedRequest() {}
 
     public SavedRequest(String name, String method, String url) {
@@ -77,6 +82,8 @@ public class SavedRequest {
     public void setAuthContent(Map<String, String> authContent) { this.authContent = authContent; }
     public List<ExtractRule> getExtractRules() { return extractRules; }
     public void setExtractRules(List<ExtractRule> extractRules) { this.extractRules = extractRules; }
+    public LoadProfile getLoadProfile() { return loadProfile; }
+    public void setLoadProfile(LoadProfile loadProfile) { this.loadProfile = loadProfile; }
     public String getBodyType() {  return bodyType; }
     public void setBodyType(String bodyType) { this.bodyType = bodyType; }
 
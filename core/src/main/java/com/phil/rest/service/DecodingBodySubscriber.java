@@ -0,0 +1,255 @@
+package com.phil.rest.service;
+
+import com.phil.rest.model.ResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 边接收边解压 (gzip / deflate)，解压后的数据直接交给下游 (SpillingBodySubscriber)，
+ * 不会先把压缩数据整体缓存。同时统计线上实际传输的字节数。
+ * <p>
+ * JDK 没有 Brotli 解码器，所以只协商 gzip / deflate；服务端仍返回 br 时原样保留。
+ */
+public class DecodingBodySubscriber implements HttpResponse.BodySubscriber<DecodingBodySubscriber.Result> {
+
+    /** 请求时默认携带的 Accept-Encoding */
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * @param wireBytes 线上传输的字节数 (压缩后)
+     * @param encoding  Content-Encoding，identity 时为 null
+     * @param decoded   是否已解压 (不支持的编码为 false，body 即原始字节)
+     */
+    public record Result(ResponseBody body, long wireBytes, String encoding, boolean decoded) {}
+
+    private enum Mode { IDENTITY, GZIP, DEFLATE, UNSUPPORTED }
+
+    private final HttpResponse.BodySubscriber<ResponseBody> downstream;
+    private final String encoding;
+    private final Mode mode;
+
+    private long wireBytes;
+    private Inflater inflater;
+    /** 解压输出缓冲，交给下游之前一直复用 */
+    private byte[] chunk;
+    private final CRC32 crc = new CRC32();
+
+    // gzip 头 / 尾可能被拆在多个 buffer 中，先攒起来
+    private ByteArrayOutputStream gzipHeader = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream gzipTrailer = new ByteArrayOutputStream();
+
+    private Flow.Subscription subscription;
+    private boolean failed;
+
+    public DecodingBodySubscriber(String contentEncoding, HttpResponse.BodySubscriber<ResponseBody> downstream) {
+        this.downstream = downstream;
+        this.encoding = normalize(contentEncoding);
+        this.mode = modeOf(encoding);
+    }
+
+    public static HttpResponse.BodyHandler<Result> handler(long inMemoryLimit) {
+        return info -> new DecodingBodySubscriber(
+                info.headers().firstValue("Content-Encoding").orElse(null),
+                new SpillingBodySubscriber(inMemoryLimit));
+    }
+
+    @Override
+    public CompletionStage<Result> getBody() {
+        return downstream.getBody().thenApply(body -> new Result(body, wireBytes, encoding, mode != Mode.UNSUPPORTED));
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        // 下游按批请求，这里一进一出，背压原样传递
+        downstream.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+        if (failed) return;
+        for (ByteBuffer b : items) wireBytes += b.remaining();
+
+        if (mode == Mode.IDENTITY || mode == Mode.UNSUPPORTED) {
+            downstream.onNext(items);
+            return;
+        }
+        try {
+            List<ByteBuffer> out = new ArrayList<>();
+            for (ByteBuffer b : items) {
+                decode(b, out);
+            }
+            downstream.onNext(out);
+        } catch (IOException | DataFormatException e) {
+            failed = true;
+            subscription.cancel();
+            release();
+            downstream.onError(e instanceof IOException ? e : new IOException("Invalid " + encoding + " stream", e));
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        release();
+        downstream.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (failed) return;
+        try {
+            // 无需解压，或 HEAD / 304 等带 Content-Encoding 但没有 Body 的响应
+            if (mode == Mode.IDENTITY || mode == Mode.UNSUPPORTED || wireBytes == 0) {
+                release();
+                downstream.onComplete();
+                return;
+            }
+            if (mode == Mode.GZIP) verifyGzipTrailer();
+            if (inflater != null && !inflater.finished()) {
+                throw new IOException("Truncated " + encoding + " stream");
+            }
+        } catch (IOException e) {
+            release();
+            downstream.onError(e);
+            return;
+        }
+        release();
+        downstream.onComplete();
+    }
+
+    private void decode(ByteBuffer input, List<ByteBuffer> out) throws IOException, DataFormatException {
+        if (mode == Mode.GZIP && gzipHeader != null) {
+            // 1. 解析 gzip 头
+            while (input.hasRemaining() && gzipHeader != null) {
+                gzipHeader.write(input.get());
+                if (gzipHeaderLength(gzipHeader.toByteArray()) > 0) {
+                    gzipHeader = null;
+                    inflater = new Inflater(true);
+                }
+            }
+            if (!input.hasRemaining()) return;
+        }
+
+        if (inflater == null) {
+            // deflate: 大多数服务端按 RFC 发送 zlib 包装，但也有直接发 raw deflate 的，看首字节判断
+            if (input.remaining() < 2) {
+                inflater = new Inflater(true);
+            } else {
+                int b0 = input.get(input.position()) & 0xFF;
+                int b1 = input.get(input.position() + 1) & 0xFF;
+                boolean zlib = (b0 & 0x0F) == 8 && ((b0 << 8) | b1) % 31 == 0;
+                inflater = new Inflater(!zlib);
+            }
+        }
+
+        // 2. 已解压完毕，剩下的是 gzip 尾 (CRC32 + ISIZE)
+        if (inflater.finished()) {
+            collectTrailer(input);
+            return;
+        }
+
+        inflater.setInput(input);
+        while (!inflater.finished()) {
+            if (chunk == null) chunk = new byte[CHUNK_SIZE];
+            int n = inflater.inflate(chunk);
+            if (n > 0) {
+                if (mode == Mode.GZIP) crc.update(chunk, 0, n);
+                out.add(ByteBuffer.wrap(chunk, 0, n));
+                // 已交给下游，下次有输出时再分配；没产出的那一轮 (needsInput) 不浪费一块缓冲
+                chunk = null;
+            } else if (inflater.needsInput() || inflater.needsDictionary()) {
+                break;
+            }
+        }
+        // inflater 直接消费 input 的位置，结束后多出来的就是尾部
+        if (inflater.finished()) {
+            collectTrailer(input);
+        }
+    }
+
+    private void collectTrailer(ByteBuffer input) {
+        while (input.hasRemaining()) {
+            byte b = input.get();
+            if (mode == Mode.GZIP && gzipTrailer.size() < 8) gzipTrailer.write(b);
+        }
+    }
+
+    private void verifyGzipTrailer() throws IOException {
+        byte[] t = gzipTrailer.toByteArray();
+        if (t.length < 8) throw new IOException("Truncated gzip stream");
+        long expectedCrc = readIntLE(t, 0) & 0xFFFFFFFFL;
+        long expectedSize = readIntLE(t, 4) & 0xFFFFFFFFL;
+        if (expectedCrc != crc.getValue() || expectedSize != (inflater.getBytesWritten() & 0xFFFFFFFFL)) {
+            throw new IOException("Corrupt gzip stream (CRC mismatch)");
+        }
+    }
+
+    private void release() {
+        if (inflater != null) inflater.end();
+    }
+
+    /**
+     * @return 完整 gzip 头的长度；数据不足时返回 -1
+     */
+    static int gzipHeaderLength(byte[] h) throws IOException {
+        if (h.length < 10) return -1;
+        if ((h[0] & 0xFF) != 0x1F || (h[1] & 0xFF) != 0x8B || h[2] != 8) {
+            throw new IOException("Not in gzip format");
+        }
+        int flags = h[3] & 0xFF;
+        int pos = 10;
+        if ((flags & 0x04) != 0) { // FEXTRA
+            if (h.length < pos + 2) return -1;
+            pos += 2 + ((h[pos] & 0xFF) | ((h[pos + 1] & 0xFF) << 8));
+        }
+        if ((flags & 0x08) != 0) { // FNAME
+            pos = skipZeroTerminated(h, pos);
+            if (pos < 0) return -1;
+        }
+        if ((flags & 0x10) != 0) { // FCOMMENT
+            pos = skipZeroTerminated(h, pos);
+            if (pos < 0) return -1;
+        }
+        if ((flags & 0x02) != 0) pos += 2; // FHCRC
+        return h.length >= pos ? pos : -1;
+    }
+
+    private static int skipZeroTerminated(byte[] h, int pos) {
+        for (int i = pos; i < h.length; i++) {
+            if (h[i] == 0) return i + 1;
+        }
+        return -1;
+    }
+
+    private static int readIntLE(byte[] b, int off) {
+        return (b[off] & 0xFF) | ((b[off + 1] & 0xFF) << 8) | ((b[off + 2] & 0xFF) << 16) | ((b[off + 3] & 0xFF) << 24);
+    }
+
+    private static String normalize(String contentEncoding) {
+        if (contentEncoding == null) return null;
+        String e = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        return e.isEmpty() || e.equals("identity") ? null : e;
+    }
+
+    private static Mode modeOf(String encoding) {
+        if (encoding == null) return Mode.IDENTITY;
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> Mode.GZIP;
+            case "deflate" -> Mode.DEFLATE;
+            default -> Mode.UNSUPPORTED;
+        };
+    }
+}
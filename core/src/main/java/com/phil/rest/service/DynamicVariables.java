@@ -0,0 +1,134 @@
+package com.phil.rest.service;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 内置动态变量，每次展开生成新值，压测里每次执行都能带上唯一的 key，不需要数据文件：
+ * <ul>
+ *   <li>{@code $uuid} / {@code $guid}：随机 UUID (v4)</li>
+ *   <li>{@code $timestamp}：Unix 秒；{@code $timestampMs}：Unix 毫秒</li>
+ *   <li>{@code $isoNow}：UTC 的 ISO-8601 时间，例如 2024-05-01T08:00:00.123Z</li>
+ *   <li>{@code $randomInt}：0 到 1000；{@code $randomInt(min,max)}：min 到 max (含两端)</li>
+ *   <li>{@code $randomString(len)}：指定长度的字母数字串 (不写长度时 8 位)</li>
+ *   <li>{@code $seq}：本次 IDE / 运行器进程内递增的序号，从 1 开始</li>
+ * </ul>
+ * 随机值都来自 ThreadLocalRandom (每个线程自己的生成器，无锁)，不走 UUID.randomUUID() 的 SecureRandom，
+ * 压测并发时不会在同一把锁上排队；只用于测试数据，不能当作密钥或令牌。
+ * 变量名 (含参数) 第一次出现时解析成生成器并缓存，之后每次只调用生成器。
+ * 环境里定义了同名变量 (例如 "$uuid") 时以环境为准
+ */
+public final class DynamicVariables {
+
+    private static final String ALPHANUMERIC = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final int MAX_STRING_LENGTH = 1024 * 1024;
+    private static final int MAX_CACHED = 1024;
+
+    // 不认识的名字也缓存 (值为 UNKNOWN)，避免每次重新解析
+    private static final Supplier<String> UNKNOWN = () -> null;
+    private static final Map<String, Supplier<String>> GENERATORS = new ConcurrentHashMap<>();
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private DynamicVariables() {
+    }
+
+    /** 以 $ 开头的名字才可能是动态变量 */
+    public static boolean isCandidate(String name) {
+        return !name.isEmpty() && name.charAt(0) == '$';
+    }
+
+    /**
+     * 生成一个新值；不是内置的动态变量 (或参数不合法) 时返回 null，原样保留
+     */
+    public static @Nullable String generate(String name) {
+        if (!isCandidate(name)) return null;
+        Supplier<String> generator = GENERATORS.get(name);
+        if (generator == null) {
+            generator = parse(name);
+            if (GENERATORS.size() >= MAX_CACHED) GENERATORS.clear();
+            GENERATORS.put(name, generator);
+        }
+        return generator.get();
+    }
+
+    private static Supplier<String> parse(String name) {
+        String fn = name.trim();
+        String args = null;
+        int paren = fn.indexOf('(');
+        if (paren > 0) {
+            if (!fn.endsWith(")")) return UNKNOWN;
+            args = fn.substring(paren + 1, fn.length() - 1).trim();
+            fn = fn.substring(0, paren).trim();
+        }
+        try {
+            switch (fn) {
+                case "$uuid", "$guid", "$randomUUID" -> {
+                    return args == null ? DynamicVariables::uuid : UNKNOWN;
+                }
+                case "$timestamp" -> {
+                    return args == null ? () -> Long.toString(System.currentTimeMillis() / 1000) : UNKNOWN;
+                }
+                case "$timestampMs" -> {
+                    return args == null ? () -> Long.toString(System.currentTimeMillis()) : UNKNOWN;
+                }
+                case "$isoNow" -> {
+                    return args == null ? () -> Instant.now().truncatedTo(ChronoUnit.MILLIS).toString() : UNKNOWN;
+                }
+                case "$seq" -> {
+                    return args == null ? () -> Long.toString(SEQUENCE.incrementAndGet()) : UNKNOWN;
+                }
+                case "$randomInt" -> {
+                    long min = 0, max = 1000;
+                    if (args != null) {
+                        String[] bounds = args.split(",");
+                        if (bounds.length != 2) return UNKNOWN;
+                        min = Long.parseLong(bounds[0].trim());
+                        max = Long.parseLong(bounds[1].trim());
+                        if (min > max) return UNKNOWN;
+                    }
+                    long lo = min, hi = max;
+                    if (hi < Long.MAX_VALUE) return () -> Long.toString(ThreadLocalRandom.current().nextLong(lo, hi + 1));
+                    // max = Long.MAX_VALUE 时 hi + 1 溢出，整体下移一位再取
+                    if (lo == Long.MIN_VALUE) return () -> Long.toString(ThreadLocalRandom.current().nextLong());
+                    return () -> Long.toString(ThreadLocalRandom.current().nextLong(lo - 1, hi) + 1);
+                }
+                case "$randomString" -> {
+                    int length = args == null || args.isEmpty() ? 8 : Integer.parseInt(args);
+                    if (length < 0 || length > MAX_STRING_LENGTH) return UNKNOWN;
+                    return () -> randomString(length);
+                }
+                default -> {
+                    return UNKNOWN;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return UNKNOWN;
+        }
+    }
+
+    /** v4 UUID，随机位来自 ThreadLocalRandom */
+    private static String uuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long lsb = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+        return new UUID(msb, lsb).toString();
+    }
+
+    private static String randomString(int length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        byte[] chars = new byte[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (byte) ALPHANUMERIC.charAt(random.nextInt(ALPHANUMERIC.length()));
+        }
+        return new String(chars, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,120 @@
+package com.phil.rest.service;
+
+import com.phil.rest.model.RestParam;
+import com.phil.rest.model.RestResponse;
+import com.phil.rest.model.SavedRequest;
+import com.phil.rest.service.transport.HttpTransport;
+import com.phil.rest.service.transport.TransportRequest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class HttpExecutor {
+
+    private static final CookieManager cookieManager = new CookieManager(null, CookiePolicy.ACCEPT_ALL);
+
+    // [修改] 不再直接持有 HttpClient，具体引擎 (java.net.http / 原生 NIO) 由 HttpClientRegistry 按环境分配
+    private final HttpTransport transport;
+    // [新增] 响应体在内存中保留的上限，超出部分落盘
+    private final long inMemoryLimit;
+
+    public HttpExecutor(HttpTransport transport) {
+        this(transport, SpillingBodySubscriber.DEFAULT_MEMORY_LIMIT);
+    }
+
+    public HttpExecutor(HttpTransport transport, long inMemoryLimit) {
+        this.transport = transport;
+        this.inMemoryLimit = inMemoryLimit;
+    }
+
+    public static void clearCookies() {
+        cookieManager.getCookieStore().removeAll();
+    }
+
+    public static CookieManager getCookieManager() {
+        return cookieManager;
+    }
+
+    public CompletableFuture<RestResponse> executeAsync(
+            String method,
+            String url,
+            String body,
+            List<RestParam> headers,
+            List<RestParam> multipartParams,
+            long timeoutSeconds
+    ) {
+        return executeAsync(method, url, body, headers, multipartParams, timeoutSeconds, null);
+    }
+
+    /**
+     * @param uploadProgress multipart 上传进度回调，可为 null
+     */
+    public CompletableFuture<RestResponse> executeAsync(
+            String method,
+            String url,
+            String body,
+            List<RestParam> headers,
+            List<RestParam> multipartParams,
+            long timeoutSeconds,
+            MultipartBodyPublisher.ProgressListener uploadProgress
+    ) {
+        PreparedRequest prepared;
+        try {
+            prepared = PreparedRequest.of(method, url, body, headers, multipartParams, timeoutSeconds, inMemoryLimit, uploadProgress);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(RestResponse.error("Build Error: " + e.getMessage(), 0));
+        }
+        return send(prepared);
+    }
+
+    /**
+     * 按 SavedRequest + 变量作用域构建可重复发送的请求，响应体内存上限取本执行器的设置
+     */
+    public PreparedRequest prepare(SavedRequest request, VariableScope scope, List<RestParam> multipartParams,
+                                   long timeoutSeconds, MultipartBodyPublisher.ProgressListener uploadProgress) throws IOException {
+        return PreparedRequest.prepare(request, scope, multipartParams, timeoutSeconds, inMemoryLimit, uploadProgress);
+    }
+
+    /**
+     * 发送已构建好的请求 (单次发送)：超时和异常都转换成错误响应，取消结果时把取消传到传输层
+     */
+    public CompletableFuture<RestResponse> send(PreparedRequest prepared) {
+        TransportRequest request = prepared.request();
+        long startTime = System.currentTimeMillis();
+        try {
+            long timeoutMillis = request.timeout().toMillis();
+            CompletableFuture<RestResponse> sent = transport.send(request);
+            CompletableFuture<RestResponse> result = sent
+                    .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                    .exceptionally(ex -> {
+                        long duration = System.currentTimeMillis() - startTime;
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                        // orTimeout 的 TimeoutException 没有 message，直接显示会是 "Error: null"
+                        if (ex instanceof TimeoutException || cause instanceof TimeoutException) {
+                            return RestResponse.error("Request timed out after " + timeoutMillis + " ms", duration);
+                        }
+                        return RestResponse.error("Error: " + cause.getMessage(), duration);
+                    });
+            // 调用方取消时把取消传到传输层，释放合并 / 排队占用的位置并中止连接
+            result.whenComplete((r, ex) -> {
+                if (result.isCancelled()) sent.cancel(true);
+            });
+            return result;
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(RestResponse.error("Error: " + e.getMessage(), 0));
+        }
+    }
+
+    public RestResponse execute(String method, String url, String body, List<RestParam> headers, List<RestParam> multipartParams) {
+        try {
+            return executeAsync(method, url, body, headers, multipartParams, 30).get();
+        } catch (Exception e) {
+            return RestResponse.error("Error: " + e.getMessage(), 0);
+        }
+    }
+}
\ No newline at end of file
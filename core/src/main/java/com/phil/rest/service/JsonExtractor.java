@@ -0,0 +1,99 @@
+package com.phil.rest.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phil.rest.model.ExtractRule;
+import com.phil.rest.model.ResponseBody;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按提取规则从 JSON 响应里取值。不依赖 IDE：插件单次发送时由调用方把结果写进选中的环境，
+ * 压测和无界面运行器写进各自的 {@link VariableScope}
+ */
+public final class JsonExtractor {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonExtractor() {}
+
+    /**
+     * 提取结果只写入给定的作用域 (压测里每个虚拟用户各自一份)，不碰共享的 RestEnv
+     */
+    public static int executeExtraction(ResponseBody content, List<ExtractRule> rules, VariableScope scope) {
+        Map<String, String> values = extract(content, rules);
+        scope.putAll(values);
+        return values.size();
+    }
+
+    /**
+     * 按规则从 JSON 响应里取值，不产生副作用；解析失败或没有命中时返回空表
+     */
+    public static Map<String, String> extract(ResponseBody content, List<ExtractRule> rules) {
+        if (rules.isEmpty() || content.isEmpty()) return Collections.emptyMap();
+
+        Map<String, String> result = new LinkedHashMap<>();
+        // 直接从流解析，落盘的大响应也不需要整体读入内存
+        try (InputStream in = content.openStream()) {
+            JsonNode root = mapper.readTree(in);
+            if (root == null) return Collections.emptyMap();
+
+            for (ExtractRule rule : rules) {
+                if (isBlank(rule.getVariable()) || isBlank(rule.getPath())) continue;
+                String value = extractValue(root, rule.getPath());
+                if (value != null) result.put(rule.getVariable(), value);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    // 支持 data.user.id 或 data.list[0].id 格式
+    private static @Nullable String extractValue(JsonNode root, String path) {
+        JsonNode current = root;
+        // 简单按点分割，暂不支持带点的key
+        for (String part : path.split("\\.", -1)) {
+            int bracket = part.indexOf('[');
+            if (bracket >= 0) {
+                // 处理数组: list[0]
+                String name = part.substring(0, bracket);
+                String rest = part.substring(bracket + 1);
+                int close = rest.indexOf(']');
+                int index = parseIndex(close >= 0 ? rest.substring(0, close) : rest);
+
+                current = current.path(name);
+                if (current.isArray() && index >= 0 && current.size() > index) {
+                    current = current.get(index);
+                } else {
+                    return null;
+                }
+            } else {
+                // 普通字段
+                current = current.path(part);
+            }
+
+            if (current.isMissingNode()) return null;
+        }
+
+        return current.isContainerNode() ? current.toString() : current.asText();
+    }
+
+    /** 下标写错时按 0 处理 */
+    private static int parseIndex(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static boolean isBlank(@Nullable String s) {
+        return s == null || s.isBlank();
+    }
+}
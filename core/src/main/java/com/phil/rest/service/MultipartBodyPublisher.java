@@ -0,0 +1,277 @@
+package com.phil.rest.service;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 完美的 Multipart Body 构建器
+ * 兼容 Java 11 HttpClient
+ * <p>
+ * 边界和 Part 头是内存中的小段字节，文件内容用 FileChannel.map 整段映射一次，再按窗口切片交给客户端，
+ * 不经过堆内存；Content-Length 由各段长度和 Files.size 精确算出，无需读取文件。
+ */
+public class MultipartBodyPublisher {
+
+    /** 映射按 1MB 窗口切片，一个窗口对应一次 onNext */
+    private static final int FILE_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * 单次映射的上限。映射只能等 GC 释放 (Windows 上释放前文件一直被锁)，
+     * 所以不按窗口逐个映射，一般文件只映射一次，超大文件按 1GB 分段
+     */
+    private static final long MAP_REGION_SIZE = 1L << 30;
+
+    /**
+     * 上传进度回调。sent 为已交给 HTTP 客户端的字节数 (客户端按需拉取，基本等于已写出的字节)
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long sent, long total);
+    }
+
+    private final List<PartsSpecification> partsSpecificationList = new ArrayList<>();
+    private final String boundary = UUID.randomUUID().toString();
+    private ProgressListener progressListener;
+
+    public HttpRequest.BodyPublisher build() throws IOException {
+        if (partsSpecificationList.isEmpty()) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+
+        // 1. 把所有 Part 展开成 "字节段 / 文件段" 序列，同时累计长度
+        List<Segment> segments = new ArrayList<>();
+        String separator = "--" + boundary + "\r\n";
+        for (PartsSpecification part : partsSpecificationList) {
+            StringBuilder header = new StringBuilder(separator);
+            if (part.filename == null) {
+                // Text
+                header.append("Content-Disposition: form-data; name=\"").append(escape(part.name)).append("\"\r\n\r\n");
+                segments.add(new BytesSegment(header.toString().getBytes(StandardCharsets.UTF_8)));
+                if (part.contentBytes != null) {
+                    segments.add(new BytesSegment(part.contentBytes));
+                }
+            } else {
+                // File
+                header.append("Content-Disposition: form-data; name=\"").append(escape(part.name))
+                        .append("\"; filename=\"").append(escape(part.filename)).append("\"\r\n")
+                        .append("Content-Type: ").append(part.contentType).append("\r\n\r\n");
+                segments.add(new BytesSegment(header.toString().getBytes(StandardCharsets.UTF_8)));
+                if (part.path != null) {
+                    segments.add(new FileSegment(part.path, Files.size(part.path)));
+                }
+            }
+            segments.add(new BytesSegment("\r\n".getBytes(StandardCharsets.UTF_8)));
+        }
+        // End Boundary
+        segments.add(new BytesSegment(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8)));
+
+        long length = 0;
+        for (Segment s : segments) length += s.length();
+        return new StreamingBody(List.copyOf(segments), length, progressListener);
+    }
+
+    public String getBoundary() {
+        return boundary;
+    }
+
+    public MultipartBodyPublisher onProgress(ProgressListener listener) {
+        this.progressListener = listener;
+        return this;
+    }
+
+    public MultipartBodyPublisher addPart(String name, String value) {
+        PartsSpecification newPart = new PartsSpecification();
+        newPart.name = name;
+        newPart.contentBytes = value.getBytes(StandardCharsets.UTF_8);
+        partsSpecificationList.add(newPart);
+        return this;
+    }
+
+    public MultipartBodyPublisher addPart(String name, Path value) {
+        PartsSpecification newPart = new PartsSpecification();
+        newPart.name = name;
+        newPart.path = value;
+        newPart.filename = value.getFileName().toString();
+        try {
+            String type = Files.probeContentType(value);
+            newPart.contentType = type != null ? type : "application/octet-stream";
+        } catch (IOException e) {
+            newPart.contentType = "application/octet-stream";
+        }
+        partsSpecificationList.add(newPart);
+        return this;
+    }
+
+    private static String escape(String s) {
+        return s == null ? "" : s.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+    }
+
+    static class PartsSpecification {
+        public String name;
+        public byte[] contentBytes; // 文本内容
+        public Path path; // 文件路径
+        public String filename;
+        public String contentType;
+    }
+
+    private sealed interface Segment permits BytesSegment, FileSegment {
+        long length();
+    }
+
+    private record BytesSegment(byte[] bytes) implements Segment {
+        public long length() { return bytes.length; }
+    }
+
+    /** size 在 build 时确定，上传过程中文件被截断会报错而不是发出错误的 Body */
+    private record FileSegment(Path path, long size) implements Segment {
+        public long length() { return size; }
+    }
+
+    /**
+     * 每次 subscribe 都从头开始 (客户端重试 / 重定向时会重新订阅)
+     */
+    private record StreamingBody(List<Segment> segments, long contentLength, ProgressListener listener)
+            implements HttpRequest.BodyPublisher {
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            subscriber.onSubscribe(new PartSubscription(segments, contentLength, listener, subscriber));
+        }
+    }
+
+    private static final class PartSubscription implements Flow.Subscription {
+        private final List<Segment> segments;
+        private final long total;
+        private final ProgressListener listener;
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private boolean done;
+
+        // 以下只在 drain 内访问
+        private int index;
+        private FileChannel channel;
+        private long filePosition;
+        private MappedByteBuffer region;
+        private long regionStart;
+        private long sent;
+
+        PartSubscription(List<Segment> segments, long total, ProgressListener listener,
+                         Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.segments = segments;
+            this.total = total;
+            this.listener = listener;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancelled = true;
+                subscriber.onError(new IllegalArgumentException("non-positive request: " + n));
+                drain();
+                return;
+            }
+            demand.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) return;
+            do {
+                while (!done) {
+                    if (cancelled) {
+                        done = true;
+                        closeChannel();
+                        return;
+                    }
+                    if (demand.get() == 0) break;
+
+                    ByteBuffer next;
+                    try {
+                        next = nextChunk();
+                    } catch (IOException e) {
+                        done = true;
+                        closeChannel();
+                        subscriber.onError(e);
+                        return;
+                    }
+                    if (next == null) {
+                        done = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    demand.decrementAndGet();
+                    sent += next.remaining();
+                    subscriber.onNext(next);
+                    if (listener != null) listener.onProgress(sent, total);
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        private ByteBuffer nextChunk() throws IOException {
+            while (index < segments.size()) {
+                Segment segment = segments.get(index);
+                if (segment instanceof BytesSegment b) {
+                    index++;
+                    if (b.bytes().length > 0) return ByteBuffer.wrap(b.bytes()).asReadOnlyBuffer();
+                    continue;
+                }
+
+                FileSegment f = (FileSegment) segment;
+                if (channel == null) {
+                    channel = FileChannel.open(f.path(), StandardOpenOption.READ);
+                    filePosition = 0;
+                }
+                long remaining = f.size() - filePosition;
+                if (remaining <= 0) {
+                    closeChannel();
+                    index++;
+                    continue;
+                }
+                if (channel.size() < f.size()) {
+                    throw new IOException("File changed during upload: " + f.path());
+                }
+                if (region == null || filePosition >= regionStart + region.capacity()) {
+                    region = channel.map(FileChannel.MapMode.READ_ONLY, filePosition, Math.min(MAP_REGION_SIZE, remaining));
+                    regionStart = filePosition;
+                }
+                int offset = (int) (filePosition - regionStart);
+                int window = Math.min(FILE_CHUNK_SIZE, region.capacity() - offset);
+                filePosition += window;
+                return region.slice(offset, window);
+            }
+            return null;
+        }
+
+        private void closeChannel() {
+            region = null;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+                channel = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.phil.rest.service;
+
+import com.phil.rest.model.RestParam;
+import com.phil.rest.model.SavedRequest;
+import com.phil.rest.service.transport.TransportRequest;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * 展开完成、可以直接发送的请求：SavedRequest 按变量快照展开 (变量、Query、Auth、默认 Content-Type，见 {@link RequestAssembler})，
+ * 再解析好 URI、固定 Header 表、把 Body 编码成字节。
+ * <p>
+ * 构建一次可以反复发送：{@link #request()} 每次发送直接交给传输引擎，除了请求本身不再有任何展开或分配
+ * (字节 Body 每次订阅都从头开始)。单次发送、Blast / 拐点探测、场景压测、worker 进程和无界面运行器都从这里构建请求，
+ * 各处发出去的请求完全一致
+ *
+ * @param url     展开后的 URL (补全 scheme 之前)，用于展示和压测名称
+ * @param body    编码后的 Body；multipart 请求是流式上传，为 null
+ * @param dynamic 引用了 {{$uuid}} 等动态变量：每次发送都应重新展开，不能重复发同一个请求
+ */
+public record PreparedRequest(String method, String url, TransportRequest request, byte @Nullable [] body,
+                              boolean dynamic) {
+
+    private static final byte[] NO_BODY = new byte[0];
+
+    /**
+     * 按变量作用域展开 SavedRequest 并构建
+     *
+     * @param multipartParams multipart 表单 (编辑器里单独维护)，没有时为 null
+     * @param uploadProgress  multipart 上传进度回调，可为 null
+     * @throws IOException multipart 文件无法读取
+     * @throws IllegalArgumentException URL 不合法
+     */
+    public static PreparedRequest prepare(SavedRequest request, VariableScope scope,
+                                          @Nullable List<RestParam> multipartParams, long timeoutSeconds, long inMemoryLimit,
+                                          MultipartBodyPublisher.@Nullable ProgressListener uploadProgress) throws IOException {
+        boolean[] dynamic = new boolean[1];
+        RequestAssembler.Assembled assembled = RequestAssembler.assemble(request, text -> {
+            VariableTemplate template = VariableTemplate.of(text);
+            dynamic[0] |= template.hasDynamicVariables();
+            return template.render(scope::get);
+        });
+        PreparedRequest prepared = of(assembled.method(), assembled.url(), assembled.body(), assembled.headers(),
+                multipartParams, timeoutSeconds, inMemoryLimit, uploadProgress);
+        return dynamic[0] ? prepared.withDynamic() : prepared;
+    }
+
+    /**
+     * 压测用的请求来源 (见 {@link com.phil.rest.service.load.LoadWorkload#single})：先构建一次 (参数有问题时在这里就抛出)，
+     * 没有动态变量时每次返回同一个请求；有动态变量时每次发送重新展开，拿到新的 $uuid / $seq 等值
+     */
+    public static Supplier<TransportRequest> source(PreparedRequest first, SavedRequest request, VariableScope scope,
+                                                    @Nullable List<RestParam> multipartParams, long timeoutSeconds,
+                                                    long inMemoryLimit) {
+        TransportRequest built = first.request();
+        if (!first.dynamic()) return () -> built;
+        return () -> {
+            try {
+                return prepare(request, scope, multipartParams, timeoutSeconds, inMemoryLimit, null).request();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private PreparedRequest withDynamic() {
+        return new PreparedRequest(method, url, request, body, true);
+    }
+
+    /**
+     * 由已经展开的各部分构建：补全 scheme、编码空格，Body 不为空且没有 Content-Type 时按 JSON 发送，
+     * 没有 Accept-Encoding 时协商压缩
+     */
+    public static PreparedRequest of(String method, String url, @Nullable String body, List<RestParam> headers,
+                                     @Nullable List<RestParam> multipartParams, long timeoutSeconds, long inMemoryLimit,
+                                     MultipartBodyPublisher.@Nullable ProgressListener uploadProgress) throws IOException {
+        String target = url.startsWith("http") ? url : "http://" + url;
+        // 自动编码 URL 中的空格，防止 URI.create 报错
+        URI uri = URI.create(target.replace(" ", "%20"));
+        long finalTimeout = timeoutSeconds <= 0 ? 60 : timeoutSeconds;
+        boolean multipart = multipartParams != null && !multipartParams.isEmpty();
+
+        List<TransportRequest.Header> requestHeaders = new ArrayList<>(headers.size() + 2);
+        HttpRequest.BodyPublisher publisher;
+        byte[] bytes;
+        if (multipart) {
+            MultipartBodyPublisher multipartBuilder = new MultipartBodyPublisher();
+            for (RestParam param : multipartParams) {
+                if ("File".equals(param.getDataType())) {
+                    multipartBuilder.addPart(param.getName(), Path.of(param.getValue()));
+                } else {
+                    multipartBuilder.addPart(param.getName(), param.getValue());
+                }
+            }
+            // 流式上传：文件按窗口映射，不会整体读进内存
+            publisher = multipartBuilder.onProgress(uploadProgress).build();
+            bytes = null;
+            requestHeaders.add(new TransportRequest.Header("Content-Type", "multipart/form-data; boundary=" + multipartBuilder.getBoundary()));
+        } else if (body != null && !body.isBlank()) {
+            bytes = body.getBytes(StandardCharsets.UTF_8);
+            publisher = HttpRequest.BodyPublishers.ofByteArray(bytes);
+            if (!hasHeader(headers, "Content-Type")) {
+                requestHeaders.add(new TransportRequest.Header("Content-Type", "application/json"));
+            }
+        } else {
+            bytes = NO_BODY;
+            publisher = HttpRequest.BodyPublishers.noBody();
+        }
+
+        // 协商压缩，用户自己指定了 Accept-Encoding 时以用户为准
+        if (!hasHeader(headers, "Accept-Encoding")) {
+            requestHeaders.add(new TransportRequest.Header("Accept-Encoding", DecodingBodySubscriber.ACCEPT_ENCODING));
+        }
+
+        for (RestParam header : headers) {
+            String name = header.getName();
+            if (name == null || name.isBlank()) continue;
+            // multipart 的 Content-Type 带 boundary，只能用上面生成的
+            if (multipart && "Content-Type".equalsIgnoreCase(name)) continue;
+            requestHeaders.add(new TransportRequest.Header(name, header.getValue() == null ? "" : header.getValue()));
+        }
+
+        TransportRequest request = new TransportRequest(method.toUpperCase(Locale.ROOT), uri, List.copyOf(requestHeaders),
+                publisher, Duration.ofSeconds(finalTimeout), inMemoryLimit);
+        return new PreparedRequest(request.method(), url, request, bytes, false);
+    }
+
+    private static boolean hasHeader(List<RestParam> headers, String name) {
+        for (RestParam h : headers) {
+            if (name.equalsIgnoreCase(h.getName())) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,97 @@
+package com.phil.rest.service;
+
+import com.phil.rest.model.RestParam;
+import com.phil.rest.model.SavedRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * 把 SavedRequest 按变量作用域展开成可以直接发送的 method / url / body / headers：
+ * 变量替换、Query 参数拼接、Auth Header 生成、默认 Content-Type。
+ * 单次发送 (RequestSender) 和场景压测共用，保证两边发出的请求一致
+ */
+public final class RequestAssembler {
+
+    public record Assembled(String method, String url, String body, List<RestParam> headers) {}
+
+    private RequestAssembler() {}
+
+    public static Assembled assemble(SavedRequest request, VariableScope scope) {
+        return assemble(request, scope::resolve);
+    }
+
+    public static Assembled assemble(SavedRequest request, UnaryOperator<String> resolve) {
+        String url = resolve.apply(request.getUrl());
+        String body = resolve.apply(request.getBodyContent());
+
+        // 1. Query Params
+        StringBuilder query = new StringBuilder();
+        for (RestParam p : request.getParams()) {
+            appendQuery(query, p.getName(), resolve.apply(p.getValue()));
+        }
+
+        // 2. Headers & Auth
+        List<RestParam> headers = new ArrayList<>();
+        for (RestParam h : request.getHeaders()) {
+            headers.add(header(h.getName(), resolve.apply(h.getValue())));
+        }
+
+        Map<String, String> auth = request.getAuthContent();
+        String authType = request.getAuthType();
+        if ("bearer".equals(authType)) {
+            String token = resolve.apply(auth.get("token"));
+            if (!token.isBlank()) headers.add(header("Authorization", "Bearer " + token));
+        } else if ("basic".equals(authType)) {
+            String user = resolve.apply(auth.get("username"));
+            String pass = resolve.apply(auth.get("password"));
+            if (!user.isBlank() || !pass.isBlank()) {
+                String encoded = Base64.getEncoder().encodeToString((user + ":" + pass).getBytes(StandardCharsets.UTF_8));
+                headers.add(header("Authorization", "Basic " + encoded));
+            }
+        } else if ("apikey".equals(authType)) {
+            String key = resolve.apply(auth.get("key"));
+            String value = resolve.apply(auth.get("value"));
+            String where = auth.getOrDefault("where", "Header");
+            if (!key.isBlank()) {
+                if ("Header".equals(where)) headers.add(header(key, value));
+                else appendQuery(query, key, value);
+            }
+        }
+
+        if (!query.isEmpty()) {
+            url += url.contains("?") ? "&" + query.substring(1) : query.toString();
+        }
+
+        // 3. 默认 Content-Type
+        boolean hasContentType = headers.stream().anyMatch(h -> "Content-Type".equalsIgnoreCase(h.getName()));
+        if (!hasContentType) {
+            String contentType = defaultContentType(request.getBodyType());
+            if (contentType != null) headers.add(header("Content-Type", contentType));
+        }
+        return new Assembled(request.getMethod(), url, body, headers);
+    }
+
+    private static String defaultContentType(String bodyType) {
+        if (bodyType == null) return null;
+        return switch (bodyType) {
+            case "x-www-form-urlencoded" -> "application/x-www-form-urlencoded";
+            case "raw (json)" -> "application/json";
+            case "raw (xml)" -> "application/xml";
+            case "raw (text)" -> "text/plain";
+            default -> null;
+        };
+    }
+
+    private static void appendQuery(StringBuilder query, String name, String value) {
+        query.append(query.isEmpty() ? '?' : '&').append(name).append('=').append(value);
+    }
+
+    private static RestParam header(String name, String value) {
+        return new RestParam(name, value, RestParam.ParamType.HEADER, "String");
+    }
+}
@@ -0,0 +1,130 @@
+package com.phil.rest.service;
+
+import com.phil.rest.model.ResponseBody;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * 流式接收响应体：前 memoryLimit 字节留在内存，其余写入临时文件。
+ * 替代 BodyHandlers.ofByteArray()，避免几百 MB 的导出接口把 IDE 堆撑爆。
+ */
+public class SpillingBodySubscriber implements HttpResponse.BodySubscriber<ResponseBody> {
+
+    public static final long DEFAULT_MEMORY_LIMIT = 8L * 1024 * 1024;
+
+    private final CompletableFuture<ResponseBody> result = new CompletableFuture<>();
+    private final int memoryLimit;
+
+    private byte[] head = new byte[8192];
+    private int headSize;
+    private long total;
+
+    private Path spillFile;
+    private FileChannel spillChannel;
+    private Flow.Subscription subscription;
+
+    public SpillingBodySubscriber(long memoryLimit) {
+        this.memoryLimit = (int) Math.min(Math.max(memoryLimit, 0), Integer.MAX_VALUE - 8);
+    }
+
+    public static HttpResponse.BodyHandler<ResponseBody> handler(long memoryLimit) {
+        return info -> new SpillingBodySubscriber(memoryLimit);
+    }
+
+    @Override
+    public CompletionStage<ResponseBody> getBody() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        // 每次只要一批，落盘时形成自然的背压
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+        try {
+            for (ByteBuffer buffer : buffers) {
+                write(buffer);
+            }
+            subscription.request(1);
+        } catch (IOException e) {
+            subscription.cancel();
+            onError(e);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        closeQuietly();
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException ignored) {
+            }
+        }
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        closeQuietly();
+        byte[] bytes = headSize == head.length ? head : Arrays.copyOf(head, headSize);
+        head = null;
+        result.complete(spillFile == null ? ResponseBody.of(bytes) : ResponseBody.spilled(bytes, spillFile, total));
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        int remaining = buffer.remaining();
+        total += remaining;
+
+        // 1. 先填满内存部分
+        int toHead = Math.min(remaining, memoryLimit - headSize);
+        if (toHead > 0) {
+            ensureCapacity(headSize + toHead);
+            buffer.get(head, headSize, toHead);
+            headSize += toHead;
+        }
+
+        // 2. 剩余部分落盘
+        if (buffer.hasRemaining()) {
+            if (spillChannel == null) {
+                spillFile = Files.createTempFile("restpilot-body-", ".bin");
+                spillFile.toFile().deleteOnExit();
+                spillChannel = FileChannel.open(spillFile, StandardOpenOption.WRITE);
+            }
+            while (buffer.hasRemaining()) {
+                spillChannel.write(buffer);
+            }
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= head.length) return;
+        int newSize = (int) Math.min(Math.max((long) head.length * 2, required), memoryLimit);
+        head = Arrays.copyOf(head, newSize);
+    }
+
+    private void closeQuietly() {
+        if (spillChannel != null) {
+            try {
+                spillChannel.close();
+            } catch (IOException ignored) {
+            }
+            spillChannel = null;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.phil.rest.service;
+
+import com.phil.rest.model.CollectionNode;
+import com.phil.rest.model.ExtractRule;
+import com.phil.rest.model.LoadProfile;
+import com.phil.rest.model.LoadStage;
+import com.phil.rest.model.RestEnv;
+import com.phil.rest.model.RestParam;
+import com.phil.rest.model.SavedRequest;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 不依赖 IDE 读取插件保存的 ultimate-rest-collections.xml / ultimate-rest-envs.xml (无界面运行器使用)。
+ * <p>
+ * 文件是 IDE 按模型上的 xmlb 注解写出的 (&lt;component&gt; 下的 &lt;option name="..."&gt;)，
+ * 这里按同样的结构用 JDK 自带的 DOM 解析回模型对象；IDE 省略的默认值保留模型自己的默认值
+ */
+public final class StorageReader {
+
+    public static final String COLLECTIONS_FILE = "ultimate-rest-collections.xml";
+    public static final String ENVS_FILE = "ultimate-rest-envs.xml";
+
+    /** 环境文件的内容 */
+    public record Envs(List<RestEnv> envs, @Nullable String selectedEnvId, RestEnv globalEnv) {
+
+        public @Nullable RestEnv selected() {
+            return selectedEnvId == null ? null : find(selectedEnvId);
+        }
+
+        /** 按名字或 id 查找 */
+        public @Nullable RestEnv find(String nameOrId) {
+            for (RestEnv env : envs) {
+                if (nameOrId.equals(env.getName()) || nameOrId.equals(env.getId())) return env;
+            }
+            return null;
+        }
+    }
+
+    private StorageReader() {}
+
+    public static List<CollectionNode> readCollections(Path file) throws IOException {
+        Element component = component(file, "UltimateRestCollectionService");
+        return readList(option(component, "rootNodes"), "node", StorageReader::readNode);
+    }
+
+    public static Envs readEnvs(Path file) throws IOException {
+        Element component = component(file, "UltimateRestEnvService");
+        List<RestEnv> envs = readList(option(component, "envs"), "RestEnv", StorageReader::readEnv);
+        Element selected = option(component, "selectedEnvId");
+        Element global = child(option(component, "globalEnv"), "RestEnv");
+        RestEnv globalEnv = global != null ? readEnv(global) : new RestEnv("Globals");
+        globalEnv.setName("Globals");
+        return new Envs(envs, selected != null ? value(selected) : null, globalEnv);
+    }
+
+    // --- 模型 ---
+
+    private static CollectionNode readNode(Element e) {
+        CollectionNode node = new CollectionNode();
+        if (e.hasAttribute("id")) node.setId(e.getAttribute("id"));
+        node.setName(e.getAttribute("name"));
+        node.setFolder(Boolean.parseBoolean(e.getAttribute("isFolder")));
+        if (e.hasAttribute("loadWeight")) node.setLoadWeight(Integer.parseInt(e.getAttribute("loadWeight")));
+
+        Element request = child(e, "request");
+        if (request != null) node.setRequest(readRequest(request));
+        Element profile = child(e, "loadProfile");
+        if (profile != null) node.setLoadProfile(readProfile(profile));
+        node.setChildren(readList(child(e, "children"), "node", StorageReader::readNode));
+        return node;
+    }
+
+    private static SavedRequest readRequest(Element e) {
+        SavedRequest request = new SavedRequest(e.getAttribute("name"), e.getAttribute("method"), e.getAttribute("url"));
+        if (e.hasAttribute("bodyType")) request.setBodyType(e.getAttribute("bodyType"));
+        if (e.hasAttribute("authType")) request.setAuthType(e.getAttribute("authType"));
+
+        Element body = child(e, "bodyContent");
+        if (body != null) request.setBodyContent(value(body));
+        Element auth = child(e, "authContent");
+        if (auth != null) request.setAuthContent(readMap(auth));
+        request.setParams(readList(child(e, "params"), "param", StorageReader::readParam));
+        request.setHeaders(readList(child(e, "headers"), "param", StorageReader::readParam));
+        request.setExtractRules(readList(child(e, "extractRules"), "extract", StorageReader::readExtractRule));
+        Element profile = child(e, "loadProfile");
+        if (profile != null) request.setLoadProfile(readProfile(profile));
+        return request;
+    }
+
+    private static RestParam readParam(Element e) {
+        RestParam param = new RestParam();
+        param.setName(e.getAttribute("name"));
+        param.setValue(e.getAttribute("value"));
+        if (e.hasAttribute("type")) param.setType(RestParam.ParamType.valueOf(e.getAttribute("type")));
+        if (e.hasAttribute("dataType")) param.setDataType(e.getAttribute("dataType"));
+        return param;
+    }
+
+    private static ExtractRule readExtractRule(Element e) {
+        return new ExtractRule(e.getAttribute("variable"), e.getAttribute("path"));
+    }
+
+    private static LoadProfile readProfile(Element e) {
+        LoadProfile profile = new LoadProfile();
+        if (e.hasAttribute("maxInFlight")) profile.setMaxInFlight(Integer.parseInt(e.getAttribute("maxInFlight")));
+        if (e.hasAttribute("timeoutSeconds")) profile.setTimeoutSeconds(Integer.parseInt(e.getAttribute("timeoutSeconds")));
+        if (e.hasAttribute("feederPath")) profile.setFeederPath(e.getAttribute("feederPath"));
+        if (e.hasAttribute("feederStrategy")) {
+            profile.setFeederStrategy(LoadProfile.FeederStrategy.valueOf(e.getAttribute("feederStrategy")));
+        }
+        if (e.hasAttribute("workers")) profile.setWorkers(Integer.parseInt(e.getAttribute("workers")));
+        profile.setStages(readList(child(e, "stages"), "stage", s -> {
+            LoadStage stage = new LoadStage();
+            if (s.hasAttribute("kind")) stage.setKind(LoadStage.Kind.valueOf(s.getAttribute("kind")));
+            if (s.hasAttribute("durationSeconds")) stage.setDurationSeconds(Long.parseLong(s.getAttribute("durationSeconds")));
+            if (s.hasAttribute("targetRps")) stage.setTargetRps(Double.parseDouble(s.getAttribute("targetRps")));
+            return stage;
+        }));
+        return profile;
+    }
+
+    /** RestEnv 没有注解，按普通 Bean 保存：每个属性一个 &lt;option&gt; */
+    private static RestEnv readEnv(Element e) {
+        RestEnv env = new RestEnv();
+        Element id = option(e, "id");
+        if (id != null) env.setId(value(id));
+        Element name = option(e, "name");
+        if (name != null) env.setName(value(name));
+        Element variables = option(e, "variables");
+        if (variables != null) env.setVariables(readMap(variables));
+        Element protocol = option(e, "protocol");
+        if (protocol != null) env.setProtocol(RestEnv.Protocol.valueOf(value(protocol)));
+        Element tlsMode = option(e, "tlsMode");
+        if (tlsMode != null) env.setTlsMode(RestEnv.TlsMode.valueOf(value(tlsMode)));
+        Element redirectPolicy = option(e, "redirectPolicy");
+        if (redirectPolicy != null) env.setRedirectPolicy(RestEnv.RedirectPolicy.valueOf(value(redirectPolicy)));
+        Element engine = option(e, "engine");
+        if (engine != null) env.setEngine(RestEnv.TransportEngine.valueOf(value(engine)));
+        return env;
+    }
+
+    // --- xmlb 结构 ---
+
+    private static Element component(Path file, String name) throws IOException {
+        Element root = parse(file).getDocumentElement();
+        if ("component".equals(root.getTagName()) && name.equals(root.getAttribute("name"))) return root;
+        for (Element component : children(root, "component")) {
+            if (name.equals(component.getAttribute("name"))) return component;
+        }
+        throw new IOException("No " + name + " component in " + file);
+    }
+
+    private static Document parse(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(in);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Cannot parse " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** &lt;option name="..."&gt; 子元素，没有时为 null */
+    private static @Nullable Element option(@Nullable Element parent, String name) {
+        if (parent == null) return null;
+        for (Element option : children(parent, "option")) {
+            if (name.equals(option.getAttribute("name"))) return option;
+        }
+        return null;
+    }
+
+    /** 值可能写在 value 属性上，也可能是元素的文本 */
+    private static String value(Element e) {
+        return e.hasAttribute("value") ? e.getAttribute("value") : e.getTextContent();
+    }
+
+    /** 集合元素：直接放在容器下，或者多包一层 &lt;list&gt; */
+    private static <T> List<T> readList(@Nullable Element container, String tag, Function<Element, T> reader) {
+        List<T> items = new ArrayList<>();
+        if (container == null) return items;
+        Element list = child(container, "list");
+        for (Element item : children(list != null ? list : container, tag)) {
+            items.add(reader.apply(item));
+        }
+        return items;
+    }
+
+    /** &lt;entry key="" value=""/&gt;，直接放在容器下或者多包一层 &lt;map&gt; */
+    private static Map<String, String> readMap(Element container) {
+        Map<String, String> map = new HashMap<>();
+        Element wrapped = child(container, "map");
+        for (Element entry : children(wrapped != null ? wrapped : container, "entry")) {
+            map.put(entry.getAttribute("key"), value(entry));
+        }
+        return map;
+    }
+
+    private static @Nullable Element child(@Nullable Element parent, String tag) {
+        if (parent == null) return null;
+        List<Element> found = children(parent, tag);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private static List<Element> children(Element parent, String tag) {
+        List<Element> result = new ArrayList<>();
+        for (Node n = parent.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n instanceof Element e && tag.equals(e.getTagName())) result.add(e);
+        }
+        return result;
+    }
+}
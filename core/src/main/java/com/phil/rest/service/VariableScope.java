@@ -0,0 +1,115 @@
+package com.phil.rest.service;
+
+import com.phil.rest.model.RestEnv;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 分层变量作用域：底层是 Globals + 当前环境合并后的只读快照，上面叠一层私有的覆盖表。
+ * <p>
+ * 写时复制：{@link #fork()} 出来的作用域共享同一份底层快照，第一次写入时才分配自己的覆盖表，
+ * 所以压测里每个虚拟用户一个作用域也几乎不占内存，提取到的 token 只对自己可见，不会互相覆盖，
+ * 也不会写回共享的 RestEnv。
+ * <p>
+ * 单个作用域不是线程安全的 (一个虚拟用户的步骤是串行执行的)
+ */
+public class VariableScope {
+
+    private final Map<String, String> base;
+    // 数据文件当前行等只读的中间层，查找顺序：overlay > layer > base
+    private final Function<String, String> layer;
+    private Map<String, String> overlay;
+
+    private VariableScope(Map<String, String> base, @Nullable Function<String, String> layer) {
+        this.base = base;
+        this.layer = layer;
+    }
+
+    /**
+     * 对 Globals 和指定环境取快照，环境变量覆盖同名的 Global 变量
+     */
+    public static VariableScope snapshot(@Nullable RestEnv globalEnv, @Nullable RestEnv env) {
+        Map<String, String> merged = new HashMap<>();
+        if (globalEnv != null) merged.putAll(globalEnv.getVariables());
+        if (env != null) merged.putAll(env.getVariables());
+        return new VariableScope(Collections.unmodifiableMap(merged), null);
+    }
+
+    /**
+     * 已经合并好的只读变量表 (例如插件 EnvService 已发布快照里的 Globals + 选中环境)，直接作为底层，不再复制。
+     * 调用方之后不能再修改这张表
+     */
+    public static VariableScope snapshot(Map<String, String> variables) {
+        return new VariableScope(variables, null);
+    }
+
+    /**
+     * 共享底层快照、覆盖表为空的新作用域；当前作用域已有的覆盖值会一并带上
+     */
+    public VariableScope fork() {
+        return fork(layer);
+    }
+
+    /**
+     * 同 {@link #fork()}，并在底层快照之上叠一层只读查找 (例如数据文件的一行)，
+     * 不把整行拷进 Map，查不到时返回 null 继续找底层
+     */
+    public VariableScope fork(@Nullable Function<String, String> layer) {
+        VariableScope child = new VariableScope(base, layer);
+        if (overlay != null) child.overlay = new HashMap<>(overlay);
+        return child;
+    }
+
+    public @Nullable String get(String name) {
+        if (overlay != null) {
+            String value = overlay.get(name);
+            if (value != null) return value;
+        }
+        if (layer != null) {
+            String value = layer.apply(name);
+            if (value != null) return value;
+        }
+        String value = base.get(name);
+        // 都没有定义时再看是不是 $uuid 这类内置动态变量
+        return value != null ? value : DynamicVariables.generate(name);
+    }
+
+    public void put(String name, String value) {
+        if (overlay == null) overlay = new HashMap<>();
+        overlay.put(name, value);
+    }
+
+    public void putAll(Map<String, String> values) {
+        if (values.isEmpty()) return;
+        if (overlay == null) overlay = new HashMap<>();
+        overlay.putAll(values);
+    }
+
+    /** 本作用域自己写入的变量 (不含底层快照) */
+    public Map<String, String> overrides() {
+        return overlay == null ? Map.of() : Collections.unmodifiableMap(overlay);
+    }
+
+    /**
+     * 没有覆盖值也没有中间层：展开结果只取决于底层快照，同一快照 fork 出来的作用域可以共用构建好的请求
+     */
+    public boolean isPristine() {
+        return layer == null && (overlay == null || overlay.isEmpty());
+    }
+
+    public boolean isEmpty() {
+        return base.isEmpty() && layer == null && (overlay == null || overlay.isEmpty());
+    }
+
+    /**
+     * 替换文本中的 {{name}}，未定义的变量原样保留，{{$uuid}} 等动态变量每次生成新值；文本按内容编译成 {@link VariableTemplate} 并缓存，
+     * 同一字段反复展开时只做查找和拷贝
+     */
+    public String resolve(@Nullable String text) {
+        return VariableTemplate.of(text).render(this::get);
+    }
+}
@@ -0,0 +1,135 @@
+package com.phil.rest.service;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 预编译的 {{name}} 模板：文本只扫描一次，记下每个 "{{" 的位置、对应的 "}}" 和变量名，
+ * 之后每次渲染只做变量查找和一次拷贝，不再在文本里查找分隔符。
+ * <p>
+ * 编译结果按文本内容缓存 ({@link #of(String)})：SavedRequest 的各个字段在编辑之前一直是同一个 String，
+ * 压测里同一个请求反复展开时每个字段只编译一次；字段被修改后是新的文本，自然对应新的模板，不需要失效。
+ * 缓存会强引用文本本身，所以超过 64K 字符的文本 (大 Body) 不进缓存，每次现编译 (编译只是一遍 indexOf，远小于渲染的拷贝)；
+ * 缓存的文本总长度也有上限，超出后整体清空
+ * <p>
+ * 替换规则与逐个查找时完全一致：未定义的变量原样保留，并从下一个字符继续找 ("{{{{a}}" 里的 {{a}} 照样替换)，
+ * 所以每个 "{{" 位置都是一个候选，渲染时按查找结果决定用哪些
+ */
+public final class VariableTemplate {
+
+    private static final VariableTemplate EMPTY = new VariableTemplate("", new int[0], new int[0], new String[0]);
+
+    // 超过这个数量或总字符数就整体清空重来 (编辑器里不停改动的文本不会让缓存无限增长)
+    private static final int MAX_CACHED = 4096;
+    private static final long MAX_CACHED_CHARS = 4L * 1024 * 1024;
+    private static final int MAX_CACHED_TEXT_LENGTH = 64 * 1024;
+    private static final Map<String, VariableTemplate> CACHE = new ConcurrentHashMap<>();
+    private static final AtomicLong CACHED_CHARS = new AtomicLong();
+
+    private final String text;
+    // 第 i 个候选："{{" 的起点、"}}" 之后的位置、中间的变量名；按起点升序
+    private final int[] starts;
+    private final int[] ends;
+    private final String[] names;
+    private final boolean dynamic;
+
+    private VariableTemplate(String text, int[] starts, int[] ends, String[] names) {
+        this.text = text;
+        this.starts = starts;
+        this.ends = ends;
+        this.names = names;
+        boolean anyDynamic = false;
+        for (String name : names) anyDynamic |= DynamicVariables.isCandidate(name);
+        this.dynamic = anyDynamic;
+    }
+
+    /**
+     * 取文本对应的模板 (有缓存)；null 当作空文本
+     */
+    public static VariableTemplate of(@Nullable String text) {
+        if (text == null || text.isEmpty()) return EMPTY;
+        VariableTemplate cached = CACHE.get(text);
+        if (cached != null) return cached;
+        VariableTemplate compiled = compile(text);
+        // 没有变量的文本和大文本不占缓存
+        if (compiled.starts.length == 0 || text.length() > MAX_CACHED_TEXT_LENGTH) return compiled;
+        if (CACHE.size() >= MAX_CACHED || CACHED_CHARS.get() + text.length() > MAX_CACHED_CHARS) {
+            CACHE.clear();
+            CACHED_CHARS.set(0);
+        }
+        if (CACHE.put(text, compiled) == null) CACHED_CHARS.addAndGet(text.length());
+        return compiled;
+    }
+
+    static VariableTemplate compile(String text) {
+        List<int[]> spans = new ArrayList<>();
+        int open = text.indexOf("{{");
+        while (open >= 0) {
+            int close = text.indexOf("}}", open + 2);
+            // 后面没有 "}}" 时，之后的 "{{" 也都不会有
+            if (close < 0) break;
+            spans.add(new int[]{open, close});
+            open = text.indexOf("{{", open + 1);
+        }
+        int[] starts = new int[spans.size()];
+        int[] ends = new int[spans.size()];
+        String[] names = new String[spans.size()];
+        for (int i = 0; i < spans.size(); i++) {
+            int[] span = spans.get(i);
+            starts[i] = span[0];
+            ends[i] = span[1] + 2;
+            names[i] = text.substring(span[0] + 2, span[1]);
+        }
+        return new VariableTemplate(text, starts, ends, names);
+    }
+
+    /** 是否含有可能被替换的 {{name}} */
+    public boolean hasVariables() {
+        return starts.length > 0;
+    }
+
+    /** 是否引用了 {{$...}} (可能是动态变量，每次渲染结果不同) */
+    public boolean hasDynamicVariables() {
+        return dynamic;
+    }
+
+    /**
+     * 用给定的查找渲染，查不到 (返回 null) 的变量原样保留。
+     * 先查出所有要替换的值算出结果长度，再一次性拷进定长的 StringBuilder
+     */
+    public String render(Function<String, String> lookup) {
+        if (starts.length == 0) return text;
+
+        String[] values = new String[starts.length];
+        int length = text.length();
+        boolean replaced = false;
+        int pos = 0;
+        for (int i = 0; i < starts.length; i++) {
+            // 落在已替换的变量里的候选跳过
+            if (starts[i] < pos) continue;
+            String value = lookup.apply(names[i]);
+            if (value == null) continue;
+            values[i] = value;
+            length += value.length() - (ends[i] - starts[i]);
+            pos = ends[i];
+            replaced = true;
+        }
+        if (!replaced) return text;
+
+        StringBuilder sb = new StringBuilder(length);
+        pos = 0;
+        for (int i = 0; i < starts.length; i++) {
+            if (values[i] == null) continue;
+            sb.append(text, pos, starts[i]).append(values[i]);
+            pos = ends[i];
+        }
+        sb.append(text, pos, text.length());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package com.phil.rest.service.load;
+
+import com.phil.rest.model.RestEnv;
+import com.phil.rest.model.RestParam;
+import com.phil.rest.service.PreparedRequest;
+import com.phil.rest.service.SpillingBodySubscriber;
+import com.phil.rest.service.transport.HttpTransport;
+import com.phil.rest.service.transport.TransportFactory;
+import com.phil.rest.service.transport.TransportRequest;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.CookieManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 客户端开销校准：对本机内嵌的 {@link EchoServer} 跑和 Blast 完全相同的发送路径
+ * (HttpExecutor 构建的请求 → 传输引擎 → 响应解码 → RestResponse)，得到两个参照值：
+ * <ul>
+ *   <li>延迟下限：低速率下的服务时间 P50 / P99，即服务端零耗时时插件自己要花的时间</li>
+ *   <li>吞吐上限：逐级加压直到跟不上，实际吞吐的最大值；压测结果接近这个值时瓶颈可能在本机而不是被测服务</li>
+ * </ul>
+ * echo 服务和客户端共用本机 CPU，测到的上限偏保守
+ */
+public final class Calibration {
+
+    /** 测延迟下限时的速率，低到不会排队 */
+    private static final double FLOOR_RPS = 100;
+    private static final Duration FLOOR_DURATION = Duration.ofSeconds(5);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    /** 压测吞吐达到上限的这个比例时，报告提示瓶颈可能在本机 */
+    public static final double CLIENT_BOUND_RATIO = 0.8;
+
+    /**
+     * @param maxRps       达标的级里最高的实际吞吐 (请求/秒)
+     * @param floorP50Nanos 低速率下服务时间的 P50
+     * @param measuredAt   测量时间 (毫秒时间戳)
+     */
+    public record Result(int payloadBytes, RestEnv.TransportEngine engine, double maxRps,
+                         long floorP50Nanos, long floorP99Nanos, long measuredAt) {
+
+        public String describe() {
+            return String.format(Locale.ROOT, "~%.0f req/s, floor P50 %.2f ms / P99 %.2f ms (%s engine, %d-byte payload)",
+                    maxRps, floorP50Nanos / 1e6, floorP99Nanos / 1e6, engine, payloadBytes);
+        }
+
+        /** 给定的请求吞吐是否已经接近本机上限 */
+        public boolean isNearCeiling(double requestRps) {
+            return maxRps > 0 && requestRps >= maxRps * CLIENT_BOUND_RATIO;
+        }
+    }
+
+    /**
+     * 运行一级压测并等待结果 (调用方可以借此展示进度、响应取消)
+     */
+    @FunctionalInterface
+    public interface Runner {
+        LoadResult run(LoadGenerator generator, String label) throws Exception;
+    }
+
+    private Calibration() {
+    }
+
+    /**
+     * @param payloadBytes 请求体大小，echo 服务原样返回，响应体同样大小
+     * @return 校准结果；中途被取消时为 null
+     */
+    public static @Nullable Result run(RestEnv.TransportEngine engine, int payloadBytes, Runner runner) throws Exception {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try (EchoServer server = EchoServer.start();
+             HttpTransport transport = TransportFactory.create(engine, RestEnv.Protocol.HTTP_1_1, RestEnv.TlsMode.INSECURE,
+                     RestEnv.RedirectPolicy.NORMAL, new CookieManager(), executor)) {
+            TransportRequest request = PreparedRequest.of("POST", server.uri().toString(), "x".repeat(payloadBytes),
+                    List.of(new RestParam("Content-Type", "text/plain", RestParam.ParamType.HEADER, "string")),
+                    null, TIMEOUT.toSeconds(), SpillingBodySubscriber.DEFAULT_MEMORY_LIMIT, null).request();
+
+            // 预热：JIT 和连接建立，不计入结果
+            LoadResult warmup = runner.run(new LoadEngine(transport, () -> request,
+                    LoadConfig.constant(FLOOR_RPS * 5, Duration.ofSeconds(2), 10_000, TIMEOUT)), "Calibration warm-up");
+            if (warmup.cancelled()) return null;
+
+            LoadResult floor = runner.run(new LoadEngine(transport, () -> request,
+                    LoadConfig.constant(FLOOR_RPS, FLOOR_DURATION, 10_000, TIMEOUT)), "Calibration latency floor");
+            if (floor.cancelled()) return null;
+
+            // 上限：翻倍加压直到实际吞吐跟不上 (回环上的延迟 SLO 放得很宽，只看吞吐和错误)
+            KneeFinder.Settings settings = new KneeFinder.Settings(1_000, 2, 1_000_000, Duration.ofSeconds(3),
+                    99, TIMEOUT.toNanos(), 0.01, 2, 10_000, TIMEOUT);
+            KneeFinder.Result ceiling = KneeFinder.find(settings, config -> runner.run(new LoadEngine(transport, () -> request, config),
+                    String.format(Locale.ROOT, "Calibration @ %.0f req/s", config.targetRps())));
+            if (ceiling.cancelled()) return null;
+
+            double maxRps = 0;
+            for (KneeFinder.Step step : ceiling.steps()) {
+                LoadResult r = step.result();
+                if (r.errorRate() <= settings.errorBudget()) maxRps = Math.max(maxRps, r.achievedRps());
+            }
+            return new Result(payloadBytes, engine, maxRps, floor.serviceTime().valueAtPercentile(50),
+                    floor.serviceTime().valueAtPercentile(99), System.currentTimeMillis());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.phil.rest.service.load;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phil.rest.model.LoadProfile.FeederStrategy;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 压测数据文件 (CSV / JSONL)：每次执行取一行，把列绑定到 {{列名}} 变量上。
+ * <p>
+ * 小文件直接读进堆，大文件按 1 GiB 分段内存映射，不整体读入；打开时顺序扫描一遍，
+ * 只记录每行的起止偏移 (每行 16 字节)，取行时按偏移把这一行拷进线程本地的缓冲区再切列，
+ * 除了列值本身的 String 外几乎不分配，百万行的文件也不会让数据源成为瓶颈。
+ * <p>
+ * CSV 第一行是表头，支持双引号包裹 (含逗号、换行、"" 转义)；JSONL 每行一个 JSON 对象，
+ * 列取第一行对象的字段名，嵌套对象 / 数组按 JSON 文本绑定。
+ * 多个调度 / 回调线程可以并发调用 {@link #next()}
+ */
+public class DataFeeder {
+
+    /** 不超过这个大小的文件直接读进堆 */
+    static final long MAP_THRESHOLD = 8L << 20;
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+    private static final int SCAN_BUFFER = 64 * 1024;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[4096]);
+
+    private enum Format { CSV, JSONL }
+
+    private final Path path;
+    private final Format format;
+    private final FeederStrategy strategy;
+    private final ByteBuffer[] chunks;
+    private final long size;
+
+    // 第 i 行的字节范围为 [bounds[2i], bounds[2i+1])，不含换行
+    private long[] bounds = new long[1024];
+    private int rowCount;
+    private String[] columnNames;
+    private Map<String, Integer> columns;
+
+    private final AtomicLong cursor = new AtomicLong();
+
+    private DataFeeder(Path path, Format format, FeederStrategy strategy, ByteBuffer[] chunks, long size) {
+        this.path = path;
+        this.format = format;
+        this.strategy = strategy;
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * 打开数据文件并建立行索引，格式按扩展名判断 (.csv / .jsonl / .ndjson)
+     *
+     * @throws IOException 文件不可读、格式不支持或没有数据行
+     */
+    public static DataFeeder open(Path path, FeederStrategy strategy) throws IOException {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        Format format;
+        if (name.endsWith(".csv")) format = Format.CSV;
+        else if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) format = Format.JSONL;
+        else throw new IOException("Unsupported feeder file (expected .csv, .jsonl or .ndjson): " + path.getFileName());
+
+        long size = Files.size(path);
+        ByteBuffer[] chunks;
+        if (size <= MAP_THRESHOLD) {
+            chunks = new ByteBuffer[]{ByteBuffer.wrap(Files.readAllBytes(path))};
+        } else {
+            // 映射在通道关闭后依然有效，直到 buffer 被回收
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                int count = (int) ((size + CHUNK_MASK) >>> CHUNK_BITS);
+                chunks = new ByteBuffer[count];
+                for (int i = 0; i < count; i++) {
+                    long offset = (long) i << CHUNK_BITS;
+                    chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(1L << CHUNK_BITS, size - offset));
+                }
+            }
+        }
+
+        DataFeeder feeder = new DataFeeder(path, format, strategy, chunks, size);
+        feeder.buildIndex();
+        if (feeder.columnNames == null || feeder.columnNames.length == 0) throw new IOException("No columns found in " + path.getFileName());
+        if (feeder.rowCount == 0) throw new IOException("No data rows in " + path.getFileName());
+        return feeder;
+    }
+
+    public Path getPath() { return path; }
+    public FeederStrategy getStrategy() { return strategy; }
+    public int getRowCount() { return rowCount; }
+    public List<String> getColumnNames() { return List.of(columnNames); }
+
+    /**
+     * 按策略取下一行；SEQUENTIAL 用完后返回 null
+     */
+    public @Nullable Row next() {
+        int index = switch (strategy) {
+            case SEQUENTIAL -> {
+                long i = cursor.getAndIncrement();
+                yield i < rowCount ? (int) i : -1;
+            }
+            case CIRCULAR -> (int) Math.floorMod(cursor.getAndIncrement(), (long) rowCount);
+            case RANDOM -> ThreadLocalRandom.current().nextInt(rowCount);
+        };
+        return index < 0 ? null : row(index);
+    }
+
+    /** SEQUENTIAL 的行已经全部取完 */
+    public boolean isExhausted() {
+        return strategy == FeederStrategy.SEQUENTIAL && cursor.get() >= rowCount;
+    }
+
+    /**
+     * 读取第 index 行 (0 起，不含 CSV 表头)
+     *
+     * @throws UncheckedIOException JSONL 行不是合法的 JSON 对象
+     */
+    public Row row(int index) {
+        long start = bounds[2 * index];
+        int len = (int) (bounds[2 * index + 1] - start);
+        byte[] buf = SCRATCH.get();
+        if (buf.length < len) {
+            buf = new byte[Math.max(len, buf.length * 2)];
+            SCRATCH.set(buf);
+        }
+        copy(start, buf, len);
+        String[] values = format == Format.CSV ? parseCsv(buf, len, columnNames.length) : parseJson(buf, len, index);
+        return new Row(columns, values, index);
+    }
+
+    /**
+     * 一行数据，作为变量查找层挂到虚拟用户的 {@link com.phil.rest.service.VariableScope} 上
+     */
+    public static final class Row implements Function<String, String> {
+        private final Map<String, Integer> columns;
+        private final String[] values;
+        private final int index;
+
+        Row(Map<String, Integer> columns, String[] values, int index) {
+            this.columns = columns;
+            this.values = values;
+            this.index = index;
+        }
+
+        /** 列值；没有这一列 (或 JSONL 行里缺这个字段) 时返回 null */
+        @Override
+        public @Nullable String apply(String name) {
+            Integer c = columns.get(name);
+            return c == null ? null : values[c];
+        }
+
+        public int index() { return index; }
+    }
+
+    // ---------- 索引 ----------
+
+    private void buildIndex() throws IOException {
+        byte[] buf = new byte[SCAN_BUFFER];
+        long lineStart = startsWithBom() ? 3 : 0;
+        boolean quoted = false;
+        boolean csv = format == Format.CSV;
+        for (long pos = lineStart; pos < size; ) {
+            int n = (int) Math.min(buf.length, size - pos);
+            copy(pos, buf, n);
+            for (int k = 0; k < n; k++) {
+                byte c = buf[k];
+                if (csv && c == '"') {
+                    quoted = !quoted;
+                } else if (c == '\n' && !quoted) {
+                    addLine(lineStart, pos + k);
+                    lineStart = pos + k + 1;
+                }
+            }
+            pos += n;
+        }
+        if (lineStart < size) addLine(lineStart, size);
+        bounds = Arrays.copyOf(bounds, rowCount * 2);
+    }
+
+    private void addLine(long start, long end) throws IOException {
+        if (end > start && byteAt(end - 1) == '\r') end--;
+        if (end <= start) return;
+        if (columnNames == null) {
+            // 表头 (CSV) 或第一行 (JSONL) 决定列
+            int len = (int) (end - start);
+            byte[] header = new byte[len];
+            copy(start, header, len);
+            columnNames = format == Format.CSV ? csvHeader(header) : jsonHeader(header);
+            columns = new HashMap<>();
+            for (int i = 0; i < columnNames.length; i++) columns.putIfAbsent(columnNames[i], i);
+            if (format == Format.CSV) return;
+        }
+        if (rowCount == Integer.MAX_VALUE / 2) throw new IOException("Too many rows in " + path.getFileName());
+        if (bounds.length < (rowCount + 1) * 2) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        bounds[2 * rowCount] = start;
+        bounds[2 * rowCount + 1] = end;
+        rowCount++;
+    }
+
+    private boolean startsWithBom() {
+        return size >= 3 && byteAt(0) == (byte) 0xEF && byteAt(1) == (byte) 0xBB && byteAt(2) == (byte) 0xBF;
+    }
+
+    private byte byteAt(long pos) {
+        return chunks[(int) (pos >>> CHUNK_BITS)].get((int) (pos & CHUNK_MASK));
+    }
+
+    /** 绝对位置的批量读取，不改动 buffer 的 position，可以多线程并发 */
+    private void copy(long offset, byte[] dst, int len) {
+        int done = 0;
+        while (done < len) {
+            long pos = offset + done;
+            ByteBuffer chunk = chunks[(int) (pos >>> CHUNK_BITS)];
+            int within = (int) (pos & CHUNK_MASK);
+            int n = Math.min(len - done, chunk.limit() - within);
+            chunk.get(within, dst, done, n);
+            done += n;
+        }
+    }
+
+    // ---------- 解析 ----------
+
+    private static String[] csvHeader(byte[] line) {
+        int fields = 1;
+        boolean quoted = false;
+        for (byte c : line) {
+            if (c == '"') quoted = !quoted;
+            else if (c == ',' && !quoted) fields++;
+        }
+        String[] names = parseCsv(line, line.length, fields);
+        for (int i = 0; i < names.length; i++) names[i] = names[i].trim();
+        return names;
+    }
+
+    /**
+     * 按列数切分一行 CSV；列不够时补空串，多出的列忽略
+     */
+    static String[] parseCsv(byte[] b, int len, int columnCount) {
+        String[] out = new String[columnCount];
+        int col = 0;
+        int i = 0;
+        while (i <= len && col < columnCount) {
+            if (i < len && b[i] == '"') {
+                int start = ++i;
+                boolean escaped = false;
+                while (i < len) {
+                    if (b[i] == '"') {
+                        if (i + 1 < len && b[i + 1] == '"') {
+                            escaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                String value = new String(b, start, i - start, StandardCharsets.UTF_8);
+                out[col++] = escaped ? value.replace("\"\"", "\"") : value;
+                while (i < len && b[i] != ',') i++;
+                i++;
+            } else {
+                int start = i;
+                while (i < len && b[i] != ',') i++;
+                out[col++] = new String(b, start, i - start, StandardCharsets.UTF_8);
+                i++;
+            }
+        }
+        while (col < columnCount) out[col++] = "";
+        return out;
+    }
+
+    private static String[] jsonHeader(byte[] line) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (JsonParser p = MAPPER.createParser(line)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) throw new IOException("First JSONL line is not a JSON object");
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                names.add(p.currentName());
+                p.nextToken();
+                p.skipChildren();
+            }
+        }
+        return names.toArray(String[]::new);
+    }
+
+    private String[] parseJson(byte[] b, int len, int index) {
+        String[] out = new String[columnNames.length];
+        try (JsonParser p = MAPPER.createParser(b, 0, len)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) throw new IOException("not a JSON object");
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                Integer c = columns.get(p.currentName());
+                JsonToken t = p.nextToken();
+                if (c == null) {
+                    p.skipChildren();
+                } else if (t.isStructStart()) {
+                    out[c] = MAPPER.readTree(p).toString();
+                } else {
+                    out[c] = t == JsonToken.VALUE_NULL ? "" : p.getText();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid JSONL row " + (index + 1) + " in " + path.getFileName() + ": " + e.getMessage(), e);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,303 @@
+package com.phil.rest.service.load;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 客户端校准用的内嵌 HTTP/1.1 echo 服务：只监听回环地址，把请求体原样作为响应体返回。
+ * <p>
+ * 一个接收线程 + 几个 NIO selector 线程，连接轮流分给 selector；支持 keep-alive 和流水线，
+ * 每个响应只做一次头部拼接和缓冲区拷贝，服务端开销远小于客户端，测到的上限反映的是插件自己的发送路径。
+ * 只认 Content-Length 的请求体 (插件发出的固定 Body 都是这样)，分块请求直接回 400 并关闭连接
+ */
+public final class EchoServer implements AutoCloseable {
+
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+    /** accept 连续失败时的退避区间 */
+    private static final long MIN_ACCEPT_BACKOFF_MILLIS = 10;
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1_000;
+    private static final byte[] BAD_REQUEST =
+            "HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ServerSocketChannel server;
+    private final List<Worker> workers = new ArrayList<>();
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    private EchoServer(int selectorThreads) throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        try {
+            for (int i = 0; i < selectorThreads; i++) {
+                Worker worker = new Worker(i);
+                workers.add(worker);
+                worker.thread.start();
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        acceptor = new Thread(this::acceptLoop, "RestPilot-echo-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * 在回环地址的随机端口上启动，selector 线程数取 CPU 数的一半 (1 到 4 个)，另一半留给客户端
+     */
+    public static EchoServer start() throws IOException {
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        return new EchoServer(threads);
+    }
+
+    public URI uri() {
+        return URI.create("http://127.0.0.1:" + server.socket().getLocalPort() + "/echo");
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            server.close();
+        } catch (IOException ignored) {
+        }
+        for (Worker worker : workers) worker.selector.wakeup();
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        long backoffMillis = 0;
+        while (!closed) {
+            SocketChannel channel = null;
+            try {
+                channel = server.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                backoffMillis = 0;
+                Worker worker = workers.get(next++ % workers.size());
+                worker.pending.add(channel);
+                worker.selector.wakeup();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (closed) return;
+                closeQuietly(channel);
+                // 文件描述符用完之类的错误会马上再次出现：同一轮失败只打印一次，退避后再重试，不空转刷屏
+                if (backoffMillis == 0) e.printStackTrace();
+                backoffMillis = Math.min(Math.max(MIN_ACCEPT_BACKOFF_MILLIS, backoffMillis * 2), MAX_ACCEPT_BACKOFF_MILLIS);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private final class Worker {
+        final Selector selector = Selector.open();
+        final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        final Thread thread;
+        // 同一个 selector 线程上的连接轮流用，读缓冲不需要每个连接一份
+        final ByteBuffer readBuffer = ByteBuffer.allocateDirect(64 * 1024);
+
+        Worker(int index) throws IOException {
+            thread = new Thread(this::loop, "RestPilot-echo-" + index);
+            thread.setDaemon(true);
+        }
+
+        private void loop() {
+            try {
+                while (!closed) {
+                    selector.select();
+                    SocketChannel accepted;
+                    while ((accepted = pending.poll()) != null) {
+                        accepted.register(selector, SelectionKey.OP_READ, new Connection());
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        try {
+                            if (key.isValid() && key.isReadable()) read(key);
+                            if (key.isValid() && key.isWritable()) write(key);
+                        } catch (IOException e) {
+                            closeKey(key);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed) e.printStackTrace();
+            } finally {
+                for (SelectionKey key : selector.keys()) closeKey(key);
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void read(SelectionKey key) throws IOException {
+            SocketChannel channel = (SocketChannel) key.channel();
+            Connection conn = (Connection) key.attachment();
+            readBuffer.clear();
+            int n = channel.read(readBuffer);
+            if (n < 0) {
+                closeKey(key);
+                return;
+            }
+            readBuffer.flip();
+            conn.append(readBuffer);
+            if (!conn.handleRequests()) {
+                conn.output.add(ByteBuffer.wrap(BAD_REQUEST));
+                conn.closeAfterWrite = true;
+            }
+            write(key);
+        }
+
+        private void write(SelectionKey key) throws IOException {
+            SocketChannel channel = (SocketChannel) key.channel();
+            Connection conn = (Connection) key.attachment();
+            while (!conn.output.isEmpty()) {
+                ByteBuffer head = conn.output.peek();
+                channel.write(head);
+                if (head.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                conn.output.poll();
+            }
+            if (conn.closeAfterWrite) {
+                closeKey(key);
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        }
+
+        private void closeKey(SelectionKey key) {
+            key.cancel();
+            try {
+                key.channel().close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /** 一条连接上尚未处理完的输入和待发送的响应 */
+    private static final class Connection {
+        byte[] input = new byte[8 * 1024];
+        int length;
+        final Queue<ByteBuffer> output = new ArrayDeque<>();
+        boolean closeAfterWrite;
+
+        void append(ByteBuffer data) {
+            int needed = length + data.remaining();
+            if (needed > input.length) {
+                byte[] grown = new byte[Math.max(needed, input.length * 2)];
+                System.arraycopy(input, 0, grown, 0, length);
+                input = grown;
+            }
+            data.get(input, length, data.remaining());
+            length = needed;
+        }
+
+        /**
+         * 处理缓冲里所有完整的请求 (流水线)，不完整的留到下次读取；请求不合法时返回 false
+         */
+        boolean handleRequests() {
+            int start = 0;
+            while (true) {
+                int headerEnd = indexOfHeaderEnd(start);
+                if (headerEnd < 0) {
+                    if (length - start > MAX_HEADER_BYTES) return false;
+                    break;
+                }
+                long contentLength = 0;
+                boolean close = false;
+                // 跳过请求行，逐行看 Content-Length / Transfer-Encoding / Connection
+                int line = indexOf((byte) '\n', start, headerEnd) + 1;
+                while (line > 0 && line < headerEnd) {
+                    int eol = indexOf((byte) '\n', line, headerEnd + 2);
+                    if (eol < 0) break;
+                    String header = new String(input, line, eol - line, StandardCharsets.ISO_8859_1).trim();
+                    int colon = header.indexOf(':');
+                    if (colon > 0) {
+                        String name = header.substring(0, colon).trim();
+                        String value = header.substring(colon + 1).trim();
+                        if (name.equalsIgnoreCase("Content-Length")) {
+                            try {
+                                contentLength = Long.parseLong(value);
+                            } catch (NumberFormatException e) {
+                                return false;
+                            }
+                        } else if (name.equalsIgnoreCase("Transfer-Encoding")) {
+                            return false;
+                        } else if (name.equalsIgnoreCase("Connection")) {
+                            close = value.equalsIgnoreCase("close");
+                        }
+                    }
+                    line = eol + 1;
+                }
+                if (contentLength < 0 || contentLength > Integer.MAX_VALUE - 1024) return false;
+                int bodyStart = headerEnd + 4;
+                if (length - bodyStart < contentLength) break;
+
+                int bodyLength = (int) contentLength;
+                byte[] head = ("HTTP/1.1 200 OK\r\nContent-Type: application/octet-stream\r\nContent-Length: " + bodyLength
+                        + (close ? "\r\nConnection: close" : "") + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+                ByteBuffer response = ByteBuffer.allocate(head.length + bodyLength);
+                response.put(head).put(input, bodyStart, bodyLength).flip();
+                output.add(response);
+                start = bodyStart + bodyLength;
+                if (close) {
+                    closeAfterWrite = true;
+                    break;
+                }
+            }
+            // 已处理的部分移出缓冲
+            if (start > 0) {
+                System.arraycopy(input, start, input, 0, length - start);
+                length -= start;
+            }
+            return true;
+        }
+
+        private int indexOfHeaderEnd(int from) {
+            for (int i = from; i + 3 < length; i++) {
+                if (input[i] == '\r' && input[i + 1] == '\n' && input[i + 2] == '\r' && input[i + 3] == '\n') return i;
+            }
+            return -1;
+        }
+
+        private int indexOf(byte b, int from, int to) {
+            for (int i = from; i < Math.min(to, length); i++) {
+                if (input[i] == b) return i;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.phil.rest.service.load;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 拐点探测：逐级提高到达率压同一个请求，直到延迟 SLO、错误预算或吞吐跟不上其中之一被打破，
+ * 再在最后一个达标级和第一个不达标级之间二分几次，给出最大可持续吞吐和延迟曲线开始上翘的位置。
+ * <p>
+ * 每一级都是一次独立的开放模型压测 (由调用方的 {@link StepRunner} 执行)，级与级之间不共享状态
+ */
+public final class KneeFinder {
+
+    /** 实际吞吐低于目标的这个比例时认为服务端 (或本机) 已经跟不上 */
+    public static final double MIN_ACHIEVED_RATIO = 0.9;
+
+    /**
+     * @param startRps        第一级的到达率
+     * @param growthFactor    每级乘以的倍数 (> 1)
+     * @param maxRps          到达率上限，到这里仍达标就停止
+     * @param stepDuration    每一级持续的时间
+     * @param sloPercentile   SLO 看的百分位，例如 99
+     * @param sloLatencyNanos 该百分位延迟上限 (延迟从计划时刻算起)
+     * @param errorBudget     错误率上限 (0-1)
+     * @param refineSteps     越界后二分细化的次数
+     */
+    public record Settings(double startRps, double growthFactor, double maxRps, Duration stepDuration,
+                           double sloPercentile, long sloLatencyNanos, double errorBudget, int refineSteps,
+                           int maxInFlight, Duration timeout) {
+
+        public Settings {
+            if (startRps <= 0) throw new IllegalArgumentException("startRps must be > 0");
+            if (growthFactor <= 1) throw new IllegalArgumentException("growthFactor must be > 1");
+            if (maxRps < startRps) throw new IllegalArgumentException("maxRps must be >= startRps");
+            if (sloLatencyNanos <= 0) throw new IllegalArgumentException("sloLatency must be > 0");
+        }
+
+        LoadConfig configFor(double rps) {
+            return LoadConfig.constant(rps, stepDuration, maxInFlight, timeout);
+        }
+    }
+
+    /** 一级被判定不达标的原因 */
+    public enum Limit { LATENCY, ERRORS, THROUGHPUT }
+
+    /**
+     * @param latencyNanos SLO 百分位上的延迟
+     * @param broken       不达标的原因，达标时为 null
+     */
+    public record Step(double targetRps, LoadResult result, long latencyNanos, @Nullable Limit broken) {
+        public boolean passed() {
+            return broken == null;
+        }
+    }
+
+    /**
+     * @param steps       按到达率从低到高排列的各级结果
+     * @param sustainable 达标的级里实际吞吐最高的一级，第一级就不达标时为 null
+     * @param knee        延迟曲线开始上翘的一级，级数太少无法判断时为 null
+     * @param stoppedBy   最终打破的限制，到达 maxRps 仍达标时为 null
+     */
+    public record Result(Settings settings, List<Step> steps, @Nullable Step sustainable, @Nullable Step knee,
+                         @Nullable Limit stoppedBy, boolean cancelled) {}
+
+    /**
+     * 按给定配置跑一级压测并等待结果 (在调用 {@link #find} 的线程上执行)
+     */
+    @FunctionalInterface
+    public interface StepRunner {
+        LoadResult run(LoadConfig config) throws Exception;
+    }
+
+    private KneeFinder() {
+    }
+
+    public static Result find(Settings settings, StepRunner runner) throws Exception {
+        List<Step> steps = new ArrayList<>();
+        Step lastPass = null;
+        Step firstFail = null;
+
+        double rps = settings.startRps();
+        while (true) {
+            Step step = measure(settings, runner, rps);
+            steps.add(step);
+            if (step.result().cancelled()) return finish(settings, steps, null, true);
+            if (!step.passed()) {
+                firstFail = step;
+                break;
+            }
+            lastPass = step;
+            if (rps >= settings.maxRps()) break;
+            rps = Math.min(rps * settings.growthFactor(), settings.maxRps());
+        }
+
+        // 在最后达标和第一次越界之间二分；区间已经小于 2% 时不再细分
+        for (int i = 0; i < settings.refineSteps() && lastPass != null && firstFail != null; i++) {
+            double low = lastPass.targetRps();
+            double high = firstFail.targetRps();
+            if (high - low < low * 0.02) break;
+            Step step = measure(settings, runner, (low + high) / 2);
+            steps.add(step);
+            if (step.result().cancelled()) return finish(settings, steps, null, true);
+            if (step.passed()) lastPass = step;
+            else firstFail = step;
+        }
+        return finish(settings, steps, firstFail == null ? null : firstFail.broken(), false);
+    }
+
+    private static Step measure(Settings settings, StepRunner runner, double rps) throws Exception {
+        LoadResult result = runner.run(settings.configFor(rps));
+        long latency = result.latency().valueAtPercentile(settings.sloPercentile());
+        Limit broken = null;
+        if (latency > settings.sloLatencyNanos()) broken = Limit.LATENCY;
+        else if (result.errorRate() > settings.errorBudget()) broken = Limit.ERRORS;
+        else if (result.achievedRps() < rps * MIN_ACHIEVED_RATIO) broken = Limit.THROUGHPUT;
+        return new Step(rps, result, latency, broken);
+    }
+
+    private static Result finish(Settings settings, List<Step> steps, @Nullable Limit stoppedBy, boolean cancelled) {
+        // 被取消的那一级数据不完整，不参与判断
+        List<Step> measured = new ArrayList<>();
+        for (Step step : steps) {
+            if (!step.result().cancelled()) measured.add(step);
+        }
+        measured.sort(Comparator.comparingDouble(Step::targetRps));
+
+        // 拐点只在达标的级里找：越界后的延迟 (往往是超时) 会把前面的弯折压平
+        List<Step> passed = new ArrayList<>();
+        Step sustainable = null;
+        for (Step step : measured) {
+            if (!step.passed()) continue;
+            passed.add(step);
+            if (sustainable == null || step.result().achievedRps() > sustainable.result().achievedRps()) {
+                sustainable = step;
+            }
+        }
+        return new Result(settings, List.copyOf(measured), sustainable, knee(passed), stoppedBy, cancelled);
+    }
+
+    /**
+     * Kneedle：到达率和延迟各自归一化到 [0, 1]，延迟随负载上升的曲线是下凸的，
+     * 离首尾连线最远 (x - y 最大) 的点就是拐点。少于 3 级或延迟几乎不变时返回 null
+     */
+    static @Nullable Step knee(List<Step> sorted) {
+        if (sorted.size() < 3) return null;
+        double minX = sorted.get(0).targetRps();
+        double maxX = sorted.get(sorted.size() - 1).targetRps();
+        long minY = Long.MAX_VALUE;
+        long maxY = Long.MIN_VALUE;
+        for (Step step : sorted) {
+            minY = Math.min(minY, step.latencyNanos());
+            maxY = Math.max(maxY, step.latencyNanos());
+        }
+        // 延迟变化不到 10% 说明还没压到拐点
+        if (maxX <= minX || maxY <= minY * 1.1) return null;
+
+        Step knee = null;
+        double best = 0;
+        for (int i = 1; i < sorted.size() - 1; i++) {
+            Step step = sorted.get(i);
+            double x = (step.targetRps() - minX) / (maxX - minX);
+            double y = (double) (step.latencyNanos() - minY) / (maxY - minY);
+            if (x - y > best) {
+                best = x - y;
+                knee = step;
+            }
+        }
+        return knee;
+    }
+}
@@ -0,0 +1,219 @@
+package com.phil.rest.service.load;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 高动态范围延迟直方图 (纳秒)，思路与 HdrHistogram 相同的对数-线性分桶：
+ * 0 ~ 255ns 每纳秒一个桶，之后每个 2 的幂区间再均分 128 个子桶，相对误差 < 0.8%。
+ * 覆盖到约 2.4 小时 (2^43 ns)，更大的值计入最后一个桶；整张表约 4.8k 个 long。
+ * <p>
+ * 本类不是线程安全的，用于合并后的快照 / 报告；并发记录用 {@link LatencyRecorder}
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 7;
+    static final int SUB_BUCKET_HALF = 1 << SUB_BUCKET_BITS;       // 128
+    static final int LINEAR_LIMIT = SUB_BUCKET_HALF << 1;          // 256
+    static final int MAX_MAGNITUDE = 43;
+    static final long MAX_TRACKABLE = (1L << MAX_MAGNITUDE) - 1;
+    static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE) + 1;
+
+    private final long[] counts;
+    private long totalCount;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    private double sum;
+
+    public LatencyHistogram() {
+        this.counts = new long[BUCKET_COUNT];
+    }
+
+    LatencyHistogram(long[] counts, long min, long max, double sum) {
+        this.counts = counts;
+        for (long c : counts) totalCount += c;
+        this.min = min;
+        this.max = max;
+        this.sum = sum;
+    }
+
+    public void record(long valueNanos) {
+        record(valueNanos, 1);
+    }
+
+    public void record(long valueNanos, long count) {
+        long v = Math.max(0, valueNanos);
+        counts[indexOf(v)] += count;
+        totalCount += count;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+        sum += (double) v * count;
+    }
+
+    /** 把另一个直方图累加进来 (多个 recorder / worker 的结果合并) */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+        totalCount += other.totalCount;
+        if (other.totalCount > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        sum += other.sum;
+    }
+
+    public LatencyHistogram copy() {
+        return new LatencyHistogram(counts.clone(), min, max, sum);
+    }
+
+    public static LatencyHistogram merge(LatencyHistogram a, LatencyHistogram b) {
+        LatencyHistogram merged = a.copy();
+        merged.add(b);
+        return merged;
+    }
+
+    public long getTotalCount() { return totalCount; }
+    public long getMin() { return totalCount == 0 ? 0 : min; }
+    public long getMax() { return max; }
+    public double getMean() { return totalCount == 0 ? 0 : sum / totalCount; }
+
+    /**
+     * 百分位对应的值 (纳秒)，percentile 取 0 ~ 100。返回桶的中点，并限制在实际记录的 [min, max] 内
+     */
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) return 0;
+        double p = Math.min(100.0, Math.max(0.0, percentile));
+        if (p >= 100.0) return max;
+        long target = Math.max(1, (long) Math.ceil(p / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                long mid = lowestValueAt(i) + (bucketWidth(i) >> 1);
+                return Math.max(getMin(), Math.min(max, mid));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 按给定边界 (升序，长度 bins + 1) 统计每段的计数，用于画分布图。
+     * 成功 / 失败两张直方图用同一组边界才能画在一起
+     */
+    public long[] countsBetween(long[] edges) {
+        int bins = edges.length - 1;
+        long[] result = new long[Math.max(0, bins)];
+        if (bins <= 0) return result;
+        int b = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            long v = lowestValueAt(i);
+            while (b < bins - 1 && v >= edges[b + 1]) b++;
+            result[b] += counts[i];
+        }
+        return result;
+    }
+
+    /**
+     * [min, max] 上的对数刻度边界
+     */
+    public static long[] logEdges(long min, long max, int bins) {
+        long[] edges = new long[bins + 1];
+        double lo = Math.log(Math.max(1, min));
+        double hi = Math.log(Math.max(Math.max(1, min) + 1, max));
+        double step = (hi - lo) / bins;
+        for (int b = 0; b <= bins; b++) edges[b] = (long) Math.exp(lo + step * b);
+        edges[bins] = Math.max(edges[bins], max);
+        return edges;
+    }
+
+    /**
+     * 紧凑的二进制形式：只写非零桶，桶下标用差值、计数用变长整数编码。
+     * 一次压测的直方图通常只有几百个非零桶，序列化后几 KB；保存压测记录、跨进程合并结果都用它
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(SUB_BUCKET_BITS);
+        int nonZero = 0;
+        for (long c : counts) if (c != 0) nonZero++;
+        writeVarLong(out, nonZero);
+        int previous = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            writeVarLong(out, i - previous);
+            writeVarLong(out, counts[i]);
+            previous = i;
+        }
+        writeVarLong(out, getMin());
+        writeVarLong(out, max);
+        out.writeDouble(sum);
+    }
+
+    /**
+     * @throws IOException 数据损坏或分桶精度与当前版本不一致
+     */
+    public static LatencyHistogram readFrom(DataInput in) throws IOException {
+        int bits = in.readByte();
+        if (bits != SUB_BUCKET_BITS) throw new IOException("Unsupported histogram precision: " + bits);
+        long nonZero = readVarLong(in);
+        if (nonZero > BUCKET_COUNT) throw new IOException("Corrupted histogram");
+        long[] counts = new long[BUCKET_COUNT];
+        int index = 0;
+        for (long k = 0; k < nonZero; k++) {
+            long next = index + readVarLong(in);
+            if (next >= BUCKET_COUNT) throw new IOException("Corrupted histogram");
+            index = (int) next;
+            counts[index] = readVarLong(in);
+        }
+        long min = readVarLong(in);
+        long max = readVarLong(in);
+        double sum = in.readDouble();
+        return new LatencyHistogram(counts, nonZero == 0 ? Long.MAX_VALUE : min, max, sum);
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    long[] counts() {
+        return counts;
+    }
+
+    double sum() {
+        return sum;
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) return (int) value;
+        long v = Math.min(value, MAX_TRACKABLE);
+        int shift = (63 - Long.numberOfLeadingZeros(v)) - SUB_BUCKET_BITS;
+        int sub = (int) (v >>> shift);  // [128, 255]
+        return shift * SUB_BUCKET_HALF + sub;
+    }
+
+    static long lowestValueAt(int index) {
+        if (index < LINEAR_LIMIT) return index;
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long sub = index % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return sub << shift;
+    }
+
+    static long bucketWidth(int index) {
+        if (index < LINEAR_LIMIT) return 1;
+        return 1L << (index / SUB_BUCKET_HALF - 1);
+    }
+}
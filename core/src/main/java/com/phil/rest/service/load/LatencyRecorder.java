@@ -0,0 +1,66 @@
+package com.phil.rest.service.load;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * 无锁并发记录器：按线程 id 分到若干条带 (stripe)，每条带一张 AtomicLongArray 计数表，
+ * 记录时只做一次原子自增，不加锁；快照时把所有条带合并成一个 {@link LatencyHistogram}。
+ * <p>
+ * 不按 "每个线程一张表"：响应回调跑在大量虚拟线程上，条带数按 CPU 数固定，内存可控。
+ * 条带懒分配，只用到的条带才占内存。
+ */
+public class LatencyRecorder {
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes;
+    private final int mask;
+    private final LongAccumulator min = new LongAccumulator(Long::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+    private final DoubleAdder sum = new DoubleAdder();
+
+    public LatencyRecorder() {
+        int n = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1) << 1;
+        this.stripes = new AtomicReferenceArray<>(n);
+        this.mask = n - 1;
+    }
+
+    public void record(long valueNanos) {
+        long v = Math.max(0, valueNanos);
+        stripe().incrementAndGet(LatencyHistogram.indexOf(v));
+        min.accumulate(v);
+        max.accumulate(v);
+        sum.add(v);
+    }
+
+    /**
+     * 合并当前所有条带的计数 (不清零)。与 record 并发时快照是近似一致的，计数不会丢
+     */
+    public LatencyHistogram snapshot() {
+        long[] counts = new long[LatencyHistogram.BUCKET_COUNT];
+        for (int s = 0; s < stripes.length(); s++) {
+            AtomicLongArray stripe = stripes.get(s);
+            if (stripe == null) continue;
+            for (int i = 0; i < counts.length; i++) counts[i] += stripe.get(i);
+        }
+        return new LatencyHistogram(counts, min.get(), max.get(), sum.sum());
+    }
+
+    private AtomicLongArray stripe() {
+        int s = (int) mix(Thread.currentThread().threadId()) & mask;
+        AtomicLongArray stripe = stripes.get(s);
+        if (stripe == null) {
+            stripes.compareAndSet(s, null, new AtomicLongArray(LatencyHistogram.BUCKET_COUNT));
+            stripe = stripes.get(s);
+        }
+        return stripe;
+    }
+
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        return x;
+    }
+}
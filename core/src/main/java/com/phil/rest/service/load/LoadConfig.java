@@ -0,0 +1,37 @@
+package com.phil.rest.service.load;
+
+import java.time.Duration;
+
+/**
+ * 一次压测的参数 (开放模型：按计划到达率发请求，不等上一个请求返回)
+ *
+ * @param profile     到达率曲线 (恒定速率或 ramp / hold / spike / soak 阶段)
+ * @param maxInFlight 在途请求上限，保护本机内存 / 文件句柄；达到上限时调度会被推迟，推迟的时间计入延迟
+ * @param timeout     单个请求的超时；发送阶段结束后最多再等这么久让在途请求返回
+ */
+public record LoadConfig(RateProfile profile, int maxInFlight, Duration timeout) {
+
+    public LoadConfig {
+        if (profile.durationNanos() <= 0) throw new IllegalArgumentException("duration must be > 0");
+        if (maxInFlight <= 0) throw new IllegalArgumentException("maxInFlight must be > 0");
+    }
+
+    public static LoadConfig constant(double targetRps, Duration duration, int maxInFlight, Duration timeout) {
+        if (targetRps <= 0) throw new IllegalArgumentException("targetRps must be > 0");
+        return new LoadConfig(RateProfile.constant(targetRps, duration.toNanos()), maxInFlight, timeout);
+    }
+
+    public Duration duration() {
+        return Duration.ofNanos(profile.durationNanos());
+    }
+
+    /** 整个过程的平均目标速率 */
+    public double targetRps() {
+        return profile.averageRps();
+    }
+
+    /** 按计划会发出的请求总数 */
+    public long plannedRequests() {
+        return profile.plannedRequests();
+    }
+}
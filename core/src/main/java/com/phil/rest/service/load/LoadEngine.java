@@ -0,0 +1,282 @@
+package com.phil.rest.service.load;
+
+import com.phil.rest.model.RestResponse;
+import com.phil.rest.service.transport.HttpTransport;
+import com.phil.rest.service.transport.TransportRequest;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * 开放模型压测引擎：按目标到达率排好每个请求的计划发送时刻，由一个调度线程准时发出，
+ * 请求本身异步交给传输引擎，不等待响应，也不为每个请求占一个平台线程。
+ * <p>
+ * 协调遗漏修正：延迟从 "计划发送时刻" 算起。服务端变慢导致在途请求堆到上限、调度被推迟时，
+ * 推迟的时间会计入延迟，而不是像闭环压测那样悄悄降低发送速率、把慢请求藏起来。
+ * 真正发出到返回的时间单独记为 service time。
+ */
+public class LoadEngine implements LoadGenerator {
+
+    /** 调度线程提前醒来的余量，剩下的用自旋对齐 */
+    private static final long SPIN_THRESHOLD_NANOS = 100_000;
+
+    private final LoadWorkload workload;
+    private final LoadConfig config;
+    // 单次执行的超时：多步场景按步数放大
+    private final long executionTimeoutMillis;
+
+    private final Semaphore permits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Set<CompletableFuture<RestResponse>> outstanding = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    // 成功 / 失败 (非 2xx 与传输错误) 分开记录，慢的错误不会把成功请求的百分位拉偏
+    private final LatencyRecorder successLatency = new LatencyRecorder();
+    private final LatencyRecorder failureLatency = new LatencyRecorder();
+    private final LatencyRecorder serviceTime = new LatencyRecorder();
+    // 逐秒统计：每秒换一个新的 recorder，旧的汇总成一个样本写进环形缓冲
+    private final AtomicReference<LatencyRecorder> intervalLatency = new AtomicReference<>(new LatencyRecorder());
+    private final LoadTimeSeries timeSeries = new LoadTimeSeries();
+    private long lastSent, lastCompleted, lastFailures, secondIndex;
+    private final LongAccumulator maxLag = new LongAccumulator(Long::max, 0);
+    private final LongAccumulator lastCompletion = new LongAccumulator(Long::max, Long.MIN_VALUE);
+
+    private final CompletableFuture<LoadResult> result = new CompletableFuture<>();
+    private volatile boolean stopped;
+    private volatile long startNanos;
+    private Thread scheduler;
+    private volatile IntervalListener intervalListener;
+
+    /**
+     * @param requests 每次发送时调用一次；同一个 TransportRequest 可以重复返回 (Body 可重复订阅)
+     */
+    public LoadEngine(HttpTransport transport, Supplier<TransportRequest> requests, LoadConfig config) {
+        this(LoadWorkload.single(transport, requests), config);
+    }
+
+    /**
+     * @param workload 每个计划时刻执行一次；多步场景时一次执行算一个 "请求" 计入吞吐与延迟
+     */
+    public LoadEngine(LoadWorkload workload, LoadConfig config) {
+        this.workload = workload;
+        this.config = config;
+        this.permits = new Semaphore(config.maxInFlight());
+        this.executionTimeoutMillis = config.timeout().toMillis() * Math.max(1, workload.stepCount());
+    }
+
+    @Override
+    public synchronized CompletableFuture<LoadResult> start() {
+        if (scheduler != null) throw new IllegalStateException("LoadEngine already started");
+        // 调度用平台线程：虚拟线程的 park 精度依赖载体线程调度，高速率下抖动更大
+        scheduler = new Thread(this::runSchedule, "RestPilot-load-scheduler");
+        scheduler.setDaemon(true);
+        scheduler.start();
+        return result;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        outstanding.forEach(f -> f.cancel(true));
+    }
+
+    @Override
+    public Progress progress() {
+        long start = startNanos;
+        long elapsed = start == 0 ? 0 : System.nanoTime() - start;
+        return new Progress(elapsed, sent.sum(), succeeded.sum() + failed.sum() + errors.sum(),
+                failed.sum() + errors.sum(), inFlight.get());
+    }
+
+    @Override
+    public LoadConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public LoadTimeSeries getTimeSeries() {
+        return timeSeries;
+    }
+
+    /**
+     * 每秒汇总后回调一次 (在计时线程上)，带上这一秒可合并的延迟直方图；worker 进程用它把数据流回 IDE
+     */
+    public void setIntervalListener(@Nullable IntervalListener listener) {
+        this.intervalListener = listener;
+    }
+
+    @FunctionalInterface
+    public interface IntervalListener {
+        void intervalCompleted(LoadTimeSeries.Sample sample, LatencyHistogram latency);
+    }
+
+    private void runSchedule() {
+        RateProfile profile = config.profile();
+        long t0 = System.nanoTime();
+        long end = t0 + profile.durationNanos();
+        startNanos = t0;
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "RestPilot-load-ticker");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+
+        try {
+            for (long i = 0; ; i++) {
+                long offset = profile.arrivalOffset(i);
+                if (offset < 0 || stopped || workload.isExhausted()) break;
+                long intended = t0 + offset;
+                if (!waitUntil(intended)) break;
+                if (!acquirePermit()) break;
+                dispatch(intended);
+            }
+            long sendWindow = Math.min(System.nanoTime(), end) - t0;
+            drain();
+            shutdownTicker(ticker);
+            result.complete(snapshot(t0, sendWindow));
+        } catch (Throwable e) {
+            shutdownTicker(ticker);
+            stop();
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void dispatch(long intended) {
+        long actual = System.nanoTime();
+        maxLag.accumulate(actual - intended);
+        sent.increment();
+        inFlight.incrementAndGet();
+
+        CompletableFuture<RestResponse> future;
+        try {
+            future = workload.execute();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<RestResponse> tracked = future;
+        outstanding.add(tracked);
+        tracked.orTimeout(executionTimeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((response, ex) -> {
+                    long now = System.nanoTime();
+                    outstanding.remove(tracked);
+                    record(intended, actual, now, response, ex);
+                    inFlight.decrementAndGet();
+                    permits.release();
+                });
+    }
+
+    private void record(long intended, long actual, long now, RestResponse response, Throwable ex) {
+        long latency = now - intended;
+        if (ex != null || response == null || response.getStatusCode() == 0) {
+            errors.increment();
+            failureLatency.record(latency);
+        } else if (response.getStatusCode() >= 200 && response.getStatusCode() < 300) {
+            succeeded.increment();
+            successLatency.record(latency);
+        } else {
+            failed.increment();
+            failureLatency.record(latency);
+        }
+        serviceTime.record(now - actual);
+        intervalLatency.get().record(latency);
+        lastCompletion.accumulate(now);
+    }
+
+    /**
+     * 汇总过去一秒：只在计时线程上执行 (结束时的最后一次在 ticker 停止之后)
+     */
+    private void tick() {
+        LatencyHistogram interval = intervalLatency.getAndSet(new LatencyRecorder()).snapshot();
+        long s = sent.sum();
+        long failures = failed.sum() + errors.sum();
+        long completed = succeeded.sum() + failures;
+        // 这一秒中点的目标速率
+        double target = config.profile().rateAt(secondIndex * 1_000_000_000L + 500_000_000L);
+        LoadTimeSeries.Sample sample = new LoadTimeSeries.Sample(secondIndex++, target,
+                s - lastSent, completed - lastCompleted, failures - lastFailures, inFlight.get(),
+                interval.valueAtPercentile(50), interval.valueAtPercentile(90), interval.valueAtPercentile(99),
+                interval.getMax());
+        timeSeries.add(sample);
+        IntervalListener listener = intervalListener;
+        if (listener != null) listener.intervalCompleted(sample, interval);
+        lastSent = s;
+        lastCompleted = completed;
+        lastFailures = failures;
+    }
+
+    private void shutdownTicker(ScheduledExecutorService ticker) {
+        ticker.shutdown();
+        try {
+            if (ticker.awaitTermination(1, TimeUnit.SECONDS)) {
+                // 最后不足一秒的部分也写进去
+                tick();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 等到计划时刻；被 stop 时返回 false
+     */
+    private boolean waitUntil(long deadline) {
+        while (true) {
+            if (stopped) return false;
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return true;
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * 在途请求到达上限时阻塞调度 (此时延迟会随计划时刻一起累加)；被 stop 时返回 false
+     */
+    private boolean acquirePermit() throws InterruptedException {
+        while (!permits.tryAcquire(10, TimeUnit.MILLISECONDS)) {
+            if (stopped) return false;
+        }
+        return true;
+    }
+
+    private void drain() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(executionTimeoutMillis);
+        while (inFlight.get() > 0 && !stopped && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        if (inFlight.get() > 0) {
+            outstanding.forEach(f -> f.cancel(true));
+            // 取消回调是同步执行的，这里只等计数归零
+            long cancelDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (inFlight.get() > 0 && System.nanoTime() < cancelDeadline) Thread.sleep(1);
+        }
+    }
+
+    private LoadResult snapshot(long t0, long sendWindow) {
+        long last = lastCompletion.get();
+        long elapsed = last == Long.MIN_VALUE ? sendWindow : Math.max(sendWindow, last - t0);
+        return new LoadResult(config.targetRps(), config.plannedRequests(), sent.sum(),
+                succeeded.sum(), failed.sum(), errors.sum(), elapsed, sendWindow, maxLag.get(),
+                successLatency.snapshot(), failureLatency.snapshot(), serviceTime.snapshot(),
+                workload.stepResults(), stopped);
+    }
+}
@@ -0,0 +1,32 @@
+package com.phil.rest.service.load;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 一次压测的执行者：IDE 进程内的 {@link LoadEngine}，或把负载分给本机 worker 进程的 {@link WorkerCluster}。
+ * Load 面板、进度条和结果保存只依赖这个接口
+ */
+public interface LoadGenerator {
+
+    /**
+     * 开始压测，返回的 Future 在发送阶段结束且在途请求全部返回 (或超时) 后完成；只能调用一次
+     */
+    CompletableFuture<LoadResult> start();
+
+    /**
+     * 停止发送并取消所有在途请求，Future 随后以 cancelled 的结果完成
+     */
+    void stop();
+
+    Progress progress();
+
+    LoadConfig getConfig();
+
+    /** 逐秒时间序列 (运行中持续追加) */
+    LoadTimeSeries getTimeSeries();
+
+    /**
+     * 运行中的实时计数，给进度条 / 面板轮询
+     */
+    record Progress(long elapsedNanos, long sent, long completed, long failures, int inFlight) {}
+}
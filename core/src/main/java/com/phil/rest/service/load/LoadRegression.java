@@ -0,0 +1,70 @@
+package com.phil.rest.service.load;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 把一次压测和基线对比，按阈值判定是否退化
+ */
+public final class LoadRegression {
+
+    /**
+     * 判定阈值
+     *
+     * @param latencyPercent     P50 / P90 允许变慢的百分比
+     * @param tailLatencyPercent P99 / P99.9 允许变慢的百分比 (尾延迟天然抖动更大)
+     * @param errorRatePoints    错误率允许上升的百分点
+     * @param throughputPercent  实际吞吐允许下降的百分比
+     */
+    public record Thresholds(double latencyPercent, double tailLatencyPercent, double errorRatePoints,
+                             double throughputPercent) {}
+
+    /**
+     * 单项对比。delta 为相对基线变化的百分比 (错误率一项为百分点)；latency 表示数值是纳秒延迟
+     */
+    public record Check(String metric, double baseline, double candidate, double delta, double limit,
+                        boolean regressed, boolean latency) {}
+
+    public record Report(LoadRun baseline, LoadRun candidate, List<Check> checks) {
+
+        public boolean regressed() {
+            return checks.stream().anyMatch(Check::regressed);
+        }
+
+        public List<Check> regressions() {
+            return checks.stream().filter(Check::regressed).toList();
+        }
+    }
+
+    private LoadRegression() {}
+
+    public static Report compare(LoadRun baseline, LoadRun candidate, Thresholds thresholds) {
+        List<Check> checks = new ArrayList<>();
+        LatencyHistogram base = baseline.result().latency();
+        LatencyHistogram cand = candidate.result().latency();
+        boolean comparable = base.getTotalCount() > 0 && cand.getTotalCount() > 0;
+        for (double p : LoadResult.PERCENTILES) {
+            double limit = p >= 99 ? thresholds.tailLatencyPercent() : thresholds.latencyPercent();
+            double b = base.valueAtPercentile(p);
+            double c = cand.valueAtPercentile(p);
+            double delta = b > 0 ? (c - b) / b * 100 : 0;
+            checks.add(new Check("P" + formatPercentile(p), b, c, delta, limit, comparable && delta > limit, true));
+        }
+
+        double baseErrors = baseline.result().errorRate() * 100;
+        double candErrors = candidate.result().errorRate() * 100;
+        checks.add(new Check("Error rate", baseErrors, candErrors, candErrors - baseErrors, thresholds.errorRatePoints(),
+                candErrors - baseErrors > thresholds.errorRatePoints(), false));
+
+        double baseRps = baseline.result().achievedRps();
+        double candRps = candidate.result().achievedRps();
+        double rpsDelta = baseRps > 0 ? (candRps - baseRps) / baseRps * 100 : 0;
+        checks.add(new Check("Throughput", baseRps, candRps, rpsDelta, thresholds.throughputPercent(),
+                -rpsDelta > thresholds.throughputPercent(), false));
+        return new Report(baseline, candidate, checks);
+    }
+
+    public static String formatPercentile(double p) {
+        return p == Math.floor(p) ? String.valueOf((long) p) : String.valueOf(p);
+    }
+}
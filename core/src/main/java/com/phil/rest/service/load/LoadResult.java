@@ -0,0 +1,50 @@
+package com.phil.rest.service.load;
+
+import java.util.List;
+
+/**
+ * 压测结果。延迟单位均为纳秒：
+ * latency 从计划发送时刻算起 (修正协调遗漏，调度被推迟的时间也算在内)，service 从真正发出算起
+ *
+ * @param sent           实际发出的请求数
+ * @param succeeded      2xx 响应数
+ * @param failed         非 2xx 响应数
+ * @param errors         连接失败 / 超时等没有响应的请求数
+ * @param elapsedNanos   从第一个计划时刻到最后一个响应返回的时间
+ * @param maxLagNanos    发送时刻落后计划时刻的最大值，明显大于 0 说明本机 (或在途上限) 成了瓶颈
+ * @param successLatency 2xx 响应的延迟分布
+ * @param failureLatency 非 2xx 响应与传输错误的延迟分布
+ * @param serviceTime    所有请求从真正发出到返回的时间分布
+ * @param steps          场景压测的逐步统计 (此时上面的 "请求" 指一次完整的场景执行)，单请求压测时为空
+ */
+public record LoadResult(double targetRps, long planned, long sent, long succeeded, long failed, long errors,
+                         long elapsedNanos, long sendWindowNanos, long maxLagNanos,
+                         LatencyHistogram successLatency, LatencyHistogram failureLatency, LatencyHistogram serviceTime,
+                         List<StepResult> steps, boolean cancelled) {
+
+    /** 报告里展示的百分位 */
+    public static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    public long completed() {
+        return succeeded + failed + errors;
+    }
+
+    /** 实际发出速率 (发送阶段内) */
+    public double sentRps() {
+        return sendWindowNanos > 0 ? sent * 1e9 / sendWindowNanos : 0;
+    }
+
+    /** 实际完成吞吐 */
+    public double achievedRps() {
+        return elapsedNanos > 0 ? completed() * 1e9 / elapsedNanos : 0;
+    }
+
+    /** 全部请求 (成功 + 失败) 的延迟分布 */
+    public LatencyHistogram latency() {
+        return LatencyHistogram.merge(successLatency, failureLatency);
+    }
+
+    public double errorRate() {
+        return completed() > 0 ? (double) (failed + errors) / completed() : 0;
+    }
+}
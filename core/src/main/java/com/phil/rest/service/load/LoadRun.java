@@ -0,0 +1,21 @@
+package com.phil.rest.service.load;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 一次保存下来的压测：配置、目标、环境、结果 (含完整直方图) 以及逐秒时间序列
+ *
+ * @param label  压测名称 ("GET url" 或 "Scenario 文件夹名")，同名的压测共用一个基线
+ * @param target 目标 URL，场景压测时为文件夹名
+ * @param env    压测时选中的环境名，没有时为空串
+ */
+public record LoadRun(String id, long startedAtMillis, String label, String target, String env,
+                      LoadConfig config, LoadResult result, List<LoadTimeSeries.Sample> samples) {
+
+    public static LoadRun create(long startedAtMillis, String label, String target, String env,
+                                 LoadConfig config, LoadResult result, List<LoadTimeSeries.Sample> samples) {
+        String id = startedAtMillis + "-" + UUID.randomUUID().toString().substring(0, 8);
+        return new LoadRun(id, startedAtMillis, label, target, env == null ? "" : env, config, result, List.copyOf(samples));
+    }
+}
@@ -0,0 +1,183 @@
+package com.phil.rest.service.load;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压测记录的二进制格式：魔数 + 版本号，计数类字段用变长整数，直方图只写非零桶
+ * (见 {@link LatencyHistogram#writeTo})。一次几分钟的压测通常只有几十 KB，大部分是逐秒序列
+ */
+public final class LoadRunCodec {
+
+    private static final int MAGIC = 0x52504C52;   // "RPLR"
+    private static final int VERSION = 1;
+
+    private LoadRunCodec() {}
+
+    public static void write(LoadRun run, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        writeString(out, run.id());
+        out.writeLong(run.startedAtMillis());
+        writeString(out, run.label());
+        writeString(out, run.target());
+        writeString(out, run.env());
+
+        writeConfig(out, run.config());
+        writeResult(out, run.result());
+
+        varLong(out, run.samples().size());
+        for (LoadTimeSeries.Sample s : run.samples()) writeSample(out, s);
+        out.flush();
+    }
+
+    /**
+     * @throws IOException 不是压测记录文件、版本不支持或数据损坏
+     */
+    public static LoadRun read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) throw new IOException("Not a load run file");
+        int version = in.readShort();
+        if (version != VERSION) throw new IOException("Unsupported load run version: " + version);
+        String id = readString(in);
+        long startedAt = in.readLong();
+        String label = readString(in);
+        String target = readString(in);
+        String env = readString(in);
+
+        LoadConfig config = readConfig(in);
+        LoadResult result = readResult(in);
+
+        int sampleCount = count(in);
+        List<LoadTimeSeries.Sample> samples = new ArrayList<>(sampleCount);
+        for (int i = 0; i < sampleCount; i++) samples.add(readSample(in));
+        return new LoadRun(id, startedAt, label, target, env, config, result, samples);
+    }
+
+    /** 到达率曲线 + 在途上限 + 超时 (worker 协议也用它下发配置) */
+    static void writeConfig(DataOutput out, LoadConfig config) throws IOException {
+        List<RateProfile.Segment> segments = config.profile().segments();
+        varLong(out, segments.size());
+        for (RateProfile.Segment s : segments) {
+            out.writeDouble(s.fromRps());
+            out.writeDouble(s.toRps());
+            varLong(out, s.durationNanos());
+        }
+        varLong(out, config.maxInFlight());
+        varLong(out, config.timeout().toMillis());
+    }
+
+    static LoadConfig readConfig(DataInput in) throws IOException {
+        int segmentCount = count(in);
+        List<RateProfile.Segment> segments = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            segments.add(new RateProfile.Segment(in.readDouble(), in.readDouble(), varLong(in)));
+        }
+        int maxInFlight = (int) varLong(in);
+        Duration timeout = Duration.ofMillis(varLong(in));
+        try {
+            return new LoadConfig(RateProfile.of(segments), maxInFlight, timeout);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupted load config: " + e.getMessage(), e);
+        }
+    }
+
+    /** 计数 + 三个直方图 + 逐步统计 (worker 协议也用它回传结果) */
+    static void writeResult(DataOutput out, LoadResult r) throws IOException {
+        out.writeDouble(r.targetRps());
+        varLong(out, r.planned());
+        varLong(out, r.sent());
+        varLong(out, r.succeeded());
+        varLong(out, r.failed());
+        varLong(out, r.errors());
+        varLong(out, r.elapsedNanos());
+        varLong(out, r.sendWindowNanos());
+        varLong(out, r.maxLagNanos());
+        out.writeBoolean(r.cancelled());
+        r.successLatency().writeTo(out);
+        r.failureLatency().writeTo(out);
+        r.serviceTime().writeTo(out);
+        varLong(out, r.steps().size());
+        for (StepResult step : r.steps()) {
+            writeString(out, step.scenario());
+            writeString(out, step.step());
+            varLong(out, step.sent());
+            varLong(out, step.succeeded());
+            varLong(out, step.failed());
+            varLong(out, step.errors());
+            step.latency().writeTo(out);
+        }
+    }
+
+    static LoadResult readResult(DataInput in) throws IOException {
+        double targetRps = in.readDouble();
+        long planned = varLong(in), sent = varLong(in), succeeded = varLong(in), failed = varLong(in), errors = varLong(in);
+        long elapsed = varLong(in), sendWindow = varLong(in), maxLag = varLong(in);
+        boolean cancelled = in.readBoolean();
+        LatencyHistogram success = LatencyHistogram.readFrom(in);
+        LatencyHistogram failure = LatencyHistogram.readFrom(in);
+        LatencyHistogram service = LatencyHistogram.readFrom(in);
+        int stepCount = count(in);
+        List<StepResult> steps = new ArrayList<>(stepCount);
+        for (int i = 0; i < stepCount; i++) {
+            steps.add(new StepResult(readString(in), readString(in), varLong(in), varLong(in), varLong(in), varLong(in),
+                    LatencyHistogram.readFrom(in)));
+        }
+        return new LoadResult(targetRps, planned, sent, succeeded, failed, errors, elapsed, sendWindow, maxLag,
+                success, failure, service, steps, cancelled);
+    }
+
+    static void writeSample(DataOutput out, LoadTimeSeries.Sample s) throws IOException {
+        varLong(out, s.second());
+        out.writeDouble(s.targetRps());
+        varLong(out, s.sent());
+        varLong(out, s.completed());
+        varLong(out, s.failures());
+        varLong(out, s.inFlight());
+        varLong(out, s.p50Nanos());
+        varLong(out, s.p90Nanos());
+        varLong(out, s.p99Nanos());
+        varLong(out, s.maxNanos());
+    }
+
+    static LoadTimeSeries.Sample readSample(DataInput in) throws IOException {
+        return new LoadTimeSeries.Sample(varLong(in), in.readDouble(), varLong(in), varLong(in), varLong(in),
+                (int) varLong(in), varLong(in), varLong(in), varLong(in), varLong(in));
+    }
+
+    private static void varLong(DataOutput out, long value) throws IOException {
+        LatencyHistogram.writeVarLong(out, value);
+    }
+
+    private static long varLong(DataInput in) throws IOException {
+        return LatencyHistogram.readVarLong(in);
+    }
+
+    static int count(DataInput in) throws IOException {
+        long n = varLong(in);
+        if (n < 0 || n > 10_000_000) throw new IOException("Corrupted load run");
+        return (int) n;
+    }
+
+    static void writeString(DataOutput out, String s) throws IOException {
+        byte[] bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        varLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[count(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,47 @@
+package com.phil.rest.service.load;
+
+import com.phil.rest.model.CollectionNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 场景：一组按顺序执行的请求 (例如 登录 → 列表 → 详情)，前一步的提取规则产出的变量供后面的步骤使用
+ *
+ * @param weight 多个场景混合压测时被选中的相对权重
+ * @param steps  请求节点，按执行顺序
+ */
+public record LoadScenario(String name, int weight, List<CollectionNode> steps) {
+
+    /**
+     * 把文件夹展开成场景：
+     * 文件夹自己直接包含的请求组成一个场景；每个子文件夹 (连同更深层的请求，按树的顺序) 各组成一个场景，
+     * 权重取各自文件夹的 loadWeight。没有请求的文件夹不产生场景
+     */
+    public static List<LoadScenario> fromFolder(CollectionNode folder) {
+        List<LoadScenario> scenarios = new ArrayList<>();
+        List<CollectionNode> direct = new ArrayList<>();
+        for (CollectionNode child : folder.getChildren()) {
+            if (child.isFolder()) {
+                List<CollectionNode> steps = new ArrayList<>();
+                collectRequests(child, steps);
+                if (!steps.isEmpty()) {
+                    scenarios.add(new LoadScenario(child.getName(), Math.max(0, child.getLoadWeight()), steps));
+                }
+            } else if (child.getRequest() != null) {
+                direct.add(child);
+            }
+        }
+        if (!direct.isEmpty()) {
+            scenarios.add(0, new LoadScenario(folder.getName(), Math.max(0, folder.getLoadWeight()), direct));
+        }
+        return scenarios;
+    }
+
+    private static void collectRequests(CollectionNode node, List<CollectionNode> out) {
+        for (CollectionNode child : node.getChildren()) {
+            if (child.isFolder()) collectRequests(child, out);
+            else if (child.getRequest() != null) out.add(child);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.phil.rest.service.load;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压测的逐秒时间序列，定长环形缓冲：超过容量后覆盖最旧的秒，长时间压测内存恒定。
+ * 写入方只有压测引擎的计时线程，读取方 (面板) 每帧取一次快照
+ */
+public class LoadTimeSeries {
+
+    /** 默认保留最近 30 分钟 */
+    public static final int DEFAULT_CAPACITY = 1800;
+
+    /**
+     * 一秒内的统计
+     *
+     * @param second    从压测开始算起的第几秒
+     * @param targetRps 这一秒的目标到达率
+     * @param sent      这一秒发出的请求数
+     * @param completed 这一秒返回 (含失败) 的请求数
+     * @param failures  这一秒的非 2xx + 传输错误数
+     * @param inFlight  这一秒结束时的在途请求数
+     */
+    public record Sample(long second, double targetRps, long sent, long completed, long failures, int inFlight,
+                         long p50Nanos, long p90Nanos, long p99Nanos, long maxNanos) {
+
+        public double errorRate() {
+            return completed > 0 ? (double) failures / completed : 0;
+        }
+    }
+
+    private final Sample[] ring;
+    private long written;
+
+    public LoadTimeSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LoadTimeSeries(int capacity) {
+        this.ring = new Sample[Math.max(1, capacity)];
+    }
+
+    public synchronized void add(Sample sample) {
+        ring[(int) (written % ring.length)] = sample;
+        written++;
+    }
+
+    /** 累计写入的秒数 (含已被覆盖的)，面板用它判断有没有新数据 */
+    public synchronized long version() {
+        return written;
+    }
+
+    /**
+     * 按时间顺序返回当前缓冲里的所有样本
+     */
+    public synchronized List<Sample> snapshot() {
+        int size = (int) Math.min(written, ring.length);
+        List<Sample> result = new ArrayList<>(size);
+        long first = written - size;
+        for (long i = first; i < written; i++) result.add(ring[(int) (i % ring.length)]);
+        return result;
+    }
+}
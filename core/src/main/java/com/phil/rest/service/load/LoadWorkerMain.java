@@ -0,0 +1,133 @@
+package com.phil.rest.service.load;
+
+import com.phil.rest.service.transport.HttpTransport;
+import com.phil.rest.service.transport.TransportFactory;
+import com.phil.rest.service.transport.TransportRequest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 本机压测 worker 进程的入口 (由 {@link WorkerCluster} 启动)：
+ * 连回 IDE 的回环端口，收到请求和分到的到达率后用自己的 {@link LoadEngine} 发送，
+ * 每秒回传进度和可合并的延迟直方图，结束时回传完整结果后退出。
+ * <p>
+ * 只依赖传输层和压测引擎，不加载任何 IDE 的类；IDE 断开连接时立即停止
+ * <p>
+ * 参数：{@code <port> <token> <index>}
+ */
+public final class LoadWorkerMain {
+
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    private LoadWorkerMain(Socket socket) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: LoadWorkerMain <port> <token> <index>");
+            System.exit(2);
+        }
+        int status = 0;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))) {
+            socket.setTcpNoDelay(true);
+            LoadWorkerMain worker = new LoadWorkerMain(socket);
+            try {
+                worker.run(args[1], Integer.parseInt(args[2]));
+            } catch (Exception e) {
+                worker.reportError(e);
+                status = 1;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            status = 1;
+        }
+        // HttpClient 的选择器线程不是守护线程，直接退出
+        System.exit(status);
+    }
+
+    private void run(String token, int index) throws Exception {
+        synchronized (out) {
+            out.writeByte(WorkerProtocol.HELLO);
+            out.writeUTF(token);
+            out.writeInt(index);
+            out.flush();
+        }
+        expect(WorkerProtocol.JOB);
+        WorkerJob job = WorkerProtocol.readJob(in);
+        LoadConfig config = LoadRunCodec.readConfig(in);
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpTransport transport = TransportFactory.create(job.engine(), job.protocol(), job.tlsMode(), job.redirectPolicy(),
+                new CookieManager(null, CookiePolicy.ACCEPT_ALL), executor);
+        try {
+            TransportRequest request = job.toRequest();
+            LoadEngine engine = new LoadEngine(transport, () -> request, config);
+            engine.setIntervalListener((sample, latency) -> {
+                try {
+                    synchronized (out) {
+                        out.writeByte(WorkerProtocol.PROGRESS);
+                        WorkerProtocol.writeProgress(out, engine.progress(), sample, latency);
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // IDE 已经断开，下面的监听线程会停止引擎
+                }
+            });
+
+            // 所有 worker 都准备好后 IDE 才统一发 START，各进程的到达时刻对齐
+            expect(WorkerProtocol.START);
+            CompletableFuture<LoadResult> future = engine.start();
+            Thread watcher = new Thread(() -> {
+                try {
+                    in.readByte();   // STOP，或连接断开时抛出 EOFException
+                } catch (IOException ignored) {
+                }
+                engine.stop();
+            }, "RestPilot-worker-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+
+            LoadResult result = future.get();
+            synchronized (out) {
+                out.writeByte(WorkerProtocol.RESULT);
+                LoadRunCodec.writeResult(out, result);
+                out.flush();
+            }
+        } finally {
+            transport.close();
+            executor.shutdownNow();
+        }
+    }
+
+    private void expect(byte type) throws IOException {
+        byte actual = in.readByte();
+        if (actual != type) throw new IOException("Unexpected frame " + actual + ", expected " + type);
+    }
+
+    private void reportError(Exception e) {
+        try {
+            synchronized (out) {
+                out.writeByte(WorkerProtocol.ERROR);
+                String message = String.valueOf(e.getMessage() != null ? e.getMessage() : e);
+                out.writeUTF(message.length() > 1000 ? message.substring(0, 1000) : message);
+                out.flush();
+            }
+        } catch (IOException ignored) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.phil.rest.service.load;
+
+import com.phil.rest.model.RestResponse;
+import com.phil.rest.service.transport.HttpTransport;
+import com.phil.rest.service.transport.TransportRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 每次到达 (arrival) 要执行的工作：单个请求，或者一个虚拟用户把整个场景跑一遍。
+ * {@link LoadEngine} 只负责按计划时刻调用 {@link #execute()} 并统计返回的最终响应
+ */
+public interface LoadWorkload {
+
+    /**
+     * 开始一次执行。返回的 Future 被取消时，实现应取消仍在进行的请求
+     */
+    CompletableFuture<RestResponse> execute();
+
+    /** 一次执行最多包含几个串行请求，引擎按此放大单次执行的超时 */
+    default int stepCount() {
+        return 1;
+    }
+
+    /**
+     * 没有更多工作可做 (例如顺序读取的数据文件已经用完)，引擎随即停止发送并等待在途请求返回。
+     * 只在调度线程上、每次 {@link #execute()} 之前调用
+     */
+    default boolean isExhausted() {
+        return false;
+    }
+
+    /** 多步场景的逐步统计，单请求时为空 */
+    default List<StepResult> stepResults() {
+        return List.of();
+    }
+
+    /**
+     * 重复发送同一类请求
+     *
+     * @param requests 每次发送时调用一次；同一个 TransportRequest 可以重复返回 (Body 可重复订阅)
+     */
+    static LoadWorkload single(HttpTransport transport, Supplier<TransportRequest> requests) {
+        return () -> transport.send(requests.get());
+    }
+}
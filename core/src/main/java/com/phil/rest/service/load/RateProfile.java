@@ -0,0 +1,144 @@
+package com.phil.rest.service.load;
+
+import com.phil.rest.model.LoadProfile;
+import com.phil.rest.model.LoadStage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 到达率随时间变化的曲线，由若干线性段组成 (阶段配置编译而来)。
+ * 第 i 个请求的计划时刻是累计到达数 N(t) = ∫rate 恰好等于 i 的时刻，按段解析求解，
+ * 速率变化时也不会累积误差；整条曲线只占几个数组，跑几个小时内存也不变。
+ */
+public final class RateProfile {
+
+    /** 速率从 fromRps 线性变化到 toRps */
+    public record Segment(double fromRps, double toRps, long durationNanos) {}
+
+    private final Segment[] segments;
+    private final long[] startNanos;
+    private final double[] cumulative;   // 每段开始前的累计到达数，最后一个元素为总数
+    private final long durationNanos;
+
+    private RateProfile(List<Segment> segments) {
+        if (segments.isEmpty()) throw new IllegalArgumentException("RateProfile needs at least one segment");
+        this.segments = segments.toArray(new Segment[0]);
+        this.startNanos = new long[this.segments.length];
+        this.cumulative = new double[this.segments.length + 1];
+        long t = 0;
+        for (int k = 0; k < this.segments.length; k++) {
+            Segment s = this.segments[k];
+            startNanos[k] = t;
+            cumulative[k + 1] = cumulative[k] + (s.fromRps() + s.toRps()) / 2 * s.durationNanos() / 1e9;
+            t += s.durationNanos();
+        }
+        this.durationNanos = t;
+    }
+
+    public static RateProfile constant(double rps, long durationNanos) {
+        return new RateProfile(List.of(new Segment(rps, rps, durationNanos)));
+    }
+
+    public static RateProfile of(List<Segment> segments) {
+        return new RateProfile(segments);
+    }
+
+    /**
+     * 把保存的阶段配置编译成曲线，第一段 RAMP 从 0 开始
+     */
+    public static RateProfile of(LoadProfile profile) {
+        List<Segment> segments = new ArrayList<>();
+        double current = 0;
+        for (LoadStage stage : profile.getStages()) {
+            long nanos = stage.getDurationSeconds() * 1_000_000_000L;
+            double target = stage.getTargetRps();
+            switch (stage.getKind()) {
+                case RAMP -> {
+                    segments.add(new Segment(current, target, nanos));
+                    current = target;
+                }
+                // 突刺结束后回到原来的速率
+                case SPIKE -> segments.add(new Segment(target, target, nanos));
+                default -> {
+                    segments.add(new Segment(target, target, nanos));
+                    current = target;
+                }
+            }
+        }
+        return new RateProfile(segments);
+    }
+
+    /** 组成曲线的各段 (保存压测记录时用) */
+    public List<Segment> segments() {
+        return List.of(segments);
+    }
+
+    public long durationNanos() {
+        return durationNanos;
+    }
+
+    /** 按计划会发出的请求总数 */
+    public long plannedRequests() {
+        return (long) Math.ceil(cumulative[segments.length] - 1e-9);
+    }
+
+    /** 整个过程的平均目标速率 */
+    public double averageRps() {
+        return durationNanos > 0 ? cumulative[segments.length] * 1e9 / durationNanos : 0;
+    }
+
+    public double peakRps() {
+        double peak = 0;
+        for (Segment s : segments) peak = Math.max(peak, Math.max(s.fromRps(), s.toRps()));
+        return peak;
+    }
+
+    /** offsetNanos 时刻的目标速率 */
+    public double rateAt(long offsetNanos) {
+        int k = segmentAt(offsetNanos);
+        if (k < 0) return 0;
+        Segment s = segments[k];
+        double fraction = s.durationNanos() > 0 ? (double) (offsetNanos - startNanos[k]) / s.durationNanos() : 0;
+        return s.fromRps() + (s.toRps() - s.fromRps()) * fraction;
+    }
+
+    /**
+     * 第 i 个请求 (从 0 开始) 的计划发送时刻 (相对开始的纳秒)，超出曲线时返回 -1
+     */
+    public long arrivalOffset(long i) {
+        if (i >= cumulative[segments.length] - 1e-9) return -1;
+        // 二分找到 cumulative[k] <= i < cumulative[k + 1] 的段
+        int lo = 0, hi = segments.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (cumulative[mid] <= i) lo = mid; else hi = mid - 1;
+        }
+        // 跳过速率为 0 的空段
+        int k = lo;
+        while (k < segments.length - 1 && cumulative[k + 1] <= i) k++;
+
+        Segment s = segments[k];
+        double n = i - cumulative[k];
+        double seconds = s.durationNanos() / 1e9;
+        double a = s.fromRps();
+        double b = seconds > 0 ? (s.toRps() - s.fromRps()) / seconds : 0;
+        // N(dt) = a·dt + b·dt²/2 = n
+        double dt;
+        if (Math.abs(b) < 1e-12) {
+            dt = a > 0 ? n / a : 0;
+        } else {
+            dt = (-a + Math.sqrt(Math.max(0, a * a + 2 * b * n))) / b;
+        }
+        long offset = startNanos[k] + (long) (Math.min(seconds, Math.max(0, dt)) * 1e9);
+        return Math.min(offset, durationNanos - 1);
+    }
+
+    private int segmentAt(long offsetNanos) {
+        if (offsetNanos < 0 || offsetNanos >= durationNanos) return -1;
+        for (int k = segments.length - 1; k >= 0; k--) {
+            if (offsetNanos >= startNanos[k]) return k;
+        }
+        return -1;
+    }
+}
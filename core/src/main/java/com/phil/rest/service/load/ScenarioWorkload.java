@@ -0,0 +1,247 @@
+package com.phil.rest.service.load;
+
+import com.phil.rest.model.CollectionNode;
+import com.phil.rest.model.RestResponse;
+import com.phil.rest.model.SavedRequest;
+import com.phil.rest.service.HttpExecutor;
+import com.phil.rest.service.JsonExtractor;
+import com.phil.rest.service.PreparedRequest;
+import com.phil.rest.service.VariableScope;
+import com.phil.rest.service.transport.HttpTransport;
+import com.phil.rest.service.transport.TransportRequest;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 场景压测：每次到达启动一个虚拟用户，按权重挑一个场景，把其中的请求依次异步发出。
+ * <p>
+ * 每个虚拟用户有自己的 {@link VariableScope} (从环境快照 fork，写时复制)，
+ * 提取规则只写进自己的作用域，供同一用户的后续步骤使用；共享的 RestEnv 不会被改动，
+ * 并发用户之间也不会互相覆盖 token。
+ * <p>
+ * 配了数据文件时，每个虚拟用户开始前取一行，挂在自己作用域的只读层上，{{列名}} 即可引用。
+ * <p>
+ * 某一步没有拿到 2xx 时该用户就此结束 (后续步骤通常依赖它的结果)，以这一步的响应作为本次执行的结果。
+ * 多部分 (multipart) 请求体在保存的请求里没有文件参数，按无请求体发送
+ */
+public class ScenarioWorkload implements LoadWorkload {
+
+    private final HttpTransport transport;
+    private final HttpExecutor executor;
+    private final List<LoadScenario> scenarios;
+    private final int[] cumulativeWeights;
+    private final VariableScope baseScope;
+    private final Duration stepTimeout;
+    private final DataFeeder feeder;
+    private final StepStats[][] stats;
+    // 按底层快照构建好的请求，虚拟用户的作用域还没有自己的变量时直接复用 (例如登录这类第一步)；
+    // 并发下可能重复构建，PreparedRequest 不可变，谁的结果留下都一样
+    private final PreparedRequest[][] shared;
+    private final int maxSteps;
+
+    /**
+     * @param baseScope   所有虚拟用户共享的底层变量 (环境快照)，不会被修改
+     * @param stepTimeout 单个步骤的超时
+     */
+    public ScenarioWorkload(HttpTransport transport, List<LoadScenario> scenarios, VariableScope baseScope,
+                            Duration stepTimeout) {
+        this(transport, scenarios, baseScope, stepTimeout, null);
+    }
+
+    /**
+     * @param feeder 数据文件，每个虚拟用户取一行；为 null 时不用
+     */
+    public ScenarioWorkload(HttpTransport transport, List<LoadScenario> scenarios, VariableScope baseScope,
+                            Duration stepTimeout, @Nullable DataFeeder feeder) {
+        List<LoadScenario> active = new ArrayList<>();
+        for (LoadScenario s : scenarios) {
+            if (s.weight() > 0 && !s.steps().isEmpty()) active.add(s);
+        }
+        if (active.isEmpty()) throw new IllegalArgumentException("No scenario with requests and a positive weight");
+
+        this.transport = transport;
+        this.executor = new HttpExecutor(transport);
+        this.scenarios = List.copyOf(active);
+        this.baseScope = baseScope;
+        this.stepTimeout = stepTimeout;
+        this.feeder = feeder;
+
+        this.cumulativeWeights = new int[active.size()];
+        this.stats = new StepStats[active.size()][];
+        this.shared = new PreparedRequest[active.size()][];
+        int total = 0, max = 0;
+        for (int i = 0; i < active.size(); i++) {
+            LoadScenario s = active.get(i);
+            total += s.weight();
+            cumulativeWeights[i] = total;
+            stats[i] = new StepStats[s.steps().size()];
+            for (int j = 0; j < stats[i].length; j++) stats[i][j] = new StepStats();
+            shared[i] = new PreparedRequest[s.steps().size()];
+            max = Math.max(max, s.steps().size());
+        }
+        this.maxSteps = max;
+    }
+
+    public List<LoadScenario> getScenarios() {
+        return scenarios;
+    }
+
+    @Override
+    public CompletableFuture<RestResponse> execute() {
+        int index = pickScenario();
+        VariableScope scope;
+        if (feeder == null) {
+            scope = baseScope.fork();
+        } else {
+            DataFeeder.Row row;
+            try {
+                row = feeder.next();
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            if (row == null) return CompletableFuture.failedFuture(new IllegalStateException("Feeder exhausted"));
+            scope = baseScope.fork(row);
+        }
+        return new VirtualUser(index, scope).start();
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return feeder != null && feeder.isExhausted();
+    }
+
+    @Override
+    public int stepCount() {
+        return maxSteps;
+    }
+
+    @Override
+    public List<StepResult> stepResults() {
+        List<StepResult> results = new ArrayList<>();
+        for (int i = 0; i < scenarios.size(); i++) {
+            LoadScenario scenario = scenarios.get(i);
+            for (int j = 0; j < stats[i].length; j++) {
+                StepStats st = stats[i][j];
+                results.add(new StepResult(scenario.name(), scenario.steps().get(j).getName(), st.sent.sum(),
+                        st.succeeded.sum(), st.failed.sum(), st.errors.sum(), st.latency.snapshot()));
+            }
+        }
+        return results;
+    }
+
+    private int pickScenario() {
+        if (cumulativeWeights.length == 1) return 0;
+        int r = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) return i;
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    private static final class StepStats {
+        final LongAdder sent = new LongAdder();
+        final LongAdder succeeded = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LatencyRecorder latency = new LatencyRecorder();
+    }
+
+    /**
+     * 一个虚拟用户跑一遍场景；步骤串行，前一步完成的回调里发出下一步，不占用线程等待
+     */
+    private final class VirtualUser {
+        private final int scenarioIndex;
+        private final List<CollectionNode> steps;
+        private final VariableScope scope;
+        private final CompletableFuture<RestResponse> result = new CompletableFuture<>();
+        private volatile CompletableFuture<RestResponse> current;
+
+        VirtualUser(int scenarioIndex, VariableScope scope) {
+            this.scenarioIndex = scenarioIndex;
+            this.steps = scenarios.get(scenarioIndex).steps();
+            this.scope = scope;
+        }
+
+        CompletableFuture<RestResponse> start() {
+            // 本次执行先于当前步骤结束 (引擎停止时取消、超时时 orTimeout 异常结束) 时，把正在进行的那一步也取消掉
+            result.whenComplete((r, ex) -> {
+                CompletableFuture<RestResponse> c = current;
+                if (c != null && !c.isDone()) c.cancel(true);
+            });
+            step(0);
+            return result;
+        }
+
+        private PreparedRequest prepare(int i, SavedRequest request) throws IOException {
+            if (!scope.isPristine()) return executor.prepare(request, scope, null, stepTimeout.toSeconds(), null);
+            PreparedRequest prepared = shared[scenarioIndex][i];
+            if (prepared == null) {
+                prepared = executor.prepare(request, scope, null, stepTimeout.toSeconds(), null);
+                // 带动态变量 ($uuid 等) 的步骤每次都要新值，不共享
+                if (!prepared.dynamic()) shared[scenarioIndex][i] = prepared;
+            }
+            return prepared;
+        }
+
+        private void step(int i) {
+            if (result.isDone()) return;
+            SavedRequest request = steps.get(i).getRequest();
+            StepStats st = stats[scenarioIndex][i];
+
+            TransportRequest transportRequest;
+            try {
+                transportRequest = prepare(i, request).request();
+            } catch (Exception e) {
+                st.errors.increment();
+                result.completeExceptionally(e);
+                return;
+            }
+
+            st.sent.increment();
+            long begin = System.nanoTime();
+            CompletableFuture<RestResponse> sent;
+            try {
+                sent = transport.send(transportRequest);
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            current = sent;
+            if (result.isDone()) {
+                sent.cancel(true);
+                return;
+            }
+            sent.orTimeout(stepTimeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((response, ex) -> {
+                st.latency.record(System.nanoTime() - begin);
+                if (ex != null || response == null || response.getStatusCode() == 0) {
+                    st.errors.increment();
+                    if (ex != null) result.completeExceptionally(ex);
+                    else result.complete(response);
+                    return;
+                }
+                int status = response.getStatusCode();
+                if (status < 200 || status >= 300) {
+                    st.failed.increment();
+                    result.complete(response);
+                    return;
+                }
+                st.succeeded.increment();
+                if (i == steps.size() - 1) {
+                    result.complete(response);
+                    return;
+                }
+                if (!request.getExtractRules().isEmpty()) {
+                    JsonExtractor.executeExtraction(response.getContent(), request.getExtractRules(), scope);
+                }
+                step(i + 1);
+            });
+        }
+    }
+}
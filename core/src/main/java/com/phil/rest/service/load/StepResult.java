@@ -0,0 +1,21 @@
+package com.phil.rest.service.load;
+
+/**
+ * 场景压测中单个步骤的统计。步骤在虚拟用户内部串行执行，
+ * 这里的延迟是该步骤真正发出到返回的时间 (整次执行的修正延迟见 {@link LoadResult})
+ *
+ * @param scenario 所属场景 (文件夹) 名
+ * @param step     步骤 (请求) 名
+ * @param sent     实际发出次数；前面的步骤失败时后面的步骤不会发出
+ */
+public record StepResult(String scenario, String step, long sent, long succeeded, long failed, long errors,
+                         LatencyHistogram latency) {
+
+    public long completed() {
+        return succeeded + failed + errors;
+    }
+
+    public double errorRate() {
+        return completed() > 0 ? (double) (failed + errors) / completed() : 0;
+    }
+}
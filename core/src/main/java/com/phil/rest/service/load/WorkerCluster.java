@@ -0,0 +1,404 @@
+package com.phil.rest.service.load;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把一次压测分给本机的多个 worker JVM ({@link LoadWorkerMain})：IDE 只负责协调和合并数据，
+ * 发送和计时都不在 IDE 进程里，IDE 的 GC 停顿、索引和界面不会再扭曲测到的延迟，负载也能用满所有核。
+ * <p>
+ * 每个 worker 分到 1/N 的到达率和在途上限，全部连上并收到请求后统一开始；
+ * 每秒回传的延迟直方图按秒合并成 Load 面板的时间序列，结束时把各自的结果直方图合并成总结果
+ */
+public class WorkerCluster implements LoadGenerator {
+
+    /** 等所有 worker 启动并连回来的时间 (JVM 冷启动) */
+    private static final long CONNECT_TIMEOUT_MILLIS = 30_000;
+
+    /** worker 启动失败时，错误信息里带上输出日志的最后几行 */
+    private static final int LOG_TAIL_LINES = 20;
+    private static final int LOG_TAIL_BYTES = 8 * 1024;
+
+    private final WorkerJob job;
+    private final LoadConfig config;
+    private final int workerCount;
+    private final List<String> javaCommand;
+
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+    private final List<Process> processes = new CopyOnWriteArrayList<>();
+    // 每个 worker 的 stdout / stderr，连回来之前的失败 (classpath、JVM 参数不对等) 只能从这里看到原因
+    private final List<Path> logs = new CopyOnWriteArrayList<>();
+    private final LoadTimeSeries timeSeries = new LoadTimeSeries();
+    // 各 worker 同一秒的数据到齐后才写进时间序列，key 为第几秒
+    private final TreeMap<Long, Interval> pending = new TreeMap<>();
+
+    private final CompletableFuture<LoadResult> result = new CompletableFuture<>();
+    private volatile boolean stopped;
+    private volatile long startNanos;
+    private Thread coordinator;
+
+    /**
+     * @param javaCommand 启动 worker 的命令前缀 (java 可执行文件、classpath 和 JVM 参数)，后面会追加主类和参数
+     */
+    public WorkerCluster(WorkerJob job, LoadConfig config, int workerCount, List<String> javaCommand) {
+        if (workerCount <= 0) throw new IllegalArgumentException("workerCount must be > 0");
+        this.job = job;
+        this.config = config;
+        this.workerCount = workerCount;
+        this.javaCommand = List.copyOf(javaCommand);
+    }
+
+    @Override
+    public synchronized CompletableFuture<LoadResult> start() {
+        if (coordinator != null) throw new IllegalStateException("WorkerCluster already started");
+        coordinator = new Thread(this::coordinate, "RestPilot-load-coordinator");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return result;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        stopWorkers();
+    }
+
+    private void stopWorkers() {
+        for (Worker worker : workers) worker.send(WorkerProtocol.STOP);
+    }
+
+    @Override
+    public Progress progress() {
+        long start = startNanos;
+        long sent = 0, completed = 0, failures = 0;
+        int inFlight = 0;
+        for (Worker worker : workers) {
+            Progress p = worker.progress;
+            sent += p.sent();
+            completed += p.completed();
+            failures += p.failures();
+            inFlight += p.inFlight();
+        }
+        return new Progress(start == 0 ? 0 : System.nanoTime() - start, sent, completed, failures, inFlight);
+    }
+
+    @Override
+    public LoadConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public LoadTimeSeries getTimeSeries() {
+        return timeSeries;
+    }
+
+    private void coordinate() {
+        try (ServerSocket server = new ServerSocket(0, workerCount, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(200);
+            String token = UUID.randomUUID().toString();
+            for (int i = 0; i < workerCount; i++) {
+                List<String> command = new ArrayList<>(javaCommand);
+                command.add(LoadWorkerMain.class.getName());
+                command.add(String.valueOf(server.getLocalPort()));
+                command.add(token);
+                command.add(String.valueOf(i));
+                Path log = Files.createTempFile("restpilot-load-worker-" + i + "-", ".log");
+                logs.add(log);
+                processes.add(new ProcessBuilder(command)
+                        .redirectErrorStream(true)
+                        .redirectOutput(log.toFile())
+                        .start());
+            }
+            if (!connectAll(server, token)) {
+                result.complete(emptyResult());
+                return;
+            }
+
+            LoadConfig share = share(config, workerCount);
+            for (Worker worker : workers) worker.sendJob(share);
+            startNanos = System.nanoTime();
+            for (Worker worker : workers) worker.send(WorkerProtocol.START);
+            for (Worker worker : workers) {
+                // 任何一个 worker 失败都停止其它 worker，尽快结束
+                worker.done.whenComplete((r, ex) -> { if (ex != null) stopWorkers(); });
+                Thread reader = new Thread(worker::readLoop, "RestPilot-load-worker-" + worker.index);
+                reader.setDaemon(true);
+                reader.start();
+            }
+
+            List<LoadResult> results = new ArrayList<>(workerCount);
+            for (Worker worker : workers) {
+                try {
+                    results.add(worker.done.get());
+                } catch (ExecutionException e) {
+                    // 手动停止时还没开始的 worker 可能直接断开，只合并已经拿到的结果
+                    if (!stopped) throw e.getCause();
+                }
+            }
+            flushIntervals();
+            result.complete(merge(results));
+        } catch (Throwable e) {
+            stopWorkers();
+            result.completeExceptionally(e);
+        } finally {
+            for (Worker worker : workers) worker.close();
+            for (Process process : processes) {
+                try {
+                    if (!process.waitFor(2, TimeUnit.SECONDS)) process.destroyForcibly();
+                } catch (InterruptedException e) {
+                    process.destroyForcibly();
+                }
+            }
+            for (Path log : logs) {
+                try {
+                    Files.deleteIfExists(log);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * 等所有 worker 连回来并校验口令；被 stop 时返回 false
+     */
+    private boolean connectAll(ServerSocket server, String token) throws IOException {
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+        while (workers.size() < workerCount) {
+            if (stopped) return false;
+            for (int i = 0; i < processes.size(); i++) {
+                Process process = processes.get(i);
+                if (!process.isAlive()) throw new IOException(exitMessage(process, logs.get(i)));
+            }
+            if (System.currentTimeMillis() > deadline) throw new IOException("Timed out waiting for load workers to start");
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (SocketTimeoutException e) {
+                continue;
+            }
+            Worker worker = handshake(socket, token);
+            if (worker != null) workers.add(worker);
+        }
+        return true;
+    }
+
+    private static String exitMessage(Process process, Path log) {
+        String message = "Load worker exited with code " + process.exitValue();
+        String tail = tail(log);
+        return tail.isEmpty() ? message : message + ":\n" + tail;
+    }
+
+    /**
+     * 日志最后 LOG_TAIL_LINES 行；只读文件末尾一小段，worker 输出再多也不会整个读进内存
+     */
+    private static String tail(Path log) {
+        try (SeekableByteChannel channel = Files.newByteChannel(log)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, LOG_TAIL_BYTES));
+            channel.position(size - buffer.capacity());
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // 读满为止
+            }
+            String[] lines = new String(buffer.array(), 0, buffer.position(), Charset.defaultCharset()).strip().split("\\R");
+            return String.join("\n", Arrays.asList(lines).subList(Math.max(0, lines.length - LOG_TAIL_LINES), lines.length));
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private Worker handshake(Socket socket, String token) {
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(5_000);
+            Worker worker = new Worker(socket);
+            if (worker.in.readByte() != WorkerProtocol.HELLO || !token.equals(worker.in.readUTF())) {
+                socket.close();
+                return null;
+            }
+            worker.index = worker.in.readInt();
+            socket.setSoTimeout(0);
+            return worker;
+        } catch (IOException e) {
+            // 不是我们的 worker (或握手中断)，忽略这条连接
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            return null;
+        }
+    }
+
+    private synchronized void intervalReceived(LoadTimeSeries.Sample sample, LatencyHistogram latency) {
+        pending.computeIfAbsent(sample.second(), k -> new Interval()).add(sample, latency);
+        // 按秒的顺序写入，前面的秒还没到齐时先等着
+        while (!pending.isEmpty() && pending.firstEntry().getValue().reports >= workerCount) {
+            Map.Entry<Long, Interval> first = pending.pollFirstEntry();
+            timeSeries.add(first.getValue().toSample(first.getKey()));
+        }
+    }
+
+    /** 结束时最后几秒可能不是每个 worker 都有，有多少写多少 */
+    private synchronized void flushIntervals() {
+        while (!pending.isEmpty()) {
+            Map.Entry<Long, Interval> first = pending.pollFirstEntry();
+            timeSeries.add(first.getValue().toSample(first.getKey()));
+        }
+    }
+
+    private LoadResult merge(List<LoadResult> results) {
+        long sent = 0, succeeded = 0, failed = 0, errors = 0, elapsed = 0, sendWindow = 0, maxLag = 0;
+        boolean cancelled = stopped;
+        LatencyHistogram success = new LatencyHistogram();
+        LatencyHistogram failure = new LatencyHistogram();
+        LatencyHistogram service = new LatencyHistogram();
+        for (LoadResult r : results) {
+            sent += r.sent();
+            succeeded += r.succeeded();
+            failed += r.failed();
+            errors += r.errors();
+            elapsed = Math.max(elapsed, r.elapsedNanos());
+            sendWindow = Math.max(sendWindow, r.sendWindowNanos());
+            maxLag = Math.max(maxLag, r.maxLagNanos());
+            cancelled |= r.cancelled();
+            success.add(r.successLatency());
+            failure.add(r.failureLatency());
+            service.add(r.serviceTime());
+        }
+        return new LoadResult(config.targetRps(), config.plannedRequests(), sent, succeeded, failed, errors,
+                elapsed, sendWindow, maxLag, success, failure, service, List.of(), cancelled);
+    }
+
+    private LoadResult emptyResult() {
+        return new LoadResult(config.targetRps(), config.plannedRequests(), 0, 0, 0, 0, 0, 0, 0,
+                new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram(), List.of(), true);
+    }
+
+    /** 每个 worker 分到的配置：到达率曲线按 1/n 缩放，在途上限均分 */
+    static LoadConfig share(LoadConfig config, int n) {
+        List<RateProfile.Segment> segments = new ArrayList<>();
+        for (RateProfile.Segment s : config.profile().segments()) {
+            segments.add(new RateProfile.Segment(s.fromRps() / n, s.toRps() / n, s.durationNanos()));
+        }
+        int maxInFlight = Math.max(1, (config.maxInFlight() + n - 1) / n);
+        return new LoadConfig(RateProfile.of(segments), maxInFlight, config.timeout());
+    }
+
+    /** 同一秒内各 worker 数据的合并 */
+    private static final class Interval {
+        int reports;
+        double targetRps;
+        long sent, completed, failures;
+        int inFlight;
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        void add(LoadTimeSeries.Sample sample, LatencyHistogram interval) {
+            reports++;
+            targetRps += sample.targetRps();
+            sent += sample.sent();
+            completed += sample.completed();
+            failures += sample.failures();
+            inFlight += sample.inFlight();
+            latency.add(interval);
+        }
+
+        LoadTimeSeries.Sample toSample(long second) {
+            return new LoadTimeSeries.Sample(second, targetRps, sent, completed, failures, inFlight,
+                    latency.valueAtPercentile(50), latency.valueAtPercentile(90), latency.valueAtPercentile(99),
+                    latency.getMax());
+        }
+    }
+
+    /** 到一个 worker 的连接 */
+    private final class Worker {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+        final CompletableFuture<LoadResult> done = new CompletableFuture<>();
+        volatile Progress progress = new Progress(0, 0, 0, 0, 0);
+        int index;
+
+        Worker(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        void sendJob(LoadConfig share) throws IOException {
+            synchronized (out) {
+                out.writeByte(WorkerProtocol.JOB);
+                WorkerProtocol.writeJob(out, job);
+                LoadRunCodec.writeConfig(out, share);
+                out.flush();
+            }
+        }
+
+        /** 控制帧，连接已断开时忽略 (读线程会报告) */
+        void send(byte type) {
+            try {
+                synchronized (out) {
+                    out.writeByte(type);
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        void readLoop() {
+            try {
+                while (true) {
+                    byte type = in.readByte();
+                    switch (type) {
+                        case WorkerProtocol.PROGRESS -> {
+                            progress = WorkerProtocol.readProgress(in);
+                            LoadTimeSeries.Sample sample = LoadRunCodec.readSample(in);
+                            intervalReceived(sample, LatencyHistogram.readFrom(in));
+                        }
+                        case WorkerProtocol.RESULT -> {
+                            done.complete(LoadRunCodec.readResult(in));
+                            return;
+                        }
+                        case WorkerProtocol.ERROR -> {
+                            done.completeExceptionally(new IOException("Load worker " + index + " failed: " + in.readUTF()));
+                            return;
+                        }
+                        default -> throw new IOException("Unexpected frame " + type);
+                    }
+                }
+            } catch (EOFException e) {
+                done.completeExceptionally(new IOException("Load worker " + index + " disconnected"));
+            } catch (IOException e) {
+                done.completeExceptionally(e);
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.phil.rest.service.load;
+
+import com.phil.rest.model.RestEnv;
+import com.phil.rest.service.PreparedRequest;
+import com.phil.rest.service.transport.TransportRequest;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.CookieHandler;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 发给 worker 进程的请求：已经展开变量、拼好 Header 的请求 + Body 字节 + 引擎设置。
+ * Body 在 IDE 里读成字节一次性下发，worker 每次发送时直接包装，不再访问本地文件
+ */
+public record WorkerJob(String method, URI uri, List<TransportRequest.Header> headers, byte[] body,
+                        Duration timeout, long inMemoryLimit,
+                        RestEnv.TransportEngine engine, RestEnv.Protocol protocol, RestEnv.TlsMode tlsMode,
+                        RestEnv.RedirectPolicy redirectPolicy) {
+
+    /** Body 上限：worker 把它常驻内存，过大的上传不适合在多个进程里各放一份 */
+    public static final int MAX_BODY_BYTES = 64 * 1024 * 1024;
+
+    /**
+     * @param cookies IDE 当前的 Cookie，请求里没有 Cookie 头时把对应 URL 的 Cookie 带过去 (worker 没有 IDE 的会话)
+     * @throws IOException Body 读取失败或超过 {@link #MAX_BODY_BYTES}
+     */
+    public static WorkerJob of(TransportRequest request, RestEnv.TransportEngine engine, RestEnv.Protocol protocol,
+                               RestEnv.TlsMode tlsMode, RestEnv.RedirectPolicy redirectPolicy,
+                               @Nullable CookieHandler cookies) throws IOException {
+        return of(request, readBody(request.body()), engine, protocol, tlsMode, redirectPolicy, cookies);
+    }
+
+    /**
+     * 同上，Body 已经编码好时直接用，不再订阅一遍 (multipart 请求没有现成的字节，照样读取)
+     */
+    public static WorkerJob of(PreparedRequest prepared, RestEnv.TransportEngine engine, RestEnv.Protocol protocol,
+                               RestEnv.TlsMode tlsMode, RestEnv.RedirectPolicy redirectPolicy,
+                               @Nullable CookieHandler cookies) throws IOException {
+        byte[] body = prepared.body();
+        if (body == null) body = readBody(prepared.request().body());
+        else if (body.length > MAX_BODY_BYTES) throw new IOException("Request body is too large for worker processes");
+        return of(prepared.request(), body, engine, protocol, tlsMode, redirectPolicy, cookies);
+    }
+
+    private static WorkerJob of(TransportRequest request, byte[] body, RestEnv.TransportEngine engine,
+                                RestEnv.Protocol protocol, RestEnv.TlsMode tlsMode, RestEnv.RedirectPolicy redirectPolicy,
+                                @Nullable CookieHandler cookies) throws IOException {
+        List<TransportRequest.Header> headers = new ArrayList<>(request.headers());
+        if (cookies != null && !request.hasHeader("Cookie")) {
+            Map<String, List<String>> stored = cookies.get(request.uri(), Map.of());
+            for (String value : stored.getOrDefault("Cookie", List.of())) {
+                headers.add(new TransportRequest.Header("Cookie", value));
+            }
+        }
+        return new WorkerJob(request.method(), request.uri(), List.copyOf(headers), body,
+                request.timeout(), request.inMemoryLimit(), engine, protocol, tlsMode, redirectPolicy);
+    }
+
+    /** worker 里构建一次，之后每次发送重复使用 (字节 Body 可以重复订阅) */
+    public TransportRequest toRequest() {
+        HttpRequest.BodyPublisher publisher = body.length == 0
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(body);
+        return new TransportRequest(method, uri, headers, publisher, timeout, inMemoryLimit);
+    }
+
+    private static byte[] readBody(HttpRequest.BodyPublisher publisher) throws IOException {
+        long length = publisher.contentLength();
+        if (length == 0) return new byte[0];
+        if (length > MAX_BODY_BYTES) throw new IOException("Request body is too large for worker processes");
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(length > 0 ? (int) length : 8192);
+        CompletableFuture<byte[]> done = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                if (done.isDone()) return;
+                if (buffer.size() + item.remaining() > MAX_BODY_BYTES) {
+                    subscription.cancel();
+                    done.completeExceptionally(new IOException("Request body is too large for worker processes"));
+                    return;
+                }
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                buffer.write(bytes, 0, bytes.length);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(buffer.toByteArray());
+            }
+        });
+        try {
+            return done.get(60, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Timed out reading the request body", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.phil.rest.service.load;
+
+import com.phil.rest.model.RestEnv;
+import com.phil.rest.service.transport.TransportRequest;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * IDE 与本机压测 worker 之间的帧格式 (回环 TCP，一个 worker 一条连接)，每帧一个类型字节 + 内容：
+ * <pre>
+ * worker → IDE: HELLO(token, index)  PROGRESS(进度, 这一秒的样本, 这一秒的延迟直方图)  RESULT(结果)  ERROR(消息)
+ * IDE → worker: JOB(请求, 分到的配置)  START  STOP
+ * </pre>
+ * 直方图和结果沿用压测记录的编码 ({@link LoadRunCodec})，IDE 收到后直接合并
+ */
+final class WorkerProtocol {
+
+    static final byte HELLO = 1;
+    static final byte JOB = 2;
+    static final byte START = 3;
+    static final byte STOP = 4;
+    static final byte PROGRESS = 5;
+    static final byte RESULT = 6;
+    static final byte ERROR = 7;
+
+    private WorkerProtocol() {}
+
+    /** JOB 帧：请求后面紧跟 {@link LoadRunCodec#writeConfig} 写出的配置 */
+    static void writeJob(DataOutput out, WorkerJob job) throws IOException {
+        LoadRunCodec.writeString(out, job.method());
+        LoadRunCodec.writeString(out, job.uri().toString());
+        LatencyHistogram.writeVarLong(out, job.headers().size());
+        for (TransportRequest.Header h : job.headers()) {
+            LoadRunCodec.writeString(out, h.name());
+            LoadRunCodec.writeString(out, h.value());
+        }
+        LatencyHistogram.writeVarLong(out, job.body().length);
+        out.write(job.body());
+        LatencyHistogram.writeVarLong(out, job.timeout().toMillis());
+        LatencyHistogram.writeVarLong(out, job.inMemoryLimit());
+        LoadRunCodec.writeString(out, job.engine().name());
+        LoadRunCodec.writeString(out, job.protocol().name());
+        LoadRunCodec.writeString(out, job.tlsMode().name());
+        LoadRunCodec.writeString(out, job.redirectPolicy().name());
+    }
+
+    static WorkerJob readJob(DataInput in) throws IOException {
+        String method = LoadRunCodec.readString(in);
+        URI uri;
+        try {
+            uri = new URI(LoadRunCodec.readString(in));
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        int headerCount = LoadRunCodec.count(in);
+        List<TransportRequest.Header> headers = new ArrayList<>(headerCount);
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(new TransportRequest.Header(LoadRunCodec.readString(in), LoadRunCodec.readString(in)));
+        }
+        int bodyLength = LoadRunCodec.count(in);
+        if (bodyLength > WorkerJob.MAX_BODY_BYTES) throw new IOException("Request body is too large");
+        byte[] body = new byte[bodyLength];
+        in.readFully(body);
+        Duration timeout = Duration.ofMillis(LatencyHistogram.readVarLong(in));
+        long inMemoryLimit = LatencyHistogram.readVarLong(in);
+        try {
+            return new WorkerJob(method, uri, headers, body, timeout, inMemoryLimit,
+                    RestEnv.TransportEngine.valueOf(LoadRunCodec.readString(in)),
+                    RestEnv.Protocol.valueOf(LoadRunCodec.readString(in)),
+                    RestEnv.TlsMode.valueOf(LoadRunCodec.readString(in)),
+                    RestEnv.RedirectPolicy.valueOf(LoadRunCodec.readString(in)));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown transport setting: " + e.getMessage(), e);
+        }
+    }
+
+    static void writeProgress(DataOutput out, LoadGenerator.Progress p, LoadTimeSeries.Sample sample,
+                              LatencyHistogram interval) throws IOException {
+        LatencyHistogram.writeVarLong(out, p.elapsedNanos());
+        LatencyHistogram.writeVarLong(out, p.sent());
+        LatencyHistogram.writeVarLong(out, p.completed());
+        LatencyHistogram.writeVarLong(out, p.failures());
+        LatencyHistogram.writeVarLong(out, p.inFlight());
+        LoadRunCodec.writeSample(out, sample);
+        interval.writeTo(out);
+    }
+
+    static LoadGenerator.Progress readProgress(DataInput in) throws IOException {
+        return new LoadGenerator.Progress(LatencyHistogram.readVarLong(in), LatencyHistogram.readVarLong(in),
+                LatencyHistogram.readVarLong(in), LatencyHistogram.readVarLong(in), (int) LatencyHistogram.readVarLong(in));
+    }
+}
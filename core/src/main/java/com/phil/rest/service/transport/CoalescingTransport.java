@@ -0,0 +1,151 @@
+package com.phil.rest.service.transport;
+
+import com.phil.rest.model.RestResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 在途请求合并：同一个幂等请求 (GET / HEAD / OPTIONS，无 Body，指纹相同) 正在进行时，
+ * 后来的调用直接挂到同一次交换上，不再重复发出。连点 Send、反复点 gutter 图标时慢接口只会被打一次。
+ * <p>
+ * 每个调用方拿到自己的 Future：单个调用方取消 / 超时只是退出等待，所有调用方都退出后才真正取消底层请求
+ */
+public class CoalescingTransport implements HttpTransport {
+
+    private static final Set<String> IDEMPOTENT = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final HttpTransport delegate;
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    public CoalescingTransport(HttpTransport delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public CompletableFuture<RestResponse> send(TransportRequest request) {
+        if (!IDEMPOTENT.contains(request.method()) || request.body().contentLength() != 0) {
+            return delegate.send(request);
+        }
+
+        String key = request.fingerprint();
+        while (true) {
+            Flight existing = inFlight.get(key);
+            if (existing != null) {
+                CompletableFuture<RestResponse> follower = existing.join();
+                if (follower != null) {
+                    coalesced.increment();
+                    return follower;
+                }
+                // 刚好全部退出 / 已结束，移除后重试
+                inFlight.remove(key, existing);
+                continue;
+            }
+
+            Flight flight = new Flight(key);
+            if (inFlight.putIfAbsent(key, flight) != null) continue;
+
+            CompletableFuture<RestResponse> leader = flight.join();
+            flight.start(delegate.send(request));
+            return leader;
+        }
+    }
+
+    /** 被合并掉 (没有真正发出) 的请求数 */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    @Override
+    public void prewarm(URI origin) throws IOException {
+        delegate.prewarm(origin);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private final class Flight {
+        private final String key;
+        private CompletableFuture<RestResponse> upstream;
+        // upstream 创建之前加入的 Future (只有 leader)，start 时再挂上
+        private CompletableFuture<RestResponse> first;
+        private int waiters;
+        private boolean closed;
+
+        Flight(String key) {
+            this.key = key;
+        }
+
+        /**
+         * 加入本次交换；已经结束或全部调用方都退出时返回 null
+         */
+        synchronized CompletableFuture<RestResponse> join() {
+            if (closed) return null;
+            waiters++;
+            CompletableFuture<RestResponse> mine = new CompletableFuture<>();
+            mine.whenComplete((r, ex) -> {
+                // 调用方自己结束 (取消 / orTimeout) 而不是由 upstream 完成
+                if (mine.isCompletedExceptionally()) leave();
+            });
+            if (upstream != null) forward(upstream, mine);
+            else first = mine;
+            return mine;
+        }
+
+        void start(CompletableFuture<RestResponse> sent) {
+            CompletableFuture<RestResponse> leader;
+            boolean abandoned;
+            synchronized (this) {
+                upstream = sent;
+                leader = first;
+                first = null;
+                abandoned = closed;
+            }
+            if (abandoned) {
+                sent.cancel(true);
+                return;
+            }
+            sent.whenComplete((r, ex) -> {
+                synchronized (this) {
+                    closed = true;
+                }
+                inFlight.remove(key, this);
+            });
+            if (leader != null) forward(sent, leader);
+        }
+
+        private void leave() {
+            CompletableFuture<RestResponse> toCancel = null;
+            synchronized (this) {
+                if (closed || (upstream != null && upstream.isDone())) return;
+                if (--waiters == 0) {
+                    closed = true;
+                    toCancel = upstream;
+                }
+            }
+            if (toCancel != null) {
+                inFlight.remove(key, this);
+                toCancel.cancel(true);
+            }
+        }
+
+        private static void forward(CompletableFuture<RestResponse> from, CompletableFuture<RestResponse> to) {
+            from.whenComplete((r, ex) -> {
+                if (ex != null) to.completeExceptionally(ex);
+                else to.complete(r);
+            });
+        }
+    }
+}
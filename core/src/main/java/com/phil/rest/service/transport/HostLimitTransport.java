@@ -0,0 +1,124 @@
+package com.phil.rest.service.transport;
+
+import com.phil.rest.model.RestResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * 每个主机 (scheme://host:port) 同时进行的请求数不超过上限，超出的按到达顺序 (FIFO) 排队。
+ * 排队时间单独记到 RestResponse.queueWaitNanos，durationMs 仍然只是网络耗时。
+ * <p>
+ * 上限在每次请求时读取，调整设置不需要重建引擎；上限 <= 0 表示不限制
+ */
+public class HostLimitTransport implements HttpTransport {
+
+    private final HttpTransport delegate;
+    private final IntSupplier maxPerHost;
+    private final Map<String, HostQueue> hosts = new ConcurrentHashMap<>();
+
+    public HostLimitTransport(HttpTransport delegate, IntSupplier maxPerHost) {
+        this.delegate = delegate;
+        this.maxPerHost = maxPerHost;
+    }
+
+    @Override
+    public CompletableFuture<RestResponse> send(TransportRequest request) {
+        if (maxPerHost.getAsInt() <= 0) return delegate.send(request);
+
+        HostQueue queue = hosts.computeIfAbsent(hostKey(request.uri()), k -> new HostQueue());
+        Waiter waiter = new Waiter(request, new CompletableFuture<>(), System.nanoTime());
+        if (queue.enter(waiter)) dispatch(queue, waiter);
+        return waiter.result();
+    }
+
+    /** 所有主机上正在排队的请求数 */
+    public int getQueuedCount() {
+        int total = 0;
+        for (HostQueue q : hosts.values()) total += q.queuedCount();
+        return total;
+    }
+
+    private void dispatch(HostQueue queue, Waiter waiter) {
+        long queueWait = System.nanoTime() - waiter.enqueuedAt();
+        CompletableFuture<RestResponse> sent;
+        try {
+            sent = delegate.send(waiter.request());
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<RestResponse> upstream = sent;
+        // 调用方取消 / 超时：中止底层请求，许可由下面的回调归还
+        waiter.result().whenComplete((r, ex) -> {
+            if (!upstream.isDone()) upstream.cancel(true);
+        });
+        upstream.whenComplete((r, ex) -> {
+            if (ex != null) waiter.result().completeExceptionally(ex);
+            else waiter.result().complete(r.withQueueWait(queueWait));
+            for (Waiter next : queue.leave()) dispatch(queue, next);
+        });
+    }
+
+    private static String hostKey(URI uri) {
+        String scheme = uri.getScheme() == null ? "http" : uri.getScheme().toLowerCase(Locale.ROOT);
+        int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(scheme) ? 443 : 80);
+        return scheme + "://" + (uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT)) + ":" + port;
+    }
+
+    @Override
+    public void prewarm(URI origin) throws IOException {
+        delegate.prewarm(origin);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private record Waiter(TransportRequest request, CompletableFuture<RestResponse> result, long enqueuedAt) {}
+
+    private final class HostQueue {
+        private final ArrayDeque<Waiter> waiting = new ArrayDeque<>();
+        private int active;
+
+        /**
+         * 有空位且没人排在前面时直接占用许可返回 true，否则入队
+         */
+        synchronized boolean enter(Waiter waiter) {
+            if (active < maxPerHost.getAsInt() && waiting.isEmpty()) {
+                active++;
+                return true;
+            }
+            waiting.addLast(waiter);
+            return false;
+        }
+
+        /**
+         * 归还一个许可，返回可以开始的等待者 (上限调大时可能不止一个)。已被调用方取消的等待者直接丢弃
+         */
+        synchronized List<Waiter> leave() {
+            active--;
+            List<Waiter> ready = new ArrayList<>();
+            int limit = Math.max(1, maxPerHost.getAsInt());
+            while (active < limit && !waiting.isEmpty()) {
+                Waiter next = waiting.pollFirst();
+                if (next.result().isDone()) continue;
+                active++;
+                ready.add(next);
+            }
+            return ready;
+        }
+
+        synchronized int queuedCount() {
+            return waiting.size();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.phil.rest.service.transport;
+
+import com.phil.rest.model.RestResponse;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 传输层 SPI。HttpExecutor 负责组装请求 (URL / Header / Body)，具体怎么发出去由实现决定。
+ * <ul>
+ *     <li>{@link JdkHttpTransport}: java.net.http，支持 HTTP/2，只能拿到 TTFB 和下载耗时</li>
+ *     <li>{@link NioHttpTransport}: 基于 SocketChannel / SSLEngine 的 HTTP/1.1 引擎，记录完整的分阶段耗时</li>
+ * </ul>
+ */
+public interface HttpTransport extends AutoCloseable {
+
+    /**
+     * 发送请求。失败时 Future 异常结束，由调用方统一转成错误响应
+     */
+    CompletableFuture<RestResponse> send(TransportRequest request);
+
+    /**
+     * 提前建立到 origin (scheme://host:port) 的连接，阻塞执行。
+     * 默认只做 DNS 解析：连接池不对外开放的引擎 (java.net.http) 无法在不发请求的情况下建连
+     */
+    default void prewarm(URI origin) throws IOException {
+        InetAddress.getAllByName(origin.getHost());
+    }
+
+    /**
+     * 释放连接池等资源，不抛出受检异常
+     */
+    @Override
+    void close();
+}
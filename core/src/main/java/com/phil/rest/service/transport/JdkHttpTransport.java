@@ -0,0 +1,60 @@
+package com.phil.rest.service.transport;
+
+import com.phil.rest.model.PhaseTimings;
+import com.phil.rest.model.RestResponse;
+import com.phil.rest.service.DecodingBodySubscriber;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 基于 java.net.http 的默认引擎。
+ * JDK 不暴露 DNS / 建连 / TLS 阶段，只能以 "收到响应头" 为界拆出等待和下载两段。
+ */
+public class JdkHttpTransport implements HttpTransport {
+
+    public static final String ENGINE_NAME = "java.net.http";
+
+    private final HttpClient client;
+
+    public JdkHttpTransport(HttpClient client) {
+        this.client = client;
+    }
+
+    public HttpClient getClient() {
+        return client;
+    }
+
+    @Override
+    public CompletableFuture<RestResponse> send(TransportRequest request) {
+        long start = System.nanoTime();
+        long[] headersAt = new long[1];
+        HttpResponse.BodyHandler<DecodingBodySubscriber.Result> handler = DecodingBodySubscriber.handler(request.inMemoryLimit());
+
+        CompletableFuture<HttpResponse<DecodingBodySubscriber.Result>> raw = client.sendAsync(request.jdkRequest(), info -> {
+            // BodyHandler 在响应头到达时被调用
+            headersAt[0] = System.nanoTime();
+            return handler.apply(info);
+        });
+        CompletableFuture<RestResponse> result = raw.thenApply(response -> {
+            long end = System.nanoTime();
+            DecodingBodySubscriber.Result body = response.body();
+            PhaseTimings timings = new PhaseTimings(-1, -1, -1, -1,
+                    headersAt[0] - start, end - headersAt[0], null, -1, -1, ENGINE_NAME);
+            return new RestResponse(response.statusCode(), body.body(), response.headers().map(),
+                    (end - start) / 1_000_000, body.wireBytes(), body.encoding(), body.decoded(), timings);
+        });
+        // 结果先于交换结束 (调用方取消、orTimeout 超时) 时显式取消 sendAsync 返回的原始 Future，由 JDK 中止交换、关闭连接。
+        // 派生 Future 上的异常结束 (超时) 不会传到交换上，取消能否传过去也只是 JDK 内部实现，不能依赖
+        result.whenComplete((r, ex) -> {
+            if (!raw.isDone()) raw.cancel(true);
+        });
+        return result;
+    }
+
+    @Override
+    public void close() {
+        client.shutdownNow();
+    }
+}
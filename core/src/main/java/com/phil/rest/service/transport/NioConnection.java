@@ -0,0 +1,304 @@
+package com.phil.rest.service.transport;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * 一条 HTTP/1.1 连接 (阻塞模式的 SocketChannel，https 时套一层 SSLEngine)。
+ * 统计套接字层实际读写的字节数，包括 TLS 记录开销。
+ * <p>
+ * 非线程安全：同一时刻只会被一个请求持有。
+ */
+final class NioConnection implements Closeable {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final String poolKey;
+    private final SocketChannel channel;
+    private final SSLEngine ssl;
+
+    private ByteBuffer netIn;
+    private final ByteBuffer netOut;
+    // 已解密 (或明文) 的入站数据，始终处于 "读模式"
+    private ByteBuffer inbound;
+
+    private long bytesRead;
+    private long bytesWritten;
+    private long lastUsedNanos = System.nanoTime();
+
+    private NioConnection(String poolKey, SocketChannel channel, SSLEngine ssl) {
+        this.poolKey = poolKey;
+        this.channel = channel;
+        this.ssl = ssl;
+        int packetSize = ssl != null ? ssl.getSession().getPacketBufferSize() : 16 * 1024;
+        int appSize = ssl != null ? ssl.getSession().getApplicationBufferSize() : 32 * 1024;
+        this.netIn = ByteBuffer.allocate(packetSize);
+        this.netOut = ByteBuffer.allocate(packetSize);
+        this.inbound = ByteBuffer.allocate(appSize).flip();
+    }
+
+    static NioConnection connect(String poolKey, InetSocketAddress address, int connectTimeoutMs) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.socket().connect(address, connectTimeoutMs);
+            return new NioConnection(poolKey, channel, null);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 在已建立的 TCP 连接上完成 TLS 握手，返回新的连接对象
+     */
+    NioConnection startTls(SSLContext context, String host, int port, boolean verifyHostname) throws IOException {
+        SSLEngine engine = context.createSSLEngine(host, port);
+        engine.setUseClientMode(true);
+        SSLParameters params = engine.getSSLParameters();
+        params.setApplicationProtocols(new String[]{"http/1.1"});
+        if (verifyHostname) params.setEndpointIdentificationAlgorithm("HTTPS");
+        engine.setSSLParameters(params);
+
+        NioConnection tls = new NioConnection(poolKey, channel, engine);
+        tls.bytesRead = bytesRead;
+        tls.bytesWritten = bytesWritten;
+        tls.handshake();
+        return tls;
+    }
+
+    String poolKey() { return poolKey; }
+    long bytesRead() { return bytesRead; }
+    long bytesWritten() { return bytesWritten; }
+    long lastUsedNanos() { return lastUsedNanos; }
+    void touch() { lastUsedNanos = System.nanoTime(); }
+    boolean isOpen() { return channel.isOpen(); }
+
+    /**
+     * 连接闲置在池中时，服务端可能已经关闭；这里不阻塞地探测一下。
+     * 读到的字节不会丢弃：明文连接放进 inbound；TLS 连接交给 SSLEngine 解密。
+     * TLS 1.3 服务端在握手后还会发 NewSessionTicket 等握手记录，空闲连接上几乎总有未读数据，
+     * 这些记录由 SSLEngine 消化掉，连接照常复用；只有对端关闭、出错或收到应用数据时才判定不可复用
+     */
+    boolean isReusable() {
+        if (!channel.isOpen() || inbound.hasRemaining()) return false;
+        try {
+            if (ssl == null) {
+                inbound.compact();
+                int n;
+                try {
+                    n = readNonBlocking(inbound);
+                } finally {
+                    inbound.flip();
+                }
+                // 0 = 仍然存活且没有多余数据；-1 = 对端关闭；>0 = 有意料之外的数据 (例如超时前发来的 408)
+                return n == 0;
+            }
+            int n;
+            do {
+                n = readNonBlocking(netIn);
+                if (n < 0) return false;
+                if (!unwrapIdle()) return false;
+            } while (n > 0);
+            return !ssl.isInboundDone();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private int readNonBlocking(ByteBuffer dst) throws IOException {
+        channel.configureBlocking(false);
+        try {
+            int n = channel.read(dst);
+            if (n > 0) bytesRead += n;
+            return n;
+        } finally {
+            channel.configureBlocking(true);
+        }
+    }
+
+    /**
+     * 解密空闲期间收到的完整 TLS 记录，返回 false 表示收到了应用数据或 close_notify。
+     * 不完整的记录留在 netIn 里，下次 fill() 接着处理
+     */
+    private boolean unwrapIdle() throws IOException {
+        inbound.compact();
+        try {
+            while (true) {
+                netIn.flip();
+                SSLEngineResult r = ssl.unwrap(netIn, inbound);
+                netIn.compact();
+                switch (r.getStatus()) {
+                    case OK -> {
+                        runDelegatedTasks();
+                        if (r.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_WRAP) wrapHandshake();
+                        if (r.bytesProduced() > 0) return false;
+                        if (r.bytesConsumed() == 0) return true;
+                    }
+                    case BUFFER_UNDERFLOW -> {
+                        return true;
+                    }
+                    // inbound 是空的仍然放不下，只能是应用数据
+                    case BUFFER_OVERFLOW, CLOSED -> {
+                        return false;
+                    }
+                }
+            }
+        } finally {
+            inbound.flip();
+        }
+    }
+
+    void write(ByteBuffer src) throws IOException {
+        if (ssl == null) {
+            while (src.hasRemaining()) bytesWritten += channel.write(src);
+            return;
+        }
+        while (src.hasRemaining()) {
+            netOut.clear();
+            SSLEngineResult r = ssl.wrap(src, netOut);
+            if (r.getStatus() == SSLEngineResult.Status.CLOSED) throw new SSLException("TLS connection closed");
+            netOut.flip();
+            writeNet();
+        }
+    }
+
+    /**
+     * 当前可读的入站数据 (读模式)，调用方直接移动 position 消费
+     */
+    ByteBuffer inbound() {
+        return inbound;
+    }
+
+    /**
+     * 再读一批入站数据追加到 inbound，返回 false 表示对端已关闭
+     */
+    boolean fill() throws IOException {
+        inbound.compact();
+        try {
+            if (ssl == null) {
+                if (!inbound.hasRemaining()) inbound = grow(inbound, inbound.capacity());
+                int n = channel.read(inbound);
+                if (n < 0) return false;
+                bytesRead += n;
+                return true;
+            }
+            while (true) {
+                netIn.flip();
+                SSLEngineResult r = ssl.unwrap(netIn, inbound);
+                netIn.compact();
+                switch (r.getStatus()) {
+                    case OK -> {
+                        runDelegatedTasks();
+                        if (r.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+                            // TLS 1.3 KeyUpdate 等握手后消息
+                            wrapHandshake();
+                        }
+                        if (r.bytesProduced() > 0) return true;
+                    }
+                    case BUFFER_UNDERFLOW -> {
+                        if (!netIn.hasRemaining()) netIn = grow(netIn, ssl.getSession().getPacketBufferSize());
+                        int n = channel.read(netIn);
+                        if (n < 0) return false;
+                        bytesRead += n;
+                    }
+                    case BUFFER_OVERFLOW -> inbound = grow(inbound, ssl.getSession().getApplicationBufferSize());
+                    case CLOSED -> {
+                        return false;
+                    }
+                }
+            }
+        } finally {
+            inbound.flip();
+        }
+    }
+
+    /**
+     * 保证 inbound 至少有一个字节可读
+     */
+    void require() throws IOException {
+        while (!inbound.hasRemaining()) {
+            if (!fill()) throw new EOFException("Connection closed by server");
+        }
+    }
+
+    private void handshake() throws IOException {
+        ssl.beginHandshake();
+        SSLEngineResult.HandshakeStatus hs = ssl.getHandshakeStatus();
+        while (hs != SSLEngineResult.HandshakeStatus.FINISHED && hs != SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING) {
+            switch (hs) {
+                case NEED_WRAP -> hs = wrapHandshake();
+                case NEED_UNWRAP, NEED_UNWRAP_AGAIN -> {
+                    inbound.compact();
+                    netIn.flip();
+                    SSLEngineResult r = ssl.unwrap(netIn, inbound);
+                    netIn.compact();
+                    inbound.flip();
+                    if (r.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW) {
+                        if (!netIn.hasRemaining()) netIn = grow(netIn, ssl.getSession().getPacketBufferSize());
+                        int n = channel.read(netIn);
+                        if (n < 0) throw new EOFException("Connection closed during TLS handshake");
+                        bytesRead += n;
+                    } else if (r.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+                        inbound = grow(inbound.compact(), ssl.getSession().getApplicationBufferSize()).flip();
+                    } else if (r.getStatus() == SSLEngineResult.Status.CLOSED) {
+                        throw new SSLException("Connection closed during TLS handshake");
+                    }
+                    hs = r.getHandshakeStatus();
+                }
+                case NEED_TASK -> {
+                    runDelegatedTasks();
+                    hs = ssl.getHandshakeStatus();
+                }
+                default -> hs = ssl.getHandshakeStatus();
+            }
+        }
+    }
+
+    private SSLEngineResult.HandshakeStatus wrapHandshake() throws IOException {
+        netOut.clear();
+        SSLEngineResult r = ssl.wrap(EMPTY, netOut);
+        if (r.getStatus() == SSLEngineResult.Status.CLOSED) throw new SSLException("Connection closed during TLS handshake");
+        netOut.flip();
+        writeNet();
+        return r.getHandshakeStatus();
+    }
+
+    private void runDelegatedTasks() {
+        Runnable task;
+        while ((task = ssl.getDelegatedTask()) != null) task.run();
+    }
+
+    private void writeNet() throws IOException {
+        while (netOut.hasRemaining()) bytesWritten += channel.write(netOut);
+    }
+
+    /**
+     * 扩容，入参和返回值都处于 "写模式"
+     */
+    private static ByteBuffer grow(ByteBuffer buffer, int extra) {
+        ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() + extra);
+        buffer.flip();
+        bigger.put(buffer);
+        return bigger;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (ssl != null) ssl.closeOutbound();
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.phil.rest.service.transport;
+
+import com.phil.rest.model.PhaseTimings;
+import com.phil.rest.model.RestResponse;
+import com.phil.rest.service.DecodingBodySubscriber;
+import com.phil.rest.service.SpillingBodySubscriber;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.CookieHandler;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 自研的 HTTP/1.1 引擎：SocketChannel + SSLEngine，每个阶段都用 nanoTime 打点，
+ * 同时记录连接是否复用以及套接字上真实的收发字节数。
+ * <p>
+ * 只做一次交换，不自动跟随重定向，这样瀑布图里的每一段都对应真实发生的网络行为。
+ */
+public class NioHttpTransport implements HttpTransport {
+
+    public static final String ENGINE_NAME = "raw NIO HTTP/1.1";
+
+    private static final long IDLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int MAX_IDLE_PER_HOST = 8;
+
+    private final SSLContext sslContext;
+    private final boolean verifyHostname;
+    private final CookieHandler cookieHandler;
+    private final int connectTimeoutMs;
+    private final Executor executor;
+    private final Map<String, Deque<NioConnection>> idle = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * @param executor 执行阻塞 I/O 的线程 (虚拟线程最合适)，由调用方管理生命周期
+     */
+    public NioHttpTransport(SSLContext sslContext, boolean verifyHostname, CookieHandler cookieHandler,
+                            int connectTimeoutMs, Executor executor) {
+        this.sslContext = sslContext;
+        this.verifyHostname = verifyHostname;
+        this.cookieHandler = cookieHandler;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<RestResponse> send(TransportRequest request) {
+        CompletableFuture<RestResponse> future = new CompletableFuture<>();
+        AtomicReference<NioConnection> inUse = new AtomicReference<>();
+        // 超时 / 取消时直接关闭套接字，把阻塞中的工作线程唤醒
+        future.whenComplete((r, ex) -> {
+            if (ex != null) {
+                NioConnection c = inUse.getAndSet(null);
+                if (c != null) c.close();
+            }
+        });
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(exchange(request, inUse));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 预热：保证连接池里至少有一条到 origin 的可用连接 (DNS + TCP + TLS 都提前完成)。
+     * 已有存活连接时只刷新它的空闲计时
+     */
+    @Override
+    public void prewarm(URI origin) throws IOException {
+        if (closed) return;
+        Target target = Target.of(origin);
+        NioConnection conn = pollIdle(target.poolKey());
+        if (conn == null) {
+            conn = open(target, null, new long[3]);
+        }
+        release(conn);
+    }
+
+    private RestResponse exchange(TransportRequest request, AtomicReference<NioConnection> inUse) throws Exception {
+        URI uri = request.uri();
+        Target target = Target.of(uri);
+        String host = target.host();
+        int port = target.port();
+        boolean https = target.https();
+
+        long t0 = System.nanoTime();
+        // dns / connect / tls
+        long[] phases = {-1, -1, -1};
+
+        // 1. 优先复用空闲连接 (包括预热好的连接)
+        NioConnection conn = pollIdle(target.poolKey());
+        boolean reused = conn != null;
+        if (conn == null) {
+            conn = open(target, inUse, phases);
+        }
+        long dns = phases[0], connect = phases[1], tls = phases[2];
+        inUse.set(conn);
+        // 新连接从 0 开始计，握手流量也算在本次请求里
+        long readBase = reused ? conn.bytesRead() : 0;
+        long writeBase = reused ? conn.bytesWritten() : 0;
+
+        // 2. 写请求头 + Body
+        long tSend = System.nanoTime();
+        long contentLength = request.body().contentLength();
+        boolean chunked = contentLength < 0;
+        conn.write(ByteBuffer.wrap(buildHead(request, uri, host, port, https, contentLength, chunked)));
+        writeBody(conn, request.body(), chunked);
+        long tSent = System.nanoTime();
+
+        // 3. 等待首字节，解析状态行和响应头 (跳过 1xx)
+        conn.require();
+        long tFirstByte = System.nanoTime();
+        int status;
+        Map<String, List<String>> headers;
+        do {
+            status = parseStatus(readLine(conn));
+            headers = readHeaders(conn);
+        } while (status >= 100 && status < 200);
+
+        if (cookieHandler != null) cookieHandler.put(uri, headers);
+
+        // 4. 读 Body，交给与 JDK 引擎相同的解压 / 落盘管道
+        String contentEncoding = firstHeader(headers, "Content-Encoding");
+        DecodingBodySubscriber subscriber = new DecodingBodySubscriber(contentEncoding, new SpillingBodySubscriber(request.inMemoryLimit()));
+        subscriber.onSubscribe(NOOP_SUBSCRIPTION);
+
+        boolean keepAlive = !"close".equalsIgnoreCase(firstHeader(headers, "Connection"));
+        boolean noBody = "HEAD".equals(request.method()) || status == 204 || status == 304;
+        String transferEncoding = firstHeader(headers, "Transfer-Encoding");
+        String lengthHeader = firstHeader(headers, "Content-Length");
+        try {
+            if (noBody) {
+                // nothing
+            } else if (transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+                readChunked(conn, subscriber);
+            } else if (lengthHeader != null) {
+                readFixed(conn, subscriber, Long.parseLong(lengthHeader.trim()));
+            } else {
+                readUntilClose(conn, subscriber);
+                keepAlive = false;
+            }
+        } catch (IOException e) {
+            subscriber.onError(e);
+            throw e;
+        }
+        subscriber.onComplete();
+        long tDone = System.nanoTime();
+
+        long bytesSent = conn.bytesWritten() - writeBase;
+        long bytesReceived = conn.bytesRead() - readBase;
+        inUse.set(null);
+        if (keepAlive) release(conn); else conn.close();
+
+        DecodingBodySubscriber.Result result = subscriber.getBody().toCompletableFuture().join();
+        PhaseTimings timings = new PhaseTimings(dns, connect, tls, tSent - tSend, tFirstByte - tSent, tDone - tFirstByte,
+                reused, bytesSent, bytesReceived, ENGINE_NAME);
+        return new RestResponse(status, result.body(), headers, (tDone - t0) / 1_000_000,
+                result.wireBytes(), result.encoding(), result.decoded(), timings);
+    }
+
+    private NioConnection open(Target target, AtomicReference<NioConnection> inUse, long[] phases) throws IOException {
+        long tDns = System.nanoTime();
+        InetAddress address = InetAddress.getByName(target.host());
+        long tConnect = System.nanoTime();
+        phases[0] = tConnect - tDns;
+
+        NioConnection conn = NioConnection.connect(target.poolKey(), new InetSocketAddress(address, target.port()), connectTimeoutMs);
+        long tTls = System.nanoTime();
+        phases[1] = tTls - tConnect;
+        if (inUse != null) inUse.set(conn);
+
+        if (target.https()) {
+            try {
+                conn = conn.startTls(sslContext, target.host(), target.port(), verifyHostname);
+            } catch (IOException e) {
+                conn.close();
+                throw e;
+            }
+            phases[2] = System.nanoTime() - tTls;
+        }
+        return conn;
+    }
+
+    private record Target(String poolKey, String host, int port, boolean https) {
+        static Target of(URI uri) throws IOException {
+            boolean https = "https".equalsIgnoreCase(uri.getScheme());
+            String host = uri.getHost();
+            if (host == null) throw new IOException("Invalid URL: " + uri);
+            int port = uri.getPort() > 0 ? uri.getPort() : (https ? 443 : 80);
+            return new Target((https ? "https://" : "http://") + host + ":" + port, host, port, https);
+        }
+    }
+
+    private byte[] buildHead(TransportRequest request, URI uri, String host, int port, boolean https,
+                             long contentLength, boolean chunked) throws IOException {
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) path += "?" + uri.getRawQuery();
+
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(request.method()).append(' ').append(path).append(" HTTP/1.1\r\n");
+        boolean defaultPort = (https && port == 443) || (!https && port == 80);
+        sb.append("Host: ").append(host);
+        if (!defaultPort) sb.append(':').append(port);
+        sb.append("\r\n");
+
+        for (TransportRequest.Header h : request.headers()) {
+            String name = h.name();
+            // 帧相关的 Header 由引擎自己生成
+            if (name.equalsIgnoreCase("Host") || name.equalsIgnoreCase("Content-Length")
+                    || name.equalsIgnoreCase("Transfer-Encoding") || name.equalsIgnoreCase("Connection")) {
+                continue;
+            }
+            sb.append(name).append(": ").append(h.value()).append("\r\n");
+        }
+
+        if (cookieHandler != null && !request.hasHeader("Cookie")) {
+            List<String> cookies = cookieHandler.get(uri, Map.of()).getOrDefault("Cookie", List.of());
+            if (!cookies.isEmpty()) sb.append("Cookie: ").append(String.join("; ", cookies)).append("\r\n");
+        }
+
+        if (chunked) {
+            sb.append("Transfer-Encoding: chunked\r\n");
+        } else if (contentLength > 0 || !("GET".equals(request.method()) || "HEAD".equals(request.method()) || "DELETE".equals(request.method()))) {
+            sb.append("Content-Length: ").append(contentLength).append("\r\n");
+        }
+        sb.append("\r\n");
+        return sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 在当前线程上订阅 BodyPublisher，边收边写；不知道长度时用 chunked 编码
+     */
+    private static void writeBody(NioConnection conn, java.net.http.HttpRequest.BodyPublisher body, boolean chunked) throws Exception {
+        BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+        Object done = new Object();
+        AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+        body.subscribe(new Flow.Subscriber<>() {
+            @Override public void onSubscribe(Flow.Subscription s) { subscription.set(s); s.request(1); }
+            @Override public void onNext(ByteBuffer item) { queue.add(item); }
+            @Override public void onError(Throwable t) { queue.add(t); }
+            @Override public void onComplete() { queue.add(done); }
+        });
+
+        while (true) {
+            Object item = queue.take();
+            if (item == done) break;
+            if (item instanceof Throwable t) throw new IOException("Failed to read request body", t);
+            ByteBuffer buf = (ByteBuffer) item;
+            if (buf.hasRemaining()) {
+                if (chunked) conn.write(ByteBuffer.wrap((Integer.toHexString(buf.remaining()) + "\r\n").getBytes(StandardCharsets.ISO_8859_1)));
+                conn.write(buf);
+                if (chunked) conn.write(ByteBuffer.wrap(CRLF));
+            }
+            subscription.get().request(1);
+        }
+        if (chunked) conn.write(ByteBuffer.wrap("0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private static String readLine(NioConnection conn) throws IOException {
+        StringBuilder sb = new StringBuilder(64);
+        while (true) {
+            conn.require();
+            ByteBuffer in = conn.inbound();
+            while (in.hasRemaining()) {
+                byte b = in.get();
+                if (b == '\n') {
+                    int len = sb.length();
+                    if (len > 0 && sb.charAt(len - 1) == '\r') sb.setLength(len - 1);
+                    return sb.toString();
+                }
+                sb.append((char) (b & 0xFF));
+                if (sb.length() > 64 * 1024) throw new IOException("Header line too long");
+            }
+        }
+    }
+
+    private static int parseStatus(String statusLine) throws IOException {
+        // HTTP/1.1 200 OK
+        String[] parts = statusLine.split(" ", 3);
+        if (parts.length < 2 || !parts[0].startsWith("HTTP/")) throw new IOException("Invalid status line: " + statusLine);
+        try {
+            return Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid status line: " + statusLine);
+        }
+    }
+
+    private static Map<String, List<String>> readHeaders(NioConnection conn) throws IOException {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        String line;
+        while (!(line = readLine(conn)).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) continue;
+            headers.computeIfAbsent(line.substring(0, colon).trim(), k -> new ArrayList<>()).add(line.substring(colon + 1).trim());
+        }
+        return headers;
+    }
+
+    private static void readFixed(NioConnection conn, DecodingBodySubscriber subscriber, long length) throws IOException {
+        long remaining = length;
+        while (remaining > 0) {
+            conn.require();
+            remaining -= forward(conn.inbound(), subscriber, remaining);
+        }
+    }
+
+    private static void readChunked(NioConnection conn, DecodingBodySubscriber subscriber) throws IOException {
+        while (true) {
+            String sizeLine = readLine(conn);
+            int semi = sizeLine.indexOf(';');
+            long size = Long.parseLong((semi >= 0 ? sizeLine.substring(0, semi) : sizeLine).trim(), 16);
+            if (size == 0) {
+                // 跳过 trailer
+                while (!readLine(conn).isEmpty()) { }
+                return;
+            }
+            readFixed(conn, subscriber, size);
+            readLine(conn); // chunk 结尾的 CRLF
+        }
+    }
+
+    private static void readUntilClose(NioConnection conn, DecodingBodySubscriber subscriber) throws IOException {
+        while (true) {
+            if (!conn.inbound().hasRemaining() && !conn.fill()) return;
+            forward(conn.inbound(), subscriber, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * 把 inbound 中最多 max 字节交给下游。下游在 onNext 内同步拷贝，可以直接传切片
+     */
+    private static long forward(ByteBuffer in, DecodingBodySubscriber subscriber, long max) {
+        int n = (int) Math.min(in.remaining(), max);
+        if (n == 0) return 0;
+        ByteBuffer slice = in.slice(in.position(), n);
+        in.position(in.position() + n);
+        subscriber.onNext(List.of(slice));
+        return n;
+    }
+
+    private static String firstHeader(Map<String, List<String>> headers, String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private NioConnection pollIdle(String poolKey) {
+        Deque<NioConnection> deque = idle.get(poolKey);
+        if (deque == null) return null;
+        NioConnection c;
+        while ((c = deque.pollFirst()) != null) {
+            if (System.nanoTime() - c.lastUsedNanos() < IDLE_TIMEOUT_NANOS && c.isReusable()) return c;
+            c.close();
+        }
+        return null;
+    }
+
+    private void release(NioConnection conn) {
+        if (closed) {
+            conn.close();
+            return;
+        }
+        conn.touch();
+        Deque<NioConnection> deque = idle.computeIfAbsent(conn.poolKey(), k -> new ConcurrentLinkedDeque<>());
+        deque.addFirst(conn);
+        while (deque.size() > MAX_IDLE_PER_HOST) {
+            NioConnection oldest = deque.pollLast();
+            if (oldest != null) oldest.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        idle.values().forEach(d -> d.forEach(NioConnection::close));
+        idle.clear();
+    }
+
+    private static final Flow.Subscription NOOP_SUBSCRIPTION = new Flow.Subscription() {
+        @Override public void request(long n) { }
+        @Override public void cancel() { }
+    };
+}
@@ -0,0 +1,101 @@
+package com.phil.rest.service.transport;
+
+import com.phil.rest.model.RestEnv;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.net.CookieHandler;
+import java.net.Socket;
+import java.net.http.HttpClient;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * 按引擎 / 协议 / TLS 模式 / 重定向策略创建底层传输引擎 (不带缓存、合并等装饰)。
+ * 不依赖 IDE 的类，IDE 里的 {@code HttpClientRegistry} 和压测 worker 进程共用
+ */
+public final class TransportFactory {
+
+    private TransportFactory() {}
+
+    /**
+     * @param executor 两种引擎的 I/O 都跑在这个执行器上 (虚拟线程最合适)，由调用方管理生命周期
+     */
+    public static HttpTransport create(RestEnv.TransportEngine engine, RestEnv.Protocol protocol, RestEnv.TlsMode tlsMode,
+                                       RestEnv.RedirectPolicy redirectPolicy, CookieHandler cookieHandler, Executor executor) {
+        if (engine == RestEnv.TransportEngine.NIO) {
+            // 原生引擎只实现 HTTP/1.1，不跟随重定向
+            boolean strict = tlsMode == RestEnv.TlsMode.STRICT;
+            return new NioHttpTransport(sslContextFor(tlsMode), strict, cookieHandler, 15_000, executor);
+        }
+        return new JdkHttpTransport(createClient(protocol, tlsMode, redirectPolicy, cookieHandler, executor));
+    }
+
+    private static HttpClient createClient(RestEnv.Protocol protocol, RestEnv.TlsMode tlsMode,
+                                           RestEnv.RedirectPolicy redirectPolicy, CookieHandler cookieHandler,
+                                           Executor executor) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(15))
+                .cookieHandler(cookieHandler);
+
+        // H2C: JDK HttpClient 对明文地址走 Upgrade: h2c 协商，不支持 prior-knowledge，这里统一按 HTTP_2 处理
+        builder.version(protocol == RestEnv.Protocol.HTTP_1_1 ? HttpClient.Version.HTTP_1_1 : HttpClient.Version.HTTP_2);
+
+        switch (redirectPolicy) {
+            case ALWAYS -> builder.followRedirects(HttpClient.Redirect.ALWAYS);
+            case NEVER -> builder.followRedirects(HttpClient.Redirect.NEVER);
+            default -> builder.followRedirects(HttpClient.Redirect.NORMAL);
+        }
+
+        builder.sslContext(sslContextFor(tlsMode));
+        if (tlsMode == RestEnv.TlsMode.STRICT) {
+            // STRICT 显式开启主机名校验；INSECURE 的主机名校验由信任所有证书的 TrustManager 跳过，不影响 JVM 里其它客户端
+            SSLParameters params = new SSLParameters();
+            params.setEndpointIdentificationAlgorithm("HTTPS");
+            builder.sslParameters(params);
+        }
+        return builder.build();
+    }
+
+    private static SSLContext sslContextFor(RestEnv.TlsMode tlsMode) {
+        if (tlsMode == RestEnv.TlsMode.INSECURE) {
+            try {
+                return createTrustAllContext();
+            } catch (Exception ignored) {
+                // 回退到 JVM 默认 SSLContext
+            }
+        }
+        try {
+            return SSLContext.getDefault();
+        } catch (Exception e) {
+            throw new IllegalStateException("No default SSLContext", e);
+        }
+    }
+
+    /**
+     * 信任所有证书且不校验主机名。必须是 X509ExtendedTrustManager：普通的 X509TrustManager 会被 JSSE 包一层，
+     * 在连接设置了 endpoint identification (JDK HttpClient 默认 HTTPS) 时仍然校验主机名
+     */
+    private static SSLContext createTrustAllContext() throws Exception {
+        TrustManager[] trustAllCerts = new TrustManager[]{
+                new X509ExtendedTrustManager() {
+                    public X509Certificate[] getAcceptedIssuers() { return new X509Certificate[0]; }
+                    public void checkClientTrusted(X509Certificate[] certs, String authType) {}
+                    public void checkServerTrusted(X509Certificate[] certs, String authType) {}
+                    public void checkClientTrusted(X509Certificate[] certs, String authType, Socket socket) {}
+                    public void checkServerTrusted(X509Certificate[] certs, String authType, Socket socket) {}
+                    public void checkClientTrusted(X509Certificate[] certs, String authType, SSLEngine engine) {}
+                    public void checkServerTrusted(X509Certificate[] certs, String authType, SSLEngine engine) {}
+                }
+        };
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, trustAllCerts, new SecureRandom());
+        return sslContext;
+    }
+}
@@ -0,0 +1,118 @@
+package com.phil.rest.service.transport;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 与具体引擎无关的请求描述，不可变，可以反复发送 (Body 每次订阅都从头开始)。
+ * <p>
+ * java.net.http 引擎用的 HttpRequest 在第一次发送时构建并缓存在这里 (见 {@link #jdkRequest()})，
+ * 压测里同一个请求反复发送时不再逐个拷贝 Header、过滤受限 Header
+ *
+ * @param method        大写的 HTTP 方法
+ * @param headers       按用户填写顺序排列的 Header
+ * @param body          请求体，没有 Body 时为 BodyPublishers.noBody()
+ * @param inMemoryLimit 响应体在内存中保留的上限，超出部分落盘
+ */
+public final class TransportRequest {
+
+    public record Header(String name, String value) {}
+
+    private final String method;
+    private final URI uri;
+    private final List<Header> headers;
+    private final HttpRequest.BodyPublisher body;
+    private final Duration timeout;
+    private final long inMemoryLimit;
+    // 并发下可能重复构建，HttpRequest 不可变，谁的结果留下都一样
+    private volatile HttpRequest jdkRequest;
+
+    public TransportRequest(String method, URI uri, List<Header> headers, HttpRequest.BodyPublisher body,
+                            Duration timeout, long inMemoryLimit) {
+        this.method = method;
+        this.uri = uri;
+        this.headers = headers;
+        this.body = body;
+        this.timeout = timeout;
+        this.inMemoryLimit = inMemoryLimit;
+    }
+
+    public String method() { return method; }
+    public URI uri() { return uri; }
+    public List<Header> headers() { return headers; }
+    public HttpRequest.BodyPublisher body() { return body; }
+    public Duration timeout() { return timeout; }
+    public long inMemoryLimit() { return inMemoryLimit; }
+
+    /**
+     * 对应的 java.net.http 请求，只构建一次
+     */
+    HttpRequest jdkRequest() {
+        HttpRequest built = jdkRequest;
+        if (built == null) {
+            built = buildJdkRequest();
+            jdkRequest = built;
+        }
+        return built;
+    }
+
+    private HttpRequest buildJdkRequest() {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(uri)
+                .timeout(timeout);
+
+        for (Header header : headers) {
+            try {
+                builder.header(header.name(), header.value());
+            } catch (IllegalArgumentException e) {
+                // 受限 Header (Host / Connection 等) 由 JDK 自己管理，忽略
+            }
+        }
+
+        switch (method) {
+            case "GET": builder.GET(); break;
+            case "DELETE": builder.DELETE(); break;
+            case "POST": builder.POST(body); break;
+            case "PUT": builder.PUT(body); break;
+            default: builder.method(method, body);
+        }
+        return builder.build();
+    }
+
+    public boolean hasHeader(String name) {
+        for (Header h : headers) {
+            if (h.name().equalsIgnoreCase(name)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 请求指纹：方法 + URL + 排序后的 Header (条件请求头除外)，不含 Body。
+     * 响应缓存和在途请求合并都用它判断 "是不是同一个请求"
+     */
+    public String fingerprint() {
+        List<String> lines = new ArrayList<>();
+        for (Header h : headers) {
+            String name = h.name().toLowerCase(Locale.ROOT);
+            if (name.equals("if-none-match") || name.equals("if-modified-since") || name.equals("cache-control")) continue;
+            lines.add(name + ":" + h.value());
+        }
+        lines.sort(null);
+        StringBuilder sb = new StringBuilder(method).append('\n').append(uri);
+        for (String line : lines) sb.append('\n').append(line);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.phil.rest.service.load;
+
+import com.phil.rest.model.CollectionNode;
+import com.phil.rest.model.RestResponse;
+import com.phil.rest.model.ResponseBody;
+import com.phil.rest.model.SavedRequest;
+import com.phil.rest.service.VariableScope;
+import com.phil.rest.service.transport.HttpTransport;
+import com.phil.rest.service.transport.TransportRequest;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ScenarioWorkloadTest {
+
+    /**
+     * 第二步一直不返回：引擎按整次执行的超时结束这次执行时，挂起的那一步必须被取消，后续步骤也不再发出
+     */
+    @Test
+    public void executionTimeoutCancelsHangingStep() throws Exception {
+        HangingTransport transport = new HangingTransport();
+        LoadScenario scenario = new LoadScenario("checkout", 1,
+                List.of(step("login", "/login"), step("hang", "/hang"), step("after", "/after")));
+        // 单步超时很长，只有整次执行的超时 (LoadConfig.timeout × 步数) 会触发
+        ScenarioWorkload workload = new ScenarioWorkload(transport, List.of(scenario),
+                VariableScope.snapshot(null, null), Duration.ofSeconds(60));
+        LoadConfig config = LoadConfig.constant(1, Duration.ofMillis(500), 1, Duration.ofMillis(100));
+
+        LoadResult result = new LoadEngine(workload, config).start().get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, result.sent());
+        assertEquals(1, result.errors());
+        CompletableFuture<RestResponse> hanging = transport.hanging;
+        assertNotNull("second step was never sent", hanging);
+        assertTrue("hanging step kept running after the execution timed out", hanging.isCancelled());
+        assertEquals(2, transport.sent);
+    }
+
+    private static CollectionNode step(String name, String path) {
+        CollectionNode node = new CollectionNode();
+        node.setName(name);
+        node.setRequest(new SavedRequest(name, "GET", "http://localhost" + path));
+        return node;
+    }
+
+    /** /hang 返回一个永远不会完成的 Future，其它请求立即 200 */
+    private static final class HangingTransport implements HttpTransport {
+        volatile CompletableFuture<RestResponse> hanging;
+        volatile int sent;
+
+        @Override
+        public CompletableFuture<RestResponse> send(TransportRequest request) {
+            sent++;
+            if (request.uri().getPath().equals("/hang")) {
+                hanging = new CompletableFuture<>();
+                return hanging;
+            }
+            return CompletableFuture.completedFuture(new RestResponse(200, ResponseBody.empty(), Map.of(), 0));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
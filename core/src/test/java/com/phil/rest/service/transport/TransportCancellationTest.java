@@ -0,0 +1,124 @@
+package com.phil.rest.service.transport;
+
+import com.phil.rest.model.RestEnv;
+import com.phil.rest.model.RestResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.CookieManager;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 调用方取消 (经过合并 / 主机并发限制两层装饰) 或超时 (压测直接用底层引擎 + orTimeout) 后，
+ * 必须真正中止底层的 HTTP 交换：服务端看到连接被关闭
+ */
+public class TransportCancellationTest {
+
+    private ServerSocket server;
+    private ExecutorService executor;
+    private final CountDownLatch requestReceived = new CountDownLatch(1);
+    private final CountDownLatch connectionClosed = new CountDownLatch(1);
+
+    @Before
+    public void startServer() throws IOException {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        // 收到请求后一直不响应，直到客户端关闭连接
+        executor.execute(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    executor.execute(() -> hang(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    private void hang(Socket socket) {
+        try (socket; InputStream in = socket.getInputStream()) {
+            byte[] buf = new byte[8192];
+            int n = in.read(buf);
+            if (n > 0) requestReceived.countDown();
+            while (in.read(buf) >= 0) {
+                // 读到 EOF 为止
+            }
+        } catch (IOException ignored) {
+            // 连接被重置同样说明客户端已中止
+        }
+        connectionClosed.countDown();
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void cancelAbortsJdkExchange() throws Exception {
+        assertCancelAbortsExchange(RestEnv.TransportEngine.JDK);
+    }
+
+    @Test
+    public void cancelAbortsNioExchange() throws Exception {
+        assertCancelAbortsExchange(RestEnv.TransportEngine.NIO);
+    }
+
+    @Test
+    public void timeoutAbortsJdkExchange() throws Exception {
+        assertTimeoutAbortsExchange(RestEnv.TransportEngine.JDK);
+    }
+
+    @Test
+    public void timeoutAbortsNioExchange() throws Exception {
+        assertTimeoutAbortsExchange(RestEnv.TransportEngine.NIO);
+    }
+
+    private void assertCancelAbortsExchange(RestEnv.TransportEngine engine) throws Exception {
+        try (HttpTransport transport = new CoalescingTransport(new HostLimitTransport(createEngine(engine), () -> 4))) {
+            CompletableFuture<RestResponse> future = transport.send(slowRequest());
+            assertTrue("server never saw the request", requestReceived.await(10, TimeUnit.SECONDS));
+
+            future.cancel(true);
+            assertTrue(engine + ": exchange kept running after cancel", connectionClosed.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private void assertTimeoutAbortsExchange(RestEnv.TransportEngine engine) throws Exception {
+        try (HttpTransport transport = createEngine(engine)) {
+            CompletableFuture<RestResponse> future = transport.send(slowRequest());
+            assertTrue("server never saw the request", requestReceived.await(10, TimeUnit.SECONDS));
+
+            future.orTimeout(100, TimeUnit.MILLISECONDS);
+            assertTrue(engine + ": exchange kept running after timeout", connectionClosed.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private HttpTransport createEngine(RestEnv.TransportEngine engine) {
+        return TransportFactory.create(engine, RestEnv.Protocol.HTTP_1_1, RestEnv.TlsMode.STRICT,
+                RestEnv.RedirectPolicy.NORMAL, new CookieManager(), executor);
+    }
+
+    private TransportRequest slowRequest() {
+        URI uri = URI.create("http://127.0.0.1:" + server.getLocalPort() + "/slow");
+        return new TransportRequest("GET", uri, List.of(), HttpRequest.BodyPublishers.noBody(), Duration.ofSeconds(60), 1 << 20);
+    }
+}
@@ -0,0 +1,28 @@
+plugins {
+    id("java")
+    application
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    // 与插件共用模型、请求组装、传输层和压测引擎；core 不依赖 IDE，运行器的 classpath 上没有 IntelliJ 平台
+    implementation(project(":core"))
+    implementation("com.fasterxml.jackson.core:jackson-databind:2.17.0")
+    compileOnly("org.jetbrains:annotations:24.1.0")
+}
+
+application {
+    mainClass = "com.phil.rest.runner.HeadlessRunner"
+    applicationName = "restpilot-runner"
+    applicationDefaultJvmArgs = listOf("-XX:+UseZGC", "-XX:+ZGenerational")
+}
+
+tasks {
+    withType<JavaCompile> {
+        sourceCompatibility = "21"
+        targetCompatibility = "21"
+    }
+}
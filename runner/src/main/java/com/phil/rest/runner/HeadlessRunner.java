@@ -0,0 +1,381 @@
+package com.phil.rest.runner;
+
+import com.phil.rest.model.CollectionNode;
+import com.phil.rest.model.LoadProfile;
+import com.phil.rest.model.RestEnv;
+import com.phil.rest.model.RestResponse;
+import com.phil.rest.model.SavedRequest;
+import com.phil.rest.service.HttpExecutor;
+import com.phil.rest.service.JsonExtractor;
+import com.phil.rest.service.PreparedRequest;
+import com.phil.rest.service.StorageReader;
+import com.phil.rest.service.VariableScope;
+import com.phil.rest.service.load.Calibration;
+import com.phil.rest.service.load.DataFeeder;
+import com.phil.rest.service.load.LoadConfig;
+import com.phil.rest.service.load.LoadEngine;
+import com.phil.rest.service.load.LoadResult;
+import com.phil.rest.service.load.LoadScenario;
+import com.phil.rest.service.load.RateProfile;
+import com.phil.rest.service.load.ScenarioWorkload;
+import com.phil.rest.service.transport.HttpTransport;
+import com.phil.rest.service.transport.TransportFactory;
+import com.phil.rest.service.transport.TransportRequest;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 无界面运行器：读取项目里保存的集合和环境，用插件同一套组装逻辑、传输引擎和压测引擎执行，
+ * 输出 JSON / JUnit 报告，供夜间构建对本地环境跑同样的性能检查。
+ * <p>
+ * 目标用集合树里的名字路径指定 (例如 {@code "Orders/Create order"})，也可以用节点 id：
+ * <ul>
+ *   <li>默认每个请求发送一次，文件夹按树的顺序依次发送，提取到的变量供后面的请求使用，非 2xx 即失败</li>
+ *   <li>{@code --load} 时按保存的压测配置 (请求自己的 &gt; 所在文件夹的 &gt; 默认) 跑 Blast，文件夹按场景压测；
+ *       错误率或 P99 超过阈值即失败</li>
+ * </ul>
+ * 退出码：0 全部通过，1 有失败，2 参数或文件错误
+ */
+public final class HeadlessRunner {
+
+    private static final String USAGE = """
+            Usage: restpilot-runner [options] <target>...
+              <target>                 request or folder path in the collection tree ("Folder/Request") or a node id
+              --project <dir>          project root; reads .idea/%s and .idea/%s (default: .)
+              --collections <file>     collections file (overrides --project)
+              --envs <file>            environments file (overrides --project)
+              --env <name>             environment name or id (default: the one selected in the IDE)
+              --load                   run each target with its saved load profile instead of a single pass
+              --max-error-rate <pct>   load: fail when more requests than this fail (default 1)
+              --max-p99 <ms>           load: fail when P99 latency exceeds this
+              --calibrate <bytes>      load: first measure this machine's ceiling against a local echo server
+                                       with this payload size, and show it next to every result
+              --json <file>            write a JSON report
+              --junit <file>           write a JUnit XML report
+            """.formatted(StorageReader.COLLECTIONS_FILE, StorageReader.ENVS_FILE);
+
+    /** 命令行参数错误 */
+    private static final class UsageException extends Exception {
+        UsageException(String message) {
+            super(message);
+        }
+    }
+
+    private Path projectDir = Path.of(".");
+    private Path collectionsFile;
+    private Path envsFile;
+    private String envName;
+    private boolean load;
+    private double maxErrorRate = 0.01;
+    private long maxP99Nanos = -1;
+    private int calibratePayload = -1;
+    private Path jsonReport;
+    private Path junitReport;
+    private final List<String> targets = new ArrayList<>();
+
+    private HttpTransport transport;
+    private VariableScope scope;
+
+    public static void main(String[] args) {
+        HeadlessRunner runner = new HeadlessRunner();
+        int status;
+        try {
+            runner.parse(args);
+            status = runner.run();
+        } catch (UsageException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            status = 2;
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            status = 2;
+        }
+        // HttpClient 的选择器线程不是守护线程，直接退出
+        System.exit(status);
+    }
+
+    private void parse(String[] args) throws UsageException {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--project" -> projectDir = Path.of(value(args, ++i, arg));
+                case "--collections" -> collectionsFile = Path.of(value(args, ++i, arg));
+                case "--envs" -> envsFile = Path.of(value(args, ++i, arg));
+                case "--env" -> envName = value(args, ++i, arg);
+                case "--load" -> load = true;
+                case "--max-error-rate" -> maxErrorRate = number(args, ++i, arg) / 100;
+                case "--max-p99" -> maxP99Nanos = (long) (number(args, ++i, arg) * 1_000_000);
+                case "--calibrate" -> calibratePayload = (int) number(args, ++i, arg);
+                case "--json" -> jsonReport = Path.of(value(args, ++i, arg));
+                case "--junit" -> junitReport = Path.of(value(args, ++i, arg));
+                case "-h", "--help" -> throw new UsageException("");
+                default -> {
+                    if (arg.startsWith("--")) throw new UsageException("Unknown option " + arg);
+                    targets.add(arg);
+                }
+            }
+        }
+        if (targets.isEmpty()) throw new UsageException("No target given");
+        if (calibratePayload > 1_048_576) throw new UsageException("--calibrate payload is limited to 1 MB");
+        if (collectionsFile == null) collectionsFile = projectDir.resolve(".idea").resolve(StorageReader.COLLECTIONS_FILE);
+        if (envsFile == null) envsFile = projectDir.resolve(".idea").resolve(StorageReader.ENVS_FILE);
+    }
+
+    private static String value(String[] args, int i, String option) throws UsageException {
+        if (i >= args.length) throw new UsageException("Missing value for " + option);
+        return args[i];
+    }
+
+    private static double number(String[] args, int i, String option) throws UsageException {
+        try {
+            return Double.parseDouble(value(args, i, option));
+        } catch (NumberFormatException e) {
+            throw new UsageException("Invalid number for " + option + ": " + args[i]);
+        }
+    }
+
+    private int run() throws UsageException, IOException {
+        List<CollectionNode> roots = StorageReader.readCollections(collectionsFile);
+        StorageReader.Envs envs = Files.exists(envsFile)
+                ? StorageReader.readEnvs(envsFile)
+                : new StorageReader.Envs(List.of(), null, new RestEnv("Globals"));
+        RestEnv env = envName != null ? envs.find(envName) : envs.selected();
+        if (envName != null && env == null) throw new UsageException("No environment named " + envName);
+
+        // 每个目标先解析好，名字写错时一个请求都不发
+        List<List<CollectionNode>> resolved = new ArrayList<>();
+        for (String target : targets) {
+            List<CollectionNode> chain = resolve(roots, target);
+            if (chain == null) throw new UsageException("No request or folder " + target);
+            resolved.add(chain);
+        }
+
+        scope = VariableScope.snapshot(envs.globalEnv(), env);
+        RunReport report = new RunReport(env != null ? env.getName() : "");
+        if (load && calibratePayload >= 0) calibrate(env != null ? env.getEngine() : RestEnv.TransportEngine.JDK, report);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        // 与 IDE 压测相同，用不带缓存 / 合并装饰的底层引擎；Cookie 只在本次运行内保持
+        transport = TransportFactory.create(
+                env != null ? env.getEngine() : RestEnv.TransportEngine.JDK,
+                env != null ? env.getProtocol() : RestEnv.Protocol.HTTP_1_1,
+                env != null ? env.getTlsMode() : RestEnv.TlsMode.INSECURE,
+                env != null ? env.getRedirectPolicy() : RestEnv.RedirectPolicy.NORMAL,
+                new CookieManager(null, CookiePolicy.ACCEPT_ALL), executor);
+        try {
+            for (int i = 0; i < targets.size(); i++) {
+                if (load) runLoad(targets.get(i), resolved.get(i), report);
+                else runPass(targets.get(i), resolved.get(i).get(resolved.get(i).size() - 1), report);
+            }
+        } finally {
+            transport.close();
+            executor.shutdownNow();
+        }
+
+        if (jsonReport != null) report.writeJson(jsonReport);
+        if (junitReport != null) report.writeJunit(junitReport);
+        System.out.printf("%d checks, %d failed%n", report.getCases().size(), report.failures());
+        return report.failures() > 0 ? 1 : 0;
+    }
+
+    /**
+     * 对本机 echo 服务测客户端上限，结果写进报告；校准失败只提示，不影响后面的检查
+     */
+    private void calibrate(RestEnv.TransportEngine engine, RunReport report) {
+        System.out.printf("Calibrating client (%s engine, %d-byte payload)...%n", engine, calibratePayload);
+        try {
+            Calibration.Result result = Calibration.run(engine, calibratePayload, (generator, label) -> generator.start().get());
+            if (result == null) return;
+            report.setCalibration(result);
+            System.out.println("  client ceiling: " + result.describe());
+        } catch (Exception e) {
+            System.err.println("  calibration failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 按名字路径逐层查找，找不到时再按 id 查；返回从根到目标的节点链，都没有时为 null
+     */
+    private static @Nullable List<CollectionNode> resolve(List<CollectionNode> roots, String target) {
+        List<CollectionNode> chain = new ArrayList<>();
+        List<CollectionNode> level = roots;
+        for (String name : target.split("/")) {
+            CollectionNode match = null;
+            for (CollectionNode node : level) {
+                if (name.equals(node.getName())) {
+                    match = node;
+                    break;
+                }
+            }
+            if (match == null) {
+                chain = null;
+                break;
+            }
+            chain.add(match);
+            level = match.getChildren();
+        }
+        if (chain != null) return chain;
+        return findById(roots, target, new ArrayList<>());
+    }
+
+    private static @Nullable List<CollectionNode> findById(List<CollectionNode> nodes, String id, List<CollectionNode> path) {
+        for (CollectionNode node : nodes) {
+            path.add(node);
+            if (id.equals(node.getId())) return path;
+            List<CollectionNode> found = findById(node.getChildren(), id, path);
+            if (found != null) return found;
+            path.remove(path.size() - 1);
+        }
+        return null;
+    }
+
+    // --- 单次运行 ---
+
+    /**
+     * 请求 (或文件夹里的请求按树的顺序) 各发一次，共用一个变量作用域，提取到的变量供后续请求使用
+     */
+    private void runPass(String suite, CollectionNode target, RunReport report) {
+        List<CollectionNode> requests = new ArrayList<>();
+        collectRequests(target, requests);
+        HttpExecutor executor = new HttpExecutor(transport);
+        VariableScope passScope = scope.fork();
+        for (CollectionNode node : requests) {
+            SavedRequest request = node.getRequest();
+            long begin = System.nanoTime();
+            String failure = null;
+            Integer status = null;
+            try {
+                TransportRequest transportRequest = executor.prepare(request, passScope, null, 60, null).request();
+                RestResponse response = transport.send(transportRequest).get(transportRequest.timeout().toMillis() + 5_000,
+                        TimeUnit.MILLISECONDS);
+                status = response.getStatusCode();
+                if (status == 0) {
+                    failure = response.getBody();
+                } else if (status < 200 || status >= 300) {
+                    failure = "HTTP " + status;
+                } else if (!request.getExtractRules().isEmpty()) {
+                    JsonExtractor.executeExtraction(response.getContent(), request.getExtractRules(), passScope);
+                }
+            } catch (ExecutionException e) {
+                failure = String.valueOf(e.getCause());
+            } catch (TimeoutException e) {
+                failure = "Timed out";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = "Interrupted";
+            } catch (Exception e) {
+                failure = "Cannot build request: " + e.getMessage();
+            }
+            long elapsed = System.nanoTime() - begin;
+            System.out.printf(Locale.ROOT, "%s %s  %s  %.1f ms%n", failure == null ? "PASS" : "FAIL", node.getName(),
+                    failure == null ? status : failure, elapsed / 1e6);
+            report.add(new RunReport.Case(suite, node.getName(), elapsed, failure, status, null));
+        }
+    }
+
+    private static void collectRequests(CollectionNode node, List<CollectionNode> out) {
+        if (!node.isFolder()) {
+            if (node.getRequest() != null) out.add(node);
+            return;
+        }
+        for (CollectionNode child : node.getChildren()) collectRequests(child, out);
+    }
+
+    // --- 压测 ---
+
+    /**
+     * 按保存的压测配置跑一次 Blast：请求用它自己的配置 (没有时用所在文件夹的)，文件夹按场景压测
+     */
+    private void runLoad(String suite, List<CollectionNode> chain, RunReport report) throws IOException {
+        CollectionNode target = chain.get(chain.size() - 1);
+        CollectionNode parent = chain.size() > 1 ? chain.get(chain.size() - 2) : null;
+        LoadProfile own = target.isFolder() ? target.getLoadProfile()
+                : target.getRequest() != null ? target.getRequest().getLoadProfile() : null;
+        LoadProfile profile = own != null ? own
+                : parent != null && parent.getLoadProfile() != null ? parent.getLoadProfile()
+                : LoadProfile.defaultProfile();
+        LoadConfig config = new LoadConfig(RateProfile.of(profile), profile.getMaxInFlight(),
+                Duration.ofSeconds(profile.getTimeoutSeconds()));
+        LoadEngine engine;
+        String name = target.getName();
+        try {
+            DataFeeder feeder = openFeeder(profile);
+            if (target.isFolder()) {
+                List<LoadScenario> scenarios = LoadScenario.fromFolder(target);
+                engine = new LoadEngine(new ScenarioWorkload(transport, scenarios, scope, config.timeout(), feeder), config);
+                name = "Scenario " + target.getName();
+            } else if (feeder != null) {
+                // 每次执行绑定数据文件的一行，请求逐次展开 (与 IDE 里带数据文件的单请求压测相同)
+                LoadScenario scenario = new LoadScenario(target.getName(), 1, List.of(target));
+                engine = new LoadEngine(new ScenarioWorkload(transport, List.of(scenario), scope, config.timeout(), feeder), config);
+            } else {
+                PreparedRequest prepared = new HttpExecutor(transport).prepare(target.getRequest(), scope, null,
+                        config.timeout().toSeconds(), null);
+                engine = new LoadEngine(transport, PreparedRequest.source(prepared, target.getRequest(), scope, null,
+                        config.timeout().toSeconds(), prepared.request().inMemoryLimit()), config);
+                name = prepared.method() + " " + prepared.url();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 数据文件打不开 / 文件夹里没有请求 / 请求构建失败：记为失败，继续下一个目标
+            System.out.printf("FAIL %s  %s%n", name, e.getMessage());
+            report.add(new RunReport.Case(suite, name, 0, e.getMessage(), null, null));
+            return;
+        }
+
+        System.out.printf(Locale.ROOT, "Blasting %s: %.1f req/s average for %ds%n", name,
+                config.profile().averageRps(), config.duration().toSeconds());
+        engine.setIntervalListener((sample, latency) -> System.out.printf(Locale.ROOT,
+                "  %4ds  target %.0f/s  sent %d  completed %d  failures %d  in-flight %d  p99 %.2f ms%n",
+                sample.second(), sample.targetRps(), sample.sent(), sample.completed(), sample.failures(),
+                sample.inFlight(), sample.p99Nanos() / 1e6));
+
+        LoadResult result;
+        try {
+            result = engine.start().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            engine.stop();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            report.add(new RunReport.Case(suite, name, 0, "Load test failed: " + e.getCause(), null, null));
+            return;
+        }
+
+        String failure = null;
+        long p99 = result.latency().valueAtPercentile(99);
+        if (result.sent() == 0) {
+            failure = "No request was sent";
+        } else if (result.errorRate() > maxErrorRate) {
+            failure = String.format(Locale.ROOT, "Error rate %.2f%% exceeds %.2f%%", result.errorRate() * 100, maxErrorRate * 100);
+        } else if (maxP99Nanos >= 0 && p99 > maxP99Nanos) {
+            failure = String.format(Locale.ROOT, "P99 %.2f ms exceeds %.2f ms", p99 / 1e6, maxP99Nanos / 1e6);
+        }
+        System.out.printf("%s %s  %s%n", failure == null ? "PASS" : "FAIL", name,
+                failure == null ? report.summary(result) : failure + "; " + report.summary(result));
+        report.add(new RunReport.Case(suite, name, result.elapsedNanos(), failure, null, result));
+    }
+
+    private @Nullable DataFeeder openFeeder(LoadProfile profile) throws IOException {
+        String configured = profile.getFeederPath();
+        if (configured == null || configured.isBlank()) return null;
+        Path path = Path.of(configured);
+        // 相对路径与 IDE 里一样按项目根目录解析
+        if (!path.isAbsolute()) path = projectDir.resolve(path);
+        LoadProfile.FeederStrategy strategy = profile.getFeederStrategy() != null
+                ? profile.getFeederStrategy() : LoadProfile.FeederStrategy.CIRCULAR;
+        return DataFeeder.open(path, strategy);
+    }
+}
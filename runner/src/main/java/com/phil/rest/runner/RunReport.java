@@ -0,0 +1,242 @@
+package com.phil.rest.runner;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.phil.rest.service.load.Calibration;
+import com.phil.rest.service.load.LatencyHistogram;
+import com.phil.rest.service.load.LoadResult;
+import com.phil.rest.service.load.StepResult;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 一次无界面运行的结果：每个请求 / 每次压测是一个用例，可以写成 JSON 或 JUnit XML (CI 直接识别)。
+ * 延迟一律以毫秒输出
+ */
+public final class RunReport {
+
+    /**
+     * @param suite      目标路径 (文件夹或请求)
+     * @param failure    失败原因，通过时为 null
+     * @param statusCode 单次请求的状态码，压测用例为 null
+     * @param load       压测结果，单次请求为 null
+     */
+    public record Case(String suite, String name, long elapsedNanos, @Nullable String failure,
+                       @Nullable Integer statusCode, @Nullable LoadResult load) {
+
+        public boolean passed() {
+            return failure == null;
+        }
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Instant startedAt = Instant.now();
+    private final String env;
+    private final List<Case> cases = new ArrayList<>();
+    private @Nullable Calibration.Result calibration;
+
+    public RunReport(String env) {
+        this.env = env;
+    }
+
+    public void add(Case c) {
+        cases.add(c);
+    }
+
+    /** 本次运行前测得的客户端上限，每个压测结果都会标出是否接近它 */
+    public void setCalibration(@Nullable Calibration.Result calibration) {
+        this.calibration = calibration;
+    }
+
+    public List<Case> getCases() {
+        return cases;
+    }
+
+    public long failures() {
+        return cases.stream().filter(c -> !c.passed()).count();
+    }
+
+    public void writeJson(Path file) throws IOException {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("startedAt", startedAt.toString());
+        root.put("env", env);
+        root.put("tests", cases.size());
+        root.put("failures", failures());
+        if (calibration != null) {
+            ObjectNode node = root.putObject("calibration");
+            node.put("engine", calibration.engine().name());
+            node.put("payloadBytes", calibration.payloadBytes());
+            node.put("maxRps", calibration.maxRps());
+            node.put("floorP50Ms", calibration.floorP50Nanos() / 1e6);
+            node.put("floorP99Ms", calibration.floorP99Nanos() / 1e6);
+        }
+
+        ArrayNode items = root.putArray("cases");
+        for (Case c : cases) {
+            ObjectNode item = items.addObject();
+            item.put("suite", c.suite());
+            item.put("name", c.name());
+            item.put("passed", c.passed());
+            if (c.failure() != null) item.put("failure", c.failure());
+            item.put("elapsedMs", c.elapsedNanos() / 1e6);
+            if (c.statusCode() != null) item.put("status", c.statusCode());
+            if (c.load() != null) {
+                ObjectNode load = item.putObject("load");
+                writeLoad(load, c.load());
+                if (calibration != null) load.put("nearClientCeiling", calibration.isNearCeiling(requestRps(c.load())));
+            }
+        }
+        createParent(file);
+        mapper.writeValue(file.toFile(), root);
+    }
+
+    private static void writeLoad(ObjectNode node, LoadResult r) {
+        node.put("targetRps", r.targetRps());
+        node.put("planned", r.planned());
+        node.put("sent", r.sent());
+        node.put("succeeded", r.succeeded());
+        node.put("failed", r.failed());
+        node.put("errors", r.errors());
+        node.put("sentRps", r.sentRps());
+        node.put("achievedRps", r.achievedRps());
+        node.put("errorRate", r.errorRate());
+        node.put("maxLagMs", r.maxLagNanos() / 1e6);
+        node.put("cancelled", r.cancelled());
+        writeLatency(node.putObject("latencyMs"), r.latency());
+        writeLatency(node.putObject("serviceTimeMs"), r.serviceTime());
+        if (!r.steps().isEmpty()) {
+            ArrayNode steps = node.putArray("steps");
+            for (StepResult s : r.steps()) {
+                ObjectNode step = steps.addObject();
+                step.put("scenario", s.scenario());
+                step.put("step", s.step());
+                step.put("sent", s.sent());
+                step.put("succeeded", s.succeeded());
+                step.put("failed", s.failed());
+                step.put("errors", s.errors());
+                writeLatency(step.putObject("latencyMs"), s.latency());
+            }
+        }
+    }
+
+    private static void writeLatency(ObjectNode node, LatencyHistogram h) {
+        for (Map.Entry<String, Long> e : percentiles(h).entrySet()) {
+            node.put(e.getKey(), e.getValue() / 1e6);
+        }
+        node.put("mean", h.getMean() / 1e6);
+    }
+
+    /** p50 / p90 / p99 / p99.9 / max，单位纳秒 */
+    private static Map<String, Long> percentiles(LatencyHistogram h) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (double p : LoadResult.PERCENTILES) {
+            values.put("p" + (p == Math.rint(p) ? String.valueOf((long) p) : String.valueOf(p)), h.valueAtPercentile(p));
+        }
+        values.put("max", h.getMax());
+        return values;
+    }
+
+    /** 每个目标路径一个 testsuite；压测的百分位写进 system-out，报告页面里可以直接看到 */
+    public void writeJunit(Path file) throws IOException {
+        Map<String, List<Case>> suites = new LinkedHashMap<>();
+        for (Case c : cases) suites.computeIfAbsent(c.suite(), k -> new ArrayList<>()).add(c);
+
+        createParent(file);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement("testsuites");
+            xml.writeAttribute("tests", String.valueOf(cases.size()));
+            xml.writeAttribute("failures", String.valueOf(failures()));
+            for (Map.Entry<String, List<Case>> suite : suites.entrySet()) {
+                List<Case> list = suite.getValue();
+                xml.writeStartElement("testsuite");
+                xml.writeAttribute("name", suite.getKey());
+                xml.writeAttribute("tests", String.valueOf(list.size()));
+                xml.writeAttribute("failures", String.valueOf(list.stream().filter(c -> !c.passed()).count()));
+                xml.writeAttribute("errors", "0");
+                xml.writeAttribute("timestamp", startedAt.toString());
+                xml.writeAttribute("time", seconds(list.stream().mapToLong(Case::elapsedNanos).sum()));
+                if (calibration != null) {
+                    xml.writeStartElement("properties");
+                    xml.writeEmptyElement("property");
+                    xml.writeAttribute("name", "clientCeiling");
+                    xml.writeAttribute("value", calibration.describe());
+                    xml.writeEndElement();
+                }
+                for (Case c : list) {
+                    xml.writeStartElement("testcase");
+                    xml.writeAttribute("classname", suite.getKey());
+                    xml.writeAttribute("name", c.name());
+                    xml.writeAttribute("time", seconds(c.elapsedNanos()));
+                    if (c.failure() != null) {
+                        xml.writeStartElement("failure");
+                        xml.writeAttribute("message", c.failure());
+                        xml.writeCharacters(c.failure());
+                        xml.writeEndElement();
+                    }
+                    if (c.load() != null) {
+                        xml.writeStartElement("system-out");
+                        xml.writeCharacters(summary(c.load()));
+                        xml.writeEndElement();
+                    }
+                    xml.writeEndElement();
+                }
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /** 一行压测摘要，控制台和 JUnit 报告共用；校准过时吞吐接近客户端上限会标出来 */
+    public String summary(LoadResult r) {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT,
+                "sent %d, ok %d, failed %d, errors %d, achieved %.1f of %.1f req/s, latency",
+                r.sent(), r.succeeded(), r.failed(), r.errors(), r.achievedRps(), r.targetRps()));
+        for (Map.Entry<String, Long> e : percentiles(r.latency()).entrySet()) {
+            sb.append(String.format(Locale.ROOT, " %s=%.2fms", e.getKey(), e.getValue() / 1e6));
+        }
+        if (r.cancelled()) sb.append(" (cancelled)");
+        if (calibration != null && calibration.isNearCeiling(requestRps(r))) {
+            sb.append(String.format(Locale.ROOT, " (near client ceiling of %.0f req/s, the limit may be this machine)",
+                    calibration.maxRps()));
+        }
+        return sb.toString();
+    }
+
+    /** 实际的请求吞吐：场景压测按各步完成的请求数算，与校准的上限可比 */
+    private static double requestRps(LoadResult r) {
+        if (r.steps().isEmpty()) return r.achievedRps();
+        if (r.elapsedNanos() <= 0) return 0;
+        return r.steps().stream().mapToLong(StepResult::completed).sum() * 1e9 / r.elapsedNanos();
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e9);
+    }
+
+    private static void createParent(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+    }
+}
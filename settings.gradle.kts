@@ -1 +1,6 @@
-rootProject.name = "UltimateRestClient"
\ No newline at end of file
+rootProject.name = "UltimateRestClient"
+
+// 插件和运行器共用的模型、请求组装、传输层和压测引擎 (不依赖 IDE)
+include("core")
+// 无界面运行器：在 CI 里执行保存的请求 / 文件夹 / 压测配置
+include("runner")
@@ -56,4 +56,23 @@ public class CollectionService implements PersistentStateComponent<CollectionSer
         }
         return myState.rootNodes.get(0);
     }
-}
\ No newline at end of file
+
+    /**
+     * 查找节点所在的文件夹，根节点或找不到时返回 null
+     */
+    public @Nullable CollectionNode findParent(CollectionNode child) {
+        return findParent(myState.rootNodes, child);
+    }
+
+    private static @Nullable CollectionNode findParent(List<CollectionNode> nodes, CollectionNode child) {
+        for (CollectionNode node : nodes) {
+            if (node.getChildren() == null) continue;
+            for (CollectionNode c : node.getChildren()) {
+                if (c == child || c.getId().equals(child.getId())) return node;
+            }
+            CollectionNode found = findParent(node.getChildren(), child);
+            if (found != null) return found;
+        }
+        return null;
+    }
+}
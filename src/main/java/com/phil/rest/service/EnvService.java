@@ -9,7 +9,14 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 @State(name = "UltimateRestEnvService", storages = @Storage("ultimate-rest-envs.xml"))
 public class EnvService implements PersistentStateComponent<EnvService.State> {
@@ -21,7 +28,39 @@ public class EnvService implements PersistentStateComponent<EnvService.State> {
         public RestEnv globalEnv = new RestEnv("Globals");
     }
 
+    /**
+     * 当前环境切换时回调，在调用 setSelectedEnv 的线程上执行 (通常是 EDT)，实现里不要做阻塞操作
+     */
+    public interface Listener {
+        void selectedEnvChanged(@Nullable RestEnv env);
+
+        /**
+         * 每次发布新快照 (增删环境、切换环境、变量或连接设置修改) 后回调，在写入的线程上执行，可能是后台线程
+         */
+        default void snapshotPublished(Snapshot snapshot) {}
+    }
+
+    /**
+     * 某一时刻的环境状态，发布后不再改变，任何线程都可以直接读：
+     * 按 id 索引的环境表、当前环境、Globals，以及 Globals + 当前环境合并好的变量表 (环境变量覆盖同名 Global)。
+     * 每次写入都发布一个 version 加一的新快照，基于变量建立的缓存可以按 version 判断是否失效
+     */
+    public record Snapshot(long version, Map<String, RestEnv> envsById, @Nullable RestEnv selected,
+                           RestEnv globalEnv, Map<String, String> variables) {
+
+        public @Nullable RestEnv find(@Nullable String id) {
+            return id == null ? null : envsById.get(id);
+        }
+
+        /** 按添加顺序 */
+        public List<RestEnv> envs() {
+            return List.copyOf(envsById.values());
+        }
+    }
+
     private State myState = new State();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot = build(myState, 0);
 
     public static EnvService getInstance(Project project) {
         return project.getService(EnvService.class);
@@ -31,7 +70,7 @@ public class EnvService implements PersistentStateComponent<EnvService.State> {
     public @Nullable State getState() { return myState; }
 
     @Override
-    public void loadState(@NotNull State state) {
+    public synchronized void loadState(@NotNull State state) {
         this.myState = state;
         // 防空处理
         if (this.myState.globalEnv == null) {
@@ -39,29 +78,99 @@ public class EnvService implements PersistentStateComponent<EnvService.State> {
         }
         // 确保名字正确
         this.myState.globalEnv.setName("Globals");
+        publish();
     }
 
     // --- 业务方法 ---
 
-    public List<RestEnv> getEnvs() { return myState.envs; }
+    /** 当前快照，读取不加锁 */
+    public Snapshot snapshot() { return snapshot; }
 
-    public void addEnv(RestEnv env) { myState.envs.add(env); }
+    public List<RestEnv> getEnvs() { return snapshot.envs(); }
 
-    public void removeEnv(RestEnv env) { myState.envs.remove(env); }
+    public @Nullable RestEnv findEnv(@Nullable String id) { return snapshot.find(id); }
+
+    public synchronized void addEnv(RestEnv env) {
+        myState.envs.add(env);
+        publish();
+    }
 
-    public RestEnv getSelectedEnv() {
-        if (myState.selectedEnvId == null) return null;
-        return myState.envs.stream()
-                .filter(e -> e.getId().equals(myState.selectedEnvId))
-                .findFirst().orElse(null);
+    public synchronized void removeEnv(RestEnv env) {
+        if (myState.envs.remove(env)) publish();
     }
 
+    public RestEnv getSelectedEnv() { return snapshot.selected(); }
+
     public void setSelectedEnv(RestEnv env) {
-        this.myState.selectedEnvId = (env == null) ? null : env.getId();
+        String newId = (env == null) ? null : env.getId();
+        synchronized (this) {
+            if (Objects.equals(newId, myState.selectedEnvId)) return;
+            this.myState.selectedEnvId = newId;
+            publish();
+        }
+        for (Listener listener : listeners) {
+            listener.selectedEnvChanged(env);
+        }
     }
 
+    /**
+     * 合并写入变量 (变量提取)。整张表复制后替换引用，不在原表上修改：
+     * 其它线程正在遍历旧表做变量替换时不会抛 ConcurrentModificationException
+     */
+    public synchronized void putVariables(RestEnv env, Map<String, String> values) {
+        if (env == null || values.isEmpty()) return;
+        Map<String, String> updated = new HashMap<>(env.getVariables());
+        updated.putAll(values);
+        env.setVariables(updated);
+        publish();
+    }
+
+    /**
+     * 整表替换变量 (环境编辑器、导入)，同样复制一份，调用方之后再改自己的表不影响已发布的快照
+     */
+    public synchronized void setVariables(RestEnv env, Map<String, String> values) {
+        env.setVariables(new HashMap<>(values));
+        publish();
+    }
+
+    /**
+     * 修改环境的其它属性 (名字、连接设置)，改完发布新快照
+     */
+    public synchronized void update(RestEnv env, Consumer<RestEnv> change) {
+        change.accept(env);
+        publish();
+    }
+
+    /**
+     * 按当前状态发布下一个快照并通知监听器。RestEnv 的变量表只整表替换不原地修改，
+     * 快照里合并好的变量表与之后的写入互不影响
+     */
+    private void publish() {
+        Snapshot next = build(myState, snapshot.version() + 1);
+        snapshot = next;
+        for (Listener listener : listeners) {
+            listener.snapshotPublished(next);
+        }
+    }
+
+    private static Snapshot build(State state, long version) {
+        Map<String, RestEnv> byId = new LinkedHashMap<>();
+        for (RestEnv env : state.envs) byId.put(env.getId(), env);
+        RestEnv selected = state.selectedEnvId == null ? null : byId.get(state.selectedEnvId);
+        RestEnv globalEnv = state.globalEnv != null ? state.globalEnv : new RestEnv("Globals");
+
+        Map<String, String> merged = new HashMap<>(globalEnv.getVariables());
+        if (selected != null) merged.putAll(selected.getVariables());
+        return new Snapshot(version, Collections.unmodifiableMap(byId), selected, globalEnv,
+                Collections.unmodifiableMap(merged));
+    }
+
+    public void addListener(Listener listener) { listeners.add(listener); }
+
+    public void removeListener(Listener listener) { listeners.remove(listener); }
+
     // [新增] 获取全局环境
     public RestEnv getGlobalEnv() {
-        return myState.globalEnv;
+        return snapshot.globalEnv();
     }
 }
\ No newline at end of file
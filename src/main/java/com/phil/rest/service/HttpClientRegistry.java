@@ -0,0 +1,204 @@
+package com.phil.rest.service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.phil.rest.model.RestEnv;
+import com.phil.rest.service.cache.CachingTransport;
+import com.phil.rest.service.transport.CoalescingTransport;
+import com.phil.rest.service.transport.HostLimitTransport;
+import com.phil.rest.service.transport.HttpTransport;
+import com.phil.rest.service.transport.TransportFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按 (环境, 引擎, 协议, TLS 模式, 重定向策略) 缓存传输引擎。
+ * 引擎懒加载并常驻，连接池可以在多次请求 / Blast 之间复用，项目关闭时统一释放。
+ * <p>
+ * 交互式请求走完整的装饰链：在途合并 → 响应缓存 → 主机并发限制 → 引擎；
+ * 压测直接用底层引擎 (getDirectTransport)，否则相同请求会被合并 / 命中缓存 / 被限流，测不出真实吞吐。
+ */
+public class HttpClientRegistry implements Disposable {
+
+    public record ClientKey(String envId, RestEnv.TransportEngine engine, RestEnv.Protocol protocol,
+                            RestEnv.TlsMode tlsMode, RestEnv.RedirectPolicy redirectPolicy) {
+        public static ClientKey of(@Nullable RestEnv env) {
+            if (env == null) {
+                return new ClientKey("", RestEnv.TransportEngine.JDK, RestEnv.Protocol.HTTP_1_1, RestEnv.TlsMode.INSECURE, RestEnv.RedirectPolicy.NORMAL);
+            }
+            return new ClientKey(
+                    env.getId(),
+                    env.getEngine() != null ? env.getEngine() : RestEnv.TransportEngine.JDK,
+                    env.getProtocol() != null ? env.getProtocol() : RestEnv.Protocol.HTTP_1_1,
+                    env.getTlsMode() != null ? env.getTlsMode() : RestEnv.TlsMode.INSECURE,
+                    env.getRedirectPolicy() != null ? env.getRedirectPolicy() : RestEnv.RedirectPolicy.NORMAL
+            );
+        }
+    }
+
+    /** 预热连接的刷新间隔，要小于 NIO 引擎的空闲超时 (30s) */
+    private static final long KEEP_WARM_INTERVAL_SECONDS = 20;
+
+    private final Project project;
+    /** engine 为底层引擎，interactive 为包了装饰链的版本，关闭 interactive 会逐层关闭到 engine */
+    private record Engines(HttpTransport engine, HttpTransport interactive) {}
+
+    private final Map<ClientKey, Engines> transports = new ConcurrentHashMap<>();
+    private volatile boolean disposed;
+    private ScheduledFuture<?> keepWarmTask;
+
+    public HttpClientRegistry(Project project) {
+        this.project = project;
+    }
+
+    public static HttpClientRegistry getInstance(Project project) {
+        return project.getService(HttpClientRegistry.class);
+    }
+
+    public HttpTransport getTransport(@Nullable RestEnv env) {
+        return getTransport(ClientKey.of(env));
+    }
+
+    public HttpTransport getTransport(@NotNull ClientKey key) {
+        return engines(key).interactive();
+    }
+
+    /**
+     * 不经过合并、缓存和主机并发限制的底层引擎 (与 getTransport 共享连接池)，给压测使用
+     */
+    public HttpTransport getDirectTransport(@Nullable RestEnv env) {
+        return engines(ClientKey.of(env)).engine();
+    }
+
+    private Engines engines(ClientKey key) {
+        if (disposed) throw new IllegalStateException("HttpClientRegistry is disposed");
+        Engines engines = transports.get(key);
+        if (engines != null) return engines;
+
+        engines = transports.computeIfAbsent(key, this::createTransport);
+        // 同一环境修改了连接设置后，旧的引擎不会再被用到，及时关闭释放连接
+        retireStale(key);
+        return engines;
+    }
+
+    /**
+     * 预热 env 变量里出现的所有 base URL。NIO 引擎：解析 DNS、建立 TCP / TLS 连接并放入连接池，
+     * 之后定期刷新，直到切换到其它环境或关闭预热。
+     * JDK 引擎的连接池不对外开放，不发请求就无法建连，只在切换时解析一次 DNS，不做定期刷新。
+     * env 为 null 或未开启预热时只取消之前的任务
+     */
+    public synchronized void prewarm(@Nullable RestEnv env) {
+        if (keepWarmTask != null) {
+            keepWarmTask.cancel(false);
+            keepWarmTask = null;
+        }
+        if (disposed || env == null || !RestSettingsService.getInstance(project).getState().prewarmConnections) return;
+
+        Set<URI> origins = originsOf(EnvService.getInstance(project).getGlobalEnv(), env);
+        if (origins.isEmpty()) return;
+
+        HttpTransport transport = getDirectTransport(env);
+        Executor executor = RequestExecutionService.getInstance(project).transportExecutor();
+        Runnable warmAll = () -> {
+            for (URI origin : origins) {
+                executor.execute(() -> {
+                    try {
+                        transport.prewarm(origin);
+                    } catch (Exception ignored) {
+                        // 预热失败不影响正常请求，下次请求会走冷连接
+                    }
+                });
+            }
+        };
+        if (ClientKey.of(env).engine() != RestEnv.TransportEngine.NIO) {
+            warmAll.run();
+            return;
+        }
+        keepWarmTask = AppExecutorUtil.getAppScheduledExecutorService()
+                .scheduleWithFixedDelay(warmAll, 0, KEEP_WARM_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 从变量值里找出 http(s) URL 的 origin。变量值里可以再引用变量 (如 {{host}}:{{port}})，这里做一次替换
+     */
+    static Set<URI> originsOf(@Nullable RestEnv globals, RestEnv env) {
+        Map<String, String> vars = new HashMap<>();
+        if (globals != null) vars.putAll(globals.getVariables());
+        vars.putAll(env.getVariables());
+
+        Set<URI> origins = new LinkedHashSet<>();
+        for (String value : vars.values()) {
+            if (value == null) continue;
+            String v = VariableTemplate.of(value.trim())
+                    .render(name -> vars.containsKey(name) ? Objects.requireNonNullElse(vars.get(name), "") : null);
+            if (!(v.startsWith("http://") || v.startsWith("https://")) || v.contains("{{")) continue;
+            try {
+                URI uri = URI.create(v.replace(" ", "%20"));
+                if (uri.getHost() == null) continue;
+                origins.add(new URI(uri.getScheme(), null, uri.getHost(), uri.getPort(), null, null, null));
+            } catch (Exception ignored) {
+                // 不是合法 URL 的变量直接跳过
+            }
+        }
+        return origins;
+    }
+
+    /**
+     * 关闭某个环境下的所有引擎 (例如环境被删除)
+     */
+    public void invalidate(String envId) {
+        transports.entrySet().removeIf(e -> {
+            if (e.getKey().envId().equals(envId)) {
+                e.getValue().interactive().close();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void retireStale(ClientKey current) {
+        transports.entrySet().removeIf(e -> {
+            ClientKey k = e.getKey();
+            if (k.envId().equals(current.envId()) && !k.equals(current)) {
+                e.getValue().interactive().close();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        synchronized (this) {
+            if (keepWarmTask != null) keepWarmTask.cancel(false);
+        }
+        transports.values().forEach(e -> e.interactive().close());
+        transports.clear();
+    }
+
+    private Engines createTransport(ClientKey key) {
+        // 两种引擎的 I/O 都跑在插件自己的虚拟线程上，不占用 JDK / IDE 的公共线程池
+        Executor executor = RequestExecutionService.getInstance(project).transportExecutor();
+        HttpTransport transport = TransportFactory.create(key.engine(), key.protocol(), key.tlsMode(), key.redirectPolicy(),
+                HttpExecutor.getCookieManager(), executor);
+        // 缓存开关和每主机并发上限都在每次请求时读取设置，修改后不需要重建引擎
+        RestSettingsService settings = RestSettingsService.getInstance(project);
+        ResponseCacheService cacheService = ResponseCacheService.getInstance(project);
+        HttpTransport limited = new HostLimitTransport(transport, () -> settings.getState().maxConnectionsPerHost);
+        HttpTransport cached = new CachingTransport(limited, cacheService.getCache(), cacheService::isEnabled, executor);
+        return new Engines(transport, new CoalescingTransport(cached));
+    }
+}
@@ -0,0 +1,222 @@
+package com.phil.rest.service;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.project.Project;
+import com.phil.rest.service.load.LoadRun;
+import com.phil.rest.service.load.LoadRunCodec;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * 保存的压测记录，每次压测一个二进制文件 ({id}.lrun)，放在 IDE system 目录下 (不进项目目录)。
+ * 基线按压测名称 (label) 固定，记在同目录的 baselines.properties 里；超过保留条数时删除最旧的非基线记录
+ */
+public class LoadRunStore {
+
+    public interface Listener {
+        /** 记录增删或基线变化后回调，可能在任意线程 */
+        void runsChanged();
+    }
+
+    private static final String EXTENSION = ".lrun";
+    private static final String BASELINES = "baselines.properties";
+
+    private final Project project;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Path directory;
+
+    public LoadRunStore(Project project) {
+        this.project = project;
+    }
+
+    public static LoadRunStore getInstance(Project project) {
+        return project.getService(LoadRunStore.class);
+    }
+
+    /**
+     * 写入一条记录 (先写临时文件再原子替换)，然后按保留条数清理
+     */
+    public void save(LoadRun run) throws IOException {
+        Path dir = directory();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, run.id(), ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                LoadRunCodec.write(run, out);
+            }
+            synchronized (this) {
+                Files.move(tmp, file(run.id()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                prune(RestSettingsService.getInstance(project).getState().maxSavedLoadRuns);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        fireChanged();
+    }
+
+    /**
+     * 读取全部记录，新的在前；损坏 / 旧版本的文件跳过
+     */
+    public List<LoadRun> list() {
+        List<LoadRun> runs = new ArrayList<>();
+        for (Path file : files()) {
+            LoadRun run = read(file);
+            if (run != null) runs.add(run);
+        }
+        runs.sort(Comparator.comparingLong(LoadRun::startedAtMillis).reversed());
+        return runs;
+    }
+
+    public @Nullable LoadRun find(String id) {
+        Path file = file(id);
+        return Files.isRegularFile(file) ? read(file) : null;
+    }
+
+    public void delete(String id) {
+        synchronized (this) {
+            try {
+                Files.deleteIfExists(file(id));
+                Properties baselines = loadBaselines();
+                if (baselines.values().remove(id)) storeBaselines(baselines);
+            } catch (IOException ignored) {
+            }
+        }
+        fireChanged();
+    }
+
+    // --- 基线 ---
+
+    public synchronized @Nullable String getBaselineId(String label) {
+        return loadBaselines().getProperty(label);
+    }
+
+    public @Nullable LoadRun findBaseline(String label) {
+        String id = getBaselineId(label);
+        return id == null ? null : find(id);
+    }
+
+    /** 把这条记录设为同名压测的基线 (替换之前的基线) */
+    public void pinBaseline(LoadRun run) throws IOException {
+        synchronized (this) {
+            Properties baselines = loadBaselines();
+            baselines.setProperty(run.label(), run.id());
+            storeBaselines(baselines);
+        }
+        fireChanged();
+    }
+
+    public void unpinBaseline(String label) throws IOException {
+        synchronized (this) {
+            Properties baselines = loadBaselines();
+            if (baselines.remove(label) == null) return;
+            storeBaselines(baselines);
+        }
+        fireChanged();
+    }
+
+    public void addListener(Listener listener) { listeners.add(listener); }
+
+    public void removeListener(Listener listener) { listeners.remove(listener); }
+
+    private void fireChanged() {
+        for (Listener listener : listeners) listener.runsChanged();
+    }
+
+    private void prune(int keep) throws IOException {
+        List<Path> files = files();
+        if (files.size() <= keep) return;
+        Set<String> pinned = new HashSet<>();
+        for (Object id : loadBaselines().values()) pinned.add((String) id);
+        // 按保存时间从旧到新删除
+        files.sort(Comparator.comparing(LoadRunStore::lastModified));
+        int excess = files.size() - Math.max(1, keep);
+        for (Path file : files) {
+            if (excess <= 0) break;
+            String name = file.getFileName().toString();
+            if (pinned.contains(name.substring(0, name.length() - EXTENSION.length()))) continue;
+            Files.deleteIfExists(file);
+            excess--;
+        }
+    }
+
+    private @Nullable LoadRun read(Path file) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return LoadRunCodec.read(in);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private List<Path> files() {
+        Path dir = directory();
+        if (!Files.isDirectory(dir)) return new ArrayList<>();
+        try (Stream<Path> stream = Files.list(dir)) {
+            return new ArrayList<>(stream.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).toList());
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    private Properties loadBaselines() {
+        Properties properties = new Properties();
+        Path file = directory().resolve(BASELINES);
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            } catch (IOException ignored) {
+            }
+        }
+        return properties;
+    }
+
+    private void storeBaselines(Properties baselines) throws IOException {
+        Path dir = directory();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "baselines", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                baselines.store(out, "RestPilot load test baselines (label=run id)");
+            }
+            Files.move(tmp, dir.resolve(BASELINES), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Path file(String id) {
+        return directory().resolve(id + EXTENSION);
+    }
+
+    private Path directory() {
+        Path dir = directory;
+        if (dir == null) {
+            dir = Path.of(PathManager.getSystemPath(), "restpilot", "load-runs", project.getLocationHash());
+            directory = dir;
+        }
+        return dir;
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.phil.rest.service;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.SystemInfo;
+import com.phil.rest.service.load.LoadGenerator;
+import com.phil.rest.service.load.LoadWorkerMain;
+import com.phil.rest.service.load.LoadResult;
+import com.phil.rest.service.load.LoadRun;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 项目级的压测登记处：记录当前正在运行的压测，供 Load 面板实时展示；
+ * 压测结束后把结果存进 {@link LoadRunStore}；项目关闭时停止压测
+ */
+public class LoadTestService implements Disposable {
+
+    public interface Listener {
+        /** 在启动压测的线程上回调 */
+        default void runStarted(LoadGenerator engine, String label) {}
+
+        /** 在压测结束的线程上回调 (不是 EDT) */
+        default void runFinished(LoadGenerator engine, @Nullable LoadResult result) {}
+    }
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile LoadGenerator activeEngine;
+    private volatile String activeLabel = "";
+    private volatile LoadResult lastResult;
+    private volatile LoadRun lastRun;
+    private final Project project;
+
+    public LoadTestService(Project project) {
+        this.project = project;
+    }
+
+    public static LoadTestService getInstance(Project project) {
+        return project.getService(LoadTestService.class);
+    }
+
+    /**
+     * 启动压测并登记为当前压测。已有压测在运行时先停止它 (同一时间只跑一个，避免互相干扰)。
+     * 返回的 Future 在结果保存之后才完成
+     *
+     * @param label  压测名称，同名压测共用一个基线
+     * @param target 目标 URL (场景压测时为文件夹名)
+     * @param env    当前环境名，可为 null
+     */
+    public CompletableFuture<LoadResult> start(LoadGenerator engine, String label, String target, @Nullable String env) {
+        return start(engine, label, target, env, true);
+    }
+
+    /**
+     * 同上，但只登记给 Load 面板实时展示，不保存记录 (例如拐点探测的每一级，由调用方汇总)
+     */
+    public CompletableFuture<LoadResult> startUnsaved(LoadGenerator engine, String label) {
+        return start(engine, label, "", null, false);
+    }
+
+    private CompletableFuture<LoadResult> start(LoadGenerator engine, String label, String target, @Nullable String env,
+                                                boolean save) {
+        long startedAt = System.currentTimeMillis();
+        LoadGenerator previous = activeEngine;
+        if (previous != null) previous.stop();
+        activeEngine = engine;
+        activeLabel = label;
+        lastResult = null;
+        lastRun = null;
+        for (Listener listener : listeners) listener.runStarted(engine, label);
+
+        return engine.start().whenComplete((result, ex) -> {
+            LoadRun run = null;
+            if (save && result != null && result.sent() > 0) {
+                run = LoadRun.create(startedAt, label, target, env, engine.getConfig(), result,
+                        engine.getTimeSeries().snapshot());
+                try {
+                    LoadRunStore.getInstance(project).save(run);
+                } catch (IOException e) {
+                    // 保存失败不影响本次报告
+                    e.printStackTrace();
+                }
+            }
+            if (activeEngine == engine) {
+                activeEngine = null;
+                lastResult = result;
+                lastRun = run;
+            }
+            for (Listener listener : listeners) listener.runFinished(engine, result);
+        });
+    }
+
+    /**
+     * 启动本机压测 worker 进程的命令 (不含主类和参数)：用 IDE 自带的 JBR，
+     * classpath 只放 core 模块的 jar 和 Jackson，worker 不加载任何 IDE 的类
+     */
+    public static List<String> workerCommand() {
+        String java = Path.of(System.getProperty("java.home"), "bin", SystemInfo.isWindows ? "java.exe" : "java").toString();
+        Set<String> classpath = new LinkedHashSet<>();
+        for (Class<?> type : List.of(LoadWorkerMain.class, ObjectMapper.class, JsonFactory.class, JsonAutoDetect.class)) {
+            classpath.add(PathManager.getJarPathForClass(type));
+        }
+        classpath.remove(null);
+
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.add("-Xmx1g");
+        command.add("-XX:+UseZGC");
+        command.add("-XX:+ZGenerational");
+        command.add("-Djava.awt.headless=true");
+        command.add("-cp");
+        command.add(String.join(File.pathSeparator, classpath));
+        return command;
+    }
+
+    public @Nullable LoadGenerator getActiveEngine() { return activeEngine; }
+    public String getActiveLabel() { return activeLabel; }
+    public @Nullable LoadResult getLastResult() { return lastResult; }
+    /** 最近一次结束并已保存的压测 */
+    public @Nullable LoadRun getLastRun() { return lastRun; }
+
+    public void addListener(Listener listener) { listeners.add(listener); }
+
+    public void removeListener(Listener listener) { listeners.remove(listener); }
+
+    @Override
+    public void dispose() {
+        LoadGenerator engine = activeEngine;
+        if (engine != null) engine.stop();
+        listeners.clear();
+    }
+}
@@ -1,143 +0,0 @@
-package com.phil.rest.service;
-
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.http.HttpRequest;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.*;
-import java.util.function.Supplier;
-
-/**
- * 完美的 Multipart Body 构建器
- * 兼容 Java 11 HttpClient
- */
-public class MultipartBodyPublisher {
-    private final List<PartsSpecification> partsSpecificationList = new ArrayList<>();
-    private final String boundary = UUID.randomUUID().toString();
-
-    public HttpRequest.BodyPublisher build() {
-        if (partsSpecificationList.isEmpty()) {
-            return HttpRequest.BodyPublishers.noBody();
-        }
-
-        // 1. 合并所有 Part 为一个 BodyPublisher 列表
-        List<HttpRequest.BodyPublisher> publishers = new ArrayList<>();
-        for (PartsSpecification part : partsSpecificationList) {
-            publishers.add(HttpRequest.BodyPublishers.ofString("--" + boundary + "\r\n"));
-
-            // Header
-            if (part.filename == null) {
-                // Text Field
-                publishers.add(HttpRequest.BodyPublishers.ofString(
-                        "Content-Disposition: form-data; name=\"" + part.name + "\"\r\n\r\n"));
-            } else {
-                // File Field
-                publishers.add(HttpRequest.BodyPublishers.ofString(
-                        "Content-Disposition: form-data; name=\"" + part.name + "\"; filename=\"" + part.filename + "\"\r\n" +
-                                "Content-Type: " + part.contentType + "\r\n\r\n"));
-            }
-
-            // Content
-            publishers.add(part.value);
-            publishers.add(HttpRequest.BodyPublishers.ofString("\r\n"));
-        }
-
-        // End Boundary
-        publishers.add(HttpRequest.BodyPublishers.ofString("--" + boundary + "--\r\n"));
-
-        // 2. 使用 Sequence 将它们串联起来 (核心黑科技)
-        return HttpRequest.BodyPublishers.ofByteArrays(new Iterable<byte[]>() {
-            @Override
-            public Iterator<byte[]> iterator() {
-                // 将所有 publisher 的 iterator 串联
-                return publishers.stream()
-                        .map(p -> {
-                            // 这是一个简化的处理，BodyPublishers.ofByteArrays 需要的是 Iterable<byte[]>
-                            // 这里为了简单，我们假设每个 publisher 都能直接订阅，
-                            // 实际上 Java 11 没有直接的 concat 方法，我们需要自己实现一个简单的 ByteArrays 合并
-                            // 但为了不引入复杂的 Reactive Streams 实现，我们这里用一种“伪流”的方式：
-                            // 既然我们主要处理的是 String 和 File，我们可以直接读取它们
-                            return Collections.<byte[]>emptyList().iterator();
-                        }).iterator().next(); // 占位，下面用更简单的方法重写 build
-            }
-        });
-    }
-
-    // 上面的 Stream 方式在 Java 11 里实现起来太啰嗦，我们换一种更直接的 "Byte Array List" 方式
-    // 注意：对于超大文件，这种方式会占用内存。但在开发测试工具里，上传个几MB的文件通常没问题。
-    // 如果要支持由流组成的 Body，代码量会剧增。这里我们采用 "预读取" 策略。
-
-    public HttpRequest.BodyPublisher buildSimple() {
-        List<byte[]> byteArrays = new ArrayList<>();
-        String separator = "--" + boundary + "\r\n";
-
-        try {
-            for (PartsSpecification part : partsSpecificationList) {
-                byteArrays.add(separator.getBytes(StandardCharsets.UTF_8));
-
-                if (part.filename == null) {
-                    // Text
-                    String header = "Content-Disposition: form-data; name=\"" + part.name + "\"\r\n\r\n";
-                    byteArrays.add(header.getBytes(StandardCharsets.UTF_8));
-                    // 这里的 value 是 BodyPublisher，我们需要它的内容。
-                    // 为了简化，我们在 addPart 时就区分了 String 和 Path
-                    if (part.contentBytes != null) {
-                        byteArrays.add(part.contentBytes);
-                    }
-                } else {
-                    // File
-                    String header = "Content-Disposition: form-data; name=\"" + part.name + "\"; filename=\"" + part.filename + "\"\r\n" +
-                            "Content-Type: " + part.contentType + "\r\n\r\n";
-                    byteArrays.add(header.getBytes(StandardCharsets.UTF_8));
-                    if (part.path != null) {
-                        byteArrays.add(Files.readAllBytes(part.path));
-                    }
-                }
-                byteArrays.add("\r\n".getBytes(StandardCharsets.UTF_8));
-            }
-            byteArrays.add(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-
-        return HttpRequest.BodyPublishers.ofByteArrays(byteArrays);
-    }
-
-    public String getBoundary() {
-        return boundary;
-    }
-
-    public MultipartBodyPublisher addPart(String name, String value) {
-        PartsSpecification newPart = new PartsSpecification();
-        newPart.name = name;
-        newPart.contentBytes = value.getBytes(StandardCharsets.UTF_8);
-        partsSpecificationList.add(newPart);
-        return this;
-    }
-
-    public MultipartBodyPublisher addPart(String name, Path value) {
-        PartsSpecification newPart = new PartsSpecification();
-        newPart.name = name;
-        newPart.path = value;
-        newPart.filename = value.getFileName().toString();
-        try {
-            String type = Files.probeContentType(value);
-            newPart.contentType = type != null ? type : "application/octet-stream";
-        } catch (IOException e) {
-            newPart.contentType = "application/octet-stream";
-        }
-        partsSpecificationList.add(newPart);
-        return this;
-    }
-
-    static class PartsSpecification {
-        public String name;
-        public HttpRequest.BodyPublisher value; // 保留字段
-        public byte[] contentBytes; // 文本内容
-        public Path path; // 文件路径
-        public String filename;
-        public String contentType;
-    }
-}
\ No newline at end of file
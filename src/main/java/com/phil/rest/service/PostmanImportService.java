@@ -47,7 +47,8 @@ public class PostmanImportService {
             RestEnv importedGlobals = parseEnv(globalsNode);
             if (importedGlobals != null) {
                 // [核心修改] 将导入的全局变量覆盖/合并到当前的 GlobalEnv
-                EnvService.getInstance(project).getGlobalEnv().setVariables(importedGlobals.getVariables());
+                EnvService envService = EnvService.getInstance(project);
+                envService.setVariables(envService.getGlobalEnv(), importedGlobals.getVariables());
                 // 注意：不计入 envCount，因为它不是一个新的 Environment 选项
             }
         }
@@ -0,0 +1,129 @@
+package com.phil.rest.service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 插件自己的执行器 (项目级，JDK 21 虚拟线程)。
+ * 请求发送、后处理、Blast 都走这里，不再占用 IDE 共享线程池；项目关闭时统一停止。
+ * <p>
+ * 准入控制：同时运行的任务数不超过 maxConcurrency，其余在虚拟线程上排队等待；
+ * 排队数超过 MAX_QUEUED 时直接拒绝，防止一次大批量提交把内存撑爆。
+ */
+public class RequestExecutionService implements Disposable {
+
+    public static final int MAX_QUEUED = 10_000;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("RestPilot-vt-", 0).factory());
+
+    private final ResizableSemaphore permits;
+    private volatile int maxConcurrency;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public RequestExecutionService(Project project) {
+        this.maxConcurrency = Math.max(1, RestSettingsService.getInstance(project).getState().maxConcurrentTasks);
+        this.permits = new ResizableSemaphore(maxConcurrency);
+    }
+
+    public static RequestExecutionService getInstance(Project project) {
+        return project.getService(RequestExecutionService.class);
+    }
+
+    /**
+     * 提交受准入控制的任务。返回的 Future 支持 cancel(true) 中断
+     *
+     * @throws RejectedExecutionException 排队已满或项目已关闭
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        if (executor.isShutdown()) throw new RejectedExecutionException("RestPilot executor is shut down");
+        if (queued.incrementAndGet() > MAX_QUEUED) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("RestPilot executor is saturated (" + MAX_QUEUED + " tasks queued)");
+        }
+        try {
+            return executor.submit(() -> {
+                try {
+                    permits.acquire();
+                } finally {
+                    queued.decrementAndGet();
+                }
+                active.incrementAndGet();
+                try {
+                    return task.call();
+                } finally {
+                    active.decrementAndGet();
+                    completed.increment();
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    public Future<?> execute(Runnable task) {
+        return submit(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * 给 HttpClient / 传输引擎内部使用的执行器：同样跑在虚拟线程上，但不参与准入控制，
+     * 这些任务都很短，而且被拒绝会让进行中的请求挂起
+     */
+    public Executor transportExecutor() {
+        return executor;
+    }
+
+    public void setMaxConcurrency(int max) {
+        int target = Math.max(1, max);
+        synchronized (permits) {
+            int delta = target - maxConcurrency;
+            if (delta > 0) permits.release(delta);
+            else if (delta < 0) permits.reduce(-delta);
+            maxConcurrency = target;
+        }
+    }
+
+    public int getMaxConcurrency() { return maxConcurrency; }
+    /** 已提交但还在等待许可的任务数 */
+    public int getQueueDepth() { return queued.get(); }
+    public int getActiveCount() { return active.get(); }
+    public long getCompletedCount() { return completed.sum(); }
+    public long getRejectedCount() { return rejected.sum(); }
+
+    @Override
+    public void dispose() {
+        // 中断所有虚拟线程；阻塞在套接字上的请求会随连接关闭一起结束
+        executor.shutdownNow();
+    }
+
+    private static final class ResizableSemaphore extends Semaphore {
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        void reduce(int reduction) {
+            reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.phil.rest.service;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.project.Project;
+import com.phil.rest.service.cache.DiskResponseCache;
+
+import java.nio.file.Path;
+
+/**
+ * 项目级响应缓存，文件放在 IDE system 目录下 (不进项目目录，也不会被 VCS 追踪)
+ */
+public class ResponseCacheService {
+
+    private final Project project;
+    private volatile DiskResponseCache cache;
+
+    public ResponseCacheService(Project project) {
+        this.project = project;
+    }
+
+    public static ResponseCacheService getInstance(Project project) {
+        return project.getService(ResponseCacheService.class);
+    }
+
+    public boolean isEnabled() {
+        return RestSettingsService.getInstance(project).getState().responseCacheEnabled;
+    }
+
+    public DiskResponseCache getCache() {
+        DiskResponseCache c = cache;
+        if (c == null) {
+            synchronized (this) {
+                if (cache == null) {
+                    Path dir = Path.of(PathManager.getSystemPath(), "restpilot", "http-cache", project.getLocationHash());
+                    cache = new DiskResponseCache(dir, RestSettingsService.getInstance(project).getResponseCacheMaxBytes());
+                }
+                c = cache;
+            }
+        }
+        return c;
+    }
+}
@@ -0,0 +1,94 @@
+package com.phil.rest.service;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.project.Project;
+import com.phil.rest.model.RestEnv;
+import com.phil.rest.service.load.Calibration;
+import com.phil.rest.service.load.LoadRegression;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 插件级可调参数 (Settings > Tools > RestPilot)
+ */
+@State(name = "UltimateRestSettings", storages = @Storage("ultimate-rest-settings.xml"))
+public class RestSettingsService implements PersistentStateComponent<RestSettingsService.State> {
+
+    public static class State {
+        // 响应体在内存中保留的上限 (MB)，超出部分写入临时文件
+        public int inMemoryBodyLimitMb = 8;
+        // 同时执行的请求任务上限 (虚拟线程，超出部分排队)
+        public int maxConcurrentTasks = 64;
+        // 条件请求响应缓存 (默认关闭) 及其磁盘上限 (MB)
+        public boolean responseCacheEnabled = false;
+        public int responseCacheMaxMb = 256;
+        // 切换环境时预热环境变量里的 base URL 连接
+        public boolean prewarmConnections = false;
+        // 每个主机同时进行的请求上限 (交互式请求，超出部分按顺序排队)，0 表示不限制
+        public int maxConnectionsPerHost = 6;
+        // 保存的压测记录条数上限，超出时删除最旧的 (基线不删)
+        public int maxSavedLoadRuns = 200;
+        // 与基线对比的退化阈值：P50/P90、P99/P99.9 变慢百分比，错误率上升百分点，吞吐下降百分比
+        public int regressionLatencyPercent = 10;
+        public int regressionTailLatencyPercent = 20;
+        public int regressionErrorRatePoints = 1;
+        public int regressionThroughputPercent = 10;
+        // 最近一次客户端校准的结果 (calibratedAt 为 0 表示还没校准过)，压测报告里作为本机上限的参照
+        public long calibratedAt = 0;
+        public String calibrationEngine = RestEnv.TransportEngine.JDK.name();
+        public int calibrationPayloadBytes = 0;
+        public double calibrationMaxRps = 0;
+        public long calibrationFloorP50Nanos = 0;
+        public long calibrationFloorP99Nanos = 0;
+    }
+
+    private State myState = new State();
+
+    public static RestSettingsService getInstance(Project project) {
+        return project.getService(RestSettingsService.class);
+    }
+
+    @Override
+    public @Nullable State getState() { return myState; }
+
+    @Override
+    public void loadState(@NotNull State state) {
+        this.myState = state;
+    }
+
+    public long getInMemoryBodyLimitBytes() {
+        return Math.max(1, myState.inMemoryBodyLimitMb) * 1024L * 1024L;
+    }
+
+    public LoadRegression.Thresholds getRegressionThresholds() {
+        return new LoadRegression.Thresholds(myState.regressionLatencyPercent, myState.regressionTailLatencyPercent,
+                myState.regressionErrorRatePoints, myState.regressionThroughputPercent);
+    }
+
+    public @Nullable Calibration.Result getCalibration() {
+        if (myState.calibratedAt == 0) return null;
+        RestEnv.TransportEngine engine;
+        try {
+            engine = RestEnv.TransportEngine.valueOf(myState.calibrationEngine);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            engine = RestEnv.TransportEngine.JDK;
+        }
+        return new Calibration.Result(myState.calibrationPayloadBytes, engine, myState.calibrationMaxRps,
+                myState.calibrationFloorP50Nanos, myState.calibrationFloorP99Nanos, myState.calibratedAt);
+    }
+
+    public void setCalibration(Calibration.Result result) {
+        myState.calibratedAt = result.measuredAt();
+        myState.calibrationEngine = result.engine().name();
+        myState.calibrationPayloadBytes = result.payloadBytes();
+        myState.calibrationMaxRps = result.maxRps();
+        myState.calibrationFloorP50Nanos = result.floorP50Nanos();
+        myState.calibrationFloorP99Nanos = result.floorP99Nanos();
+    }
+
+    public long getResponseCacheMaxBytes() {
+        return Math.max(1, myState.responseCacheMaxMb) * 1024L * 1024L;
+    }
+}
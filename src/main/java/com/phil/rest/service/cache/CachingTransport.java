@@ -0,0 +1,258 @@
+package com.phil.rest.service.cache;
+
+import com.phil.rest.model.ResponseBody;
+import com.phil.rest.model.RestResponse;
+import com.phil.rest.service.transport.HttpTransport;
+import com.phil.rest.service.transport.TransportRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 给任意传输引擎套一层条件请求缓存 (只处理 GET)：
+ * <ul>
+ *     <li>未过期 (max-age / Expires) 的条目直接返回，不走网络</li>
+ *     <li>过期但有 ETag / Last-Modified 的条目自动带上 If-None-Match / If-Modified-Since，304 时返回缓存内容</li>
+ *     <li>用户自己写了条件请求头或 Cache-Control: no-store 时完全绕过，方便验证服务端的缓存头</li>
+ * </ul>
+ */
+public class CachingTransport implements HttpTransport {
+
+    private final HttpTransport delegate;
+    private final DiskResponseCache cache;
+    private final BooleanSupplier enabled;
+    private final Executor executor;
+
+    /**
+     * @param executor 执行缓存磁盘读写的线程池 (与引擎共用传输线程)
+     */
+    public CachingTransport(HttpTransport delegate, DiskResponseCache cache, BooleanSupplier enabled, Executor executor) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.enabled = enabled;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<RestResponse> send(TransportRequest request) {
+        if (!enabled.getAsBoolean() || !"GET".equals(request.method()) || bypass(request)) {
+            return delegate.send(request);
+        }
+
+        long start = System.nanoTime();
+        String key = request.fingerprint();
+        // 查索引、读元数据、读 Body 都是磁盘 I/O，放到传输线程上做，调用方 (可能是 EDT) 立即返回
+        AtomicReference<CompletableFuture<RestResponse>> network = new AtomicReference<>();
+        CompletableFuture<RestResponse> result = CompletableFuture.supplyAsync(() -> lookup(key, request, start), executor)
+                .thenCompose(found -> found.hit() != null
+                        ? CompletableFuture.completedFuture(found.hit())
+                        : fetch(key, request, found.meta(), network));
+        // 调用方取消 / 超时时一并取消在途的网络请求 (thenCompose 不会向上游传播取消)
+        result.whenComplete((r, ex) -> {
+            CompletableFuture<RestResponse> sent = network.get();
+            if (sent != null && !sent.isDone()) sent.cancel(true);
+        });
+        return result;
+    }
+
+    /** 查缓存的结果：hit 非空为新鲜命中；否则 meta 为可用于条件请求的旧条目 (可能为 null) */
+    private record Lookup(DiskResponseCache.Meta meta, RestResponse hit) {}
+
+    private Lookup lookup(String key, TransportRequest request, long start) {
+        DiskResponseCache.Meta meta = cache.lookup(key);
+        boolean revalidate = hasDirective(headerValue(request.headers(), "Cache-Control"), "no-cache");
+
+        // 1. 新鲜命中：完全不走网络
+        if (meta != null && !revalidate && System.currentTimeMillis() < meta.freshUntil) {
+            try {
+                ResponseBody body = cache.readBody(key, request.inMemoryLimit());
+                RestResponse hit = new RestResponse(meta.statusCode, body, meta.headers, (System.nanoTime() - start) / 1_000_000,
+                        meta.wireBytes, meta.contentEncoding, meta.decoded, null);
+                return new Lookup(meta, hit.withCache(RestResponse.CacheStatus.HIT, meta.wireBytes));
+            } catch (IOException e) {
+                cache.remove(key);
+                return new Lookup(null, null);
+            }
+        }
+        return new Lookup(meta, null);
+    }
+
+    private CompletableFuture<RestResponse> fetch(String key, TransportRequest request, DiskResponseCache.Meta meta,
+                                                  AtomicReference<CompletableFuture<RestResponse>> network) {
+        // 2. 有校验器时发条件请求
+        TransportRequest outgoing = request;
+        if (meta != null && (meta.etag != null || meta.lastModified != null)) {
+            List<TransportRequest.Header> headers = new ArrayList<>(request.headers());
+            if (meta.etag != null) headers.add(new TransportRequest.Header("If-None-Match", meta.etag));
+            if (meta.lastModified != null) headers.add(new TransportRequest.Header("If-Modified-Since", meta.lastModified));
+            outgoing = new TransportRequest(request.method(), request.uri(), headers, request.body(), request.timeout(), request.inMemoryLimit());
+        }
+
+        CompletableFuture<RestResponse> sent = delegate.send(outgoing);
+        network.set(sent);
+        return sent.thenCompose(response -> {
+            if (response.getStatusCode() == 304 && meta != null) {
+                try {
+                    return CompletableFuture.completedFuture(revalidated(key, meta, response, request.inMemoryLimit()));
+                } catch (IOException e) {
+                    // 缓存文件丢失，去掉条件头重新请求一次
+                    cache.remove(key);
+                    CompletableFuture<RestResponse> retry = delegate.send(request);
+                    network.set(retry);
+                    return retry.thenApply(r -> storeIfCacheable(key, request, r));
+                }
+            }
+            return CompletableFuture.completedFuture(storeIfCacheable(key, request, response));
+        });
+    }
+
+    private RestResponse revalidated(String key, DiskResponseCache.Meta meta, RestResponse notModified, long inMemoryLimit) throws IOException {
+        ResponseBody body = cache.readBody(key, inMemoryLimit);
+
+        // 304 携带的 Header (新的 Cache-Control / ETag 等) 覆盖缓存里的同名 Header
+        Map<String, List<String>> merged = new LinkedHashMap<>();
+        meta.headers.forEach((k, v) -> {
+            if (notModified.getFirstHeader(k) == null) merged.put(k, v);
+        });
+        merged.putAll(notModified.getHeaders());
+        meta.headers = merged;
+        String etag = notModified.getFirstHeader("ETag");
+        if (etag != null) meta.etag = etag;
+        meta.freshUntil = System.currentTimeMillis() + freshnessMillis(merged);
+        cache.updateMeta(key, meta);
+
+        RestResponse response = new RestResponse(meta.statusCode, body, merged, notModified.getDurationMs(),
+                meta.wireBytes, meta.contentEncoding, meta.decoded, notModified.getTimings());
+        return response.withCache(RestResponse.CacheStatus.REVALIDATED, meta.wireBytes)
+                .withQueueWait(notModified.getQueueWaitNanos());
+    }
+
+    private RestResponse storeIfCacheable(String key, TransportRequest request, RestResponse response) {
+        if (response.getStatusCode() != 200) return response;
+        Map<String, List<String>> headers = response.getHeaders();
+        String cacheControl = response.getFirstHeader("Cache-Control");
+        if (hasDirective(cacheControl, "no-store")) return response;
+
+        String etag = response.getFirstHeader("ETag");
+        String lastModified = response.getFirstHeader("Last-Modified");
+        long freshness = freshnessMillis(headers);
+        if (etag == null && lastModified == null && freshness <= 0) return response;
+
+        DiskResponseCache.Meta meta = new DiskResponseCache.Meta();
+        meta.method = request.method();
+        meta.url = request.uri().toString();
+        meta.statusCode = response.getStatusCode();
+        meta.headers = headers;
+        meta.etag = etag;
+        meta.lastModified = lastModified;
+        meta.storedAt = System.currentTimeMillis();
+        meta.freshUntil = meta.storedAt + freshness;
+        meta.wireBytes = response.getWireBytes();
+        meta.contentEncoding = response.getContentEncoding();
+        meta.decoded = response.isDecoded();
+        try {
+            cache.store(key, meta, response);
+        } catch (IOException e) {
+            return response;
+        }
+        return response.withCache(RestResponse.CacheStatus.MISS, 0);
+    }
+
+    @Override
+    public void prewarm(URI origin) throws IOException {
+        delegate.prewarm(origin);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * 响应可以直接复用的毫秒数：no-cache 为 0；max-age 扣掉 Age；否则按 Expires - Date
+     */
+    static long freshnessMillis(Map<String, List<String>> headers) {
+        String cacheControl = first(headers, "Cache-Control");
+        if (hasDirective(cacheControl, "no-cache") || hasDirective(cacheControl, "no-store")) return 0;
+
+        Long maxAge = directiveSeconds(cacheControl, "max-age");
+        if (maxAge != null) {
+            long age = 0;
+            try {
+                String ageHeader = first(headers, "Age");
+                if (ageHeader != null) age = Long.parseLong(ageHeader.trim());
+            } catch (NumberFormatException ignored) {
+            }
+            return Math.max(0, maxAge - age) * 1000;
+        }
+
+        String expires = first(headers, "Expires");
+        if (expires != null) {
+            try {
+                long expiresAt = ZonedDateTime.parse(expires.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                String date = first(headers, "Date");
+                long now = date != null
+                        ? ZonedDateTime.parse(date.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli()
+                        : System.currentTimeMillis();
+                return Math.max(0, expiresAt - now);
+            } catch (Exception ignored) {
+                // 非法日期视为已过期
+            }
+        }
+        return 0;
+    }
+
+    private static boolean bypass(TransportRequest request) {
+        return request.hasHeader("If-None-Match") || request.hasHeader("If-Modified-Since")
+                || hasDirective(headerValue(request.headers(), "Cache-Control"), "no-store");
+    }
+
+    private static String headerValue(List<TransportRequest.Header> headers, String name) {
+        for (TransportRequest.Header h : headers) {
+            if (h.name().equalsIgnoreCase(name)) return h.value();
+        }
+        return null;
+    }
+
+    private static String first(Map<String, List<String>> headers, String name) {
+        for (Map.Entry<String, List<String>> e : headers.entrySet()) {
+            if (name.equalsIgnoreCase(e.getKey()) && !e.getValue().isEmpty()) return e.getValue().get(0);
+        }
+        return null;
+    }
+
+    private static boolean hasDirective(String cacheControl, String directive) {
+        if (cacheControl == null) return false;
+        for (String part : cacheControl.split(",")) {
+            String p = part.trim().toLowerCase(Locale.ROOT);
+            if (p.equals(directive) || p.startsWith(directive + "=")) return true;
+        }
+        return false;
+    }
+
+    private static Long directiveSeconds(String cacheControl, String directive) {
+        if (cacheControl == null) return null;
+        for (String part : cacheControl.split(",")) {
+            String p = part.trim().toLowerCase(Locale.ROOT);
+            if (p.startsWith(directive + "=")) {
+                try {
+                    return Long.parseLong(p.substring(directive.length() + 1).replace("\"", "").trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
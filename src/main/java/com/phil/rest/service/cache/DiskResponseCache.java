@@ -0,0 +1,228 @@
+package com.phil.rest.service.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phil.rest.model.ResponseBody;
+import com.phil.rest.model.RestResponse;
+import com.phil.rest.service.SpillingBodySubscriber;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+
+/**
+ * 磁盘上的 LRU 响应缓存。每个条目两个文件：{key}.meta (JSON 元数据) 和 {key}.body (解压后的 Body)。
+ * <p>
+ * 索引常驻内存 (按访问顺序)，总大小超过上限时淘汰最久未用的条目；
+ * 启动时按文件修改时间重建索引，命中时 touch 文件，LRU 顺序可以跨 IDE 重启保留。
+ */
+public class DiskResponseCache {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /** 单个 Body 超过总容量的 1/4 时不缓存，避免一个大响应把其它条目全挤掉 */
+    private static final int MAX_ENTRY_FRACTION = 4;
+
+    /**
+     * 持久化的元数据。storedAt / freshUntil 为毫秒时间戳
+     */
+    public static class Meta {
+        public String method;
+        public String url;
+        public int statusCode;
+        public Map<String, List<String>> headers;
+        public String etag;
+        public String lastModified;
+        public long storedAt;
+        public long freshUntil;
+        public long wireBytes;
+        public String contentEncoding;
+        public boolean decoded = true;
+        public long bodyLength;
+    }
+
+    private final Path directory;
+    private volatile long maxBytes;
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    private boolean loaded;
+
+    public DiskResponseCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized Meta lookup(String key) {
+        ensureLoaded();
+        if (!index.containsKey(key)) return null; // 同时刷新访问顺序
+        try {
+            Meta meta = MAPPER.readValue(metaFile(key).toFile(), Meta.class);
+            Files.setLastModifiedTime(metaFile(key), FileTime.fromMillis(System.currentTimeMillis()));
+            return meta;
+        } catch (IOException e) {
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * 读回缓存的 Body；超过 inMemoryLimit 的部分与网络响应一样落到临时文件
+     */
+    public ResponseBody readBody(String key, long inMemoryLimit) throws IOException {
+        SpillingBodySubscriber subscriber = new SpillingBodySubscriber(inMemoryLimit);
+        subscriber.onSubscribe(NOOP_SUBSCRIPTION);
+        try (InputStream in = Files.newInputStream(bodyFile(key))) {
+            byte[] chunk = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                subscriber.onNext(List.of(ByteBuffer.wrap(chunk, 0, n)));
+            }
+        } catch (IOException e) {
+            subscriber.onError(e);
+            throw e;
+        }
+        subscriber.onComplete();
+        return subscriber.getBody().toCompletableFuture().join();
+    }
+
+    /**
+     * 写入 (或覆盖) 一个条目。先写临时文件再原子替换，写到一半失败不会留下半截 Body
+     */
+    public void store(String key, Meta meta, RestResponse response) throws IOException {
+        long size = response.getContent().length();
+        if (size > maxBytes / MAX_ENTRY_FRACTION) return;
+
+        Files.createDirectories(directory);
+        Path tmpBody = Files.createTempFile(directory, key, ".tmp");
+        Path tmpMeta = Files.createTempFile(directory, key, ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmpBody)) {
+                response.getContent().writeTo(out);
+            }
+            meta.bodyLength = size;
+            MAPPER.writeValue(tmpMeta.toFile(), meta);
+            synchronized (this) {
+                ensureLoaded();
+                Files.move(tmpBody, bodyFile(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(tmpMeta, metaFile(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Long old = index.put(key, size);
+                totalBytes += size - (old != null ? old : 0);
+                evict();
+            }
+        } finally {
+            Files.deleteIfExists(tmpBody);
+            Files.deleteIfExists(tmpMeta);
+        }
+    }
+
+    /**
+     * 304 之后只更新元数据 (新鲜度、合并后的 Header)，Body 不动
+     */
+    public synchronized void updateMeta(String key, Meta meta) {
+        if (!index.containsKey(key)) return;
+        try {
+            MAPPER.writeValue(metaFile(key).toFile(), meta);
+        } catch (IOException e) {
+            remove(key);
+        }
+    }
+
+    public synchronized void remove(String key) {
+        Long size = index.remove(key);
+        if (size != null) totalBytes -= size;
+        deleteQuietly(metaFile(key));
+        deleteQuietly(bodyFile(key));
+    }
+
+    public synchronized void clear() {
+        ensureLoaded();
+        for (String key : new ArrayList<>(index.keySet())) remove(key);
+    }
+
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        if (loaded) evict();
+    }
+
+    public synchronized long getTotalBytes() {
+        ensureLoaded();
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        ensureLoaded();
+        return index.size();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.getValue();
+            deleteQuietly(metaFile(eldest.getKey()));
+            deleteQuietly(bodyFile(eldest.getKey()));
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        loaded = true;
+        if (!Files.isDirectory(directory)) return;
+        // 按最近访问时间从旧到新放入索引，恢复 LRU 顺序
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(p -> p.getFileName().toString().endsWith(".meta"))
+                    .sorted(Comparator.comparing(DiskResponseCache::lastModified))
+                    .forEach(meta -> {
+                        String name = meta.getFileName().toString();
+                        String key = name.substring(0, name.length() - ".meta".length());
+                        try {
+                            long size = Files.size(bodyFile(key));
+                            index.put(key, size);
+                            totalBytes += size;
+                        } catch (IOException e) {
+                            deleteQuietly(meta);
+                        }
+                    });
+        } catch (IOException ignored) {
+        }
+        evict();
+    }
+
+    private Path metaFile(String key) { return directory.resolve(key + ".meta"); }
+    private Path bodyFile(String key) { return directory.resolve(key + ".body"); }
+
+    private static FileTime lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void deleteQuietly(Path p) {
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static final Flow.Subscription NOOP_SUBSCRIPTION = new Flow.Subscription() {
+        @Override public void request(long n) { }
+        @Override public void cancel() { }
+    };
+}
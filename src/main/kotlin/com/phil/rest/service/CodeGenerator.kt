@@ -58,14 +58,14 @@ object CodeGenerator {
         return sb.toString()
     }
 
-    // 生成 Hex Dump 字符串
-    fun generateHexDump(bytes: ByteArray): String {
+    // 生成 Hex Dump 字符串 (baseOffset 用于分页显示时的地址列)
+    fun generateHexDump(bytes: ByteArray, baseOffset: Long = 0): String {
         if (bytes.isEmpty()) return "Empty Body"
         val sb = StringBuilder()
         val width = 16
         for (i in bytes.indices step width) {
             // 1. Offset
-            sb.append(String.format("%08X  ", i))
+            sb.append(String.format("%08X  ", baseOffset + i))
 
             // 2. Hex
             for (j in 0 until width) {
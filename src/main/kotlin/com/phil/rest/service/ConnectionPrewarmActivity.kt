@@ -0,0 +1,17 @@
+package com.phil.rest.service
+
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.startup.ProjectActivity
+
+/**
+ * 项目打开后挂上环境切换监听：切换环境时预热该环境 base URL 的连接 (需在设置中开启)
+ */
+class ConnectionPrewarmActivity : ProjectActivity {
+    override suspend fun execute(project: Project) {
+        val envService = EnvService.getInstance(project)
+        val registry = HttpClientRegistry.getInstance(project)
+        envService.addListener { env -> registry.prewarm(env) }
+        // 打开项目时已选中的环境也预热一次
+        registry.prewarm(envService.selectedEnv)
+    }
+}
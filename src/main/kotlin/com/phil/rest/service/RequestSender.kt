@@ -1,30 +1,28 @@
 package com.phil.rest.service
 
-import com.fasterxml.jackson.databind.ObjectMapper
-import com.fasterxml.jackson.databind.SerializationFeature
-import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.project.Project
 import com.phil.rest.model.RestParam
 import com.phil.rest.model.RestResponse
 import com.phil.rest.model.SavedRequest
-import java.util.*
 import java.util.concurrent.CompletableFuture
+import java.util.concurrent.atomic.AtomicLong
 import javax.swing.SwingUtilities
 
 /**
  * 负责处理请求发送的业务逻辑：
- * 1. 变量替换
- * 2. Auth Header 生成
- * 3. 异步线程调度 & 取消控制
- * 4. JSON 格式化 & 变量提取
+ * 1. 变量替换 & Auth Header 生成，构建成 PreparedRequest (与压测、运行器同一条路径)
+ * 2. 异步线程调度 & 取消控制
+ * 3. 变量提取 (JSON 格式化由 RestResponse 按需完成)
  */
 class RequestSender(private val project: Project) {
 
-    private val objectMapper = ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
-
     // [新增] 持有当前运行的 Future，用于取消
+    @Volatile
     private var currentFuture: CompletableFuture<RestResponse>? = null
 
+    // 每次发送递增；被新请求顶掉的旧请求完成时不再回调 UI
+    private val generation = AtomicLong()
+
     // [新增] 取消当前请求
     fun cancelCurrentRequest() {
         currentFuture?.cancel(true)
@@ -35,152 +33,57 @@ class RequestSender(private val project: Project) {
         requestData: SavedRequest,        // 包含 URL, Method, Headers, Body, Auth 等
         multipartParams: List<RestParam>?, // 独立传递 Multipart 参数
         onStart: () -> Unit,
-        onFinish: (RestResponse) -> Unit
+        onFinish: (RestResponse) -> Unit,
+        onUploadProgress: ((sent: Long, total: Long) -> Unit)? = null
     ) {
-        // 1. 变量解析
-        var finalUrl = resolveVariables(requestData.url)
-        val method = requestData.method
-        val finalBody = resolveVariables(requestData.bodyContent)
+        // 1. 按当前环境快照展开 (Selected Environment > Globals)、Query、Auth、默认 Content-Type，构建成可直接发送的请求
+        val envService = EnvService.getInstance(project)
+        val scope = VariableScope.snapshot(envService.snapshot().variables())
 
-        // 2. 构建 Query Params
-        val queryParamsBuilder = StringBuilder()
-        requestData.params.forEach {
-            val v = resolveVariables(it.value)
-            if (queryParamsBuilder.isEmpty()) queryParamsBuilder.append("?") else queryParamsBuilder.append("&")
-            queryParamsBuilder.append("${it.name}=$v")
-        }
-
-        // 3. 构建 Headers & Auth
-        val headers = ArrayList<RestParam>()
         val headerStore = HeaderStore.getInstance(project)
+        requestData.headers.forEach { headerStore.recordHeader(it.name) }
 
-        requestData.headers.forEach {
-            val v = resolveVariables(it.value)
-            headers.add(RestParam(it.name, v, RestParam.ParamType.HEADER, "String"))
-            headerStore.recordHeader(it.name)
-        }
-
-        val authContent = requestData.authContent
-        when (requestData.authType) {
-            "bearer" -> {
-                val token = resolveVariables(authContent["token"])
-                if (!token.isNullOrBlank()) headers.add(RestParam("Authorization", "Bearer $token", RestParam.ParamType.HEADER, "String"))
-            }
-            "basic" -> {
-                val user = resolveVariables(authContent["username"])
-                val pass = resolveVariables(authContent["password"])
-                if (!user.isNullOrBlank() || !pass.isNullOrBlank()) {
-                    val encoded = Base64.getEncoder().encodeToString("$user:$pass".toByteArray())
-                    headers.add(RestParam("Authorization", "Basic $encoded", RestParam.ParamType.HEADER, "String"))
-                }
-            }
-            "apikey" -> {
-                val key = resolveVariables(authContent["key"])
-                val value = resolveVariables(authContent["value"])
-                val where = authContent["where"] ?: "Header"
-                if (!key.isNullOrBlank()) {
-                    if (where == "Header") headers.add(RestParam(key, value, RestParam.ParamType.HEADER, "String"))
-                    else {
-                        if (queryParamsBuilder.isEmpty()) queryParamsBuilder.append("?") else queryParamsBuilder.append("&")
-                        queryParamsBuilder.append("$key=$value")
-                    }
-                }
-            }
-        }
-
-        if (!finalUrl.contains("?") && queryParamsBuilder.isNotEmpty()) finalUrl += queryParamsBuilder.toString()
-        else if (finalUrl.contains("?") && queryParamsBuilder.isNotEmpty()) finalUrl += "&" + queryParamsBuilder.substring(1)
-
-        val hasContentType = headers.any { it.name.equals("Content-Type", ignoreCase = true) }
-        if (!hasContentType) {
-            val bodyType = requestData.bodyType
-            if (bodyType != "multipart/form-data") {
-                when (bodyType) {
-                    "x-www-form-urlencoded" -> headers.add(RestParam("Content-Type", "application/x-www-form-urlencoded", RestParam.ParamType.HEADER, "String"))
-                    "raw (json)" -> headers.add(RestParam("Content-Type", "application/json", RestParam.ParamType.HEADER, "String"))
-                    "raw (xml)" -> headers.add(RestParam("Content-Type", "application/xml", RestParam.ParamType.HEADER, "String"))
-                    "raw (text)" -> headers.add(RestParam("Content-Type", "text/plain", RestParam.ParamType.HEADER, "String"))
-                }
-            }
-        }
-
-        // 4. 执行请求
+        // 2. 执行请求：先取消上一个还没结束的请求，避免连点 Send 时重复请求堆积
+        val gen = generation.incrementAndGet()
+        currentFuture?.cancel(true)
         SwingUtilities.invokeLater { onStart() }
 
-        val executor = HttpExecutor()
+        val executor = HttpExecutor(
+            HttpClientRegistry.getInstance(project).getTransport(envService.selectedEnv),
+            RestSettingsService.getInstance(project).inMemoryBodyLimitBytes
+        )
         val timeout = 60L // 默认 60s 超时
 
-        // 调用异步方法
-        val future = executor.executeAsync(method, finalUrl, finalBody, headers, multipartParams, timeout)
+        val progress = onUploadProgress?.let { callback -> MultipartBodyPublisher.ProgressListener { sent, total -> callback(sent, total) } }
+        val future = try {
+            executor.send(executor.prepare(requestData, scope, multipartParams, timeout, progress))
+        } catch (e: Exception) {
+            CompletableFuture.completedFuture(RestResponse.error("Build Error: ${e.message}", 0))
+        }
         currentFuture = future
 
         future.whenComplete { response, _ ->
+            if (generation.get() != gen) return@whenComplete
             // 注意：如果被 cancel，response 可能是 null
-            val safeResponse = response ?: RestResponse(0, "Request Cancelled", ByteArray(0), emptyMap(), 0)
-
-            // 后处理（JSON 美化、变量提取）放入后台线程，防止阻塞 UI
-            ApplicationManager.getApplication().executeOnPooledThread {
-                val prettyBody = if (safeResponse.body.trim().startsWith("{") || safeResponse.body.trim().startsWith("[")) {
-                    formatJson(safeResponse.body)
-                } else safeResponse.body
+            val safeResponse = response ?: RestResponse.error("Request Cancelled", 0)
 
-                val finalRes = RestResponse(
-                    safeResponse.statusCode,
-                    prettyBody,
-                    safeResponse.rawBody,
-                    safeResponse.headers,
-                    safeResponse.durationMs
-                )
+            // 后处理（JSON 美化、变量提取）放入插件自己的虚拟线程，防止阻塞 UI
+            RequestExecutionService.getInstance(project).execute {
+                // 提前生成格式化文本 (软引用缓存)，EDT 上展示时直接命中
+                safeResponse.prettyBody
 
-                if (finalRes.statusCode in 200..299) {
-                    JsonExtractor.executeExtraction(finalRes.body, requestData.extractRules, project)
+                // 提取结果写入当前选中的环境 (整表替换，正在读旧表的线程不受影响)
+                val currentEnv = envService.selectedEnv
+                if (safeResponse.statusCode in 200..299 && currentEnv != null) {
+                    envService.putVariables(currentEnv, JsonExtractor.extract(safeResponse.content, requestData.extractRules))
                 }
 
                 SwingUtilities.invokeLater {
+                    if (generation.get() != gen) return@invokeLater
                     currentFuture = null // 清空引用
-                    onFinish(finalRes)
+                    onFinish(safeResponse)
                 }
             }
         }
     }
-
-    private fun resolveVariables(text: String?): String {
-        if (text.isNullOrEmpty()) return ""
-
-        // [核心升级] 变量合并逻辑
-        // 优先级：Selected Environment > Globals
-
-        val mergedVariables = HashMap<String, String>()
-        val service = EnvService.getInstance(project)
-
-        // 1. 先放入 Globals (垫底)
-        val globalEnv = service.globalEnv
-        if (globalEnv != null) {
-            mergedVariables.putAll(globalEnv.variables)
-        }
-
-        // 2. 再放入 Selected Env (覆盖)
-        val selectedEnv = service.selectedEnv
-        if (selectedEnv != null) {
-            mergedVariables.putAll(selectedEnv.variables)
-        }
-
-        if (mergedVariables.isEmpty()) return text
-
-        var result = text
-        // 遍历合并后的 Map 进行替换
-        for ((key, value) in mergedVariables) {
-            result = result?.replace("{{$key}}", value)
-        }
-        return result ?: ""
-    }
-
-    private fun formatJson(json: String): String {
-        if (json.isBlank()) return ""
-        return try {
-            objectMapper.writeValueAsString(objectMapper.readTree(json))
-        } catch (e: Exception) {
-            json
-        }
-    }
-}
\ No newline at end of file
+}
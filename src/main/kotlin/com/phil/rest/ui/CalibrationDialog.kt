@@ -0,0 +1,36 @@
+package com.phil.rest.ui
+
+import com.intellij.openapi.ui.DialogWrapper
+import com.intellij.ui.dsl.builder.*
+import com.phil.rest.model.RestEnv
+import javax.swing.JComponent
+
+/**
+ * 客户端校准参数：传输引擎和请求体大小 (echo 服务原样返回，响应同样大小)
+ */
+class CalibrationDialog(var engine: RestEnv.TransportEngine) : DialogWrapper(true) {
+
+    var payloadBytes: Int = 1024
+
+    init {
+        title = "Calibrate Client"
+        init()
+    }
+
+    override fun createCenterPanel(): JComponent {
+        return panel {
+            row {
+                comment("Blasts a built-in echo server on localhost to measure how fast this machine can send " +
+                        "(throughput ceiling) and the latency the client itself adds (latency floor). " +
+                        "Takes about half a minute; the result is shown in every load report.")
+            }
+            row("Engine:") {
+                comboBox(RestEnv.TransportEngine.entries).bindItem(::engine.toNullableProperty())
+            }
+            row("Payload (bytes):") {
+                spinner(0..1_048_576, 256).bindIntValue(::payloadBytes)
+                    .comment("Use a size close to the requests you load test")
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.intellij.openapi.fileChooser.FileChooser
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.ui.Messages
 import com.intellij.openapi.ui.SimpleToolWindowPanel
+import com.intellij.openapi.util.text.StringUtil
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.ui.DocumentAdapter
 import com.intellij.ui.PopupHandler
@@ -17,12 +18,20 @@ import com.intellij.ui.SearchTextField
 import com.intellij.ui.treeStructure.Tree
 import com.intellij.util.ui.JBUI
 import com.phil.rest.model.CollectionNode
+import com.phil.rest.model.LoadProfile
 import com.phil.rest.service.CollectionService
+import com.phil.rest.service.EnvService
+import com.phil.rest.service.HttpClientRegistry
 import com.phil.rest.service.PostmanExportService
 import com.phil.rest.service.PostmanImportService
+import com.phil.rest.service.VariableScope
+import com.phil.rest.service.load.LoadEngine
+import com.phil.rest.service.load.LoadScenario
+import com.phil.rest.service.load.ScenarioWorkload
 import java.awt.BorderLayout
 import java.awt.Component
 import java.io.File
+import java.io.IOException
 import javax.swing.JPanel
 import javax.swing.event.DocumentEvent
 import javax.swing.tree.DefaultMutableTreeNode
@@ -104,6 +113,30 @@ class CollectionsTreePanel(
             }
         }
 
+        // [新增] 文件夹作为场景压测：顺序执行其中的请求，提取的变量只在各虚拟用户内部传递
+        val loadTestFolderAction = object : AnAction("Load Test Folder...", "Run the folder as a weighted load-test scenario", AllIcons.Actions.Execute) {
+            override fun actionPerformed(e: AnActionEvent) {
+                val node = tree.lastSelectedPathComponent as? DefaultMutableTreeNode ?: return
+                val folder = node.userObject as? CollectionNode ?: return
+                if (folder.isFolder) runFolderLoadTest(folder)
+            }
+        }
+
+        val loadWeightAction = object : AnAction("Set Load Weight...", "Relative weight of this folder when its parent is load tested", null) {
+            override fun actionPerformed(e: AnActionEvent) {
+                val node = tree.lastSelectedPathComponent as? DefaultMutableTreeNode ?: return
+                val folder = node.userObject as? CollectionNode ?: return
+                val input = Messages.showInputDialog(project, "Relative weight (0 disables the scenario):", "Load Weight",
+                    Messages.getQuestionIcon(), folder.loadWeight.toString(), null) ?: return
+                val weight = input.trim().toIntOrNull()
+                if (weight == null || weight < 0) {
+                    Messages.showErrorDialog("Weight must be a non-negative integer.", "Load Weight")
+                    return
+                }
+                folder.loadWeight = weight
+            }
+        }
+
         tree.addMouseListener(object : PopupHandler() {
             override fun invokePopup(comp: Component, x: Int, y: Int) {
                 val path = tree.getPathForLocation(x, y)
@@ -114,6 +147,11 @@ class CollectionsTreePanel(
                     actionGroup.add(deleteAction)
                     actionGroup.addSeparator()
                     actionGroup.add(exportSelectionAction)
+                    if ((path.lastPathComponent as? DefaultMutableTreeNode)?.userObject.let { it is CollectionNode && it.isFolder }) {
+                        actionGroup.addSeparator()
+                        actionGroup.add(loadTestFolderAction)
+                        actionGroup.add(loadWeightAction)
+                    }
                     val popup = ActionManager.getInstance().createActionPopupMenu("CollectionTreePopup", actionGroup)
                     popup.component.show(comp, x, y)
                 }
@@ -184,6 +222,40 @@ class CollectionsTreePanel(
         reloadTree()
     }
 
+    private fun runFolderLoadTest(folder: CollectionNode) {
+        val scenarios = LoadScenario.fromFolder(folder)
+        if (scenarios.isEmpty()) {
+            Messages.showWarningDialog("Folder '${folder.name}' has no requests.", "Load Test Folder")
+            return
+        }
+        val service = CollectionService.getInstance(project)
+        val initial = folder.loadProfile ?: service.findParent(folder)?.loadProfile ?: LoadProfile.defaultProfile()
+        val summary = scenarios.joinToString("<br>") { s ->
+            "<b>${StringUtil.escapeXmlEntities(s.name())}</b> (weight ${s.weight()}): " +
+                    s.steps().joinToString(" → ") { StringUtil.escapeXmlEntities(it.name) }
+        }
+        val dialog = LoadTestDialog(initial, null, folder.name, summary)
+        if (!dialog.showAndGet()) return
+        val config = dialog.toConfig()
+        if (dialog.saveToFolder) folder.loadProfile = dialog.toProfile()
+
+        val feeder = try {
+            LoadTestLauncher.openFeeder(project, dialog.toProfile())
+        } catch (e: IOException) {
+            Messages.showErrorDialog("Cannot open data file: ${e.message}", "Load Test Folder")
+            return
+        }
+        val envService = EnvService.getInstance(project)
+        val transport = HttpClientRegistry.getInstance(project).getDirectTransport(envService.selectedEnv)
+        val workload = try {
+            ScenarioWorkload(transport, scenarios, VariableScope.snapshot(envService.snapshot().variables()), config.timeout(), feeder)
+        } catch (e: IllegalArgumentException) {
+            Messages.showErrorDialog(e.message, "Load Test Folder")
+            return
+        }
+        LoadTestLauncher.launch(project, LoadEngine(workload, config), "Scenario ${folder.name}", folder.name, "iterations")
+    }
+
     private fun filterTree(query: String) {
         val root = treeModel.root as DefaultMutableTreeNode
         root.removeAllChildren()
@@ -8,6 +8,7 @@ import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory
 import com.intellij.openapi.fileChooser.FileChooserFactory // [新增]
 import com.intellij.openapi.fileChooser.FileSaverDescriptor // [新增]
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.ui.ComboBox
 import com.intellij.openapi.ui.DialogWrapper
 import com.intellij.openapi.ui.Messages
 import com.intellij.openapi.vfs.VirtualFile // [新增]
@@ -21,10 +22,13 @@ import com.intellij.ui.table.JBTable
 import com.intellij.util.ui.JBUI
 import com.phil.rest.model.RestEnv
 import com.phil.rest.service.EnvService
+import com.phil.rest.service.HttpClientRegistry
 import com.phil.rest.service.PostmanExportService // [新增]
 import java.awt.BorderLayout
+import java.awt.FlowLayout
 import javax.swing.DefaultListModel
 import javax.swing.JComponent
+import javax.swing.JLabel
 import javax.swing.JList
 import javax.swing.JPanel
 import javax.swing.event.TableModelEvent
@@ -40,6 +44,12 @@ class EnvManagerDialog(private val project: Project) : DialogWrapper(true) {
     private val varTableModel = DefaultTableModel(arrayOf("Variable", "Value"), 0)
     private val varTable = JBTable(varTableModel)
 
+    // [新增] 连接设置 (协议 / TLS / 重定向)，Globals 不参与选择所以禁用
+    private val protocolCombo = ComboBox(RestEnv.Protocol.values())
+    private val tlsCombo = ComboBox(RestEnv.TlsMode.values())
+    private val redirectCombo = ComboBox(RestEnv.RedirectPolicy.values())
+    private val engineCombo = ComboBox(RestEnv.TransportEngine.values())
+
     private var isLoading = false
 
     init {
@@ -76,6 +86,11 @@ class EnvManagerDialog(private val project: Project) : DialogWrapper(true) {
             }
         }
 
+        protocolCombo.addActionListener { saveConnectionSettings() }
+        tlsCombo.addActionListener { saveConnectionSettings() }
+        redirectCombo.addActionListener { saveConnectionSettings() }
+        engineCombo.addActionListener { saveConnectionSettings() }
+
         envList.selectedIndex = 0
     }
 
@@ -89,9 +104,32 @@ class EnvManagerDialog(private val project: Project) : DialogWrapper(true) {
         selectedEnv.variables.forEach { (k, v) ->
             varTableModel.addRow(arrayOf(k, v))
         }
+
+        val isGlobal = selectedEnv == service.globalEnv
+        protocolCombo.item = selectedEnv.protocol ?: RestEnv.Protocol.HTTP_1_1
+        tlsCombo.item = selectedEnv.tlsMode ?: RestEnv.TlsMode.INSECURE
+        redirectCombo.item = selectedEnv.redirectPolicy ?: RestEnv.RedirectPolicy.NORMAL
+        engineCombo.item = selectedEnv.engine ?: RestEnv.TransportEngine.JDK
+        protocolCombo.isEnabled = !isGlobal
+        tlsCombo.isEnabled = !isGlobal
+        redirectCombo.isEnabled = !isGlobal
+        engineCombo.isEnabled = !isGlobal
         isLoading = false
     }
 
+    private fun saveConnectionSettings() {
+        if (isLoading) return
+        val selectedEnv = envList.selectedValue ?: return
+        if (selectedEnv == service.globalEnv) return
+        // 下一次请求时 HttpClientRegistry 会按新的 key 创建引擎，并关闭旧的
+        service.update(selectedEnv) {
+            it.protocol = protocolCombo.item
+            it.tlsMode = tlsCombo.item
+            it.redirectPolicy = redirectCombo.item
+            it.engine = engineCombo.item
+        }
+    }
+
     private fun saveCurrentTableToEnv() {
         val selectedEnv = envList.selectedValue ?: return
 
@@ -103,7 +141,8 @@ class EnvManagerDialog(private val project: Project) : DialogWrapper(true) {
                 newMap[k] = v ?: ""
             }
         }
-        selectedEnv.variables = newMap
+        // 通过服务写入，发布新快照；正在发送的请求继续用旧快照
+        service.setVariables(selectedEnv, newMap)
     }
 
     override fun createCenterPanel(): JComponent {
@@ -126,6 +165,7 @@ class EnvManagerDialog(private val project: Project) : DialogWrapper(true) {
 
                 if (selected != null && Messages.showYesNoDialog("Delete environment '${selected.name}'?", "Confirm Delete", Messages.getQuestionIcon()) == Messages.YES) {
                     service.removeEnv(selected)
+                    HttpClientRegistry.getInstance(project).invalidate(selected.id)
                     envListModel.removeElement(selected)
                     if (service.selectedEnv == selected) {
                         service.selectedEnv = null
@@ -174,9 +214,23 @@ class EnvManagerDialog(private val project: Project) : DialogWrapper(true) {
                 }
             }
 
+        val connectionPanel = JPanel(FlowLayout(FlowLayout.LEFT, 8, 4))
+        connectionPanel.add(JLabel("Protocol:"))
+        connectionPanel.add(protocolCombo)
+        connectionPanel.add(JLabel("TLS:"))
+        connectionPanel.add(tlsCombo)
+        connectionPanel.add(JLabel("Redirects:"))
+        connectionPanel.add(redirectCombo)
+        connectionPanel.add(JLabel("Engine:"))
+        connectionPanel.add(engineCombo)
+
+        val rightPanel = JPanel(BorderLayout())
+        rightPanel.add(tableDecorator.createPanel(), BorderLayout.CENTER)
+        rightPanel.add(connectionPanel, BorderLayout.SOUTH)
+
         val splitter = OnePixelSplitter(false, 0.3f)
         splitter.firstComponent = listDecorator.createPanel()
-        splitter.secondComponent = tableDecorator.createPanel()
+        splitter.secondComponent = rightPanel
         splitter.preferredSize = JBUI.size(700, 450)
 
         return splitter
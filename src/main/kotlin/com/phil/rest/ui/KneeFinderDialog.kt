@@ -0,0 +1,75 @@
+package com.phil.rest.ui
+
+import com.intellij.openapi.ui.DialogWrapper
+import com.intellij.ui.dsl.builder.*
+import com.phil.rest.service.load.KneeFinder
+import java.time.Duration
+import javax.swing.JComponent
+
+/**
+ * 拐点探测参数：从起始速率开始每级乘以一个倍数，直到 SLO / 错误预算 / 吞吐其中之一被打破
+ */
+class KneeFinderDialog : DialogWrapper(true) {
+
+    var startRps: Int = 10
+    var growthPercent: Int = 50
+    var maxRps: Int = 10_000
+    var stepSeconds: Int = 20
+    var sloPercentile: Double = 99.0
+    var sloMillis: Int = 200
+    var errorBudgetPercent: Double = 1.0
+    var refineSteps: Int = 3
+    var maxInFlight: Int = 1_000
+    var timeoutSeconds: Int = 5
+
+    init {
+        title = "Find Knee"
+        init()
+    }
+
+    override fun createCenterPanel(): JComponent {
+        return panel {
+            row {
+                comment("Runs a series of constant-rate Blasts, raising the rate after each level, until the latency SLO " +
+                        "or error budget is broken or throughput stops keeping up. Then narrows down the limit.")
+            }
+            group("Rate") {
+                row("Start (req/s):") { spinner(1..1_000_000, 10).bindIntValue(::startRps).focused() }
+                row("Increase per level (%):") { spinner(5..400, 10).bindIntValue(::growthPercent) }
+                row("Stop at (req/s):") { spinner(1..10_000_000, 100).bindIntValue(::maxRps) }
+                row("Level duration (s):") {
+                    spinner(2..3_600, 5).bindIntValue(::stepSeconds)
+                        .comment("Long enough for the server to settle; the tail needs samples")
+                }
+                row("Refinement levels:") {
+                    spinner(0..10, 1).bindIntValue(::refineSteps)
+                        .comment("Bisections between the last passing and the first failing rate")
+                }
+            }
+            group("Limits") {
+                row("Latency SLO:") {
+                    comboBox(listOf(50.0, 90.0, 95.0, 99.0, 99.9)).bindItem(::sloPercentile.toNullableProperty())
+                        .label("P")
+                    spinner(1..600_000, 10).bindIntValue(::sloMillis).label("<")
+                    label("ms")
+                }
+                row("Error budget (%):") { spinner(0.0..100.0, 0.1).bindValue(::errorBudgetPercent) }
+            }
+            row("Max in-flight:") { spinner(1..1_000_000, 100).bindIntValue(::maxInFlight) }
+            row("Request timeout (s):") { spinner(1..3_600, 5).bindIntValue(::timeoutSeconds) }
+        }
+    }
+
+    fun toSettings(): KneeFinder.Settings = KneeFinder.Settings(
+        startRps.toDouble(),
+        1 + growthPercent / 100.0,
+        maxOf(maxRps, startRps).toDouble(),
+        Duration.ofSeconds(stepSeconds.toLong()),
+        sloPercentile,
+        sloMillis * 1_000_000L,
+        errorBudgetPercent / 100,
+        refineSteps,
+        maxInFlight,
+        Duration.ofSeconds(timeoutSeconds.toLong())
+    )
+}
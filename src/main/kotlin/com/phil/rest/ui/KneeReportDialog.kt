@@ -0,0 +1,103 @@
+package com.phil.rest.ui
+
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.ui.DialogWrapper
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.ui.components.JBLabel
+import com.intellij.ui.components.JBScrollPane
+import com.intellij.util.ui.JBUI
+import com.phil.rest.service.load.KneeFinder
+import com.phil.rest.service.load.LoadRegression
+import com.phil.rest.ui.component.LatencyDistributionChart
+import javax.swing.Action
+import javax.swing.JComponent
+
+/**
+ * 拐点探测报告：最大可持续吞吐、拐点位置、停止原因，以及每一级的目标 / 实际吞吐、延迟和错误率
+ */
+class KneeReportDialog(private val project: Project, private val label: String, private val result: KneeFinder.Result) :
+    DialogWrapper(project, false) {
+
+    init {
+        title = "Knee Report" + if (result.cancelled()) " (cancelled)" else ""
+        isModal = false
+        init()
+    }
+
+    override fun createActions(): Array<Action> = arrayOf(okAction)
+
+    override fun createCenterPanel(): JComponent {
+        val label = JBLabel(html()).apply {
+            border = JBUI.Borders.empty(4)
+            setCopyable(true)
+        }
+        return JBScrollPane(label).apply {
+            border = JBUI.Borders.empty()
+            preferredSize = JBUI.size(640, 420)
+        }
+    }
+
+    private fun html(): String = buildString {
+        val s = result.settings()
+        val slo = "P${LoadRegression.formatPercentile(s.sloPercentile())} &lt; " +
+                LatencyDistributionChart.formatNanos(s.sloLatencyNanos())
+        append("<html>")
+        append("<b>${StringUtil.escapeXmlEntities(label)}</b><br>")
+        append("<b>Limits:</b> $slo, errors ≤ ${"%.2f".format(s.errorBudget() * 100)}%, ")
+        append("achieved ≥ ${(KneeFinder.MIN_ACHIEVED_RATIO * 100).toInt()}% of target<br><br>")
+
+        val sustainable = result.sustainable()
+        append("<b>Max sustainable throughput:</b> ")
+        if (sustainable != null) {
+            append("<span style='color:green'><b>${"%.1f".format(sustainable.result().achievedRps())} req/s</b></span>")
+            append(" (at ${"%.1f".format(sustainable.targetRps())} req/s offered)")
+        } else {
+            append("<span style='color:red'>none, the first level already broke the limits</span>")
+        }
+        append("<br><b>Knee:</b> ")
+        val knee = result.knee()
+        if (knee != null) {
+            append("${"%.1f".format(knee.targetRps())} req/s, P${LoadRegression.formatPercentile(s.sloPercentile())} ")
+            append(LatencyDistributionChart.formatNanos(knee.latencyNanos()))
+            append(" <small>(latency starts rising faster than load beyond this point)</small>")
+        } else {
+            append("not found <small>(too few passing levels or latency stayed flat)</small>")
+        }
+        append("<br><b>Stopped by:</b> ")
+        append(when {
+            result.cancelled() -> "cancelled"
+            result.stoppedBy() == null -> "reached ${"%.0f".format(s.maxRps())} req/s within limits"
+            else -> describe(result.stoppedBy()!!)
+        })
+
+        val peak = result.steps().maxOfOrNull { it.result().achievedRps() } ?: 0.0
+        append("<br>").append(LoadReportDialog.calibrationHtml(project, peak))
+
+        append("<br><br><table cellspacing='0' cellpadding='3'><tr><th>Offered</th><th>Achieved</th>")
+        append("<th>P50</th><th>P${LoadRegression.formatPercentile(s.sloPercentile())}</th><th>Errors</th><th></th></tr>")
+        for (step in result.steps()) {
+            val r = step.result()
+            val color = if (step.passed()) "green" else "red"
+            val mark = when {
+                step === knee -> " ◆ knee"
+                step === sustainable -> " ★ max"
+                else -> ""
+            }
+            append("<tr><td align='right'>${"%.1f".format(step.targetRps())}/s</td>")
+            append("<td align='right'>${"%.1f".format(r.achievedRps())}/s</td>")
+            append("<td align='right'>${LatencyDistributionChart.formatNanos(r.latency().valueAtPercentile(50.0))}</td>")
+            append("<td align='right'>${LatencyDistributionChart.formatNanos(step.latencyNanos())}</td>")
+            append("<td align='right'>${"%.2f".format(r.errorRate() * 100)}%</td>")
+            append("<td><span style='color:$color'>${if (step.passed()) "pass" else describe(step.broken()!!)}</span>$mark</td></tr>")
+        }
+        append("</table>")
+        append("<br><small>Latency is measured from the scheduled send time (corrected for coordinated omission).</small>")
+        append("</html>")
+    }
+
+    private fun describe(limit: KneeFinder.Limit): String = when (limit) {
+        KneeFinder.Limit.LATENCY -> "latency SLO broken"
+        KneeFinder.Limit.ERRORS -> "error budget exceeded"
+        KneeFinder.Limit.THROUGHPUT -> "throughput fell behind"
+    }
+}
@@ -0,0 +1,190 @@
+package com.phil.rest.ui
+
+import com.intellij.icons.AllIcons
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.actionSystem.ActionManager
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.actionSystem.DefaultActionGroup
+import com.intellij.openapi.project.DumbAwareAction
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.ui.SimpleToolWindowPanel
+import com.intellij.openapi.wm.ToolWindowManager
+import com.intellij.ui.JBColor
+import com.intellij.ui.components.JBLabel
+import com.intellij.util.ui.JBUI
+import com.phil.rest.model.RestEnv
+import com.phil.rest.service.EnvService
+import com.phil.rest.service.LoadTestService
+import com.phil.rest.service.load.LoadGenerator
+import com.phil.rest.service.load.LoadResult
+import com.phil.rest.service.load.LoadTimeSeries
+import com.phil.rest.ui.component.LatencyDistributionChart
+import com.phil.rest.ui.component.TimeSeriesChart
+import java.awt.BorderLayout
+import java.awt.Color
+import java.awt.GridLayout
+import javax.swing.JPanel
+import javax.swing.Timer
+
+/**
+ * 压测实时面板 (工具窗口的 Load 标签页)：逐秒吞吐、延迟百分位、在途请求数、错误率。
+ * <p>
+ * 数据来自压测引擎的定长环形缓冲，面板按固定帧率轮询，只有新数据到达时才重绘；
+ * 压测线程不会往 EDT 投递任何事件，压测跑多久内存和 EDT 负载都不变。
+ */
+class LoadDashboardPanel(private val project: Project) : SimpleToolWindowPanel(true, true), Disposable {
+
+    private val service = LoadTestService.getInstance(project)
+
+    private val statusLabel = JBLabel("No load test running. Start one with Blast Mode.").apply {
+        border = JBUI.Borders.empty(6, 10)
+    }
+    private val rpsChart = TimeSeriesChart("Throughput") { "%.0f/s".format(it) }
+    private val latencyChart = TimeSeriesChart("Latency") { LatencyDistributionChart.formatNanos(it.toLong()) }
+    private val inFlightChart = TimeSeriesChart("In-flight") { "%.0f".format(it) }
+    private val errorChart = TimeSeriesChart("Error rate") { "%.1f%%".format(it) }
+
+    // 当前展示的压测 (运行中或刚结束的)
+    private var engine: LoadGenerator? = null
+    private var renderedVersion = -1L
+    private val repaintTimer = Timer(1000 / MAX_FPS) { refresh() }
+
+    private val listener = object : LoadTestService.Listener {
+        override fun runStarted(engine: LoadGenerator, label: String) {
+            javax.swing.SwingUtilities.invokeLater { attach(engine) }
+        }
+    }
+
+    init {
+        val charts = JPanel(GridLayout(2, 2, JBUI.scale(4), JBUI.scale(4)))
+        charts.add(rpsChart)
+        charts.add(latencyChart)
+        charts.add(inFlightChart)
+        charts.add(errorChart)
+
+        val content = JPanel(BorderLayout())
+        content.add(statusLabel, BorderLayout.NORTH)
+        content.add(charts, BorderLayout.CENTER)
+        setContent(content)
+
+        val actions = DefaultActionGroup()
+        actions.add(object : DumbAwareAction("Stop", "Stop the running load test", AllIcons.Actions.Suspend) {
+            override fun actionPerformed(e: AnActionEvent) {
+                service.activeEngine?.stop()
+            }
+
+            override fun update(e: AnActionEvent) {
+                e.presentation.isEnabled = service.activeEngine != null
+            }
+
+            override fun getActionUpdateThread() = com.intellij.openapi.actionSystem.ActionUpdateThread.BGT
+        })
+        actions.add(object : DumbAwareAction("Calibrate Client", "Measure this machine's throughput ceiling and latency floor " +
+                "against a built-in echo server", AllIcons.Actions.Lightning) {
+            override fun actionPerformed(e: AnActionEvent) {
+                val current = EnvService.getInstance(project).selectedEnv?.engine ?: RestEnv.TransportEngine.JDK
+                val dialog = CalibrationDialog(current)
+                if (!dialog.showAndGet()) return
+                LoadTestLauncher.calibrate(project, dialog.engine, dialog.payloadBytes)
+            }
+
+            override fun update(e: AnActionEvent) {
+                e.presentation.isEnabled = service.activeEngine == null
+            }
+
+            override fun getActionUpdateThread() = com.intellij.openapi.actionSystem.ActionUpdateThread.BGT
+        })
+        val toolbar = ActionManager.getInstance().createActionToolbar("RestPilotLoadDashboard", actions, true)
+        toolbar.targetComponent = this
+        setToolbar(toolbar.component)
+
+        service.addListener(listener)
+        service.activeEngine?.let { attach(it) }
+    }
+
+    private fun attach(engine: LoadGenerator) {
+        this.engine = engine
+        renderedVersion = -1
+        repaintTimer.start()
+        refresh()
+    }
+
+    private fun refresh() {
+        val engine = engine ?: return
+        val running = service.activeEngine === engine
+        val series = engine.timeSeries
+        val version = series.version()
+
+        val progress = engine.progress()
+        statusLabel.text = if (running) {
+            "Running: ${service.activeLabel}  |  ${progress.elapsedNanos / 1_000_000_000}s, sent ${progress.sent}, " +
+                    "in-flight ${progress.inFlight}, failures ${progress.failures}"
+        } else {
+            val last: LoadResult? = service.lastResult
+            "Finished: ${service.activeLabel}" + (last?.let {
+                "  |  achieved %.1f of %.1f req/s, P99 %s, errors %.2f%%".format(
+                    it.achievedRps(), it.targetRps(),
+                    LatencyDistributionChart.formatNanos(it.latency().valueAtPercentile(99.0)), it.errorRate() * 100)
+            } ?: "")
+        }
+
+        if (version != renderedVersion) {
+            renderedVersion = version
+            render(series.snapshot())
+        }
+        // 结束后最后一帧已经画完，停止轮询
+        if (!running) repaintTimer.stop()
+    }
+
+    private fun render(samples: List<LoadTimeSeries.Sample>) {
+        val first = samples.firstOrNull()?.second() ?: 0L
+        fun col(f: (LoadTimeSeries.Sample) -> Double) = DoubleArray(samples.size) { f(samples[it]) }
+
+        rpsChart.setSeries(first, listOf(
+            TimeSeriesChart.Series("target", TARGET_COLOR, col { it.targetRps() }, dashed = true),
+            TimeSeriesChart.Series("sent", SENT_COLOR, col { it.sent().toDouble() }),
+            TimeSeriesChart.Series("done", DONE_COLOR, col { it.completed().toDouble() })
+        ))
+        latencyChart.setSeries(first, listOf(
+            TimeSeriesChart.Series("P50", P50_COLOR, col { it.p50Nanos().toDouble() }),
+            TimeSeriesChart.Series("P90", P90_COLOR, col { it.p90Nanos().toDouble() }),
+            TimeSeriesChart.Series("P99", P99_COLOR, col { it.p99Nanos().toDouble() })
+        ))
+        inFlightChart.setSeries(first, listOf(
+            TimeSeriesChart.Series("in-flight", SENT_COLOR, col { it.inFlight().toDouble() })
+        ))
+        errorChart.setSeries(first, listOf(
+            TimeSeriesChart.Series("errors", ERROR_COLOR, col { it.errorRate() * 100 })
+        ))
+    }
+
+    override fun dispose() {
+        repaintTimer.stop()
+        service.removeListener(listener)
+    }
+
+    companion object {
+        const val TAB_NAME = "Load"
+
+        // 数据是逐秒的，4 帧足够看到新秒到达，又不会占用 EDT
+        private const val MAX_FPS = 4
+
+        private val TARGET_COLOR = JBColor.GRAY
+        private val SENT_COLOR = JBColor(Color(33, 150, 243), Color(66, 165, 245))
+        private val DONE_COLOR = JBColor(Color(76, 175, 80), Color(102, 187, 106))
+        private val P50_COLOR = JBColor(Color(76, 175, 80), Color(102, 187, 106))
+        private val P90_COLOR = JBColor(Color(255, 152, 0), Color(255, 167, 38))
+        private val P99_COLOR = JBColor(Color(229, 57, 53), Color(239, 83, 80))
+        private val ERROR_COLOR = JBColor(Color(229, 57, 53), Color(239, 83, 80))
+
+        /**
+         * 打开工具窗口并切到 Load 标签页
+         */
+        fun show(project: Project) {
+            val toolWindow = ToolWindowManager.getInstance(project).getToolWindow("RestPilot") ?: return
+            toolWindow.show {
+                toolWindow.contentManager.findContent(TAB_NAME)?.let { toolWindow.contentManager.setSelectedContent(it) }
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.phil.rest.ui
+
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.ui.DialogWrapper
+import com.intellij.openapi.ui.Messages
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.ui.components.JBLabel
+import com.intellij.util.ui.JBUI
+import com.phil.rest.service.LoadRunStore
+import com.phil.rest.service.RestSettingsService
+import com.phil.rest.service.load.LatencyHistogram
+import com.phil.rest.service.load.LoadRegression
+import com.phil.rest.service.load.LoadResult
+import com.phil.rest.service.load.LoadRun
+import com.phil.rest.service.load.StepResult
+import com.phil.rest.ui.component.LatencyDistributionChart
+import java.awt.BorderLayout
+import java.awt.event.ActionEvent
+import java.io.IOException
+import java.text.SimpleDateFormat
+import java.util.Date
+import javax.swing.Action
+import javax.swing.JComponent
+import javax.swing.JPanel
+
+/**
+ * Blast 报告：吞吐 (目标 vs 实际)、成功 / 失败分开的百分位表、延迟分布图；
+ * 有基线时附上与基线的对比，超过阈值的项标红
+ *
+ * @param run        已保存的压测记录 (保存失败时为 null，此时不能设为基线)
+ * @param comparison 与基线的对比，没有基线时为 null
+ */
+class LoadReportDialog(
+    private val project: Project,
+    private val result: LoadResult,
+    private val run: LoadRun? = null,
+    private val comparison: LoadRegression.Report? = null
+) : DialogWrapper(project, false) {
+
+    private val pinAction = object : DialogWrapperAction("Pin as Baseline") {
+        override fun doAction(e: ActionEvent?) {
+            val saved = run ?: return
+            try {
+                LoadRunStore.getInstance(project).pinBaseline(saved)
+                isEnabled = false
+                putValue(NAME, "Baseline Pinned")
+            } catch (ex: IOException) {
+                Messages.showErrorDialog(project, "Cannot pin baseline: ${ex.message}", "Blast Report")
+            }
+        }
+    }
+
+    init {
+        title = "Blast Report" + if (result.cancelled()) " (cancelled)" else ""
+        isModal = false
+        pinAction.isEnabled = run != null
+        init()
+    }
+
+    override fun createActions(): Array<Action> = arrayOf(pinAction, okAction)
+
+    override fun createCenterPanel(): JComponent {
+        val panel = JPanel(BorderLayout(0, JBUI.scale(8)))
+        panel.add(JBLabel(summaryHtml()), BorderLayout.NORTH)
+        val chart = LatencyDistributionChart()
+        chart.setHistograms(result.successLatency(), result.failureLatency())
+        panel.add(chart, BorderLayout.CENTER)
+        panel.add(JBLabel("<html><small>Latency is measured from the scheduled send time (corrected for coordinated omission); " +
+                "service time is measured from the actual send.</small></html>"), BorderLayout.SOUTH)
+        return panel
+    }
+
+    private fun summaryHtml(): String {
+        val r = result
+        // 实际速率明显低于目标时说明本机 / 在途上限 / 服务端成了瓶颈
+        val rateColor = if (r.achievedRps() >= r.targetRps() * 0.95) "green" else "orange"
+        // 场景压测时一次 "请求" 是一个虚拟用户跑完整个场景
+        val unit = if (r.steps().isEmpty()) "req" else "iterations"
+        return buildString {
+            append("<html>")
+            append("<b>Target Rate (avg):</b> ${"%.1f".format(r.targetRps())} $unit/s &nbsp; ")
+            append("<b>Achieved:</b> <span style='color:$rateColor'>${"%.1f".format(r.achievedRps())} $unit/s</span> ")
+            append("(sent ${"%.1f".format(r.sentRps())} $unit/s)<br>")
+            append(if (r.steps().isEmpty()) "<b>Requests:</b> " else "<b>Iterations:</b> ")
+            append("${r.sent()} sent of ${r.planned()} planned &nbsp; ")
+            append("<b>Success:</b> <span style='color:green'>${r.succeeded()}</span> &nbsp; ")
+            append("<b>Failed:</b> <span style='color:red'>${r.failed()}</span> &nbsp; ")
+            append("<b>Errors:</b> <span style='color:red'>${r.errors()}</span> &nbsp; ")
+            append("<b>Max Send Lag:</b> ${LatencyDistributionChart.formatNanos(r.maxLagNanos())}<br><br>")
+
+            append("<table cellspacing='0' cellpadding='3'><tr><th align='left'></th><th>Count</th><th>Mean</th>")
+            LoadResult.PERCENTILES.forEach { append("<th>P${formatPercentile(it)}</th>") }
+            append("<th>Max</th></tr>")
+            row("All", r.latency())
+            row("Success", r.successLatency())
+            row("Failure", r.failureLatency())
+            row("Service time", r.serviceTime())
+            append("</table>")
+            if (r.steps().isNotEmpty()) stepTable(r.steps())
+            // 场景压测按实际发出的请求数算，与校准的请求吞吐可比
+            val requestRps = if (r.steps().isEmpty()) r.achievedRps()
+            else if (r.elapsedNanos() > 0) r.steps().sumOf { it.completed() } * 1e9 / r.elapsedNanos() else 0.0
+            append("<br>").append(calibrationHtml(project, requestRps))
+            comparison?.let { append("<br>").append(comparisonHtml(it)) }
+            append("</html>")
+        }
+    }
+
+    /** 场景压测的逐步统计：每一步自己的发送数、错误率和 service time 百分位 */
+    private fun StringBuilder.stepTable(steps: List<StepResult>) {
+        append("<br><b>Steps</b> <small>(time from the step's actual send)</small>")
+        append("<table cellspacing='0' cellpadding='3'><tr><th align='left'>Scenario</th><th align='left'>Step</th>")
+        append("<th>Sent</th><th>Errors</th>")
+        LoadResult.PERCENTILES.forEach { append("<th>P${formatPercentile(it)}</th>") }
+        append("<th>Max</th></tr>")
+        for (step in steps) {
+            val h = step.latency()
+            val errorColor = if (step.errorRate() > 0) "red" else "green"
+            append("<tr><td>${StringUtil.escapeXmlEntities(step.scenario())}</td><td><b>${StringUtil.escapeXmlEntities(step.step())}</b></td>")
+            append("<td align='right'>${step.sent()}</td>")
+            append("<td align='right'><span style='color:$errorColor'>${"%.1f".format(step.errorRate() * 100)}%</span></td>")
+            if (h.totalCount == 0L) {
+                repeat(LoadResult.PERCENTILES.size + 1) { append("<td align='right'>-</td>") }
+            } else {
+                LoadResult.PERCENTILES.forEach { append("<td align='right'>${LatencyDistributionChart.formatNanos(h.valueAtPercentile(it))}</td>") }
+                append("<td align='right'>${LatencyDistributionChart.formatNanos(h.max)}</td>")
+            }
+            append("</tr>")
+        }
+        append("</table>")
+    }
+
+    private fun StringBuilder.row(name: String, h: LatencyHistogram) {
+        append("<tr><td><b>$name</b></td><td align='right'>${h.totalCount}</td>")
+        if (h.totalCount == 0L) {
+            repeat(LoadResult.PERCENTILES.size + 2) { append("<td align='right'>-</td>") }
+        } else {
+            append("<td align='right'>${LatencyDistributionChart.formatNanos(h.mean.toLong())}</td>")
+            LoadResult.PERCENTILES.forEach { append("<td align='right'>${LatencyDistributionChart.formatNanos(h.valueAtPercentile(it))}</td>") }
+            append("<td align='right'>${LatencyDistributionChart.formatNanos(h.max)}</td>")
+        }
+        append("</tr>")
+    }
+
+    private fun formatPercentile(p: Double): String = if (p == Math.floor(p)) p.toInt().toString() else p.toString()
+
+    companion object {
+        /**
+         * 与基线的对比表 (不含 &lt;html&gt;)，运行记录面板也用它
+         */
+        fun comparisonHtml(report: LoadRegression.Report): String = buildString {
+            val verdict = if (report.regressed()) "<span style='color:red'><b>REGRESSION</b></span>"
+            else "<span style='color:green'><b>OK</b></span>"
+            append("<b>vs baseline</b> ${StringUtil.escapeXmlEntities(describe(report.baseline()))}: $verdict")
+            append("<table cellspacing='0' cellpadding='3'><tr><th align='left'></th><th>Baseline</th><th>This run</th>")
+            append("<th>Delta</th><th>Limit</th></tr>")
+            for (c in report.checks()) {
+                val color = when {
+                    c.regressed() -> "red"
+                    // 延迟 / 错误率下降、吞吐上升都算改善
+                    (if (c.metric() == "Throughput") c.delta() > 0 else c.delta() < 0) -> "green"
+                    else -> "gray"
+                }
+                val pointUnit = if (c.metric() == "Error rate") " pt" else "%"
+                append("<tr><td><b>${c.metric()}</b></td>")
+                append("<td align='right'>${formatValue(c, c.baseline())}</td><td align='right'>${formatValue(c, c.candidate())}</td>")
+                append("<td align='right'><span style='color:$color'>${"%+.1f".format(c.delta())}$pointUnit</span></td>")
+                append("<td align='right'>${"%.1f".format(c.limit())}$pointUnit</td></tr>")
+            }
+            append("</table>")
+        }
+
+        /**
+         * 本机客户端上限 (最近一次校准) 一行 (不含 &lt;html&gt;)；吞吐接近上限时提示结果可能受本机限制
+         *
+         * @param requestRps 本次实际的请求吞吐
+         */
+        fun calibrationHtml(project: Project, requestRps: Double): String = buildString {
+            append("<b>Client ceiling:</b> ")
+            val c = RestSettingsService.getInstance(project).calibration
+            if (c == null) {
+                append("<small>not calibrated yet (Calibrate Client in the Load tab measures this machine's limit)</small>")
+                return@buildString
+            }
+            append(StringUtil.escapeXmlEntities(c.describe()))
+            append(" <small>${SimpleDateFormat("yyyy-MM-dd HH:mm").format(Date(c.measuredAt()))}</small>")
+            if (c.isNearCeiling(requestRps)) {
+                append("<br><span style='color:orange'>This run reached ${"%.0f".format(requestRps / c.maxRps() * 100)}% " +
+                        "of the client ceiling; the limit may be this machine rather than the service.</span>")
+            }
+        }
+
+        fun describe(run: LoadRun): String =
+            SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(Date(run.startedAtMillis())) +
+                    (if (run.env().isNotEmpty()) " [${run.env()}]" else "")
+
+        private fun formatValue(c: LoadRegression.Check, v: Double): String = when {
+            c.latency() -> LatencyDistributionChart.formatNanos(v.toLong())
+            c.metric() == "Error rate" -> "%.2f%%".format(v)
+            else -> "%.1f/s".format(v)
+        }
+    }
+}
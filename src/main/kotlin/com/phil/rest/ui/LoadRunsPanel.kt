@@ -0,0 +1,204 @@
+package com.phil.rest.ui
+
+import com.intellij.icons.AllIcons
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.actionSystem.ActionManager
+import com.intellij.openapi.actionSystem.ActionUpdateThread
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.actionSystem.DefaultActionGroup
+import com.intellij.openapi.project.DumbAwareAction
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.ui.Messages
+import com.intellij.openapi.ui.SimpleToolWindowPanel
+import com.intellij.ui.JBColor
+import com.intellij.ui.JBSplitter
+import com.intellij.ui.components.JBLabel
+import com.intellij.ui.components.JBScrollPane
+import com.intellij.ui.table.JBTable
+import com.intellij.util.ui.JBUI
+import com.phil.rest.service.LoadRunStore
+import com.phil.rest.service.RequestExecutionService
+import com.phil.rest.service.RestSettingsService
+import com.phil.rest.service.load.LoadRegression
+import com.phil.rest.service.load.LoadRun
+import com.phil.rest.ui.component.LatencyDistributionChart
+import com.phil.rest.ui.component.PercentileCurveChart
+import java.awt.BorderLayout
+import java.awt.Color
+import java.io.IOException
+import java.text.SimpleDateFormat
+import java.util.Date
+import javax.swing.JPanel
+import javax.swing.ListSelectionModel
+import javax.swing.SwingUtilities
+import javax.swing.table.DefaultTableModel
+
+/**
+ * 历史压测记录 (工具窗口的 Runs 标签页)：
+ * 选中一条时与它的基线叠加对比，选中两条时旧的作为基准、新的作为候选逐项对比百分位
+ */
+class LoadRunsPanel(private val project: Project) : SimpleToolWindowPanel(true, true), Disposable {
+
+    private val store = LoadRunStore.getInstance(project)
+
+    private var runs: List<LoadRun> = emptyList()
+    private var baselineIds: Set<String> = emptySet()
+
+    private val tableModel = object : DefaultTableModel(COLUMNS, 0) {
+        override fun isCellEditable(row: Int, column: Int) = false
+    }
+    private val table = JBTable(tableModel).apply {
+        setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION)
+        emptyText.text = "No saved load tests yet"
+    }
+    private val chart = PercentileCurveChart()
+    private val deltaLabel = JBLabel().apply {
+        border = JBUI.Borders.empty(6, 10)
+        setCopyable(true)
+    }
+
+    private val listener = LoadRunStore.Listener { reload() }
+
+    init {
+        table.selectionModel.addListSelectionListener { if (!it.valueIsAdjusting) selectionChanged() }
+
+        val details = JPanel(BorderLayout())
+        details.add(chart, BorderLayout.CENTER)
+        details.add(JBScrollPane(deltaLabel).apply { border = JBUI.Borders.empty() }, BorderLayout.SOUTH)
+
+        val splitter = JBSplitter(true, 0.4f)
+        splitter.firstComponent = JBScrollPane(table)
+        splitter.secondComponent = details
+        setContent(splitter)
+
+        val actions = DefaultActionGroup()
+        actions.add(object : DumbAwareAction("Refresh", "Reload saved load tests", AllIcons.Actions.Refresh) {
+            override fun actionPerformed(e: AnActionEvent) = reload()
+        })
+        actions.add(object : DumbAwareAction("Pin as Baseline", "Use the selected run as the baseline for its name", AllIcons.Nodes.Favorite) {
+            override fun actionPerformed(e: AnActionEvent) {
+                val run = selectedRuns().singleOrNull() ?: return
+                try {
+                    if (run.id() in baselineIds) store.unpinBaseline(run.label()) else store.pinBaseline(run)
+                } catch (ex: IOException) {
+                    Messages.showErrorDialog(project, ex.message ?: ex.toString(), "Baseline")
+                }
+            }
+
+            override fun update(e: AnActionEvent) {
+                val run = selectedRuns().singleOrNull()
+                e.presentation.isEnabled = run != null
+                e.presentation.text = if (run != null && run.id() in baselineIds) "Unpin Baseline" else "Pin as Baseline"
+            }
+
+            override fun getActionUpdateThread() = ActionUpdateThread.EDT
+        })
+        actions.add(object : DumbAwareAction("Delete", "Delete the selected runs", AllIcons.General.Remove) {
+            override fun actionPerformed(e: AnActionEvent) {
+                val selected = selectedRuns()
+                if (selected.isEmpty()) return
+                val answer = Messages.showYesNoDialog(project, "Delete ${selected.size} saved load test(s)?",
+                    "Delete Runs", Messages.getQuestionIcon())
+                if (answer != Messages.YES) return
+                RequestExecutionService.getInstance(project).execute { selected.forEach { store.delete(it.id()) } }
+            }
+
+            override fun update(e: AnActionEvent) {
+                e.presentation.isEnabled = table.selectedRowCount > 0
+            }
+
+            override fun getActionUpdateThread() = ActionUpdateThread.EDT
+        })
+        val toolbar = ActionManager.getInstance().createActionToolbar("RestPilotLoadRuns", actions, true)
+        toolbar.targetComponent = this
+        setToolbar(toolbar.component)
+
+        store.addListener(listener)
+        reload()
+    }
+
+    /** 读文件放到后台线程，读完回 EDT 刷新表格 */
+    private fun reload() {
+        RequestExecutionService.getInstance(project).execute {
+            val loaded = store.list()
+            val baselines = loaded.map { it.label() }.distinct().mapNotNull { store.getBaselineId(it) }.toSet()
+            SwingUtilities.invokeLater {
+                if (!project.isDisposed) render(loaded, baselines)
+            }
+        }
+    }
+
+    private fun render(loaded: List<LoadRun>, baselines: Set<String>) {
+        val selectedIds = selectedRuns().map { it.id() }.toSet()
+        runs = loaded
+        baselineIds = baselines
+        tableModel.rowCount = 0
+        val format = SimpleDateFormat("yyyy-MM-dd HH:mm:ss")
+        for (run in loaded) {
+            val r = run.result()
+            tableModel.addRow(arrayOf(
+                format.format(Date(run.startedAtMillis())),
+                run.label(),
+                run.env(),
+                "%.1f/s".format(r.targetRps()),
+                "%.1f/s".format(r.achievedRps()),
+                LatencyDistributionChart.formatNanos(r.latency().valueAtPercentile(50.0)),
+                LatencyDistributionChart.formatNanos(r.latency().valueAtPercentile(99.0)),
+                "%.2f%%".format(r.errorRate() * 100),
+                if (run.id() in baselines) "★" else ""
+            ))
+        }
+        // 刷新后保持原来的选中
+        loaded.forEachIndexed { i, run -> if (run.id() in selectedIds) table.addRowSelectionInterval(i, i) }
+        selectionChanged()
+    }
+
+    private fun selectedRuns(): List<LoadRun> = table.selectedRows.filter { it < runs.size }.map { runs[it] }
+
+    private fun selectionChanged() {
+        val selected = selectedRuns()
+        val thresholds = RestSettingsService.getInstance(project).regressionThresholds
+        when (selected.size) {
+            1 -> {
+                val run = selected[0]
+                val baseline = runs.firstOrNull { it.label() == run.label() && it.id() in baselineIds && it.id() != run.id() }
+                if (baseline == null) {
+                    chart.setCurves(listOf(curve(run, CANDIDATE_COLOR, false)))
+                    deltaLabel.text = if (run.id() in baselineIds) "This run is the baseline for ${run.label()}"
+                    else "No baseline pinned for ${run.label()}"
+                } else {
+                    compare(baseline, run, thresholds)
+                }
+            }
+            2 -> {
+                // 列表按时间倒序，后一个是更早的那次
+                compare(selected[1], selected[0], thresholds)
+            }
+            else -> {
+                chart.setCurves(emptyList())
+                deltaLabel.text = if (selected.isEmpty()) "" else "Select one or two runs to compare"
+            }
+        }
+    }
+
+    private fun compare(baseline: LoadRun, candidate: LoadRun, thresholds: LoadRegression.Thresholds) {
+        chart.setCurves(listOf(curve(baseline, BASELINE_COLOR, true), curve(candidate, CANDIDATE_COLOR, false)))
+        deltaLabel.text = "<html>" + LoadReportDialog.comparisonHtml(LoadRegression.compare(baseline, candidate, thresholds)) + "</html>"
+    }
+
+    private fun curve(run: LoadRun, color: Color, dashed: Boolean) =
+        PercentileCurveChart.Curve("${run.label()} ${LoadReportDialog.describe(run)}", color, run.result().latency(), dashed)
+
+    override fun dispose() {
+        store.removeListener(listener)
+    }
+
+    companion object {
+        const val TAB_NAME = "Runs"
+
+        private val COLUMNS = arrayOf("Time", "Name", "Env", "Target", "Achieved", "P50", "P99", "Errors", "Baseline")
+
+        private val BASELINE_COLOR = JBColor.GRAY
+        private val CANDIDATE_COLOR = JBColor(Color(33, 150, 243), Color(66, 165, 245))
+    }
+}
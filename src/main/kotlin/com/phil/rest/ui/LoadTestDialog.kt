@@ -0,0 +1,124 @@
+package com.phil.rest.ui
+
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory
+import com.intellij.openapi.ui.DialogWrapper
+import com.intellij.openapi.ui.ValidationInfo
+import com.intellij.ui.dsl.builder.*
+import com.phil.rest.model.LoadProfile
+import com.phil.rest.service.load.LoadConfig
+import com.phil.rest.service.load.RateProfile
+import java.time.Duration
+import javax.swing.JComponent
+
+/**
+ * Blast Mode 参数：按阶段描述的到达率曲线发送 (开放模型)，而不是固定几个并发用户循环。
+ * 配置可以记到当前请求或所在文件夹上，下次打开自动带出
+ *
+ * @param requestName 当前请求已保存时的名字，否则为 null (不能记到请求上)
+ * @param folderName  当前请求所在文件夹，没有时为 null
+ * @param scenarioSummary 文件夹场景压测时展示的场景 / 步骤说明 (HTML)，单请求时为 null
+ */
+class LoadTestDialog(
+    initial: LoadProfile,
+    private val requestName: String?,
+    private val folderName: String?,
+    private val scenarioSummary: String? = null
+) : DialogWrapper(true) {
+
+    var stagesText: String = initial.stagesToText()
+    var maxInFlight: Int = initial.maxInFlight
+    var timeoutSeconds: Int = initial.timeoutSeconds
+    var workers: Int = if (scenarioSummary != null) 0 else initial.workers
+    var feederPath: String = initial.feederPath ?: ""
+    var feederStrategy: LoadProfile.FeederStrategy = initial.feederStrategy ?: LoadProfile.FeederStrategy.CIRCULAR
+    var saveToRequest: Boolean = requestName != null
+    var saveToFolder: Boolean = false
+
+    init {
+        title = "Blast Mode 🚀"
+        init()
+    }
+
+    override fun createCenterPanel(): JComponent {
+        return panel {
+            if (scenarioSummary != null) {
+                row {
+                    comment("Each arrival starts a virtual user that runs one scenario, picked by weight. " +
+                            "Extracted variables stay private to that user.<br>$scenarioSummary")
+                }
+            }
+            row {
+                label("Stages (one per line: ramp|hold|spike|soak <duration> <req/s>):")
+            }
+            row {
+                textArea()
+                    .bindText(::stagesText)
+                    .rows(6)
+                    .columns(COLUMNS_LARGE)
+                    .focused()
+                    .validationOnApply { area ->
+                        try {
+                            LoadProfile.parseStages(area.text)
+                            null
+                        } catch (e: IllegalArgumentException) {
+                            ValidationInfo(e.message ?: "Invalid stages", area)
+                        }
+                    }
+                    .comment("e.g. <code>ramp 60s 500</code>, <code>hold 10m 500</code>, <code>spike 30s 2000</code>, <code>soak 2h 300</code>. " +
+                            "Ramp changes linearly from the previous rate; a spike returns to the previous rate afterwards.")
+            }
+            row("Max in-flight:") {
+                spinner(1..1_000_000, 100).bindIntValue(::maxInFlight)
+                    .comment("When reached, sending is delayed and the delay is counted as latency")
+            }
+            row("Request timeout (s):") {
+                spinner(1..3_600, 5).bindIntValue(::timeoutSeconds)
+            }
+            row("Worker processes:") {
+                spinner(0..64, 1).bindIntValue(::workers)
+                    .enabled(scenarioSummary == null)
+                    .comment("Splits the rate across local JVMs so the IDE stays responsive. " +
+                            "0 runs inside the IDE; not available with data files or scenarios")
+            }
+            row("Data file:") {
+                textFieldWithBrowseButton("Select CSV / JSONL Data File", null,
+                    FileChooserDescriptorFactory.createSingleFileDescriptor())
+                    .bindText(::feederPath)
+                    .columns(COLUMNS_LARGE)
+                    .comment("Optional .csv (with header) or .jsonl file. Each iteration binds one row to <code>{{column}}</code> variables. " +
+                            "Relative paths are resolved against the project root.")
+            }
+            row("Rows:") {
+                comboBox(LoadProfile.FeederStrategy.entries).bindItem(::feederStrategy.toNullableProperty())
+                    .comment("Sequential uses each row once and stops sending when the file is used up")
+            }
+            row {
+                checkBox("Remember for request '${requestName ?: ""}'")
+                    .bindSelected(::saveToRequest)
+                    .enabled(requestName != null)
+            }
+            row {
+                checkBox("Remember for folder '${folderName ?: ""}'")
+                    .bindSelected(::saveToFolder)
+                    .enabled(folderName != null)
+            }
+        }
+    }
+
+    fun toProfile(): LoadProfile {
+        val profile = LoadProfile()
+        profile.stages = LoadProfile.parseStages(stagesText)
+        profile.maxInFlight = maxInFlight
+        profile.timeoutSeconds = timeoutSeconds
+        profile.workers = workers
+        profile.feederPath = feederPath.trim().ifEmpty { null }
+        profile.feederStrategy = feederStrategy
+        return profile
+    }
+
+    fun toConfig(): LoadConfig = LoadConfig(
+        RateProfile.of(toProfile()),
+        maxInFlight,
+        Duration.ofSeconds(timeoutSeconds.toLong())
+    )
+}
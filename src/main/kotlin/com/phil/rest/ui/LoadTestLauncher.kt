@@ -0,0 +1,165 @@
+package com.phil.rest.ui
+
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.progress.Task
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.ui.Messages
+import com.intellij.openapi.util.ThrowableComputable
+import com.phil.rest.model.LoadProfile
+import com.phil.rest.model.RestEnv
+import com.phil.rest.service.EnvService
+import com.phil.rest.service.LoadRunStore
+import com.phil.rest.service.LoadTestService
+import com.phil.rest.service.RestSettingsService
+import com.phil.rest.service.load.Calibration
+import com.phil.rest.service.load.DataFeeder
+import com.phil.rest.service.load.KneeFinder
+import com.phil.rest.service.load.LoadConfig
+import com.phil.rest.service.load.LoadGenerator
+import com.phil.rest.service.load.LoadRegression
+import com.phil.rest.service.load.LoadResult
+import com.phil.rest.service.load.LoadRun
+import java.io.IOException
+import java.nio.file.InvalidPathException
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * 单请求压测与文件夹场景压测共用的启动流程：打开数据文件，打开实时面板，后台任务里跑引擎并刷新进度，
+ * 结束后 (结果已保存) 与基线对比并弹出报告；拐点探测也走这里
+ */
+object LoadTestLauncher {
+
+    /**
+     * 打开配置里的数据文件，建索引时显示模态进度 (大文件要顺序扫描一遍)；没有配置时返回 null
+     *
+     * @throws IOException 文件不存在 / 格式不支持 / 没有数据行
+     */
+    fun openFeeder(project: Project, profile: LoadProfile): DataFeeder? {
+        val configured = profile.feederPath?.takeIf { it.isNotBlank() } ?: return null
+        var path = try { Path.of(configured) } catch (e: InvalidPathException) { throw IOException(e.message, e) }
+        if (!path.isAbsolute && project.basePath != null) path = Path.of(project.basePath!!).resolve(path)
+        val strategy = profile.feederStrategy ?: LoadProfile.FeederStrategy.CIRCULAR
+        return ProgressManager.getInstance().runProcessWithProgressSynchronously(
+            ThrowableComputable<DataFeeder, IOException> { DataFeeder.open(path, strategy) },
+            "Indexing ${path.fileName}...", false, project
+        )
+    }
+
+    /**
+     * @param label  压测名称，同名压测共用一个基线
+     * @param target 目标 URL (场景压测时为文件夹名)
+     * @param unit   进度文字里的计量单位 (单请求为 "req"，场景为 "iterations")
+     */
+    fun launch(project: Project, engine: LoadGenerator, label: String, target: String, unit: String = "req") {
+        val config = engine.config
+        val env = EnvService.getInstance(project).selectedEnv?.name
+        LoadDashboardPanel.show(project)
+        ProgressManager.getInstance().run(object : Task.Backgroundable(project, "Blasting $label...", true) {
+            private var result: LoadResult? = null
+            private var run: LoadRun? = null
+            private var comparison: LoadRegression.Report? = null
+
+            override fun run(indicator: ProgressIndicator) {
+                indicator.isIndeterminate = false
+                val service = LoadTestService.getInstance(project)
+                result = await(engine, service.start(engine, label, target, env), indicator, unit)
+
+                // 有基线时与基线对比 (读文件，放在后台线程)
+                indicator.text = "Comparing with baseline..."
+                val saved = service.lastRun?.takeIf { it.result() === result } ?: return
+                run = saved
+                val baseline = LoadRunStore.getInstance(project).findBaseline(label)
+                if (baseline != null && baseline.id() != saved.id()) {
+                    comparison = LoadRegression.compare(baseline, saved,
+                        RestSettingsService.getInstance(project).regressionThresholds)
+                }
+            }
+
+            override fun onSuccess() {
+                val r = result ?: return
+                LoadReportDialog(project, r, run, comparison).show()
+            }
+
+            override fun onCancel() {
+                engine.stop()
+            }
+        })
+    }
+
+    /**
+     * 拐点探测：逐级创建引擎跑恒定速率压测 (各级只在 Load 面板展示，不单独保存)，结束后弹出拐点报告
+     *
+     * @param engines 按一级的配置创建引擎
+     */
+    fun findKnee(project: Project, settings: KneeFinder.Settings, label: String, engines: (LoadConfig) -> LoadGenerator) {
+        LoadDashboardPanel.show(project)
+        ProgressManager.getInstance().run(object : Task.Backgroundable(project, "Finding knee of $label...", true) {
+            private var result: KneeFinder.Result? = null
+
+            override fun run(indicator: ProgressIndicator) {
+                indicator.isIndeterminate = false
+                val service = LoadTestService.getInstance(project)
+                var level = 0
+                result = KneeFinder.find(settings) { config ->
+                    level++
+                    val engine = engines(config)
+                    val rate = "%.1f".format(config.targetRps())
+                    await(engine, service.startUnsaved(engine, "$label @ $rate req/s"), indicator, "req", "Level $level ($rate req/s): ")
+                }
+            }
+
+            override fun onSuccess() {
+                val r = result ?: return
+                KneeReportDialog(project, label, r).show()
+            }
+        })
+    }
+
+    /**
+     * 客户端校准：对内嵌 echo 服务测本机的吞吐上限和延迟下限 (各级在 Load 面板展示，不保存)，结果记入设置
+     */
+    fun calibrate(project: Project, engine: RestEnv.TransportEngine, payloadBytes: Int) {
+        LoadDashboardPanel.show(project)
+        ProgressManager.getInstance().run(object : Task.Backgroundable(project, "Calibrating client...", true) {
+            private var result: Calibration.Result? = null
+
+            override fun run(indicator: ProgressIndicator) {
+                indicator.isIndeterminate = false
+                val service = LoadTestService.getInstance(project)
+                result = Calibration.run(engine, payloadBytes) { generator, label ->
+                    await(generator, service.startUnsaved(generator, label), indicator, "req", "$label: ")
+                }
+            }
+
+            override fun onSuccess() {
+                val r = result ?: return
+                RestSettingsService.getInstance(project).setCalibration(r)
+                Messages.showInfoMessage(project, "Client ceiling: ${r.describe()}", "Calibration Finished")
+            }
+
+            override fun onThrowable(error: Throwable) {
+                Messages.showErrorDialog(project, "Calibration failed: ${error.message}", "Error")
+            }
+        })
+    }
+
+    /** 等待压测结束并刷新进度；进度被取消时停止引擎 (返回的结果标记为 cancelled) */
+    private fun await(engine: LoadGenerator, future: CompletableFuture<LoadResult>, indicator: ProgressIndicator,
+                      unit: String, prefix: String = ""): LoadResult {
+        val config = engine.config
+        val durationNanos = config.duration().toNanos().toDouble()
+        while (!future.isDone) {
+            if (indicator.isCanceled) engine.stop()
+            val p = engine.progress()
+            indicator.fraction = (p.elapsedNanos / durationNanos).coerceIn(0.0, 1.0)
+            indicator.text = "${prefix}Sent ${p.sent} / ${config.plannedRequests()}, target now ${config.profile().rateAt(p.elapsedNanos).toInt()} $unit/s"
+            indicator.text2 = "In-flight: ${p.inFlight}, Completed: ${p.completed}, Failures: ${p.failures}"
+            try { future.get(250, TimeUnit.MILLISECONDS) } catch (e: TimeoutException) {}
+        }
+        return future.get()
+    }
+}
@@ -20,16 +20,21 @@ import com.intellij.ui.awt.RelativePoint
 import com.intellij.util.ui.JBUI
 import com.phil.rest.model.*
 import com.phil.rest.service.*
+import com.phil.rest.service.load.LoadEngine
+import com.phil.rest.service.load.LoadScenario
+import com.phil.rest.service.load.ScenarioWorkload
+import com.phil.rest.service.load.WorkerCluster
+import com.phil.rest.service.load.WorkerJob
 import com.phil.rest.ui.action.EnvironmentComboAction
 import com.phil.rest.ui.component.GeekAddressBar
 import java.awt.BorderLayout
 import java.awt.datatransfer.StringSelection
+import java.io.IOException
 import java.util.ArrayList
-import java.util.concurrent.Executors
 import java.util.concurrent.atomic.AtomicInteger
-import java.util.concurrent.atomic.AtomicLong
 import javax.swing.JComponent
 import javax.swing.JPanel
+import javax.swing.SwingUtilities
 
 class RequestEditorPanel(
     private val project: Project,
@@ -39,6 +44,8 @@ class RequestEditorPanel(
     private var activeCollectionNode: CollectionNode? = null
 
     private val requestSender = RequestSender(project)
+    // 上传进度 (千分比)，用于节流 UI 刷新
+    private val uploadPermille = AtomicInteger(-1)
 
     private val addressBar = GeekAddressBar(
         project,
@@ -85,6 +92,7 @@ class RequestEditorPanel(
 
     private fun sendRequest() {
         if (addressBar.isBusy) return
+        uploadPermille.set(-1)
 
         val tempRequest = SavedRequest()
         collectData(tempRequest)
@@ -110,93 +118,118 @@ class RequestEditorPanel(
                 if (response.statusCode in 200..299 && tempRequest.extractRules.isNotEmpty()) {
                     showBalloon("Variables Extracted!", MessageType.INFO)
                 }
+            },
+            onUploadProgress = { sent, total ->
+                // 按千分比节流，避免大文件上传时刷爆 EDT
+                val permille = if (total > 0) (sent * 1000 / total).toInt() else 0
+                if (uploadPermille.getAndSet(permille) != permille) {
+                    SwingUtilities.invokeLater { addressBar.setUploadProgress(sent, total) }
+                }
             }
         )
     }
 
     private fun performBlastTest() {
-        val input = Messages.showInputDialog(project, "Enter number of requests (1-100):", "Blast Mode 🚀", Messages.getQuestionIcon(), "10", null)
-        val count = input?.toIntOrNull() ?: return
-        if (count !in 1..100) {
-            Messages.showErrorDialog("Please enter a number between 1 and 100.", "Invalid Input")
-            return
-        }
+        // 压测配置：请求自己的 > 所在文件夹的 > 默认
+        val node = activeCollectionNode
+        val folder = node?.let { CollectionService.getInstance(project).findParent(it) }
+        val initial = node?.request?.loadProfile ?: folder?.loadProfile ?: LoadProfile.defaultProfile()
+        val dialog = LoadTestDialog(initial, node?.request?.let { node.name }, folder?.name)
+        if (!dialog.showAndGet()) return
+        val config = dialog.toConfig()
+        if (dialog.saveToRequest) node?.request?.loadProfile = dialog.toProfile()
+        if (dialog.saveToFolder) folder?.loadProfile = dialog.toProfile()
 
         val tempReq = SavedRequest()
         collectData(tempReq)
         val multipartParams = inputPanel.getMultipartParams()
 
-        val env = EnvService.getInstance(project).selectedEnv
-        fun resolve(s: String?) = s?.let { str ->
-            var res = str
-            env?.variables?.forEach { (k, v) -> res = res.replace("{{$k}}", v) }
-            res
-        } ?: ""
+        // worker 进程里没有数据文件，只能重复发送同一个请求
+        val workers = dialog.workers
+        if (workers > 0 && dialog.feederPath.isNotBlank()) {
+            Messages.showErrorDialog("Worker processes cannot be used with a data file.", "Blast Mode")
+            return
+        }
 
-        val finalUrl = resolve(tempReq.url)
-        val finalBody = resolve(tempReq.bodyContent)
-        val headers = ArrayList<RestParam>()
-        tempReq.headers.forEach { headers.add(RestParam(it.name, resolve(it.value), RestParam.ParamType.HEADER, "String")) }
-
-        val threadPool = Executors.newFixedThreadPool(5)
-        val completed = AtomicInteger(0)
-        val successCount = AtomicInteger(0)
-        val totalTime = AtomicLong(0)
-        val minTime = AtomicLong(Long.MAX_VALUE)
-        val maxTime = AtomicLong(0)
-
-        com.intellij.openapi.progress.ProgressManager.getInstance().run(object : com.intellij.openapi.progress.Task.Backgroundable(project, "Blasting API...", true) {
-            override fun run(indicator: com.intellij.openapi.progress.ProgressIndicator) {
-                val executor = HttpExecutor()
-                val futures = ArrayList<java.util.concurrent.Future<*>>()
-
-                for (i in 1..count) {
-                    if (indicator.isCanceled) break
-                    futures.add(threadPool.submit {
-                        val res = executor.execute(tempReq.method, finalUrl, finalBody, headers, multipartParams)
-
-                        val current = completed.incrementAndGet()
-                        indicator.fraction = current.toDouble() / count
-                        indicator.text = "Request $current / $count"
-
-                        if (res.statusCode in 200..299) {
-                            successCount.incrementAndGet()
-                            totalTime.addAndGet(res.durationMs)
-
-                            var cMin = minTime.get()
-                            while (res.durationMs < cMin && !minTime.compareAndSet(cMin, res.durationMs)) cMin = minTime.get()
-
-                            var cMax = maxTime.get()
-                            while (res.durationMs > cMax && !maxTime.compareAndSet(cMax, res.durationMs)) cMax = maxTime.get()
-                        }
-                    })
+        val envService = EnvService.getInstance(project)
+        val env = envService.selectedEnv
+        val scope = VariableScope.snapshot(envService.snapshot().variables())
+        val feeder = try {
+            LoadTestLauncher.openFeeder(project, dialog.toProfile())
+        } catch (e: IOException) {
+            Messages.showErrorDialog("Cannot open data file: ${e.message}", "Blast Mode")
+            return
+        }
+        // 按当前快照展开一次，压测名称和没有数据文件时发送的请求都用它
+        val prepared = try {
+            PreparedRequest.prepare(tempReq, scope, if (feeder != null) null else multipartParams, config.timeout().seconds,
+                SpillingBodySubscriber.DEFAULT_MEMORY_LIMIT, null)
+        } catch (e: Exception) {
+            Messages.showErrorDialog("Cannot build request: ${e.message}", "Blast Mode")
+            return
+        }
+
+        // 用底层引擎，相同请求不能被合并 / 命中缓存 / 被每主机上限排队
+        val transport = HttpClientRegistry.getInstance(project).getDirectTransport(env)
+        val engine = if (feeder != null) {
+            // 每次执行绑定数据文件的一行，请求逐次展开 (单步场景；multipart 文件参数不参与)
+            val step = CollectionNode.createRequest(activeCollectionNode?.name ?: "request", tempReq)
+            val workload = ScenarioWorkload(transport, listOf(LoadScenario(step.name, 1, listOf(step))), scope,
+                config.timeout(), feeder)
+            LoadEngine(workload, config)
+        } else {
+            // 没有数据文件时请求只构建一次重复发送；用了 {{$uuid}} 等动态变量时每次重新展开
+            if (workers > 0 && prepared.dynamic) {
+                Messages.showErrorDialog("Worker processes send one fixed request and cannot use dynamic variables " +
+                        "such as {{\$uuid}}.", "Blast Mode")
+                return
+            }
+            if (workers > 0) {
+                // 请求在 IDE 里展开好，按 worker 数拆分到达率后交给本机子进程发送
+                val key = HttpClientRegistry.ClientKey.of(env)
+                val job = try {
+                    WorkerJob.of(prepared, key.engine(), key.protocol(), key.tlsMode(), key.redirectPolicy(),
+                        HttpExecutor.getCookieManager())
+                } catch (e: IOException) {
+                    Messages.showErrorDialog("Cannot prepare request for workers: ${e.message}", "Blast Mode")
+                    return
                 }
-                futures.forEach { try { it.get() } catch (e: Exception) {} }
-                threadPool.shutdown()
+                WorkerCluster(job, config, workers, LoadTestService.workerCommand())
+            } else {
+                val requests = PreparedRequest.source(prepared, tempReq, scope, multipartParams, config.timeout().seconds,
+                    SpillingBodySubscriber.DEFAULT_MEMORY_LIMIT)
+                LoadEngine(transport, requests, config)
             }
+        }
+        LoadTestLauncher.launch(project, engine, "${prepared.method} ${prepared.url}", prepared.url)
+    }
 
-            override fun onSuccess() {
-                val avg = if (successCount.get() > 0) totalTime.get() / successCount.get() else 0
-                val report = """
-                    <html>
-                    <h3>🚀 Blast Report</h3>
-                    <ul>
-                        <li><b>Total Requests:</b> $count</li>
-                        <li><b>Success:</b> <span style='color:green'>${successCount.get()}</span></li>
-                        <li><b>Failed:</b> <span style='color:red'>${count - successCount.get()}</span></li>
-                        <hr>
-                        <li><b>Avg Latency:</b> ${avg}ms</li>
-                        <li><b>Min Latency:</b> ${if (minTime.get() == Long.MAX_VALUE) 0 else minTime.get()}ms</li>
-                        <li><b>Max Latency:</b> ${maxTime.get()}ms</li>
-                    </ul>
-                    </html>
-                """.trimIndent()
-
-                JBPopupFactory.getInstance().createHtmlTextBalloonBuilder(report, null, JBColor.PanelBackground, null)
-                    .setShadow(true).setHideOnAction(false).setCloseButtonEnabled(true).createBalloon()
-                    .show(RelativePoint.getCenterOf(addressBar), Balloon.Position.below)
-            }
-        })
+    /**
+     * 拐点探测：请求只构建一次，每一级用新的引擎按恒定速率发送
+     */
+    private fun performKneeFinder() {
+        val dialog = KneeFinderDialog()
+        if (!dialog.showAndGet()) return
+        val settings = dialog.toSettings()
+
+        val tempReq = SavedRequest()
+        collectData(tempReq)
+        val envService = EnvService.getInstance(project)
+        val scope = VariableScope.snapshot(envService.snapshot().variables())
+        val multipartParams = inputPanel.getMultipartParams()
+        val prepared = try {
+            PreparedRequest.prepare(tempReq, scope, multipartParams, settings.timeout().seconds,
+                SpillingBodySubscriber.DEFAULT_MEMORY_LIMIT, null)
+        } catch (e: Exception) {
+            Messages.showErrorDialog("Cannot build request: ${e.message}", "Find Knee")
+            return
+        }
+        val transport = HttpClientRegistry.getInstance(project).getDirectTransport(envService.selectedEnv)
+        val requests = PreparedRequest.source(prepared, tempReq, scope, multipartParams, settings.timeout().seconds,
+            SpillingBodySubscriber.DEFAULT_MEMORY_LIMIT)
+        LoadTestLauncher.findKnee(project, settings, "${prepared.method} ${prepared.url}") { config ->
+            LoadEngine(transport, requests, config)
+        }
     }
 
     private fun createTopToolbar(): ActionToolbar {
@@ -275,11 +308,16 @@ class RequestEditorPanel(
 
         actionGroup.addSeparator()
 
-        actionGroup.add(object : DumbAwareAction("Blast Mode", "Run mini stress test", AllIcons.General.Error) {
+        actionGroup.add(object : DumbAwareAction("Blast Mode", "Run an open-model load test at a target request rate", AllIcons.General.Error) {
             override fun actionPerformed(e: AnActionEvent) {
                 performBlastTest()
             }
         })
+        actionGroup.add(object : DumbAwareAction("Find Knee", "Raise the request rate level by level until a latency SLO or error budget breaks", AllIcons.Actions.ProfileCPU) {
+            override fun actionPerformed(e: AnActionEvent) {
+                performKneeFinder()
+            }
+        })
 
         actionGroup.addSeparator()
 
@@ -32,8 +32,10 @@ import com.intellij.ui.components.JBLabel
 import com.intellij.ui.components.JBTabbedPane
 import com.intellij.ui.components.JBTextArea
 import com.intellij.util.ui.JBUI
+import com.phil.rest.model.ResponseBody
 import com.phil.rest.model.RestResponse
 import com.phil.rest.service.CodeGenerator
+import com.phil.rest.ui.component.TimingWaterfall
 import java.awt.BorderLayout
 import java.awt.Color
 import java.awt.FlowLayout
@@ -46,9 +48,10 @@ class ResponsePanel(private val project: Project) : JPanel(BorderLayout()), Disp
     private var editor: Editor? = null // Pretty JSON Editor
     private val document = EditorFactory.getInstance().createDocument("")
 
-    // [Fix] 数据黑匣子：独立存储 Body 内容，不受 UI clear() 影响
-    private var previousBody: String? = null
-    private var currentBody: String? = null
+    // [Fix] 数据黑匣子：独立存储响应，不受 UI clear() 影响
+    // 只持有 RestResponse (一份字节)，Diff 时再按需取文本
+    private var previousResponse: RestResponse? = null
+    private var currentResponse: RestResponse? = null
 
     // Hex View 组件
     private val hexTextArea = JBTextArea().apply {
@@ -58,9 +61,23 @@ class ResponsePanel(private val project: Project) : JPanel(BorderLayout()), Disp
         background = JBColor(Color(245, 245, 245), Color(43, 43, 43))
     }
 
+    // [新增] Hex 分页：只读取当前页的字节
+    private var currentContent: ResponseBody = ResponseBody.empty()
+    private var currentTruncated = false
+    private var hexOffset = 0L
+    private val hexPageLabel = JBLabel().apply {
+        font = Font("JetBrains Mono", Font.PLAIN, 11)
+        foreground = JBColor.GRAY
+    }
+    private val hexPrevButton = JButton("< Prev").apply { addActionListener { showHexPage(hexOffset - HEX_PAGE_SIZE) } }
+    private val hexNextButton = JButton("Next >").apply { addActionListener { showHexPage(hexOffset + HEX_PAGE_SIZE) } }
+
     // 图片组件
     private val imageLabel = JLabel("", SwingConstants.CENTER)
 
+    // [新增] 分阶段耗时瀑布图
+    private val timingWaterfall = TimingWaterfall()
+
     // 多视图切换
     private val tabs = JBTabbedPane()
 
@@ -73,6 +90,22 @@ class ResponsePanel(private val project: Project) : JPanel(BorderLayout()), Disp
         font = Font("JetBrains Mono", Font.PLAIN, 12)
         foreground = JBColor.GRAY
     }
+    // [新增] Body 大小 (压缩时显示线上字节数和压缩比)
+    private val sizeLabel = JBLabel().apply {
+        font = Font("JetBrains Mono", Font.PLAIN, 12)
+        foreground = JBColor.GRAY
+    }
+
+    // [新增] 响应缓存命中标记
+    private val cacheLabel = JBLabel().apply {
+        font = Font("JetBrains Mono", Font.PLAIN, 12)
+        foreground = JBColor(Color(0, 128, 128), Color(80, 200, 200))
+    }
+
+    // [新增] 连接冷热：复用 (含预热) 的连接为 warm，新建连接为 cold
+    private val connectionLabel = JBLabel().apply {
+        font = Font("JetBrains Mono", Font.PLAIN, 12)
+    }
 
     init {
         // --- Header (状态栏 + 工具栏) ---
@@ -85,6 +118,9 @@ class ResponsePanel(private val project: Project) : JPanel(BorderLayout()), Disp
         statusInfoPanel.isOpaque = false
         statusInfoPanel.add(statusLabel)
         statusInfoPanel.add(timeLabel)
+        statusInfoPanel.add(sizeLabel)
+        statusInfoPanel.add(cacheLabel)
+        statusInfoPanel.add(connectionLabel)
 
         val actionGroup = DefaultActionGroup()
         actionGroup.add(createCopyAction())
@@ -112,7 +148,15 @@ class ResponsePanel(private val project: Project) : JPanel(BorderLayout()), Disp
         // --- 组装 Tabs ---
         tabs.addTab("Pretty", editor!!.component)
         tabs.addTab("Preview", ScrollPaneFactory.createScrollPane(imageLabel))
-        tabs.addTab("Hex", ScrollPaneFactory.createScrollPane(hexTextArea))
+        val hexPager = JPanel(FlowLayout(FlowLayout.LEFT, 6, 2))
+        hexPager.add(hexPrevButton)
+        hexPager.add(hexNextButton)
+        hexPager.add(hexPageLabel)
+        val hexPanel = JPanel(BorderLayout())
+        hexPanel.add(hexPager, BorderLayout.NORTH)
+        hexPanel.add(ScrollPaneFactory.createScrollPane(hexTextArea), BorderLayout.CENTER)
+        tabs.addTab("Hex", hexPanel)
+        tabs.addTab("Timing", ScrollPaneFactory.createScrollPane(timingWaterfall))
 
         add(headerPanel, BorderLayout.NORTH)
         add(tabs, BorderLayout.CENTER)
@@ -124,25 +168,34 @@ class ResponsePanel(private val project: Project) : JPanel(BorderLayout()), Disp
             return
         }
 
-        // [Fix] 核心修复：使用 currentBody 变量进行历史轮转，而不是读取 document.text
+        // [Fix] 核心修复：使用 currentResponse 进行历史轮转，而不是读取 document.text
         // 因为 document.text 在请求开始时已经被 clear() 清空了
-        if (!currentBody.isNullOrBlank()) {
-            previousBody = currentBody
+        if (currentResponse?.content?.isEmpty == false) {
+            previousResponse = currentResponse
         }
 
-        // 更新当前 Body
-        currentBody = response.body
+        // 更新当前响应
+        currentResponse = response
 
         // 1. 更新 Pretty View
         WriteCommandAction.runWriteCommandAction(project) {
-            document.setText(StringUtil.convertLineSeparators(response.body))
+            document.setText(StringUtil.convertLineSeparators(response.prettyBody))
         }
         editor?.scrollingModel?.scrollTo(editor!!.offsetToLogicalPosition(0), ScrollType.MAKE_VISIBLE)
 
-        // 2. 更新 Image View
-        if (response.rawBody != null && response.rawBody.isNotEmpty()) {
+        // 2. 更新 Image View (只预览内存中放得下的图片)
+        val content = response.content
+        currentContent = content
+        currentTruncated = response.isTruncated
+        if (content.isEmpty) {
+            imageLabel.icon = null
+            imageLabel.text = "Empty Body"
+        } else if (content.isSpilled || content.length() > IMAGE_PREVIEW_LIMIT) {
+            imageLabel.icon = null
+            imageLabel.text = "Body too large for preview (${content.length()} bytes)"
+        } else {
             try {
-                val icon = ImageIcon(response.rawBody)
+                val icon = ImageIcon(content.toByteArray())
                 if (icon.iconWidth > 0) {
                     imageLabel.icon = icon
                     imageLabel.text = ""
@@ -154,15 +207,11 @@ class ResponsePanel(private val project: Project) : JPanel(BorderLayout()), Disp
                 imageLabel.icon = null
                 imageLabel.text = "Error Loading Image"
             }
-        } else {
-            imageLabel.icon = null
-            imageLabel.text = "Empty Body"
         }
 
-        // 3. 更新 Hex View
-        val hexDump = CodeGenerator.generateHexDump(response.rawBody ?: ByteArray(0))
-        hexTextArea.text = hexDump
-        hexTextArea.caretPosition = 0
+        // 3. 更新 Hex View (分页) 和耗时瀑布图
+        showHexPage(0)
+        timingWaterfall.setTimings(response.timings)
 
         // 4. 智能切换 Tab
         val contentType = response.headers["Content-Type"]?.firstOrNull() ?: ""
@@ -176,9 +225,32 @@ class ResponsePanel(private val project: Project) : JPanel(BorderLayout()), Disp
         updateStatusLabel(response)
     }
 
+    private fun showHexPage(offset: Long) {
+        val total = currentContent.length()
+        hexOffset = if (total == 0L) 0L else offset.coerceIn(0L, ((total - 1) / HEX_PAGE_SIZE) * HEX_PAGE_SIZE)
+        val page = currentContent.slice(hexOffset, HEX_PAGE_SIZE)
+        hexTextArea.text = CodeGenerator.generateHexDump(page, hexOffset)
+        hexTextArea.caretPosition = 0
+        hexPageLabel.text = if (total == 0L) "" else "0x%08X - 0x%08X of %d bytes".format(hexOffset, hexOffset + page.size, total)
+        hexPrevButton.isEnabled = hexOffset > 0
+        hexNextButton.isEnabled = hexOffset + page.size < total
+    }
+
     private fun updateStatusLabel(response: RestResponse) {
         statusLabel.text = "${response.statusCode} ${getStatusText(response.statusCode)}"
         timeLabel.text = "${response.durationMs} ms"
+        // 排队时间单独显示，不混进网络耗时
+        val queuedMs = response.queueWaitNanos / 1_000_000
+        if (queuedMs > 0) {
+            timeLabel.text += " (+$queuedMs ms queued)"
+            timeLabel.toolTipText = "Network time ${response.durationMs} ms; waited $queuedMs ms for a free per-host slot"
+        } else {
+            timeLabel.toolTipText = null
+        }
+        sizeLabel.text = formatSize(response)
+        sizeLabel.toolTipText = "Wire: ${response.wireBytes} bytes, Decoded: ${response.decodedBytes} bytes"
+        updateCacheLabel(response)
+        updateConnectionLabel(response)
 
         if (response.statusCode in 200..299) {
             statusLabel.icon = AllIcons.RunConfigurations.TestState.Green2
@@ -190,17 +262,84 @@ class ResponsePanel(private val project: Project) : JPanel(BorderLayout()), Disp
     }
 
     fun clear() {
-        // [注意] 这里只清空 UI 显示，绝对不要清空 previousBody 和 currentBody
+        // [注意] 这里只清空 UI 显示，绝对不要清空 previousResponse 和 currentResponse
         WriteCommandAction.runWriteCommandAction(project) { document.setText("") }
         imageLabel.icon = null
         hexTextArea.text = ""
+        hexPageLabel.text = ""
+        hexPrevButton.isEnabled = false
+        hexNextButton.isEnabled = false
+        timingWaterfall.setTimings(null)
         statusLabel.text = "Ready"
         statusLabel.icon = AllIcons.General.Balloon
         statusLabel.foreground = JBUI.CurrentTheme.ContextHelp.FOREGROUND
         timeLabel.text = ""
+        timeLabel.toolTipText = null
+        sizeLabel.text = ""
+        sizeLabel.toolTipText = null
+        cacheLabel.text = ""
+        cacheLabel.icon = null
+        cacheLabel.toolTipText = null
+        connectionLabel.text = ""
+        connectionLabel.toolTipText = null
         tabs.selectedIndex = 0
     }
 
+    private fun updateCacheLabel(response: RestResponse) {
+        val saved = StringUtil.formatFileSize(response.bytesSaved)
+        when (response.cacheStatus) {
+            RestResponse.CacheStatus.HIT -> {
+                cacheLabel.text = "Cache hit (saved $saved)"
+                cacheLabel.icon = AllIcons.Actions.Lightning
+                cacheLabel.toolTipText = "Served from the local cache without a network round trip (max-age / Expires still fresh)"
+            }
+            RestResponse.CacheStatus.REVALIDATED -> {
+                cacheLabel.text = "304 Revalidated (saved $saved)"
+                cacheLabel.icon = AllIcons.Actions.Refresh
+                cacheLabel.toolTipText = "Server answered 304 Not Modified; body served from the local cache"
+            }
+            RestResponse.CacheStatus.MISS -> {
+                cacheLabel.text = "Cached"
+                cacheLabel.icon = null
+                cacheLabel.toolTipText = "Response stored; the next identical GET will be revalidated or served from cache"
+            }
+            else -> {
+                cacheLabel.text = ""
+                cacheLabel.icon = null
+                cacheLabel.toolTipText = null
+            }
+        }
+    }
+
+    private fun updateConnectionLabel(response: RestResponse) {
+        val timings = response.timings
+        when (timings?.connectionReused) {
+            true -> {
+                connectionLabel.text = "Warm"
+                connectionLabel.foreground = JBColor(Color(54, 150, 70), Color(98, 180, 110))
+                connectionLabel.toolTipText = "Reused a pooled (or pre-warmed) connection: no DNS / TCP / TLS setup"
+            }
+            false -> {
+                val setupNanos = maxOf(0, timings.dnsNanos) + maxOf(0, timings.connectNanos) + maxOf(0, timings.tlsNanos)
+                connectionLabel.text = "Cold (+%.1f ms setup)".format(setupNanos / 1_000_000.0)
+                connectionLabel.foreground = JBColor(Color(200, 120, 0), Color(230, 160, 60))
+                connectionLabel.toolTipText = "New connection: DNS + TCP + TLS were part of this request"
+            }
+            // java.net.http 不暴露连接池，无法判断
+            null -> {
+                connectionLabel.text = ""
+                connectionLabel.toolTipText = null
+            }
+        }
+    }
+
+    private fun formatSize(response: RestResponse): String {
+        val encoding = response.contentEncoding ?: return StringUtil.formatFileSize(response.decodedBytes)
+        val wire = StringUtil.formatFileSize(response.wireBytes)
+        if (!response.isDecoded) return "$wire ($encoding, not decoded)"
+        return "${StringUtil.formatFileSize(response.decodedBytes)} ($encoding $wire, %.1fx)".format(response.compressionRatio)
+    }
+
     private fun getStatusText(code: Int): String = when(code) {
         200 -> "OK"; 201 -> "Created"; 204 -> "No Content"
         400 -> "Bad Request"; 401 -> "Unauthorized"; 403 -> "Forbidden"; 404 -> "Not Found"
@@ -217,8 +356,8 @@ class ResponsePanel(private val project: Project) : JPanel(BorderLayout()), Disp
     private fun createDiffAction() = object : DumbAwareAction("Compare with Previous", "Diff current vs previous response", AllIcons.Actions.Diff) {
         override fun actionPerformed(e: AnActionEvent) {
             // [Fix] 使用变量而非 document 读取，更安全
-            val curr = currentBody
-            val prev = previousBody
+            val curr = currentResponse?.prettyBody
+            val prev = previousResponse?.prettyBody
 
             if (prev.isNullOrBlank() || curr.isNullOrBlank()) {
                 // [Fix] 更新为您喜欢的提示文案
@@ -252,7 +391,12 @@ class ResponsePanel(private val project: Project) : JPanel(BorderLayout()), Disp
             val wrapper = dialog.save(null as VirtualFile?, "response.json")
             if (wrapper != null) {
                 try {
-                    wrapper.file.writeText(document.text)
+                    // 截断的超大响应直接流式导出原始字节，否则导出格式化后的文本
+                    if (currentTruncated) {
+                        wrapper.file.outputStream().use { currentContent.writeTo(it) }
+                    } else {
+                        wrapper.file.writeText(document.text)
+                    }
                     showBalloon("Saved to ${wrapper.file.name}", MessageType.INFO)
                 } catch (ex: Exception) {}
             }
@@ -264,4 +408,9 @@ class ResponsePanel(private val project: Project) : JPanel(BorderLayout()), Disp
             .setFadeoutTime(2000).createBalloon()
             .show(RelativePoint.getSouthEastOf(statusLabel), Balloon.Position.atRight)
     }
+
+    companion object {
+        private const val HEX_PAGE_SIZE = 64 * 1024
+        private const val IMAGE_PREVIEW_LIMIT = 20L * 1024 * 1024
+    }
 }
\ No newline at end of file
@@ -17,9 +17,21 @@ class RestClientToolWindowFactory : ToolWindowFactory {
 
         // 2. 添加到 ToolWindow
         val contentFactory = ContentFactory.getInstance()
-        val content = contentFactory.createContent(mainPanel, "", false)
+        val content = contentFactory.createContent(mainPanel, "Client", false)
         toolWindow.contentManager.addContent(content)
 
+        // [新增] 压测实时面板
+        val dashboard = LoadDashboardPanel(project)
+        val dashboardContent = contentFactory.createContent(dashboard, LoadDashboardPanel.TAB_NAME, false)
+        dashboardContent.setDisposer(dashboard)
+        toolWindow.contentManager.addContent(dashboardContent)
+
+        // [新增] 历史压测记录与基线对比
+        val runs = LoadRunsPanel(project)
+        val runsContent = contentFactory.createContent(runs, LoadRunsPanel.TAB_NAME, false)
+        runsContent.setDisposer(runs)
+        toolWindow.contentManager.addContent(runsContent)
+
         // 3. 启动图标闪烁动画 (传入 project)
         // [Fix] 这里传入 project
         startIconAnimation(project, toolWindow, content)
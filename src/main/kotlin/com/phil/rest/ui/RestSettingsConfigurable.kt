@@ -0,0 +1,113 @@
+package com.phil.rest.ui
+
+import com.intellij.openapi.options.Configurable
+import com.intellij.openapi.project.Project
+import com.intellij.ui.JBIntSpinner
+import com.intellij.ui.components.JBCheckBox
+import com.intellij.util.ui.FormBuilder
+import com.phil.rest.service.EnvService
+import com.phil.rest.service.HttpClientRegistry
+import com.phil.rest.service.RequestExecutionService
+import com.phil.rest.service.ResponseCacheService
+import com.phil.rest.service.RestSettingsService
+import javax.swing.JButton
+import javax.swing.JComponent
+import javax.swing.JPanel
+
+/**
+ * Settings > Tools > RestPilot
+ */
+class RestSettingsConfigurable(private val project: Project) : Configurable {
+
+    private val settings = RestSettingsService.getInstance(project)
+
+    private val bodyLimitSpinner = JBIntSpinner(8, 1, 1024)
+    private val concurrencySpinner = JBIntSpinner(64, 1, 4096)
+    private val perHostSpinner = JBIntSpinner(6, 0, 1024)
+    private val cacheEnabledCheckBox = JBCheckBox("Cache GET responses (ETag / Last-Modified / max-age)")
+    private val cacheSizeSpinner = JBIntSpinner(256, 1, 65536)
+    private val prewarmCheckBox = JBCheckBox("Pre-warm connections to base URLs when switching environments")
+    private val maxRunsSpinner = JBIntSpinner(200, 1, 10000)
+    private val latencyThresholdSpinner = JBIntSpinner(10, 0, 1000)
+    private val tailThresholdSpinner = JBIntSpinner(20, 0, 1000)
+    private val errorThresholdSpinner = JBIntSpinner(1, 0, 100)
+    private val throughputThresholdSpinner = JBIntSpinner(10, 0, 100)
+    private val clearCacheButton = JButton("Clear Cache").apply {
+        addActionListener { ResponseCacheService.getInstance(project).cache.clear() }
+    }
+
+    override fun getDisplayName(): String = "RestPilot"
+
+    override fun createComponent(): JComponent {
+        return FormBuilder.createFormBuilder()
+            .addLabeledComponent("In-memory response limit (MB):", bodyLimitSpinner)
+            .addLabeledComponent("Max concurrent requests:", concurrencySpinner)
+            .addLabeledComponent("Max concurrent requests per host (0 = unlimited):", perHostSpinner)
+            .addComponent(cacheEnabledCheckBox)
+            .addLabeledComponent("Response cache size (MB):", cacheSizeSpinner)
+            .addComponent(clearCacheButton)
+            .addComponent(prewarmCheckBox)
+            .addTooltip("NIO engine only: opens TCP/TLS connections and keeps them warm")
+            .addTooltip("Environments on the JDK engine get a one-time DNS lookup; their connections are not warmed")
+            .addSeparator()
+            .addLabeledComponent("Saved load tests to keep:", maxRunsSpinner)
+            .addTooltip("Oldest runs are deleted first; pinned baselines are always kept")
+            .addLabeledComponent("Regression: P50/P90 slower by more than (%):", latencyThresholdSpinner)
+            .addLabeledComponent("Regression: P99/P99.9 slower by more than (%):", tailThresholdSpinner)
+            .addLabeledComponent("Regression: error rate higher by more than (points):", errorThresholdSpinner)
+            .addLabeledComponent("Regression: throughput lower by more than (%):", throughputThresholdSpinner)
+            .addComponentFillVertically(JPanel(), 0)
+            .panel
+    }
+
+    override fun isModified(): Boolean {
+        val state = settings.state ?: return false
+        return bodyLimitSpinner.number != state.inMemoryBodyLimitMb
+                || concurrencySpinner.number != state.maxConcurrentTasks
+                || perHostSpinner.number != state.maxConnectionsPerHost
+                || cacheEnabledCheckBox.isSelected != state.responseCacheEnabled
+                || cacheSizeSpinner.number != state.responseCacheMaxMb
+                || prewarmCheckBox.isSelected != state.prewarmConnections
+                || maxRunsSpinner.number != state.maxSavedLoadRuns
+                || latencyThresholdSpinner.number != state.regressionLatencyPercent
+                || tailThresholdSpinner.number != state.regressionTailLatencyPercent
+                || errorThresholdSpinner.number != state.regressionErrorRatePoints
+                || throughputThresholdSpinner.number != state.regressionThroughputPercent
+    }
+
+    override fun apply() {
+        val state = settings.state ?: return
+        state.inMemoryBodyLimitMb = bodyLimitSpinner.number
+        state.maxConcurrentTasks = concurrencySpinner.number
+        RequestExecutionService.getInstance(project).setMaxConcurrency(state.maxConcurrentTasks)
+        state.maxConnectionsPerHost = perHostSpinner.number
+        state.responseCacheEnabled = cacheEnabledCheckBox.isSelected
+        state.responseCacheMaxMb = cacheSizeSpinner.number
+        ResponseCacheService.getInstance(project).cache.setMaxBytes(settings.responseCacheMaxBytes)
+        state.maxSavedLoadRuns = maxRunsSpinner.number
+        state.regressionLatencyPercent = latencyThresholdSpinner.number
+        state.regressionTailLatencyPercent = tailThresholdSpinner.number
+        state.regressionErrorRatePoints = errorThresholdSpinner.number
+        state.regressionThroughputPercent = throughputThresholdSpinner.number
+        if (prewarmCheckBox.isSelected != state.prewarmConnections) {
+            state.prewarmConnections = prewarmCheckBox.isSelected
+            // 立即按新设置启动 / 停止预热
+            HttpClientRegistry.getInstance(project).prewarm(EnvService.getInstance(project).selectedEnv)
+        }
+    }
+
+    override fun reset() {
+        val state = settings.state ?: return
+        bodyLimitSpinner.number = state.inMemoryBodyLimitMb
+        concurrencySpinner.number = state.maxConcurrentTasks
+        perHostSpinner.number = state.maxConnectionsPerHost
+        cacheEnabledCheckBox.isSelected = state.responseCacheEnabled
+        cacheSizeSpinner.number = state.responseCacheMaxMb
+        prewarmCheckBox.isSelected = state.prewarmConnections
+        maxRunsSpinner.number = state.maxSavedLoadRuns
+        latencyThresholdSpinner.number = state.regressionLatencyPercent
+        tailThresholdSpinner.number = state.regressionTailLatencyPercent
+        errorThresholdSpinner.number = state.regressionErrorRatePoints
+        throughputThresholdSpinner.number = state.regressionThroughputPercent
+    }
+}
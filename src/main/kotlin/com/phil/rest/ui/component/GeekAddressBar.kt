@@ -3,6 +3,7 @@ package com.phil.rest.ui.component
 import com.intellij.openapi.editor.colors.EditorColorsManager
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.ui.popup.JBPopupFactory
+import com.intellij.openapi.util.text.StringUtil
 import com.intellij.ui.JBColor
 import com.intellij.ui.awt.RelativePoint
 import com.intellij.ui.components.JBTextField
@@ -26,6 +27,8 @@ class GeekAddressBar(
 
     // 动画参数
     private var progressWidth = 0.0
+    // 上传进度 (0..1)，未知时为 -1，进度条走缓动动画
+    private var uploadFraction = -1.0
     private var timer: Timer? = null
 
     // 边框闪烁参数
@@ -142,9 +145,14 @@ class GeekAddressBar(
             if (value) {
                 // 启动进度条动画 (60fps)
                 progressWidth = 0.0
+                uploadFraction = -1.0
                 timer?.stop()
                 timer = Timer(16) {
-                    if (progressWidth < width) {
+                    if (uploadFraction >= 0) {
+                        // 有真实上传进度时直接按比例绘制
+                        progressWidth = width * uploadFraction
+                        repaint()
+                    } else if (progressWidth < width) {
                         // 缓动算法：越接近终点越慢
                         val diff = width - progressWidth
                         val step = if (diff > 1) diff * 0.05 + 0.5 else 0.5
@@ -217,6 +225,15 @@ class GeekAddressBar(
         }
     }
 
+    /**
+     * 更新上传进度；上传完成后回到缓动动画，表示正在等待响应
+     */
+    fun setUploadProgress(sent: Long, total: Long) {
+        if (!isBusy || total <= 0) return
+        uploadFraction = if (sent >= total) -1.0 else sent.toDouble() / total
+        toolTipText = if (sent >= total) null else "Uploading ${StringUtil.formatFileSize(sent)} / ${StringUtil.formatFileSize(total)}"
+    }
+
     /**
      * 呼吸灯闪烁效果 (Flash)
      */
@@ -0,0 +1,110 @@
+package com.phil.rest.ui.component
+
+import com.intellij.ui.JBColor
+import com.intellij.util.ui.JBUI
+import com.phil.rest.service.load.LatencyHistogram
+import java.awt.*
+import javax.swing.JPanel
+import kotlin.math.ln
+
+/**
+ * 延迟分布图：横轴为对数刻度的延迟，纵轴为请求数；成功 / 失败叠加显示，并标出 P50 / P99
+ */
+class LatencyDistributionChart : JPanel() {
+
+    private var success: LatencyHistogram? = null
+    private var failure: LatencyHistogram? = null
+
+    init {
+        border = JBUI.Borders.empty(8, 12)
+        preferredSize = Dimension(JBUI.scale(520), JBUI.scale(200))
+    }
+
+    fun setHistograms(success: LatencyHistogram?, failure: LatencyHistogram?) {
+        this.success = success
+        this.failure = failure
+        repaint()
+    }
+
+    override fun paintComponent(g: Graphics) {
+        super.paintComponent(g)
+        val g2 = g as Graphics2D
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON)
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON)
+        g2.font = Font("JetBrains Mono", Font.PLAIN, JBUI.scaleFontSize(11f))
+        val fm = g2.fontMetrics
+        val insets = insets
+
+        val ok = success ?: LatencyHistogram()
+        val bad = failure ?: LatencyHistogram()
+        val all = LatencyHistogram.merge(ok, bad)
+        if (all.totalCount == 0L) {
+            g2.color = JBColor.GRAY
+            g2.drawString("No samples", insets.left, insets.top + fm.ascent)
+            return
+        }
+
+        val edges = LatencyHistogram.logEdges(all.min, all.max, BINS)
+        val okBins = ok.countsBetween(edges)
+        val badBins = bad.countsBetween(edges)
+        val peak = (0 until BINS).maxOf { okBins[it] + badBins[it] }.coerceAtLeast(1)
+
+        val left = insets.left
+        val top = insets.top + fm.height
+        val plotWidth = width - insets.left - insets.right
+        val plotHeight = height - top - insets.bottom - fm.height - JBUI.scale(4)
+        if (plotWidth <= 0 || plotHeight <= 0) return
+        val barWidth = plotWidth.toDouble() / BINS
+
+        for (b in 0 until BINS) {
+            val x = left + (b * barWidth).toInt()
+            val w = (barWidth - 1).toInt().coerceAtLeast(1)
+            val okH = (plotHeight * okBins[b] / peak).toInt()
+            val badH = (plotHeight * badBins[b] / peak).toInt()
+            g2.color = SUCCESS_COLOR
+            g2.fillRect(x, top + plotHeight - okH, w, okH)
+            g2.color = FAILURE_COLOR
+            g2.fillRect(x, top + plotHeight - okH - badH, w, badH)
+        }
+
+        // 坐标轴与刻度
+        g2.color = JBColor.border()
+        g2.drawLine(left, top + plotHeight, left + plotWidth, top + plotHeight)
+        g2.color = JBColor.GRAY
+        for (b in 0..BINS step BINS / 4) {
+            val label = formatNanos(edges[b])
+            val x = (left + b * barWidth).toInt() - if (b == BINS) fm.stringWidth(label) else if (b == 0) 0 else fm.stringWidth(label) / 2
+            g2.drawString(label, x, top + plotHeight + fm.ascent + JBUI.scale(2))
+        }
+
+        // 百分位标记
+        val logLo = ln(edges[0].coerceAtLeast(1).toDouble())
+        val logHi = ln(edges[BINS].coerceAtLeast(2).toDouble())
+        val dashed = BasicStroke(1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10f, floatArrayOf(4f, 3f), 0f)
+        val oldStroke = g2.stroke
+        for ((name, p) in listOf("P50" to 50.0, "P99" to 99.0)) {
+            val v = all.valueAtPercentile(p).coerceAtLeast(1)
+            val frac = if (logHi > logLo) (ln(v.toDouble()) - logLo) / (logHi - logLo) else 0.0
+            val x = left + (plotWidth * frac.coerceIn(0.0, 1.0)).toInt()
+            g2.color = MARKER_COLOR
+            g2.stroke = dashed
+            g2.drawLine(x, top, x, top + plotHeight)
+            g2.stroke = oldStroke
+            g2.drawString("$name ${formatNanos(v)}", (x + JBUI.scale(3)).coerceAtMost(left + plotWidth - fm.stringWidth("$name 0000.0ms")), insets.top + fm.ascent)
+        }
+    }
+
+    companion object {
+        private const val BINS = 40
+
+        private val SUCCESS_COLOR = JBColor(Color(76, 175, 80), Color(102, 187, 106))
+        private val FAILURE_COLOR = JBColor(Color(229, 57, 53), Color(239, 83, 80))
+        private val MARKER_COLOR = JBColor(Color(33, 150, 243), Color(66, 165, 245))
+
+        fun formatNanos(nanos: Long): String = when {
+            nanos >= 1_000_000_000L -> "%.2fs".format(nanos / 1e9)
+            nanos >= 1_000_000L -> "%.1fms".format(nanos / 1e6)
+            else -> "%.0fµs".format(nanos / 1e3)
+        }
+    }
+}
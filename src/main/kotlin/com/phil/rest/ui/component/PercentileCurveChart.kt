@@ -0,0 +1,119 @@
+package com.phil.rest.ui.component
+
+import com.intellij.ui.JBColor
+import com.intellij.util.ui.JBUI
+import com.phil.rest.service.load.LatencyHistogram
+import java.awt.*
+import javax.swing.JPanel
+import kotlin.math.log10
+import kotlin.math.min
+import kotlin.math.pow
+
+/**
+ * 百分位曲线 (HdrHistogram 常用的画法)：横轴按 "几个 9" 展开 (0% / 90% / 99% / 99.9% ...)，
+ * 纵轴为延迟。多次压测画在一起，尾部差异一目了然
+ */
+class PercentileCurveChart : JPanel() {
+
+    class Curve(val name: String, val color: Color, val histogram: LatencyHistogram, val dashed: Boolean = false)
+
+    private var curves: List<Curve> = emptyList()
+
+    init {
+        border = JBUI.Borders.empty(8, 12)
+        preferredSize = Dimension(JBUI.scale(520), JBUI.scale(220))
+    }
+
+    fun setCurves(curves: List<Curve>) {
+        this.curves = curves.filter { it.histogram.totalCount > 0 }
+        repaint()
+    }
+
+    override fun paintComponent(g: Graphics) {
+        super.paintComponent(g)
+        val g2 = g as Graphics2D
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON)
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON)
+        g2.font = Font("JetBrains Mono", Font.PLAIN, JBUI.scaleFontSize(11f))
+        val fm = g2.fontMetrics
+        val insets = insets
+
+        if (curves.isEmpty()) {
+            g2.color = JBColor.GRAY
+            g2.drawString("Select one or two runs", insets.left, insets.top + fm.ascent)
+            return
+        }
+
+        // 图例
+        var x = insets.left
+        for (c in curves) {
+            g2.color = c.color
+            g2.fillRect(x, insets.top + fm.ascent - JBUI.scale(8), JBUI.scale(8), JBUI.scale(8))
+            g2.color = JBColor.GRAY
+            g2.drawString(c.name, x + JBUI.scale(11), insets.top + fm.ascent)
+            x += fm.stringWidth(c.name) + JBUI.scale(22)
+        }
+
+        // 样本数决定能可靠展示到几个 9：1000 个样本最多看到 99.9%
+        val fewest = curves.minOf { it.histogram.totalCount }
+        val maxNines = min(MAX_NINES, log10(fewest.toDouble()).coerceAtLeast(1.0))
+        val yMax = curves.maxOf { it.histogram.valueAtPercentile(percentileAt(maxNines)) }.coerceAtLeast(1) * 1.1
+
+        val top = insets.top + fm.height + JBUI.scale(4)
+        val axisWidth = fm.stringWidth("00000.0ms") + JBUI.scale(4)
+        val left = insets.left + axisWidth
+        val plotWidth = width - left - insets.right
+        val plotHeight = height - top - insets.bottom - fm.height
+        if (plotWidth <= 0 || plotHeight <= 0) return
+
+        for (i in 0..4) {
+            val y = top + plotHeight - plotHeight * i / 4
+            g2.color = JBColor.border()
+            g2.drawLine(left, y, left + plotWidth, y)
+            g2.color = JBColor.GRAY
+            val label = LatencyDistributionChart.formatNanos((yMax * i / 4).toLong())
+            g2.drawString(label, left - fm.stringWidth(label) - JBUI.scale(4), y + fm.ascent / 2)
+        }
+        var nines = 0
+        while (nines <= maxNines) {
+            val px = left + (plotWidth * nines / maxNines).toInt()
+            val label = if (nines == 0) "0%" else "${formatPercentile(percentileAt(nines.toDouble()))}%"
+            g2.color = JBColor.GRAY
+            g2.drawString(label, (px - fm.stringWidth(label) / 2).coerceIn(left, left + plotWidth - fm.stringWidth(label)),
+                top + plotHeight + fm.ascent)
+            nines++
+        }
+
+        val oldStroke = g2.stroke
+        for (c in curves) {
+            g2.color = c.color
+            g2.stroke = if (c.dashed) DASHED else SOLID
+            var prevX = -1
+            var prevY = -1
+            for (i in 0..POINTS) {
+                val n = maxNines * i / POINTS
+                val v = c.histogram.valueAtPercentile(percentileAt(n))
+                val px = left + (plotWidth * i / POINTS)
+                val py = top + plotHeight - (plotHeight * (v / yMax)).toInt()
+                if (prevX >= 0) g2.drawLine(prevX, prevY, px, py)
+                prevX = px
+                prevY = py
+            }
+        }
+        g2.stroke = oldStroke
+    }
+
+    companion object {
+        private const val MAX_NINES = 5.0
+        private const val POINTS = 200
+
+        private val SOLID = BasicStroke(1.5f)
+        private val DASHED = BasicStroke(1.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10f, floatArrayOf(5f, 3f), 0f)
+
+        /** n 个 9 对应的百分位，例如 n = 2 → 99 */
+        private fun percentileAt(nines: Double): Double = 100.0 * (1 - 10.0.pow(-nines))
+
+        private fun formatPercentile(p: Double): String =
+            if (p == Math.floor(p)) p.toLong().toString() else "%.4f".format(p).trimEnd('0')
+    }
+}
@@ -0,0 +1,107 @@
+package com.phil.rest.ui.component
+
+import com.intellij.ui.JBColor
+import com.intellij.util.ui.JBUI
+import java.awt.*
+import javax.swing.JPanel
+
+/**
+ * 简单的逐秒折线图：多条序列共用一个纵轴，纵轴从 0 开始自动缩放
+ */
+class TimeSeriesChart(private val title: String, private val formatY: (Double) -> String) : JPanel() {
+
+    class Series(val name: String, val color: Color, val values: DoubleArray, val dashed: Boolean = false)
+
+    private var series: List<Series> = emptyList()
+    private var firstSecond = 0L
+
+    init {
+        border = JBUI.Borders.empty(6, 8)
+        preferredSize = Dimension(JBUI.scale(320), JBUI.scale(160))
+    }
+
+    fun setSeries(firstSecond: Long, series: List<Series>) {
+        this.firstSecond = firstSecond
+        this.series = series
+        repaint()
+    }
+
+    override fun paintComponent(g: Graphics) {
+        super.paintComponent(g)
+        val g2 = g as Graphics2D
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON)
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON)
+        g2.font = Font("JetBrains Mono", Font.PLAIN, JBUI.scaleFontSize(11f))
+        val fm = g2.fontMetrics
+        val insets = insets
+
+        // 标题 + 图例 (带最新值)
+        var x = insets.left
+        g2.color = JBColor.foreground()
+        g2.drawString(title, x, insets.top + fm.ascent)
+        x += fm.stringWidth(title) + JBUI.scale(12)
+        for (s in series) {
+            val latest = s.values.lastOrNull()?.let { formatY(it) } ?: "-"
+            val text = "${s.name} $latest"
+            g2.color = s.color
+            g2.fillRect(x, insets.top + fm.ascent - JBUI.scale(8), JBUI.scale(8), JBUI.scale(8))
+            g2.color = JBColor.GRAY
+            g2.drawString(text, x + JBUI.scale(11), insets.top + fm.ascent)
+            x += fm.stringWidth(text) + JBUI.scale(22)
+        }
+
+        val points = series.maxOfOrNull { it.values.size } ?: 0
+        val top = insets.top + fm.height + JBUI.scale(4)
+        val axisWidth = fm.stringWidth("00000.0ms") + JBUI.scale(4)
+        val left = insets.left + axisWidth
+        val plotWidth = width - left - insets.right
+        val plotHeight = height - top - insets.bottom - fm.height
+        if (plotWidth <= 0 || plotHeight <= 0) return
+
+        val peak = series.maxOfOrNull { s -> s.values.maxOrNull() ?: 0.0 }?.takeIf { it > 0 } ?: 1.0
+        val yMax = peak * 1.1
+
+        // 网格与纵轴刻度
+        for (i in 0..4) {
+            val y = top + plotHeight - plotHeight * i / 4
+            g2.color = JBColor.border()
+            g2.drawLine(left, y, left + plotWidth, y)
+            g2.color = JBColor.GRAY
+            val label = formatY(yMax * i / 4)
+            g2.drawString(label, left - fm.stringWidth(label) - JBUI.scale(4), y + fm.ascent / 2)
+        }
+        if (points == 0) {
+            g2.color = JBColor.GRAY
+            g2.drawString("Waiting for data…", left + JBUI.scale(8), top + plotHeight / 2)
+            return
+        }
+
+        // 横轴：起止秒数
+        g2.color = JBColor.GRAY
+        g2.drawString("${firstSecond}s", left, top + plotHeight + fm.ascent)
+        val endLabel = "${firstSecond + points - 1}s"
+        g2.drawString(endLabel, left + plotWidth - fm.stringWidth(endLabel), top + plotHeight + fm.ascent)
+
+        val step = if (points > 1) plotWidth.toDouble() / (points - 1) else 0.0
+        val oldStroke = g2.stroke
+        for (s in series) {
+            g2.color = s.color
+            g2.stroke = if (s.dashed) DASHED else SOLID
+            var prevX = -1
+            var prevY = -1
+            for (i in s.values.indices) {
+                val px = left + (i * step).toInt()
+                val py = top + plotHeight - (plotHeight * (s.values[i] / yMax)).toInt()
+                if (prevX >= 0) g2.drawLine(prevX, prevY, px, py) else if (s.values.size == 1) g2.fillOval(px - 2, py - 2, 4, 4)
+                prevX = px
+                prevY = py
+            }
+        }
+        g2.stroke = oldStroke
+    }
+
+    companion object {
+        private val SOLID = BasicStroke(1.5f)
+        private val DASHED = BasicStroke(1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10f, floatArrayOf(4f, 3f), 0f)
+    }
+}
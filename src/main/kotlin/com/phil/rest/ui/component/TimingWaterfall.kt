@@ -0,0 +1,118 @@
+package com.phil.rest.ui.component
+
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.ui.JBColor
+import com.intellij.util.ui.JBUI
+import com.phil.rest.model.PhaseTimings
+import java.awt.*
+import javax.swing.JPanel
+
+/**
+ * 单次请求的阶段耗时瀑布图：DNS → Connect → TLS → Send → Wait (TTFB) → Download
+ */
+class TimingWaterfall : JPanel() {
+
+    private var timings: PhaseTimings? = null
+
+    private data class Phase(val name: String, val nanos: Long, val color: Color)
+
+    init {
+        border = JBUI.Borders.empty(12, 16)
+        preferredSize = Dimension(JBUI.scale(420), JBUI.scale(ROW_HEIGHT * 9))
+    }
+
+    fun setTimings(timings: PhaseTimings?) {
+        this.timings = timings
+        repaint()
+    }
+
+    override fun paintComponent(g: Graphics) {
+        super.paintComponent(g)
+        val g2 = g as Graphics2D
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON)
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON)
+        g2.font = Font("JetBrains Mono", Font.PLAIN, JBUI.scaleFontSize(12f))
+        val fm = g2.fontMetrics
+
+        val insets = insets
+        val t = timings
+        if (t == null) {
+            g2.color = JBColor.GRAY
+            g2.drawString("No timing data", insets.left, insets.top + fm.ascent)
+            return
+        }
+
+        val phases = listOf(
+            Phase("DNS", t.dnsNanos, DNS_COLOR),
+            Phase("Connect", t.connectNanos, CONNECT_COLOR),
+            Phase("TLS", t.tlsNanos, TLS_COLOR),
+            Phase("Send", t.sendNanos, SEND_COLOR),
+            Phase("Wait (TTFB)", t.waitNanos, WAIT_COLOR),
+            Phase("Download", t.downloadNanos, DOWNLOAD_COLOR)
+        )
+        val total = t.totalNanos().coerceAtLeast(1)
+
+        val rowHeight = JBUI.scale(ROW_HEIGHT)
+        val labelWidth = fm.stringWidth("Wait (TTFB)") + JBUI.scale(12)
+        val valueWidth = fm.stringWidth("00000.00 ms") + JBUI.scale(12)
+        val barX = insets.left + labelWidth
+        val barWidth = (width - insets.right - valueWidth - barX).coerceAtLeast(JBUI.scale(40))
+
+        var y = insets.top
+        var elapsed = 0L
+        for (phase in phases) {
+            g2.color = JBColor.foreground()
+            g2.drawString(phase.name, insets.left, y + fm.ascent)
+
+            if (phase.nanos < 0) {
+                // 引擎拿不到的阶段 (如 java.net.http 下的 DNS / TLS)
+                g2.color = JBColor.GRAY
+                g2.drawString("n/a", barX, y + fm.ascent)
+            } else {
+                val x = barX + (barWidth * elapsed / total).toInt()
+                val w = (barWidth * phase.nanos / total).toInt().coerceAtLeast(2)
+                g2.color = phase.color
+                g2.fillRoundRect(x, y + JBUI.scale(3), w, rowHeight - JBUI.scale(8), JBUI.scale(4), JBUI.scale(4))
+                g2.color = JBColor.foreground()
+                g2.drawString(formatMs(phase.nanos), barX + barWidth + JBUI.scale(8), y + fm.ascent)
+                elapsed += phase.nanos
+            }
+            y += rowHeight
+        }
+
+        // 汇总行
+        y += JBUI.scale(6)
+        g2.color = JBColor.border()
+        g2.drawLine(insets.left, y, width - insets.right, y)
+        y += JBUI.scale(6)
+        g2.color = JBColor.foreground()
+        g2.drawString("Total ${formatMs(t.totalNanos())}", insets.left, y + fm.ascent)
+        y += rowHeight
+
+        g2.color = JBColor.GRAY
+        val connection = when (t.connectionReused) {
+            true -> "Connection: reused"
+            false -> "Connection: new"
+            null -> "Connection: unknown"
+        }
+        g2.drawString("$connection  |  Engine: ${t.engine}", insets.left, y + fm.ascent)
+        y += rowHeight
+        if (t.bytesSent >= 0 && t.bytesReceived >= 0) {
+            g2.drawString("Wire: ${StringUtil.formatFileSize(t.bytesSent)} sent, ${StringUtil.formatFileSize(t.bytesReceived)} received",
+                insets.left, y + fm.ascent)
+        }
+    }
+
+    private fun formatMs(nanos: Long): String = "%.2f ms".format(nanos / 1_000_000.0)
+
+    companion object {
+        private const val ROW_HEIGHT = 22
+
+        private val DNS_COLOR = JBColor(Color(0, 150, 136), Color(38, 166, 154))
+        private val CONNECT_COLOR = JBColor(Color(255, 152, 0), Color(255, 167, 38))
+        private val TLS_COLOR = JBColor(Color(156, 39, 176), Color(171, 71, 188))
+        private val SEND_COLOR = JBColor(Color(96, 125, 139), Color(120, 144, 156))
+        private val WAIT_COLOR = JBColor(Color(76, 175, 80), Color(102, 187, 106))
+        private val DOWNLOAD_COLOR = JBColor(Color(33, 150, 243), Color(66, 165, 245))
+    }
+}
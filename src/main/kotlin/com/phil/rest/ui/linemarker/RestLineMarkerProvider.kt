@@ -44,6 +44,8 @@ class RestLineMarkerProvider : LineMarkerProvider {
                         val toolWindow = ToolWindowManager.getInstance(project).getToolWindow("RestPilot")
                         toolWindow?.show { // 使用 show() 确保窗口打开
                             val content = toolWindow.contentManager.getContent(0)
+                            // 可能停留在 Load 标签页，切回请求面板
+                            content?.let { toolWindow.contentManager.setSelectedContent(it) }
                             val mainPanel = content?.component as? RestClientMainPanel
                             mainPanel?.openApiFromCode(fullApiDef)
                         }